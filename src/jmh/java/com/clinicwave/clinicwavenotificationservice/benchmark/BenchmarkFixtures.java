@@ -0,0 +1,59 @@
+package com.clinicwave.clinicwavenotificationservice.benchmark;
+
+import com.clinicwave.clinicwavenotificationservice.config.TemplateEngineConfig;
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
+import com.clinicwave.clinicwavenotificationservice.template.EmailTemplateRenderer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.Map;
+
+/**
+ * This class provides the notifications and the Spring wiring shared by the benchmarks.
+ *
+ * @author agent on 10/18/26
+ */
+final class BenchmarkFixtures {
+  static final String TEMPLATE_NAME = "email-verification";
+
+  private BenchmarkFixtures() {
+  }
+
+  /**
+   * Creates an email verification notification request like the ones published by the user service.
+   *
+   * @return The notification request.
+   */
+  static NotificationRequestDto createVerificationRequest() {
+    return new NotificationRequestDto(
+            "patient@example.com",
+            "Verify your email address",
+            TEMPLATE_NAME,
+            Map.of(
+                    "userName", "Jane Doe",
+                    "verificationCode", "482913",
+                    "verificationLink", "https://clinicwave.example.com/verify?token=5f0c2d1e-8b7a-4c3d-9e6f-1a2b3c4d5e6f"
+            ),
+            NotificationTypeEnum.EMAIL,
+            NotificationCategoryEnum.VERIFICATION
+    );
+  }
+
+  /**
+   * Starts an application context holding the template engine and EmailTemplateRenderer as the application
+   * configures them, with the default template cache and render cache settings.
+   *
+   * @return The started application context; it must be closed after the benchmark.
+   */
+  static AnnotationConfigApplicationContext startTemplateContext() {
+    AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+    context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance());
+    context.registerBean(SimpleMeterRegistry.class);
+    context.register(TemplateEngineConfig.class, EmailTemplateRenderer.class);
+    context.refresh();
+    return context;
+  }
+}
@@ -0,0 +1,127 @@
+package com.clinicwave.clinicwavenotificationservice.benchmark;
+
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.mail.MimeBodyBuffer;
+import com.clinicwave.clinicwavenotificationservice.mail.MimeBodyBufferPool;
+import com.clinicwave.clinicwavenotificationservice.template.EmailTemplateRenderer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.activation.DataHandler;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeBodyPart;
+import jakarta.mail.internet.MimeMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class benchmarks building the MIME message of an email from an already rendered email-verification
+ * template, and writing it out as it would be sent over SMTP: from a String set through a MimeMessageHelper,
+ * and from a pooled body buffer streamed into the message the way the EmailNotificationStrategy does.
+ * The body is repeated {@code copies} times to stand for larger, newsletter-sized emails.
+ *
+ * @author agent on 10/18/26
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MimeMessageBenchmark {
+  private final JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+  private final MimeBodyBufferPool mimeBodyBufferPool = new MimeBodyBufferPool(new SimpleMeterRegistry(), 4, 16384, 4194304);
+  private NotificationRequestDto notificationRequestDto;
+  private String htmlContent;
+
+  @Param({"1", "50"})
+  private int copies;
+
+  /**
+   * Renders the email-verification template once for all invocations.
+   */
+  @Setup
+  public void setUp() {
+    notificationRequestDto = BenchmarkFixtures.createVerificationRequest();
+    try (AnnotationConfigApplicationContext context = BenchmarkFixtures.startTemplateContext()) {
+      htmlContent = context.getBean(EmailTemplateRenderer.class)
+              .render(notificationRequestDto.templateName(), notificationRequestDto.templateVariables())
+              .repeat(copies);
+    }
+  }
+
+  /**
+   * Builds the MIME message through a MimeMessageHelper.
+   *
+   * @return The built message.
+   * @throws MessagingException If the message cannot be built.
+   */
+  @Benchmark
+  public MimeMessage buildMimeMessage() throws MessagingException {
+    MimeMessage mimeMessage = mailSender.createMimeMessage();
+    MimeMessageHelper mimeMessageHelper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
+    mimeMessageHelper.setTo(notificationRequestDto.recipient());
+    mimeMessageHelper.setSubject(notificationRequestDto.subject());
+    mimeMessageHelper.setText(htmlContent, true);
+    return mimeMessage;
+  }
+
+  /**
+   * Builds the MIME message and writes it out, including the header updates done before a send.
+   *
+   * @return The built message.
+   * @throws MessagingException If the message cannot be built.
+   * @throws IOException        If the message cannot be written.
+   */
+  @Benchmark
+  public MimeMessage buildAndWriteMimeMessage() throws MessagingException, IOException {
+    MimeMessage mimeMessage = buildMimeMessage();
+    mimeMessage.saveChanges();
+    mimeMessage.writeTo(OutputStream.nullOutputStream());
+    return mimeMessage;
+  }
+
+  /**
+   * Writes the body into a pooled buffer, builds the MIME message streaming its HTML part from the buffer and
+   * writes it out, then returns the buffer to the pool.
+   *
+   * @return The built message.
+   * @throws MessagingException If the message cannot be built.
+   * @throws IOException        If the message cannot be written.
+   */
+  @Benchmark
+  public MimeMessage buildAndWriteBufferedMimeMessage() throws MessagingException, IOException {
+    MimeBodyBuffer mimeBodyBuffer = mimeBodyBufferPool.acquire();
+    try {
+      mimeBodyBuffer.writer().write(htmlContent);
+      MimeMessage mimeMessage = mailSender.createMimeMessage();
+      MimeMessageHelper mimeMessageHelper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
+      mimeMessageHelper.setTo(notificationRequestDto.recipient());
+      mimeMessageHelper.setSubject(notificationRequestDto.subject());
+      MimeBodyPart htmlPart = new MimeBodyPart();
+      htmlPart.setDataHandler(new DataHandler(mimeBodyBuffer));
+      htmlPart.setHeader("Content-Type", MimeBodyBuffer.CONTENT_TYPE);
+      htmlPart.setHeader("Content-Transfer-Encoding", mimeBodyBuffer.transferEncoding());
+      mimeMessageHelper.getMimeMultipart().addBodyPart(htmlPart);
+      mimeMessage.saveChanges();
+      mimeMessage.writeTo(OutputStream.nullOutputStream());
+      return mimeMessage;
+    } finally {
+      mimeBodyBufferPool.release(mimeBodyBuffer);
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package com.clinicwave.clinicwavenotificationservice.benchmark;
+
+import com.clinicwave.clinicwavenotificationservice.config.KafkaConsumerConfig;
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class benchmarks deserializing a notification request from Kafka through a JsonDeserializer configured
+ * like the consumers in KafkaConsumerConfig, both from a record carrying the type header written by the
+ * producer and from one without headers.
+ *
+ * @author agent on 10/18/26
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotificationRequestDeserializationBenchmark {
+  private static final String TOPIC = "notification-topic";
+
+  private JsonDeserializer<NotificationRequestDto> deserializer;
+  private byte[] payload;
+  private Headers typeHeaders;
+
+  /**
+   * Serializes a notification request the way the producer does and configures the deserializer.
+   */
+  @Setup
+  public void setUp() {
+    typeHeaders = new RecordHeaders();
+    try (JsonSerializer<NotificationRequestDto> serializer = new JsonSerializer<>()) {
+      serializer.configure(Map.of(JsonSerializer.TYPE_MAPPINGS,
+              "notificationRequest:com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto"), false);
+      payload = serializer.serialize(TOPIC, typeHeaders, BenchmarkFixtures.createVerificationRequest());
+    }
+
+    deserializer = new JsonDeserializer<>(NotificationRequestDto.class);
+    deserializer.configure(KafkaConsumerConfig.JSON_DESERIALIZER_PROPERTIES, false);
+  }
+
+  /**
+   * Closes the deserializer.
+   */
+  @TearDown
+  public void tearDown() {
+    deserializer.close();
+  }
+
+  /**
+   * Deserializes a record whose type is resolved through the type mapping in its headers.
+   *
+   * @return The notification request.
+   */
+  @Benchmark
+  public NotificationRequestDto deserializeWithTypeHeader() {
+    return deserializer.deserialize(TOPIC, typeHeaders, payload);
+  }
+
+  /**
+   * Deserializes a record without headers into the default type.
+   *
+   * @return The notification request.
+   */
+  @Benchmark
+  public NotificationRequestDto deserializeWithoutHeaders() {
+    return deserializer.deserialize(TOPIC, payload);
+  }
+}
@@ -0,0 +1,80 @@
+package com.clinicwave.clinicwavenotificationservice.benchmark;
+
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.mail.MimeBodyBuffer;
+import com.clinicwave.clinicwavenotificationservice.template.EmailTemplateRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class benchmarks rendering the bundled email-verification template through the EmailTemplateRenderer.
+ * The template is excluded from the render cache by default, so every invocation renders it, either into a
+ * String or streamed into a reused email body buffer.
+ *
+ * @author agent on 10/18/26
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemplateRenderingBenchmark {
+  private AnnotationConfigApplicationContext context;
+  private EmailTemplateRenderer emailTemplateRenderer;
+  private NotificationRequestDto notificationRequestDto;
+  private final MimeBodyBuffer mimeBodyBuffer = new MimeBodyBuffer(16384);
+
+  /**
+   * Starts the template engine.
+   */
+  @Setup
+  public void setUp() {
+    context = BenchmarkFixtures.startTemplateContext();
+    emailTemplateRenderer = context.getBean(EmailTemplateRenderer.class);
+    notificationRequestDto = BenchmarkFixtures.createVerificationRequest();
+  }
+
+  /**
+   * Stops the template engine.
+   */
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  /**
+   * Renders the email-verification template.
+   *
+   * @return The rendered HTML.
+   */
+  @Benchmark
+  public String renderEmailVerification() {
+    return emailTemplateRenderer.render(notificationRequestDto.templateName(), notificationRequestDto.templateVariables());
+  }
+
+  /**
+   * Renders the email-verification template into a reused body buffer, as the EmailNotificationStrategy does.
+   *
+   * @return The buffer holding the rendered HTML.
+   */
+  @Benchmark
+  public MimeBodyBuffer renderEmailVerificationIntoBuffer() {
+    mimeBodyBuffer.reset();
+    emailTemplateRenderer.render(notificationRequestDto.templateName(), notificationRequestDto.templateVariables(),
+            mimeBodyBuffer.writer());
+    return mimeBodyBuffer;
+  }
+}
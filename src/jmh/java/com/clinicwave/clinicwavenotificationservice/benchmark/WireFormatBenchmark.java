@@ -0,0 +1,125 @@
+package com.clinicwave.clinicwavenotificationservice.benchmark;
+
+import com.clinicwave.clinicwavenotificationservice.config.KafkaConsumerConfig;
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.serialization.NotificationRequestAvroCodec;
+import com.clinicwave.clinicwavenotificationservice.serialization.NotificationRequestDeserializer;
+import com.clinicwave.clinicwavenotificationservice.serialization.NotificationRequestSerializer;
+import com.clinicwave.clinicwavenotificationservice.serialization.NotificationWireFormat;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class benchmarks writing and reading a notification request through the serializer and deserializer
+ * configured in KafkaProducerConfig and KafkaConsumerConfig, in JSON and in Avro, and reports the size of the
+ * payload each format writes as the {@code payloadBytes} counter.
+ *
+ * @author agent on 10/18/26
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+  private static final String TOPIC = "notification-topic";
+
+  @Param({"JSON", "AVRO"})
+  private NotificationWireFormat format;
+
+  private NotificationRequestSerializer serializer;
+  private NotificationRequestDeserializer deserializer;
+  private NotificationRequestDto notificationRequestDto;
+  private byte[] payload;
+  private Headers headers;
+
+  /**
+   * Configures the serializer and deserializer to use the benchmarked format and serializes the request read
+   * by the deserialization benchmark.
+   */
+  @Setup
+  public void setUp() {
+    NotificationRequestAvroCodec codec = new NotificationRequestAvroCodec();
+    Set<String> avroTopics = format == NotificationWireFormat.AVRO ? Set.of(TOPIC) : Set.of();
+
+    serializer = new NotificationRequestSerializer(codec, avroTopics);
+    serializer.configure(Map.of(JsonSerializer.TYPE_MAPPINGS,
+            "notificationRequest:com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto"), false);
+    deserializer = new NotificationRequestDeserializer(new JsonDeserializer<>(NotificationRequestDto.class), codec, avroTopics);
+    deserializer.configure(KafkaConsumerConfig.JSON_DESERIALIZER_PROPERTIES, false);
+
+    notificationRequestDto = BenchmarkFixtures.createVerificationRequest();
+    headers = new RecordHeaders();
+    payload = serializer.serialize(TOPIC, headers, notificationRequestDto);
+  }
+
+  /**
+   * Closes the serializer and deserializer.
+   */
+  @TearDown
+  public void tearDown() {
+    serializer.close();
+    deserializer.close();
+  }
+
+  /**
+   * Serializes the request into the headers of a new record.
+   *
+   * @param payloadSize The counter the size of the serialized request is reported in.
+   * @return The serialized request.
+   */
+  @Benchmark
+  public byte[] serialize(PayloadSize payloadSize) {
+    byte[] data = serializer.serialize(TOPIC, new RecordHeaders(), notificationRequestDto);
+    payloadSize.payloadBytes = data.length;
+    return data;
+  }
+
+  /**
+   * Deserializes the request from a record written by the serializer.
+   *
+   * @return The notification request.
+   */
+  @Benchmark
+  public NotificationRequestDto deserialize() {
+    return deserializer.deserialize(TOPIC, headers, payload);
+  }
+
+  /**
+   * The size of the serialized request, reported next to the throughput.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class PayloadSize {
+    public long payloadBytes;
+
+    /**
+     * Resets the size before each iteration.
+     */
+    @Setup(Level.Iteration)
+    public void reset() {
+      payloadBytes = 0;
+    }
+  }
+}
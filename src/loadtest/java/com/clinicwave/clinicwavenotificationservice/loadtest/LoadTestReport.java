@@ -0,0 +1,111 @@
+package com.clinicwave.clinicwavenotificationservice.loadtest;
+
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class collects the end-to-end latencies of the notifications delivered during a load test, from being
+ * published to Kafka to being accepted by the SMTP sink, and summarizes them per category.
+ *
+ * @author agent on 10/18/26
+ */
+public class LoadTestReport {
+  private final Map<NotificationCategoryEnum, ConcurrentLinkedQueue<Long>> latencies = new EnumMap<>(NotificationCategoryEnum.class);
+
+  /**
+   * Constructor for the report.
+   */
+  public LoadTestReport() {
+    for (NotificationCategoryEnum category : NotificationCategoryEnum.values()) {
+      latencies.put(category, new ConcurrentLinkedQueue<>());
+    }
+  }
+
+  /**
+   * Records the delivery of a notification.
+   *
+   * @param category     The category of the notification.
+   * @param latencyNanos The time from publishing to delivering the notification, in nanoseconds.
+   */
+  public void recordDelivery(NotificationCategoryEnum category, long latencyNanos) {
+    latencies.get(category).add(latencyNanos);
+  }
+
+  /**
+   * Formats the report.
+   *
+   * @param published The number of notifications published.
+   * @param elapsed   The time from publishing the first notification to delivering the last one.
+   * @param sink      The SMTP sink the notifications were delivered to.
+   * @return The report as text.
+   */
+  public String format(int published, Duration elapsed, SmtpSink sink) {
+    List<String> lines = new ArrayList<>();
+    lines.add(String.format(Locale.ROOT, "Published %d notifications, delivered %d in %.1f s, %d undelivered",
+            published, delivered(), elapsed.toMillis() / 1000.0, published - delivered()));
+    lines.add(String.format(Locale.ROOT, "SMTP sink: %d connections, %d refused, %d messages rejected",
+            sink.getOpenedConnections(), sink.getRefusedConnections(), sink.getRejectedMessages()));
+    lines.add(String.format(Locale.ROOT, "%-14s %9s %12s %10s %10s %10s %10s",
+            "category", "delivered", "emails/s", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+
+    long[] all = latencies.values().stream().flatMap(ConcurrentLinkedQueue::stream).mapToLong(Long::longValue).toArray();
+    for (Map.Entry<NotificationCategoryEnum, ConcurrentLinkedQueue<Long>> entry : latencies.entrySet()) {
+      long[] category = entry.getValue().stream().mapToLong(Long::longValue).toArray();
+      if (category.length > 0) {
+        lines.add(formatRow(entry.getKey().name(), category, elapsed));
+      }
+    }
+    lines.add(formatRow("ALL", all, elapsed));
+    return String.join(System.lineSeparator(), lines);
+  }
+
+  /**
+   * Returns the number of notifications delivered so far.
+   *
+   * @return The number of deliveries.
+   */
+  public int delivered() {
+    return latencies.values().stream().mapToInt(ConcurrentLinkedQueue::size).sum();
+  }
+
+  /**
+   * Formats the throughput and latency percentiles of a set of deliveries.
+   *
+   * @param name      The name of the row.
+   * @param latencies The latencies of the deliveries, in nanoseconds.
+   * @param elapsed   The duration of the load test.
+   * @return The formatted row.
+   */
+  private static String formatRow(String name, long[] latencies, Duration elapsed) {
+    Arrays.sort(latencies);
+    double seconds = Math.max(elapsed.toNanos(), 1) / 1e9;
+    return String.format(Locale.ROOT, "%-14s %9d %12.1f %10.1f %10.1f %10.1f %10.1f",
+            name, latencies.length, latencies.length / seconds,
+            percentile(latencies, 0.50), percentile(latencies, 0.95), percentile(latencies, 0.99),
+            percentile(latencies, 1.0));
+  }
+
+  /**
+   * Returns a percentile of sorted latencies in milliseconds, using the nearest-rank method.
+   *
+   * @param sorted     The sorted latencies, in nanoseconds.
+   * @param percentile The percentile, between 0 and 1.
+   * @return The latency at the percentile, in milliseconds.
+   */
+  private static double percentile(long[] sorted, double percentile) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int rank = (int) Math.ceil(percentile * sorted.length);
+    return sorted[Math.max(rank, 1) - 1] / (double) TimeUnit.MILLISECONDS.toNanos(1);
+  }
+}
@@ -0,0 +1,228 @@
+package com.clinicwave.clinicwavenotificationservice.loadtest;
+
+import com.clinicwave.clinicwavenotificationservice.domain.SmtpSetting;
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
+import com.clinicwave.clinicwavenotificationservice.repository.SmtpSettingRepository;
+import com.clinicwave.clinicwavenotificationservice.service.SmtpSettingService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class is an end-to-end load test of the notification service.
+ * <p>
+ * It starts the application against an embedded Kafka broker and an in-process {@link SmtpSink}, publishes
+ * email notifications in the configured traffic mix and rate, and waits for the sink to accept them all.
+ * Without injected SMTP failures, the test fails unless every notification is delivered.
+ * The throughput and latency per category, from publishing to delivery, are logged and written to
+ * {@code target/load-test-report.txt}. Every {@code loadtest.*} setting, as well as any setting of the
+ * service such as {@code notification.kafka.listener.mode}, can be overridden with a system property.
+ *
+ * @author agent on 10/18/26
+ */
+@SpringBootTest(properties = {
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "spring.jpa.show-sql=false",
+        "notification.kafka.retry.auto-create-topics=true",
+        "notification.kafka.retry.initial-delay=PT1S",
+        "notification.kafka.retry.multiplier=2",
+        "notification.kafka.retry.max-delay=PT5S",
+        "logging.level.com.clinicwave.clinicwavenotificationservice=WARN"
+})
+@EmbeddedKafka(partitions = 4, topics = {
+        "notification-topic",
+        "notification-topic-system-alert",
+        "notification-topic-verification",
+        "notification-topic-general",
+        "notification-topic-marketing"
+})
+@Slf4j
+class NotificationLoadTest {
+  private static final String TOPIC = "notification-topic";
+  private static final Path REPORT = Path.of("target", "load-test-report.txt");
+
+  @Value("${loadtest.messages:2000}")
+  private int messages;
+
+  @Value("${loadtest.rate:0}")
+  private int rate;
+
+  @Value("${loadtest.mix:SYSTEM_ALERT=5,VERIFICATION=25,GENERAL=30,MARKETING=40}")
+  private String mix;
+
+  @Value("${loadtest.timeout:PT5M}")
+  private Duration timeout;
+
+  @Value("${loadtest.idle-timeout:PT30S}")
+  private Duration idleTimeout;
+
+  @Value("${loadtest.smtp.latency:PT0.005S}")
+  private Duration smtpLatency;
+
+  @Value("${loadtest.smtp.failure-rate:0.0}")
+  private double smtpFailureRate;
+
+  @Value("${loadtest.smtp.max-connections:16}")
+  private int smtpMaxConnections;
+
+  @Autowired
+  @Qualifier("notificationKafkaTemplate")
+  private KafkaTemplate<String, Object> kafkaTemplate;
+
+  @Autowired
+  private KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
+
+  @Autowired
+  private SmtpSettingRepository smtpSettingRepository;
+
+  @Autowired
+  private SmtpSettingService smtpSettingService;
+
+  private final Map<String, PendingDelivery> pendingDeliveries = new ConcurrentHashMap<>();
+  private final LoadTestReport report = new LoadTestReport();
+  private final AtomicLong lastDelivery = new AtomicLong();
+  private SmtpSink smtpSink;
+
+  /**
+   * Starts the SMTP sink and points the active SmtpSetting at it.
+   */
+  @BeforeEach
+  void setUp() throws Exception {
+    smtpSink = new SmtpSink(new SmtpSinkSettings(smtpLatency, smtpFailureRate, smtpMaxConnections), this::recordDelivery);
+    for (SmtpSetting smtpSetting : smtpSettingRepository.findAll()) {
+      smtpSetting.setHost("localhost");
+      smtpSetting.setPort(smtpSink.getPort());
+      smtpSetting.setAuth(false);
+      smtpSetting.setStarttlsEnable(false);
+      smtpSetting.setMaxMessagesPerSecond(null);
+      smtpSetting.setMaxMessagesPerHour(null);
+      smtpSettingRepository.save(smtpSetting);
+    }
+    smtpSettingService.refreshMailSender();
+  }
+
+  /**
+   * Stops the SMTP sink.
+   */
+  @AfterEach
+  void tearDown() throws Exception {
+    smtpSink.close();
+  }
+
+  @Test
+  @DisplayName("delivers the configured traffic mix and reports throughput and latency per category")
+  void deliversTrafficMix() throws Exception {
+    awaitPartitionAssignment();
+    TrafficMix trafficMix = TrafficMix.parse(mix);
+    Random random = new Random(42);
+    long intervalNanos = rate > 0 ? TimeUnit.SECONDS.toNanos(1) / rate : 0;
+
+    long start = System.nanoTime();
+    for (int i = 0; i < messages; i++) {
+      NotificationCategoryEnum category = trafficMix.next(random);
+      String recipient = "load-" + i + "@example.com";
+      pendingDeliveries.put(recipient, new PendingDelivery(category, System.nanoTime()));
+      kafkaTemplate.send(TOPIC, recipient, createNotificationRequestDto(recipient, category));
+      if (intervalNanos > 0) {
+        LockSupport.parkNanos(start + (i + 1) * intervalNanos - System.nanoTime());
+      }
+    }
+    kafkaTemplate.flush();
+
+    awaitDeliveries(start);
+    Duration elapsed = Duration.ofNanos(Math.max(lastDelivery.get(), start) - start);
+
+    String text = report.format(messages, elapsed, smtpSink);
+    log.warn("Load test report{}{}", System.lineSeparator(), text);
+    Files.createDirectories(REPORT.getParent());
+    Files.writeString(REPORT, text + System.lineSeparator());
+    if (smtpFailureRate == 0) {
+      assertEquals(messages, report.delivered(), "Not every notification was delivered within " + timeout);
+    }
+  }
+
+  /**
+   * Waits until every notification was delivered, no notification was delivered for the idle timeout, or
+   * the timeout has passed. With failures injected, notifications the listener mode does not retry are
+   * never delivered.
+   *
+   * @param start When the first notification was published, from {@link System#nanoTime()}.
+   */
+  private void awaitDeliveries(long start) throws InterruptedException {
+    long deadline = start + timeout.toNanos();
+    while (report.delivered() < messages && System.nanoTime() < deadline
+            && System.nanoTime() - Math.max(lastDelivery.get(), start) < idleTimeout.toNanos()) {
+      Thread.sleep(100);
+    }
+  }
+
+  /**
+   * Records the delivery of a notification the sink accepted.
+   *
+   * @param recipient The recipient of the notification.
+   */
+  private void recordDelivery(String recipient) {
+    PendingDelivery pendingDelivery = pendingDeliveries.remove(recipient);
+    if (pendingDelivery != null) {
+      long now = System.nanoTime();
+      report.recordDelivery(pendingDelivery.category(), now - pendingDelivery.publishedAt());
+      lastDelivery.accumulateAndGet(now, Math::max);
+    }
+  }
+
+  /**
+   * Waits until every running listener container has been assigned its partitions, so that no published
+   * notification is skipped by a consumer that starts reading at the end of its partitions.
+   */
+  private void awaitPartitionAssignment() throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+    for (MessageListenerContainer container : kafkaListenerEndpointRegistry.getAllListenerContainers()) {
+      while (container.isRunning() && (container.getAssignedPartitions() == null || container.getAssignedPartitions().isEmpty())) {
+        if (System.nanoTime() > deadline) {
+          fail("Listener container " + container.getListenerId() + " was not assigned any partitions");
+        }
+        Thread.sleep(100);
+      }
+    }
+  }
+
+  private static NotificationRequestDto createNotificationRequestDto(String recipient, NotificationCategoryEnum category) {
+    return new NotificationRequestDto(recipient, "Verify your email address", "email-verification",
+            Map.of("userName", "Load Test", "verificationCode", "482913",
+                    "verificationLink", "https://clinicwave.example.com/verify?token=load-test"),
+            NotificationTypeEnum.EMAIL, category);
+  }
+
+  /**
+   * A published notification waiting to be delivered.
+   *
+   * @param category    The category of the notification.
+   * @param publishedAt When the notification was published, from {@link System#nanoTime()}.
+   */
+  private record PendingDelivery(NotificationCategoryEnum category, long publishedAt) {
+  }
+}
@@ -0,0 +1,233 @@
+package com.clinicwave.clinicwavenotificationservice.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * This class is an in-process SMTP server that stands in for a relay during a load test.
+ * <p>
+ * It speaks just enough SMTP for the JavaMailSender: it accepts every sender and recipient, takes the
+ * configured latency to accept each message, rejects the configured share of messages with a temporary
+ * failure and refuses connections beyond the configured limit. Every accepted recipient is reported to a
+ * listener, so that the load test can tell when each notification was delivered.
+ *
+ * @author agent on 10/18/26
+ */
+@Slf4j
+public class SmtpSink implements AutoCloseable {
+  private final SmtpSinkSettings settings;
+  private final Consumer<String> deliveryListener;
+  private final ServerSocket serverSocket;
+  private final Semaphore connections;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+  private final AtomicLong acceptedMessages = new AtomicLong();
+  private final AtomicLong rejectedMessages = new AtomicLong();
+  private final AtomicLong refusedConnections = new AtomicLong();
+  private final AtomicLong openedConnections = new AtomicLong();
+
+  /**
+   * Starts the sink on a free port of the loopback interface.
+   *
+   * @param settings         The behaviour of the sink.
+   * @param deliveryListener Called with the recipient of every accepted message.
+   * @throws IOException If the server socket cannot be opened.
+   */
+  public SmtpSink(SmtpSinkSettings settings, Consumer<String> deliveryListener) throws IOException {
+    this.settings = settings;
+    this.deliveryListener = deliveryListener;
+    this.connections = new Semaphore(settings.maxConnections());
+    this.serverSocket = new ServerSocket(0, 100, InetAddress.getLoopbackAddress());
+    executor.execute(this::acceptConnections);
+  }
+
+  /**
+   * Returns the port the sink listens on.
+   *
+   * @return The port.
+   */
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  /**
+   * Returns the number of messages the sink accepted.
+   *
+   * @return The count.
+   */
+  public long getAcceptedMessages() {
+    return acceptedMessages.get();
+  }
+
+  /**
+   * Returns the number of messages the sink rejected with an injected failure.
+   *
+   * @return The count.
+   */
+  public long getRejectedMessages() {
+    return rejectedMessages.get();
+  }
+
+  /**
+   * Returns the number of connections refused because of the connection limit.
+   *
+   * @return The count.
+   */
+  public long getRefusedConnections() {
+    return refusedConnections.get();
+  }
+
+  /**
+   * Returns the number of connections the sink served.
+   *
+   * @return The count.
+   */
+  public long getOpenedConnections() {
+    return openedConnections.get();
+  }
+
+  /**
+   * Stops accepting connections and closes the open ones.
+   */
+  @Override
+  public void close() throws IOException {
+    serverSocket.close();
+    executor.shutdownNow();
+  }
+
+  /**
+   * Accepts connections until the sink is closed, refusing the ones beyond the connection limit.
+   */
+  private void acceptConnections() {
+    while (!serverSocket.isClosed()) {
+      try {
+        Socket socket = serverSocket.accept();
+        if (connections.tryAcquire()) {
+          openedConnections.incrementAndGet();
+          executor.execute(() -> serve(socket));
+        } else {
+          refusedConnections.incrementAndGet();
+          try (socket) {
+            reply(socket.getOutputStream(), "421 4.7.0 Too many connections");
+          }
+        }
+      } catch (SocketException e) {
+        // The sink was closed.
+      } catch (IOException e) {
+        log.warn("SMTP sink failed to accept a connection", e);
+      }
+    }
+  }
+
+  /**
+   * Serves one SMTP session.
+   *
+   * @param socket The connection of the session.
+   */
+  private void serve(Socket socket) {
+    try (socket) {
+      BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+      OutputStream out = socket.getOutputStream();
+      reply(out, "220 localhost SMTP sink ready");
+
+      List<String> recipients = new ArrayList<>();
+      String line;
+      while ((line = in.readLine()) != null) {
+        String command = line.length() < 4 ? line.toUpperCase(Locale.ROOT) : line.substring(0, 4).toUpperCase(Locale.ROOT);
+        switch (command) {
+          case "EHLO", "HELO" -> reply(out, "250 localhost");
+          case "MAIL" -> {
+            recipients.clear();
+            reply(out, "250 2.1.0 Ok");
+          }
+          case "RCPT" -> {
+            recipients.add(line.substring(line.indexOf('<') + 1, line.lastIndexOf('>')));
+            reply(out, "250 2.1.5 Ok");
+          }
+          case "DATA" -> {
+            reply(out, "354 End data with <CR><LF>.<CR><LF>");
+            readMessage(in);
+            acceptMessage(out, recipients);
+          }
+          case "RSET" -> {
+            recipients.clear();
+            reply(out, "250 2.0.0 Ok");
+          }
+          case "NOOP" -> reply(out, "250 2.0.0 Ok");
+          case "QUIT" -> {
+            reply(out, "221 2.0.0 Bye");
+            return;
+          }
+          default -> reply(out, "502 5.5.2 Command not recognized");
+        }
+      }
+    } catch (IOException e) {
+      log.debug("SMTP sink session ended", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      connections.release();
+    }
+  }
+
+  /**
+   * Takes the configured latency to accept a message, and rejects it at the configured failure rate.
+   *
+   * @param out        The stream to reply on.
+   * @param recipients The recipients of the message.
+   */
+  private void acceptMessage(OutputStream out, List<String> recipients) throws IOException, InterruptedException {
+    if (!settings.latency().isZero()) {
+      Thread.sleep(settings.latency());
+    }
+    if (ThreadLocalRandom.current().nextDouble() < settings.failureRate()) {
+      rejectedMessages.incrementAndGet();
+      reply(out, "451 4.3.0 Temporary failure injected by the SMTP sink");
+      return;
+    }
+    acceptedMessages.incrementAndGet();
+    recipients.forEach(deliveryListener);
+    reply(out, "250 2.0.0 Ok: queued");
+  }
+
+  /**
+   * Reads the content of a message up to the line holding a single dot.
+   *
+   * @param in The stream to read from.
+   */
+  private static void readMessage(BufferedReader in) throws IOException {
+    String line;
+    while ((line = in.readLine()) != null && !line.equals(".")) {
+      // The content itself is not needed.
+    }
+  }
+
+  /**
+   * Writes a reply line.
+   *
+   * @param out   The stream to reply on.
+   * @param reply The reply, without the line terminator.
+   */
+  private static void reply(OutputStream out, String reply) throws IOException {
+    out.write((reply + "\r\n").getBytes(StandardCharsets.US_ASCII));
+    out.flush();
+  }
+}
@@ -0,0 +1,14 @@
+package com.clinicwave.clinicwavenotificationservice.loadtest;
+
+import java.time.Duration;
+
+/**
+ * This record holds the behaviour of the {@link SmtpSink} standing in for an SMTP relay during a load test.
+ *
+ * @param latency        How long the sink takes to accept each message.
+ * @param failureRate    The share of messages the sink rejects with a temporary failure, between 0 and 1.
+ * @param maxConnections The maximum number of open connections; further connections are refused.
+ * @author agent on 10/18/26
+ */
+public record SmtpSinkSettings(Duration latency, double failureRate, int maxConnections) {
+}
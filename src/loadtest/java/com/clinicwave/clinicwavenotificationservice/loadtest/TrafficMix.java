@@ -0,0 +1,67 @@
+package com.clinicwave.clinicwavenotificationservice.loadtest;
+
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * This class picks the categories of the notifications a load test publishes, in proportion to their weights.
+ *
+ * @author agent on 10/18/26
+ */
+public class TrafficMix {
+  private final NotificationCategoryEnum[] categories;
+  private final double[] cumulativeWeights;
+
+  /**
+   * Constructor for the traffic mix.
+   *
+   * @param weights The weight of every category to publish; categories that are left out are not published.
+   */
+  public TrafficMix(Map<NotificationCategoryEnum, Double> weights) {
+    Map<NotificationCategoryEnum, Double> sorted = new EnumMap<>(weights);
+    this.categories = sorted.keySet().toArray(new NotificationCategoryEnum[0]);
+    this.cumulativeWeights = new double[categories.length];
+    double total = 0;
+    for (int i = 0; i < categories.length; i++) {
+      total += sorted.get(categories[i]);
+      cumulativeWeights[i] = total;
+    }
+    if (total <= 0) {
+      throw new IllegalArgumentException("The traffic mix needs at least one category with a positive weight");
+    }
+  }
+
+  /**
+   * Parses a traffic mix such as {@code VERIFICATION=30,MARKETING=70}.
+   *
+   * @param mix The comma-separated category weights.
+   * @return The traffic mix.
+   */
+  public static TrafficMix parse(String mix) {
+    Map<NotificationCategoryEnum, Double> weights = new EnumMap<>(NotificationCategoryEnum.class);
+    for (String entry : mix.split(",")) {
+      String[] parts = entry.trim().split("=");
+      weights.put(NotificationCategoryEnum.valueOf(parts[0].trim()), Double.parseDouble(parts[1].trim()));
+    }
+    return new TrafficMix(weights);
+  }
+
+  /**
+   * Picks the category of the next notification.
+   *
+   * @param random The source of randomness.
+   * @return The category.
+   */
+  public NotificationCategoryEnum next(RandomGenerator random) {
+    double point = random.nextDouble(cumulativeWeights[cumulativeWeights.length - 1]);
+    for (int i = 0; i < categories.length; i++) {
+      if (point < cumulativeWeights[i]) {
+        return categories[i];
+      }
+    }
+    return categories[categories.length - 1];
+  }
+}
@@ -1,33 +1,128 @@
 package com.clinicwave.clinicwavenotificationservice.config;
 
 import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.exception.InvalidNotificationTypeException;
+import com.clinicwave.clinicwavenotificationservice.exception.TemplateProcessingException;
+import com.clinicwave.clinicwavenotificationservice.listener.JitteredRetryBackoff;
+import com.clinicwave.clinicwavenotificationservice.listener.ParallelNotificationListener;
+import com.clinicwave.clinicwavenotificationservice.listener.RetryTopicSettings;
+import com.clinicwave.clinicwavenotificationservice.metrics.NotificationStageMetrics;
+import com.clinicwave.clinicwavenotificationservice.metrics.TimedNotificationDeserializer;
+import com.clinicwave.clinicwavenotificationservice.serialization.NotificationRequestAvroCodec;
+import com.clinicwave.clinicwavenotificationservice.serialization.NotificationRequestDeserializer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.retrytopic.DeadLetterPublishingRecovererFactory;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationSupport;
+import org.springframework.kafka.retrytopic.RetryTopicSchedulerWrapper;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * This class is responsible for configuring the Kafka Consumer.
  * It sets the bootstrap servers, group ID, key deserializer, and value deserializer.
+ * <p>
+ * Besides the default record listener container, it configures a batch listener container that
+ * hands a whole poll to the listener, and a parallel listener container whose offsets are committed by the
+ * listener itself; which one is started depends on {@code notification.kafka.listener.mode}.
+ * <p>
+ * Notifications that fail on the record listener are retried through retry topics rather than in place, so a
+ * failing notification does not hold up the rest of its partition. The retries back off exponentially with
+ * jitter, and notifications that fail with an error retrying cannot fix go straight to the dead-letter topic.
+ * <p>
+ * Every consumer times the deserialization of the notification requests it reads. Requests are read in JSON
+ * or Avro, as named by their content-type header; records without one are read in Avro on the topics listed in
+ * {@code notification.kafka.wire-format.avro-topics} and in JSON elsewhere.
  *
  * @author aamir on 8/21/24
  */
 @Configuration
-public class KafkaConsumerConfig {
+public class KafkaConsumerConfig extends RetryTopicConfigurationSupport {
   @Value("${spring.kafka.bootstrap-servers}")
   private String bootstrapServers;
 
+  @Value("${notification.kafka.concurrency:1}")
+  private int concurrency;
+
+  @Value("${notification.kafka.batch.max-size:100}")
+  private int batchMaxSize;
+
+  @Value("${notification.kafka.batch.max-wait:PT0.5S}")
+  private Duration batchMaxWait;
+
+  @Value("${notification.kafka.batch.min-bytes:65536}")
+  private int batchMinBytes;
+
+  @Value("${notification.virtual-threads.enabled:false}")
+  private boolean virtualThreadsEnabled;
+
+  @Value("${notification.kafka.retry.attempts:4}")
+  private int retryAttempts;
+
+  @Value("${notification.kafka.retry.initial-delay:PT10S}")
+  private Duration retryInitialDelay;
+
+  @Value("${notification.kafka.retry.multiplier:6}")
+  private double retryMultiplier;
+
+  @Value("${notification.kafka.retry.max-delay:PT10M}")
+  private Duration retryMaxDelay;
+
+  @Value("${notification.kafka.retry.jitter:0.2}")
+  private double retryJitter;
+
+  @Value("${notification.kafka.wire-format.avro-topics:}")
+  private Set<String> avroTopics;
+
   private static final String GROUP_ID = "notification-group";
 
+  /**
+   * The configuration the JsonDeserializer of notification requests is configured with.
+   */
+  public static final Map<String, Object> JSON_DESERIALIZER_PROPERTIES = Map.of(
+          JsonDeserializer.TRUSTED_PACKAGES, "com.clinicwave.clinicwavenotificationservice.dto",
+          JsonDeserializer.TYPE_MAPPINGS, "notificationRequest:com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto"
+  );
+  private static final List<Class<? extends Throwable>> NON_RETRYABLE_ERRORS = List.of(
+          TemplateProcessingException.class,
+          InvalidNotificationTypeException.class
+  );
+
+  private final NotificationStageMetrics notificationStageMetrics;
+  private final NotificationRequestAvroCodec notificationRequestAvroCodec;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param notificationStageMetrics     The metrics the deserialization time of notification requests is recorded in.
+   * @param notificationRequestAvroCodec The codec notification requests in Avro are read with.
+   */
+  @Autowired
+  public KafkaConsumerConfig(NotificationStageMetrics notificationStageMetrics,
+                             NotificationRequestAvroCodec notificationRequestAvroCodec) {
+    this.notificationStageMetrics = notificationStageMetrics;
+    this.notificationRequestAvroCodec = notificationRequestAvroCodec;
+  }
+
   /**
    * This method creates a ConsumerFactory object with the configuration properties.
    *
@@ -35,19 +130,23 @@ public class KafkaConsumerConfig {
    */
   @Bean
   public ConsumerFactory<String, NotificationRequestDto> consumerFactory() {
-    Map<String, Object> props = new HashMap<>();
-    props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-    props.put(ConsumerConfig.GROUP_ID_CONFIG, GROUP_ID);
-    props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-    props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
-    props.put(JsonDeserializer.TRUSTED_PACKAGES, "com.clinicwave.clinicwavenotificationservice.dto");
-    props.put(JsonDeserializer.TYPE_MAPPINGS, "notificationRequest:com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto");
+    return createConsumerFactory(consumerProperties());
+  }
 
-    return new DefaultKafkaConsumerFactory<>(
-            props,
-            new StringDeserializer(),
-            new ErrorHandlingDeserializer<>(new JsonDeserializer<>(NotificationRequestDto.class))
-    );
+  /**
+   * This method creates a ConsumerFactory object for the batch listener.
+   * The broker holds each fetch for up to the configured max wait until enough data has accumulated,
+   * and a single poll returns at most the configured max batch size.
+   *
+   * @return ConsumerFactory object
+   */
+  @Bean
+  public ConsumerFactory<String, NotificationRequestDto> batchConsumerFactory() {
+    Map<String, Object> props = consumerProperties();
+    props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchMaxSize);
+    props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, (int) batchMaxWait.toMillis());
+    props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, batchMinBytes);
+    return createConsumerFactory(props);
   }
 
   /**
@@ -59,6 +158,132 @@ public class KafkaConsumerConfig {
   public ConcurrentKafkaListenerContainerFactory<String, NotificationRequestDto> kafkaListenerContainerFactory() {
     ConcurrentKafkaListenerContainerFactory<String, NotificationRequestDto> factory = new ConcurrentKafkaListenerContainerFactory<>();
     factory.setConsumerFactory(consumerFactory());
+    configureContainer(factory);
+    return factory;
+  }
+
+  /**
+   * This method creates a ConcurrentKafkaListenerContainerFactory object that delivers each poll as a batch.
+   *
+   * @return ConcurrentKafkaListenerContainerFactory object
+   */
+  @Bean
+  public ConcurrentKafkaListenerContainerFactory<String, NotificationRequestDto> batchKafkaListenerContainerFactory() {
+    ConcurrentKafkaListenerContainerFactory<String, NotificationRequestDto> factory = new ConcurrentKafkaListenerContainerFactory<>();
+    factory.setConsumerFactory(batchConsumerFactory());
+    factory.setBatchListener(true);
+    configureContainer(factory);
+    return factory;
+  }
+
+  /**
+   * This method creates a ConcurrentKafkaListenerContainerFactory object for the key-ordered parallel listener.
+   * It delivers each poll as a batch and leaves committing offsets to the listener, which only commits
+   * records that were fully processed. The listener is told about rebalances, so that it forgets the partitions
+   * taken from its consumers. It is injected lazily, since the listener's endpoint is registered while the listener
+   * itself is still being created and resolves this factory.
+   *
+   * @param parallelNotificationListener The listener the container delivers to.
+   * @return ConcurrentKafkaListenerContainerFactory object
+   */
+  @Bean
+  public ConcurrentKafkaListenerContainerFactory<String, NotificationRequestDto> parallelKafkaListenerContainerFactory(
+          @Lazy ParallelNotificationListener parallelNotificationListener) {
+    ConcurrentKafkaListenerContainerFactory<String, NotificationRequestDto> factory = new ConcurrentKafkaListenerContainerFactory<>();
+    factory.setConsumerFactory(batchConsumerFactory());
+    factory.setBatchListener(true);
+    factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+    factory.getContainerProperties().setConsumerRebalanceListener(parallelNotificationListener);
+    configureContainer(factory);
     return factory;
   }
+
+  /**
+   * This method creates the settings of the retry topics failed notifications are retried through.
+   *
+   * @return RetryTopicSettings object
+   */
+  @Bean
+  public RetryTopicSettings retryTopicSettings() {
+    return new RetryTopicSettings(retryAttempts, retryInitialDelay, retryMultiplier, retryMaxDelay, retryJitter, NON_RETRYABLE_ERRORS);
+  }
+
+  /**
+   * This method creates the scheduler that resumes retry topic partitions once their next record is due.
+   *
+   * @return RetryTopicSchedulerWrapper object
+   */
+  @Bean
+  public RetryTopicSchedulerWrapper retryTopicSchedulerWrapper() {
+    ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+    scheduler.setThreadNamePrefix("notification-retry-");
+    return new RetryTopicSchedulerWrapper(scheduler);
+  }
+
+  /**
+   * Sends notifications that failed with a non-retryable error straight to the dead-letter topic.
+   *
+   * @param nonBlockingFatalExceptions The exceptions that are not retried.
+   */
+  @Override
+  protected void manageNonBlockingFatalExceptions(List<Class<? extends Throwable>> nonBlockingFatalExceptions) {
+    nonBlockingFatalExceptions.addAll(NON_RETRYABLE_ERRORS);
+  }
+
+  /**
+   * Adds the jittered backoff to the records published to the retry topics.
+   *
+   * @return The customizer of the dead-letter publishing recoverer factory.
+   */
+  @Override
+  protected Consumer<DeadLetterPublishingRecovererFactory> configureDeadLetterPublishingContainerFactory() {
+    JitteredRetryBackoff jitteredRetryBackoff = new JitteredRetryBackoff(retryTopicSettings(), Clock.systemUTC());
+    return factory -> factory.setHeadersFunction(jitteredRetryBackoff::nextAttemptHeaders);
+  }
+
+  /**
+   * Applies the consumer concurrency and, when virtual threads are enabled, runs the consumers of the
+   * given container factory on virtual threads.
+   *
+   * @param factory The container factory to configure.
+   */
+  private void configureContainer(ConcurrentKafkaListenerContainerFactory<String, NotificationRequestDto> factory) {
+    factory.setConcurrency(concurrency);
+    if (virtualThreadsEnabled) {
+      SimpleAsyncTaskExecutor listenerTaskExecutor = new SimpleAsyncTaskExecutor("notification-consumer-");
+      listenerTaskExecutor.setVirtualThreads(true);
+      factory.getContainerProperties().setListenerTaskExecutor(listenerTaskExecutor);
+    }
+  }
+
+  /**
+   * Builds the configuration properties shared by every consumer.
+   *
+   * @return A mutable map of consumer configuration properties.
+   */
+  private Map<String, Object> consumerProperties() {
+    Map<String, Object> props = new HashMap<>();
+    props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+    props.put(ConsumerConfig.GROUP_ID_CONFIG, GROUP_ID);
+    props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+    props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+    props.putAll(JSON_DESERIALIZER_PROPERTIES);
+    return props;
+  }
+
+  /**
+   * Creates a ConsumerFactory with String keys and timed JSON or Avro NotificationRequestDto values.
+   *
+   * @param props The consumer configuration properties.
+   * @return ConsumerFactory object
+   */
+  private ConsumerFactory<String, NotificationRequestDto> createConsumerFactory(Map<String, Object> props) {
+    return new DefaultKafkaConsumerFactory<>(
+            props,
+            new StringDeserializer(),
+            new ErrorHandlingDeserializer<>(new TimedNotificationDeserializer(new NotificationRequestDeserializer(
+                    new JsonDeserializer<>(NotificationRequestDto.class), notificationRequestAvroCodec, avroTopics),
+                    notificationStageMetrics))
+    );
+  }
 }
@@ -0,0 +1,83 @@
+package com.clinicwave.clinicwavenotificationservice.config;
+
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.serialization.NotificationRequestAvroCodec;
+import com.clinicwave.clinicwavenotificationservice.serialization.NotificationRequestSerializer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class is responsible for configuring the Kafka Producer.
+ * The producer publishes failed notification requests to the retry and dead-letter topics. Requests are
+ * written as JSON with the same type mapping the consumer reads them with; records that could not be
+ * deserialized in the first place are passed on as the raw bytes they arrived as.
+ * <p>
+ * Requests published to the topics listed in {@code notification.kafka.wire-format.avro-topics} are written in
+ * Avro instead; every request carries its format in the content-type header.
+ *
+ * @author agent on 10/18/26
+ */
+@Configuration
+public class KafkaProducerConfig {
+  @Value("${spring.kafka.bootstrap-servers}")
+  private String bootstrapServers;
+
+  @Value("${notification.kafka.wire-format.avro-topics:}")
+  private Set<String> avroTopics;
+
+  private final NotificationRequestAvroCodec notificationRequestAvroCodec;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param notificationRequestAvroCodec The codec notification requests are written in Avro with.
+   */
+  @Autowired
+  public KafkaProducerConfig(NotificationRequestAvroCodec notificationRequestAvroCodec) {
+    this.notificationRequestAvroCodec = notificationRequestAvroCodec;
+  }
+
+  /**
+   * This method creates a ProducerFactory object with the configuration properties.
+   *
+   * @return ProducerFactory object
+   */
+  @Bean
+  public ProducerFactory<String, Object> producerFactory() {
+    Map<String, Object> props = new HashMap<>();
+    props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+    props.put(ProducerConfig.ACKS_CONFIG, "all");
+    props.put(JsonSerializer.TYPE_MAPPINGS, "notificationRequest:com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto");
+
+    Map<Class<?>, Serializer<?>> valueSerializers = Map.of(
+            NotificationRequestDto.class, new NotificationRequestSerializer(notificationRequestAvroCodec, avroTopics),
+            byte[].class, new ByteArraySerializer()
+    );
+    return new DefaultKafkaProducerFactory<>(props, new StringSerializer(), new DelegatingByTypeSerializer(valueSerializers));
+  }
+
+  /**
+   * This method creates a KafkaTemplate object with the ProducerFactory object.
+   *
+   * @return KafkaTemplate object
+   */
+  @Bean
+  public KafkaTemplate<String, Object> notificationKafkaTemplate() {
+    return new KafkaTemplate<>(producerFactory());
+  }
+}
@@ -0,0 +1,76 @@
+package com.clinicwave.clinicwavenotificationservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * This class is responsible for configuring the threads notifications are sent on.
+ * <p>
+ * By default, notifications are sent on platform threads: the dispatch workers and, for batches, the calling
+ * thread. When {@code notification.virtual-threads.enabled} is set, they run on virtual threads instead and
+ * the chunks of a batch are fanned out over up to {@code notification.virtual-threads.max-concurrency} virtual
+ * threads, so that many SMTP round trips can be in flight without holding a platform thread each. The sends
+ * themselves are limited by the notification lanes, in which every send holds a place.
+ *
+ * @author agent on 10/18/26
+ */
+@Configuration
+@Slf4j
+public class NotificationExecutorConfig {
+  @Value("${notification.virtual-threads.enabled:false}")
+  private boolean virtualThreadsEnabled;
+
+  @Value("${notification.virtual-threads.max-concurrency:200}")
+  private int maxConcurrency;
+
+  /**
+   * This method creates the TaskExecutor used to fan batches of notifications out.
+   * With virtual threads enabled, every task gets its own virtual thread and callers block once
+   * the concurrency limit is reached; otherwise tasks run on the calling thread.
+   *
+   * @return TaskExecutor object
+   */
+  @Bean
+  public TaskExecutor notificationSendExecutor() {
+    if (!virtualThreadsEnabled) {
+      return new SyncTaskExecutor();
+    }
+    log.info("Sending notifications on virtual threads with a concurrency limit of {}", maxConcurrency);
+    SimpleAsyncTaskExecutor executor = createVirtualThreadExecutor("notification-send-");
+    executor.setConcurrencyLimit(maxConcurrency);
+    return executor;
+  }
+
+  /**
+   * This method creates the ThreadFactory used by the notification dispatch workers.
+   *
+   * @return ThreadFactory object
+   */
+  @Bean
+  public ThreadFactory notificationWorkerThreadFactory() {
+    if (virtualThreadsEnabled) {
+      return Thread.ofVirtual().name("notification-worker-", 1).factory();
+    }
+    return new CustomizableThreadFactory("notification-worker-");
+  }
+
+  /**
+   * Creates a SimpleAsyncTaskExecutor that starts a new virtual thread for every task.
+   *
+   * @param threadNamePrefix The prefix of the thread names.
+   * @return SimpleAsyncTaskExecutor object
+   */
+  private SimpleAsyncTaskExecutor createVirtualThreadExecutor(String threadNamePrefix) {
+    SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+    executor.setVirtualThreads(true);
+    return executor;
+  }
+}
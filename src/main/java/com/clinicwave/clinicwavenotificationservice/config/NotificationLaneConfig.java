@@ -0,0 +1,84 @@
+package com.clinicwave.clinicwavenotificationservice.config;
+
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
+import com.clinicwave.clinicwavenotificationservice.lane.LaneSettings;
+import com.clinicwave.clinicwavenotificationservice.lane.NotificationLaneSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class is responsible for configuring the notification lanes.
+ * <p>
+ * The settings of each category's lane are read from {@code notification.lanes.<category>.*}, where the
+ * category is written in lower case with dashes, e.g. {@code notification.lanes.system-alert.concurrency}.
+ * EMAIL and SMS have lanes of their own: the EMAIL capacity defaults to the size of the SMTP connection pool, and
+ * the SMS capacity is set separately. The concurrency of each lane defaults to the EMAIL capacity and is capped
+ * by the capacity of each channel, so that the lanes can use every place unless they are limited explicitly. WEB
+ * notifications are pushed to connected clients without a relay and take no place in a lane.
+ *
+ * @author agent on 10/18/26
+ */
+@Configuration
+public class NotificationLaneConfig {
+  /**
+   * The property placeholder of the EMAIL lane capacity, shared with the listeners whose concurrency defaults to it.
+   */
+  public static final String CAPACITY = "${notification.lanes.capacity:${notification.smtp.pool.max-size:8}}";
+
+  @Value(CAPACITY)
+  private int capacity;
+
+  @Value("${notification.lanes.sms-capacity:8}")
+  private int smsCapacity;
+
+  @Value("${notification.lanes.acquire-timeout:PT30S}")
+  private Duration acquireTimeout;
+
+  @Value("${notification.lanes.priority:SYSTEM_ALERT,VERIFICATION,GENERAL,MARKETING}")
+  private List<NotificationCategoryEnum> priority;
+
+  private static final Map<NotificationCategoryEnum, Integer> DEFAULT_RESERVED_CAPACITY = Map.of(
+          NotificationCategoryEnum.SYSTEM_ALERT, 1,
+          NotificationCategoryEnum.VERIFICATION, 2,
+          NotificationCategoryEnum.GENERAL, 1,
+          NotificationCategoryEnum.MARKETING, 0
+  );
+
+  private static final Map<NotificationCategoryEnum, Duration> DEFAULT_LATENCY_SLO = Map.of(
+          NotificationCategoryEnum.SYSTEM_ALERT, Duration.ofSeconds(10),
+          NotificationCategoryEnum.VERIFICATION, Duration.ofSeconds(10),
+          NotificationCategoryEnum.GENERAL, Duration.ofMinutes(1),
+          NotificationCategoryEnum.MARKETING, Duration.ofMinutes(30)
+  );
+
+  /**
+   * This method creates the settings of the notification lanes.
+   *
+   * @param environment The environment the lane properties are read from.
+   * @return NotificationLaneSettings object
+   */
+  @Bean
+  public NotificationLaneSettings notificationLaneSettings(Environment environment) {
+    Map<NotificationCategoryEnum, LaneSettings> lanes = new EnumMap<>(NotificationCategoryEnum.class);
+    for (NotificationCategoryEnum category : NotificationCategoryEnum.values()) {
+      String prefix = "notification.lanes." + category.name().toLowerCase().replace('_', '-') + ".";
+      lanes.put(category, new LaneSettings(
+              environment.getProperty(prefix + "concurrency", Integer.class, capacity),
+              environment.getProperty(prefix + "reserved-capacity", Integer.class, DEFAULT_RESERVED_CAPACITY.get(category)),
+              environment.getProperty(prefix + "latency-slo", Duration.class, DEFAULT_LATENCY_SLO.get(category))
+      ));
+    }
+    Map<NotificationTypeEnum, Integer> capacities = new EnumMap<>(NotificationTypeEnum.class);
+    capacities.put(NotificationTypeEnum.EMAIL, capacity);
+    capacities.put(NotificationTypeEnum.SMS, smsCapacity);
+    return new NotificationLaneSettings(capacities, acquireTimeout, priority, lanes);
+  }
+}
@@ -0,0 +1,31 @@
+package com.clinicwave.clinicwavenotificationservice.config;
+
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * This class is responsible for configuring the metrics of the notification pipeline.
+ * <p>
+ * The stage timers are tagged by template name, which comes from the notification requests. To keep requests
+ * naming templates that do not exist from creating a time series each, only the first
+ * {@code notification.metrics.max-template-tags} template names are timed.
+ *
+ * @author agent on 10/18/26
+ */
+@Configuration
+public class NotificationMetricsConfig {
+  @Value("${notification.metrics.max-template-tags:100}")
+  private int maxTemplateTags;
+
+  /**
+   * This method creates the MeterFilter limiting the template names the stage timers are tagged with.
+   *
+   * @return MeterFilter object
+   */
+  @Bean
+  public MeterFilter notificationStageTemplateFilter() {
+    return MeterFilter.maximumAllowableTags("notification.stage", "template", maxTemplateTags, MeterFilter.deny());
+  }
+}
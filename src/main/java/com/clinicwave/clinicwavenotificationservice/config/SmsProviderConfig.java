@@ -0,0 +1,84 @@
+package com.clinicwave.clinicwavenotificationservice.config;
+
+import com.clinicwave.clinicwavenotificationservice.sms.SmsProviderClient;
+import com.clinicwave.clinicwavenotificationservice.sms.SmsProviderSettings;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * This class is responsible for configuring the SMS provider the SmsNotificationStrategy sends through.
+ * It is only active when {@code notification.sms.enabled} is on; otherwise SMS notifications are rejected as
+ * an unsupported notification type.
+ *
+ * @author agent on 10/18/26
+ */
+@Configuration
+@ConditionalOnProperty(name = "notification.sms.enabled", havingValue = "true")
+public class SmsProviderConfig {
+  @Value("${notification.sms.provider.name:default}")
+  private String name;
+
+  @Value("${notification.sms.provider.bulk-send-uri}")
+  private URI bulkSendUri;
+
+  @Value("${notification.sms.provider.api-key:}")
+  private String apiKey;
+
+  @Value("${notification.sms.provider.sender:ClinicWave}")
+  private String sender;
+
+  @Value("${notification.sms.provider.max-batch-size:100}")
+  private int maxBatchSize;
+
+  @Value("${notification.sms.provider.max-batch-delay:PT0.05S}")
+  private Duration maxBatchDelay;
+
+  @Value("${notification.sms.provider.max-messages-per-second:#{null}}")
+  private Integer maxMessagesPerSecond;
+
+  @Value("${notification.sms.provider.rate-limit.max-wait:PT5S}")
+  private Duration maxRateLimitWait;
+
+  @Value("${notification.sms.provider.connect-timeout:PT5S}")
+  private Duration connectTimeout;
+
+  @Value("${notification.sms.provider.request-timeout:PT10S}")
+  private Duration requestTimeout;
+
+  /**
+   * This method creates the SmsProviderSettings object of the configured SMS provider.
+   *
+   * @return SmsProviderSettings object
+   */
+  @Bean
+  public SmsProviderSettings smsProviderSettings() {
+    return new SmsProviderSettings(name, bulkSendUri, apiKey, sender, maxBatchSize, maxBatchDelay, maxMessagesPerSecond,
+            maxRateLimitWait, requestTimeout);
+  }
+
+  /**
+   * This method creates the SmsProviderClient, with its own HTTP client whose connections to the provider
+   * are kept open and reused between requests.
+   *
+   * @param smsProviderSettings The settings of the SMS provider.
+   * @param objectMapper        The ObjectMapper used to write requests and read responses.
+   * @param meterRegistry       The registry used to expose the provider metrics.
+   * @return SmsProviderClient object
+   */
+  @Bean(destroyMethod = "close")
+  public SmsProviderClient smsProviderClient(SmsProviderSettings smsProviderSettings, ObjectMapper objectMapper,
+                                             MeterRegistry meterRegistry) {
+    HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(connectTimeout)
+            .build();
+    return new SmsProviderClient(smsProviderSettings, httpClient, objectMapper, meterRegistry);
+  }
+}
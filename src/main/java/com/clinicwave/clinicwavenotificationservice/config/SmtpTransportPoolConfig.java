@@ -0,0 +1,63 @@
+package com.clinicwave.clinicwavenotificationservice.config;
+
+import com.clinicwave.clinicwavenotificationservice.mail.SmtpRelayHealthSettings;
+import com.clinicwave.clinicwavenotificationservice.mail.SmtpTransportPoolSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * This class is responsible for configuring the pooled SMTP connections.
+ * It sets the pool size, borrow timeout, idle eviction and connection recycling settings,
+ * and when a failing SMTP relay is taken out of rotation.
+ *
+ * @author agent on 10/18/26
+ */
+@Configuration
+public class SmtpTransportPoolConfig {
+  @Value("${notification.smtp.pool.max-size:8}")
+  private int maxSize;
+
+  @Value("${notification.smtp.pool.borrow-timeout:PT5S}")
+  private Duration borrowTimeout;
+
+  @Value("${notification.smtp.pool.max-idle:PT1M}")
+  private Duration maxIdle;
+
+  @Value("${notification.smtp.pool.max-messages-per-connection:100}")
+  private int maxMessagesPerConnection;
+
+  @Value("${notification.smtp.pool.validate-after-idle:PT5S}")
+  private Duration validateAfterIdle;
+
+  @Value("${notification.smtp.relay.max-error-rate:0.5}")
+  private double maxErrorRate;
+
+  @Value("${notification.smtp.relay.min-requests:10}")
+  private int minRequests;
+
+  @Value("${notification.smtp.relay.ejection-time:PT30S}")
+  private Duration ejectionTime;
+
+  /**
+   * This method creates the SmtpTransportPoolSettings object shared by every SMTP connection pool.
+   *
+   * @return SmtpTransportPoolSettings object
+   */
+  @Bean
+  public SmtpTransportPoolSettings smtpTransportPoolSettings() {
+    return new SmtpTransportPoolSettings(maxSize, borrowTimeout, maxIdle, maxMessagesPerConnection, validateAfterIdle);
+  }
+
+  /**
+   * This method creates the SmtpRelayHealthSettings object shared by every SMTP relay.
+   *
+   * @return SmtpRelayHealthSettings object
+   */
+  @Bean
+  public SmtpRelayHealthSettings smtpRelayHealthSettings() {
+    return new SmtpRelayHealthSettings(maxErrorRate, minRequests, ejectionTime);
+  }
+}
@@ -0,0 +1,128 @@
+package com.clinicwave.clinicwavenotificationservice.config;
+
+import com.clinicwave.clinicwavenotificationservice.template.RenderCacheSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.thymeleaf.cache.StandardCacheManager;
+import org.thymeleaf.dialect.IDialect;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.spring6.templateresolver.SpringResourceTemplateResolver;
+import org.thymeleaf.templatemode.TemplateMode;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * This class is responsible for configuring the Thymeleaf template engine used to render notifications.
+ * <p>
+ * Parsed templates are always cached, independent of the active profile, in a cache bounded by
+ * {@code notification.template.cache.max-size} entries. Each entry expires after
+ * {@code notification.template.cache.ttl} so that changed templates are picked up without a restart.
+ * Rendered output is cached separately by the EmailTemplateRenderer, unless
+ * {@code notification.template.render-cache.enabled} is off or the template is listed in
+ * {@code notification.template.render-cache.excluded-templates}.
+ * <p>
+ * SMS templates are plain text: templates named {@code sms/*} are resolved from {@code templates/sms/*.txt}
+ * in text mode before the HTML resolver is consulted.
+ *
+ * @author agent on 10/18/26
+ */
+@Configuration
+public class TemplateEngineConfig {
+  @Value("${notification.template.cache.max-size:200}")
+  private int cacheMaxSize;
+
+  @Value("${notification.template.cache.ttl:PT1H}")
+  private Duration cacheTtl;
+
+  @Value("${notification.template.render-cache.enabled:true}")
+  private boolean renderCacheEnabled;
+
+  @Value("${notification.template.render-cache.max-size:1000}")
+  private int renderCacheMaxSize;
+
+  @Value("${notification.template.render-cache.excluded-templates:email-verification,notification-digest}")
+  private Set<String> renderCacheExcludedTemplates;
+
+  /**
+   * This method creates the SpringResourceTemplateResolver that loads templates from the classpath.
+   *
+   * @param applicationContext The application context used to load the template resources.
+   * @return SpringResourceTemplateResolver object
+   */
+  @Bean
+  public SpringResourceTemplateResolver notificationTemplateResolver(ApplicationContext applicationContext) {
+    SpringResourceTemplateResolver templateResolver = new SpringResourceTemplateResolver();
+    templateResolver.setOrder(2);
+    templateResolver.setApplicationContext(applicationContext);
+    templateResolver.setPrefix("classpath:/templates/");
+    templateResolver.setSuffix(".html");
+    templateResolver.setTemplateMode(TemplateMode.HTML);
+    templateResolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    templateResolver.setCacheable(true);
+    templateResolver.setCacheTTLMs(cacheTtl.toMillis());
+    templateResolver.setCheckExistence(true);
+    return templateResolver;
+  }
+
+  /**
+   * This method creates the SpringResourceTemplateResolver that loads the plain-text SMS templates from the
+   * classpath.
+   *
+   * @param applicationContext The application context used to load the template resources.
+   * @return SpringResourceTemplateResolver object
+   */
+  @Bean
+  public SpringResourceTemplateResolver smsTemplateResolver(ApplicationContext applicationContext) {
+    SpringResourceTemplateResolver templateResolver = new SpringResourceTemplateResolver();
+    templateResolver.setOrder(1);
+    templateResolver.setApplicationContext(applicationContext);
+    templateResolver.setPrefix("classpath:/templates/");
+    templateResolver.setSuffix(".txt");
+    templateResolver.setResolvablePatterns(Set.of("sms/*"));
+    templateResolver.setTemplateMode(TemplateMode.TEXT);
+    templateResolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    templateResolver.setCacheable(true);
+    templateResolver.setCacheTTLMs(cacheTtl.toMillis());
+    templateResolver.setCheckExistence(true);
+    return templateResolver;
+  }
+
+  /**
+   * This method creates the SpringTemplateEngine with a size-bounded template cache.
+   *
+   * @param notificationTemplateResolver The template resolver of the HTML templates.
+   * @param smsTemplateResolver          The template resolver of the plain-text SMS templates.
+   * @param dialects                     Any additional dialects registered in the application context.
+   * @return SpringTemplateEngine object
+   */
+  @Bean
+  public SpringTemplateEngine templateEngine(SpringResourceTemplateResolver notificationTemplateResolver,
+                                             SpringResourceTemplateResolver smsTemplateResolver,
+                                             ObjectProvider<IDialect> dialects) {
+    StandardCacheManager cacheManager = new StandardCacheManager();
+    cacheManager.setTemplateCacheMaxSize(cacheMaxSize);
+
+    SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+    templateEngine.setTemplateResolvers(Set.of(smsTemplateResolver, notificationTemplateResolver));
+    templateEngine.setCacheManager(cacheManager);
+    templateEngine.setEnableSpringELCompiler(true);
+    dialects.orderedStream().forEach(templateEngine::addDialect);
+    return templateEngine;
+  }
+
+  /**
+   * This method creates the RenderCacheSettings object used by the EmailTemplateRenderer.
+   * Template versions are checked again as often as parsed templates expire.
+   *
+   * @return RenderCacheSettings object
+   */
+  @Bean
+  public RenderCacheSettings renderCacheSettings() {
+    return new RenderCacheSettings(renderCacheEnabled, renderCacheMaxSize, cacheTtl, Set.copyOf(renderCacheExcludedTemplates));
+  }
+}
@@ -1,31 +1,104 @@
 package com.clinicwave.clinicwavenotificationservice.controller;
 
+import com.clinicwave.clinicwavenotificationservice.dto.BulkNotificationStatusDto;
+import com.clinicwave.clinicwavenotificationservice.dto.DeliveryAttemptDto;
 import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
-import com.clinicwave.clinicwavenotificationservice.service.NotificationService;
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationResponseDto;
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationStatusDto;
+import com.clinicwave.clinicwavenotificationservice.service.BulkNotificationService;
+import com.clinicwave.clinicwavenotificationservice.service.DeliveryLogService;
+import com.clinicwave.clinicwavenotificationservice.service.NotificationDispatchService;
+import com.clinicwave.clinicwavenotificationservice.web.WebNotificationHub;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.InputStream;
+import java.security.Principal;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/notifications")
 @Slf4j
 public class NotificationController {
-  private final NotificationService notificationService;
+  private final NotificationDispatchService notificationDispatchService;
+  private final BulkNotificationService bulkNotificationService;
+  private final WebNotificationHub webNotificationHub;
+  private final DeliveryLogService deliveryLogService;
+  private final String userHeader;
 
   @Autowired
-  public NotificationController(NotificationService notificationService) {
-    this.notificationService = notificationService;
+  public NotificationController(NotificationDispatchService notificationDispatchService,
+                                BulkNotificationService bulkNotificationService,
+                                WebNotificationHub webNotificationHub,
+                                DeliveryLogService deliveryLogService,
+                                @Value("${notification.web.user-header:X-Authenticated-User}") String userHeader) {
+    this.notificationDispatchService = notificationDispatchService;
+    this.bulkNotificationService = bulkNotificationService;
+    this.webNotificationHub = webNotificationHub;
+    this.deliveryLogService = deliveryLogService;
+    this.userHeader = userHeader;
   }
 
   @PostMapping("/send")
-  public ResponseEntity<Void> sendNotification(@Valid @RequestBody NotificationRequestDto notificationRequestDto) {
+  public ResponseEntity<NotificationResponseDto> sendNotification(@Valid @RequestBody NotificationRequestDto notificationRequestDto) {
     log.info("Received notification request: {}", notificationRequestDto);
-    notificationService.sendNotification(notificationRequestDto);
-    return ResponseEntity.accepted().build();
+    String trackingId = notificationDispatchService.dispatch(notificationRequestDto);
+    return ResponseEntity.accepted().body(new NotificationResponseDto(trackingId));
+  }
+
+  @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<BulkNotificationStatusDto> sendBulkNotification(InputStream inputStream) {
+    log.info("Received bulk notification request");
+    BulkNotificationStatusDto bulkNotificationStatusDto = bulkNotificationService.submit(inputStream);
+    return ResponseEntity.accepted().body(bulkNotificationStatusDto);
+  }
+
+  @GetMapping("/bulk/{jobId}")
+  public ResponseEntity<BulkNotificationStatusDto> getBulkNotificationStatus(@PathVariable String jobId) {
+    return ResponseEntity.ok(bulkNotificationService.getStatus(jobId));
+  }
+
+  @GetMapping("/status/{trackingId}")
+  public ResponseEntity<NotificationStatusDto> getNotificationStatus(@PathVariable String trackingId) {
+    return ResponseEntity.ok(deliveryLogService.getStatus(trackingId));
+  }
+
+  @GetMapping("/status")
+  public ResponseEntity<List<DeliveryAttemptDto>> getRecentDeliveryAttempts(@RequestParam String recipient,
+                                                                             @RequestParam(defaultValue = "20") int limit) {
+    return ResponseEntity.ok(deliveryLogService.getRecentAttempts(recipient, limit));
+  }
+
+  @GetMapping(value = "/web/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamWebNotifications(HttpServletRequest request,
+                                           @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+    // Users are only streamed their own notifications, as authenticated in front of this controller: by the
+    // servlet container, or by the gateway that sets the user header after authenticating the request.
+    Principal principal = request.getUserPrincipal();
+    String user = principal != null ? principal.getName() : null;
+    if (user == null && StringUtils.hasText(userHeader)) {
+      user = request.getHeader(userHeader);
+    }
+    if (!StringUtils.hasText(user)) {
+      throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Streaming in-app notifications requires an authenticated user");
+    }
+    return webNotificationHub.connect(user, lastEventId);
   }
 }
@@ -0,0 +1,43 @@
+package com.clinicwave.clinicwavenotificationservice.controller;
+
+import com.clinicwave.clinicwavenotificationservice.service.SmtpSettingService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * This class exposes administrative endpoints for the SmtpSetting entity.
+ *
+ * @author agent on 10/18/26
+ */
+@RestController
+@RequestMapping("/api/smtp-settings")
+@Slf4j
+public class SmtpSettingController {
+  private final SmtpSettingService smtpSettingService;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param smtpSettingService The service for SmtpSetting entities.
+   */
+  @Autowired
+  public SmtpSettingController(SmtpSettingService smtpSettingService) {
+    this.smtpSettingService = smtpSettingService;
+  }
+
+  /**
+   * Drops the cached JavaMailSender so that the next email picks up the current SmtpSetting.
+   *
+   * @return An empty response with HTTP 204 No Content.
+   */
+  @PostMapping("/refresh")
+  public ResponseEntity<Void> refreshMailSender() {
+    log.info("Received SmtpSetting refresh request");
+    smtpSettingService.refreshMailSender();
+    return ResponseEntity.noContent().build();
+  }
+}
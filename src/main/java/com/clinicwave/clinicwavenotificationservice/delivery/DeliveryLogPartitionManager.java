@@ -0,0 +1,185 @@
+package com.clinicwave.clinicwavenotificationservice.delivery;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * This class partitions the delivery log by month on PostgreSQL, so that old attempts are removed by dropping
+ * a whole partition instead of deleting rows, and lookups by recipient only scan the recent partitions.
+ * <p>
+ * Hibernate creates the {@code delivery_log} table as a plain table. At startup, while it is still empty, it is
+ * replaced with a table partitioned by range of {@code created_at}, with the same columns and the indexes on
+ * tracking ID and recipient. The partitions of the current month and the next {@code months-ahead} months are
+ * then created, and partitions older than {@code retention-months} are dropped, at startup and every day.
+ * On other databases the table is left as it is.
+ *
+ * @author agent on 10/18/26
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@Slf4j
+public class DeliveryLogPartitionManager {
+  static final String TABLE_NAME = "delivery_log";
+  private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final Clock clock;
+  private final int monthsAhead;
+  private final int retentionMonths;
+  private volatile boolean partitioned;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param jdbcTemplate       The JdbcTemplate of the delivery log's datasource.
+   * @param transactionManager The transaction manager of the delivery log's datasource.
+   * @param monthsAhead        The number of months after the current one to create partitions for.
+   * @param retentionMonths    The number of months before the current one whose partitions are kept, or 0 to
+   *                           keep every partition.
+   */
+  @Autowired
+  public DeliveryLogPartitionManager(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                     @Value("${notification.delivery-log.partition.months-ahead:2}") int monthsAhead,
+                                     @Value("${notification.delivery-log.partition.retention-months:12}") int retentionMonths) {
+    this(jdbcTemplate, transactionManager, monthsAhead, retentionMonths, Clock.systemDefaultZone());
+  }
+
+  DeliveryLogPartitionManager(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                              int monthsAhead, int retentionMonths, Clock clock) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.monthsAhead = monthsAhead;
+    this.retentionMonths = retentionMonths;
+    this.clock = clock;
+  }
+
+  /**
+   * Partitions the delivery log if the database is PostgreSQL and the table is still a plain, empty table,
+   * and creates its partitions.
+   */
+  @PostConstruct
+  public void start() {
+    String databaseProductName = jdbcTemplate.execute(
+            (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+    if (!"PostgreSQL".equals(databaseProductName)) {
+      log.debug("Delivery log is not partitioned on {}", databaseProductName);
+      return;
+    }
+    partitioned = isPartitioned() || convertToPartitioned();
+    maintainPartitions();
+  }
+
+  /**
+   * Creates the partitions of the coming months and drops those past the retention period.
+   */
+  @Scheduled(cron = "${notification.delivery-log.partition.maintenance-cron:0 0 3 * * *}")
+  public void maintainPartitions() {
+    if (!partitioned) {
+      return;
+    }
+    YearMonth currentMonth = YearMonth.now(clock);
+    for (int i = 0; i <= monthsAhead; i++) {
+      jdbcTemplate.execute(createPartitionSql(currentMonth.plusMonths(i)));
+    }
+    if (retentionMonths > 0) {
+      YearMonth oldestKept = currentMonth.minusMonths(retentionMonths);
+      for (String partition : findPartitions()) {
+        if (isOlderThan(partition, oldestKept)) {
+          log.info("Dropping delivery log partition {}", partition);
+          jdbcTemplate.execute("drop table if exists " + partition);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the statement creating the partition of a month, if it does not exist yet.
+   *
+   * @param month The month.
+   * @return The SQL statement.
+   */
+  static String createPartitionSql(YearMonth month) {
+    return "create table if not exists " + partitionName(month) + " partition of " + TABLE_NAME
+            + " for values from ('" + month.atDay(1) + "') to ('" + month.plusMonths(1).atDay(1) + "')";
+  }
+
+  /**
+   * Returns the name of the partition of a month.
+   *
+   * @param month The month.
+   * @return The partition name, such as {@code delivery_log_p202610}.
+   */
+  static String partitionName(YearMonth month) {
+    return TABLE_NAME + "_p" + month.format(PARTITION_SUFFIX);
+  }
+
+  /**
+   * Tells whether a partition holds a month before a given one.
+   *
+   * @param partition  The partition name.
+   * @param oldestKept The oldest month whose partition is kept.
+   * @return False if the partition is of that month or later, or was not created by this class.
+   */
+  static boolean isOlderThan(String partition, YearMonth oldestKept) {
+    String prefix = TABLE_NAME + "_p";
+    if (!partition.startsWith(prefix) || partition.length() != prefix.length() + 6) {
+      return false;
+    }
+    try {
+      return YearMonth.parse(partition.substring(prefix.length()), PARTITION_SUFFIX).isBefore(oldestKept);
+    } catch (RuntimeException e) {
+      return false;
+    }
+  }
+
+  private boolean isPartitioned() {
+    Integer count = jdbcTemplate.queryForObject("select count(*) from pg_partitioned_table p "
+            + "join pg_class c on c.oid = p.partrelid where c.relname = ? and pg_table_is_visible(c.oid)", Integer.class, TABLE_NAME);
+    return count != null && count > 0;
+  }
+
+  /**
+   * Replaces the plain delivery log table with a partitioned one, unless it already holds rows.
+   *
+   * @return Whether the table was replaced.
+   */
+  private boolean convertToPartitioned() {
+    Boolean hasRows = jdbcTemplate.queryForObject("select exists (select 1 from " + TABLE_NAME + ")", Boolean.class);
+    if (Boolean.TRUE.equals(hasRows)) {
+      log.warn("Delivery log table {} already holds rows, it is left unpartitioned", TABLE_NAME);
+      return false;
+    }
+    transactionTemplate.executeWithoutResult(status -> {
+      jdbcTemplate.execute("create table " + TABLE_NAME + "_partitioned (like " + TABLE_NAME
+              + " including defaults including constraints) partition by range (created_at)");
+      jdbcTemplate.execute("drop table " + TABLE_NAME);
+      jdbcTemplate.execute("alter table " + TABLE_NAME + "_partitioned rename to " + TABLE_NAME);
+      // The primary key of a partitioned table has to include the partition key.
+      jdbcTemplate.execute("alter table " + TABLE_NAME + " add primary key (id, created_at)");
+      jdbcTemplate.execute("create index idx_delivery_log_tracking_id on " + TABLE_NAME + " (tracking_id)");
+      jdbcTemplate.execute("create index idx_delivery_log_recipient on " + TABLE_NAME + " (recipient, created_at)");
+    });
+    log.info("Delivery log table {} is now partitioned by month", TABLE_NAME);
+    return true;
+  }
+
+  private List<String> findPartitions() {
+    return jdbcTemplate.queryForList("select c.relname from pg_inherits i join pg_class c on c.oid = i.inhrelid "
+            + "join pg_class p on p.oid = i.inhparent where p.relname = ?", String.class, TABLE_NAME);
+  }
+}
@@ -0,0 +1,210 @@
+package com.clinicwave.clinicwavenotificationservice.delivery;
+
+import com.clinicwave.clinicwavenotificationservice.domain.DeliveryLog;
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.enums.DeliveryStatusEnum;
+import com.clinicwave.clinicwavenotificationservice.repository.DeliveryLogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class writes the delivery log, one row per attempt to send a notification, off the sending threads.
+ * <p>
+ * Senders only put their attempts in a queue. A single writer thread takes all the attempts waiting at that
+ * moment and inserts them in one transaction, which Hibernate sends as JDBC batches since the ids come from a
+ * pooled sequence. Logging never holds up sending: when the queue is full, attempts are dropped and counted
+ * instead.
+ *
+ * @author agent on 10/18/26
+ */
+@Component
+@DependsOn("deliveryLogPartitionManager")
+@Slf4j
+public class DeliveryLogWriter {
+  private static final long POLL_INTERVAL_MILLIS = 100;
+  private static final int MAX_ERROR_LENGTH = 1000;
+
+  private final DeliveryLogRepository deliveryLogRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final BlockingQueue<DeliveryLog> queue;
+  private final ExecutorService writer;
+  private final boolean enabled;
+  private final int batchSize;
+  private final Duration shutdownTimeout;
+  private volatile boolean running = true;
+
+  private final Timer writeTimer;
+  private final DistributionSummary batchSizeSummary;
+  private final Counter droppedCounter;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param deliveryLogRepository The repository of the delivery log.
+   * @param transactionManager    The transaction manager of the delivery log's datasource.
+   * @param meterRegistry         The registry used to expose the delivery log write metrics.
+   * @param enabled               Whether delivery attempts are logged.
+   * @param batchSize             The maximum number of attempts inserted in one transaction.
+   * @param queueCapacity         The maximum number of attempts waiting to be written.
+   * @param shutdownTimeout       How long to wait for waiting attempts to be written on shutdown.
+   */
+  @Autowired
+  public DeliveryLogWriter(DeliveryLogRepository deliveryLogRepository,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${notification.delivery-log.enabled:true}") boolean enabled,
+                           @Value("${notification.delivery-log.batch-size:500}") int batchSize,
+                           @Value("${notification.delivery-log.queue-capacity:10000}") int queueCapacity,
+                           @Value("${notification.delivery-log.shutdown-timeout:PT10S}") Duration shutdownTimeout) {
+    this.deliveryLogRepository = deliveryLogRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.enabled = enabled;
+    this.batchSize = batchSize;
+    this.shutdownTimeout = shutdownTimeout;
+    this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+    this.writeTimer = Timer.builder("notification.delivery-log.write")
+            .description("Time to insert a batch of delivery attempts into the delivery log")
+            .register(meterRegistry);
+    this.batchSizeSummary = DistributionSummary.builder("notification.delivery-log.write.batch-size")
+            .description("Delivery attempts inserted into the delivery log per transaction")
+            .register(meterRegistry);
+    this.droppedCounter = Counter.builder("notification.delivery-log.dropped")
+            .description("Delivery attempts not logged because the queue was full or the insert failed")
+            .register(meterRegistry);
+    Gauge.builder("notification.delivery-log.queued", queue, BlockingQueue::size)
+            .description("Delivery attempts waiting to be written to the delivery log")
+            .register(meterRegistry);
+
+    this.writer = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("delivery-log-writer-"));
+    if (enabled) {
+      this.writer.execute(this::writeContinuously);
+    }
+  }
+
+  /**
+   * Queues an attempt to send a notification to be logged.
+   *
+   * @param notificationRequestDto The notification request that was sent.
+   * @param error                  The error that prevented the notification from being sent, or null if it was sent.
+   */
+  public void record(NotificationRequestDto notificationRequestDto, RuntimeException error) {
+    enqueue(notificationRequestDto, error == null ? DeliveryStatusEnum.SENT : DeliveryStatusEnum.FAILED, error);
+  }
+
+  /**
+   * Queues the scheduling of a notification for later to be logged.
+   *
+   * @param notificationRequestDto The notification request that was scheduled.
+   */
+  public void recordScheduled(NotificationRequestDto notificationRequestDto) {
+    enqueue(notificationRequestDto, DeliveryStatusEnum.SCHEDULED, null);
+  }
+
+  /**
+   * Stops accepting attempts and waits for the waiting ones to be written.
+   */
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    running = false;
+    writer.shutdown();
+    if (!writer.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+      log.warn("{} delivery attempts were not logged before shutdown", queue.size());
+      writer.shutdownNow();
+    }
+  }
+
+  private void enqueue(NotificationRequestDto notificationRequestDto, DeliveryStatusEnum status, RuntimeException error) {
+    if (!enabled) {
+      return;
+    }
+    if (!running || !queue.offer(toDeliveryLog(notificationRequestDto, status, error))) {
+      droppedCounter.increment();
+    }
+  }
+
+  /**
+   * Writes the waiting attempts in batches until the writer is shut down and the queue is empty.
+   */
+  private void writeContinuously() {
+    List<DeliveryLog> batch = new ArrayList<>(batchSize);
+    while (running || !queue.isEmpty()) {
+      try {
+        DeliveryLog first = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        queue.drainTo(batch, batchSize - 1);
+        write(batch);
+        batch.clear();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  /**
+   * Inserts a batch of attempts in one transaction.
+   *
+   * @param batch The attempts to insert.
+   */
+  private void write(List<DeliveryLog> batch) {
+    long start = System.nanoTime();
+    try {
+      transactionTemplate.executeWithoutResult(status -> deliveryLogRepository.saveAll(batch));
+    } catch (RuntimeException e) {
+      log.error("Failed to write {} delivery attempts to the delivery log", batch.size(), e);
+      droppedCounter.increment(batch.size());
+      return;
+    }
+    writeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    batchSizeSummary.record(batch.size());
+  }
+
+  /**
+   * Converts an attempt into a delivery log row.
+   *
+   * @param notificationRequestDto The notification request that was sent.
+   * @param status                 The outcome of the attempt.
+   * @param error                  The error that prevented the notification from being sent, or null.
+   * @return The delivery log row.
+   */
+  private static DeliveryLog toDeliveryLog(NotificationRequestDto notificationRequestDto, DeliveryStatusEnum status,
+                                           RuntimeException error) {
+    DeliveryLog deliveryLog = new DeliveryLog();
+    deliveryLog.setTrackingId(notificationRequestDto.trackingId());
+    deliveryLog.setRecipient(notificationRequestDto.recipient());
+    deliveryLog.setTemplateName(notificationRequestDto.templateName());
+    deliveryLog.setType(notificationRequestDto.type());
+    deliveryLog.setCategory(notificationRequestDto.category());
+    deliveryLog.setStatus(status);
+    if (error != null) {
+      String message = error.getMessage() != null ? error.getMessage() : error.getClass().getName();
+      deliveryLog.setError(message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+    }
+    return deliveryLog;
+  }
+}
@@ -0,0 +1,23 @@
+package com.clinicwave.clinicwavenotificationservice.digest;
+
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+
+import java.util.List;
+
+/**
+ * This record holds the notifications of a recipient that were held back during a coalescing window, to be
+ * sent together as one digest email.
+ *
+ * @author agent on 10/18/26
+ */
+public record NotificationDigest(
+        // The recipient shared by the notifications
+        String recipient,
+
+        // The held notifications, in the order they arrived
+        List<NotificationRequestDto> notifications,
+
+        // The ids of the rows holding the notifications, deleted once the digest was sent
+        List<Long> heldIds
+) {
+}
@@ -0,0 +1,307 @@
+package com.clinicwave.clinicwavenotificationservice.digest;
+
+import com.clinicwave.clinicwavenotificationservice.domain.DigestWindow;
+import com.clinicwave.clinicwavenotificationservice.domain.HeldNotification;
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
+import com.clinicwave.clinicwavenotificationservice.repository.DigestWindowRepository;
+import com.clinicwave.clinicwavenotificationservice.repository.HeldNotificationRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * This class coalesces the email notifications of the digest categories sent to the same recipient in a short
+ * time into one digest email.
+ * <p>
+ * The first such notification to a recipient is sent at once and opens a coalescing window for the recipient.
+ * The notifications to the recipient that arrive while the window is open are held back, and sent together as
+ * one digest once the window closes, or as soon as the digest is full. A recipient who is sent a single
+ * notification therefore gets it without delay, and a burst of notifications costs two emails instead of one
+ * per notification.
+ * <p>
+ * Windows and held notifications are stored in the database, so every source can hand its notifications over:
+ * a Kafka record, outbox row or scheduled notification is acknowledged once its notification is held, and held
+ * notifications survive restarts and are shared by every instance. The window of a recipient is locked while a
+ * notification is offered to it, so the instances count its notifications one after the other. Notifications
+ * with an idempotency key are never held, since a digest cannot be deduplicated per notification.
+ * <p>
+ * Due digests are claimed from the buffer and sent by the {@link NotificationDigestDispatcher}. Claiming leases
+ * them, so a digest whose instance dies while sending it becomes due again once its lease runs out.
+ *
+ * @author agent on 10/18/26
+ */
+@Component
+@Slf4j
+public class NotificationDigestBuffer {
+  static final String DIGEST_TEMPLATE = "notification-digest";
+  private static final TypeReference<Map<String, Object>> TEMPLATE_VARIABLES_TYPE = new TypeReference<>() {
+  };
+
+  private final DigestWindowRepository digestWindowRepository;
+  private final HeldNotificationRepository heldNotificationRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final ObjectMapper objectMapper;
+  private final Clock clock;
+  private final boolean enabled;
+  private final Duration window;
+  private final Set<NotificationCategoryEnum> categories;
+  private final int maxNotificationsPerDigest;
+  private final int batchSize;
+  private final Duration lease;
+
+  private final Counter heldCounter;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param digestWindowRepository     The repository of the coalescing windows.
+   * @param heldNotificationRepository The repository of the held notifications.
+   * @param transactionManager         The transaction manager of the digest tables' datasource.
+   * @param objectMapper               The ObjectMapper used to write and read the template variables.
+   * @param meterRegistry              The registry used to expose the coalescing metrics.
+   * @param enabled                    Whether notifications are coalesced into digests.
+   * @param window                     How long notifications to a recipient are coalesced after one was sent.
+   * @param categories                 The notification categories that may be sent as part of a digest.
+   * @param maxNotificationsPerDigest  The number of held notifications at which a digest is sent early.
+   * @param batchSize                  The maximum number of held notifications claimed at once.
+   * @param lease                      How long a claimed digest is kept from other dispatchers.
+   */
+  @Autowired
+  public NotificationDigestBuffer(DigestWindowRepository digestWindowRepository,
+                                  HeldNotificationRepository heldNotificationRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${notification.digest.enabled:false}") boolean enabled,
+                                  @Value("${notification.digest.window:PT5M}") Duration window,
+                                  @Value("${notification.digest.categories:GENERAL}") List<NotificationCategoryEnum> categories,
+                                  @Value("${notification.digest.max-notifications-per-digest:20}") int maxNotificationsPerDigest,
+                                  @Value("${notification.digest.batch-size:500}") int batchSize,
+                                  @Value("${notification.digest.lease:PT5M}") Duration lease) {
+    this(digestWindowRepository, heldNotificationRepository, transactionManager, objectMapper, meterRegistry,
+            Clock.systemUTC(), enabled, window, categories, maxNotificationsPerDigest, batchSize, lease);
+  }
+
+  NotificationDigestBuffer(DigestWindowRepository digestWindowRepository,
+                           HeldNotificationRepository heldNotificationRepository,
+                           PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry, Clock clock, boolean enabled, Duration window,
+                           List<NotificationCategoryEnum> categories, int maxNotificationsPerDigest, int batchSize,
+                           Duration lease) {
+    if (maxNotificationsPerDigest < 2) {
+      throw new IllegalArgumentException("A digest must hold at least 2 notifications");
+    }
+    this.digestWindowRepository = digestWindowRepository;
+    this.heldNotificationRepository = heldNotificationRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.objectMapper = objectMapper;
+    this.clock = clock;
+    this.enabled = enabled;
+    this.window = window;
+    this.categories = categories.isEmpty() ? EnumSet.noneOf(NotificationCategoryEnum.class) : EnumSet.copyOf(categories);
+    this.maxNotificationsPerDigest = maxNotificationsPerDigest;
+    this.batchSize = batchSize;
+    this.lease = lease;
+
+    this.heldCounter = Counter.builder("notification.digest.held")
+            .description("Notifications held back to be sent as part of a digest")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Holds a notification back to be sent as part of a digest, if the recipient has an open window.
+   * Otherwise, a window is opened for the recipient, unless the notification cannot be part of a digest.
+   *
+   * @param notificationRequestDto The notification request to be sent.
+   * @return True if the notification was stored to be sent later, false if it is to be sent now.
+   */
+  public boolean offer(NotificationRequestDto notificationRequestDto) {
+    if (!isEligible(notificationRequestDto)) {
+      return false;
+    }
+    boolean held;
+    try {
+      held = Boolean.TRUE.equals(transactionTemplate.execute(status -> hold(notificationRequestDto)));
+    } catch (DataIntegrityViolationException e) {
+      // Another instance opened the recipient's window meanwhile; its row can now be locked.
+      held = Boolean.TRUE.equals(transactionTemplate.execute(status -> hold(notificationRequestDto)));
+    }
+    if (held) {
+      heldCounter.increment();
+    }
+    return held;
+  }
+
+  /**
+   * Claims the notifications of the windows that are full or have reached their deadline, and leases them to
+   * this instance. Windows that have closed are deleted.
+   *
+   * @return The digests to be sent, one per window.
+   */
+  public List<NotificationDigest> claimDue() {
+    Instant now = clock.instant();
+    List<HeldNotification> claimed = transactionTemplate.execute(status -> {
+      digestWindowRepository.deleteClosed(now);
+      List<HeldNotification> due = heldNotificationRepository.findClaimable(now, Limit.of(batchSize));
+      for (HeldNotification heldNotification : due) {
+        heldNotification.setDueAt(now.plus(lease));
+      }
+      return due;
+    });
+    if (claimed == null || claimed.isEmpty()) {
+      return List.of();
+    }
+
+    Map<String, List<HeldNotification>> byWindow = new LinkedHashMap<>();
+    for (HeldNotification heldNotification : claimed) {
+      byWindow.computeIfAbsent(heldNotification.getWindowId(), key -> new ArrayList<>()).add(heldNotification);
+    }
+    List<NotificationDigest> digests = new ArrayList<>(byWindow.size());
+    for (List<HeldNotification> heldNotifications : byWindow.values()) {
+      List<NotificationRequestDto> notifications = new ArrayList<>(heldNotifications.size());
+      List<Long> heldIds = new ArrayList<>(heldNotifications.size());
+      for (HeldNotification heldNotification : heldNotifications) {
+        heldIds.add(heldNotification.getId());
+        try {
+          notifications.add(toRequest(heldNotification));
+        } catch (JsonProcessingException e) {
+          log.error("Dropping held notification {} to: {}, its template variables cannot be read",
+                  heldNotification.getTrackingId(), heldNotification.getRecipient(), e);
+        }
+      }
+      digests.add(new NotificationDigest(heldNotifications.getFirst().getRecipient(), notifications, heldIds));
+    }
+    return digests;
+  }
+
+  /**
+   * Deletes the held notifications of digests that were sent, or whose notifications were sent one by one.
+   *
+   * @param heldIds The ids of the held notifications.
+   */
+  public void complete(List<Long> heldIds) {
+    if (!heldIds.isEmpty()) {
+      transactionTemplate.executeWithoutResult(status -> heldNotificationRepository.deleteAllByIdInBatch(heldIds));
+    }
+  }
+
+  /**
+   * Tells whether a notification may be sent as part of a digest.
+   *
+   * @param notificationRequestDto The notification request.
+   * @return False if digests are disabled, or the notification is not an email of a digest category, is a digest
+   * itself or carries an idempotency key.
+   */
+  private boolean isEligible(NotificationRequestDto notificationRequestDto) {
+    return enabled
+            && notificationRequestDto.type() == NotificationTypeEnum.EMAIL
+            && categories.contains(notificationRequestDto.category())
+            && notificationRequestDto.idempotencyKey() == null
+            && !DIGEST_TEMPLATE.equals(notificationRequestDto.templateName());
+  }
+
+  /**
+   * Stores a notification in the open window of its recipient, or opens a window for the recipient. Must be
+   * called in a transaction.
+   *
+   * @param notificationRequestDto The notification request to be sent.
+   * @return True if the notification was held, false if it opened the window and is to be sent now.
+   * @throws DataIntegrityViolationException If another instance opened the recipient's first window meanwhile.
+   */
+  private boolean hold(NotificationRequestDto notificationRequestDto) {
+    Instant now = clock.instant();
+    String recipientKey = key(notificationRequestDto.recipient());
+    Optional<DigestWindow> existing = digestWindowRepository.findForUpdate(recipientKey);
+    if (existing.isEmpty() || !existing.get().getClosesAt().isAfter(now)) {
+      DigestWindow opened = existing.orElseGet(DigestWindow::new);
+      opened.setRecipientKey(recipientKey);
+      opened.setWindowId(UUID.randomUUID().toString());
+      opened.setClosesAt(now.plus(window));
+      opened.setHeld(0);
+      digestWindowRepository.saveAndFlush(opened);
+      return false;
+    }
+
+    DigestWindow open = existing.get();
+    heldNotificationRepository.save(toHeldNotification(notificationRequestDto, open));
+    open.setHeld(open.getHeld() + 1);
+    if (open.getHeld() >= maxNotificationsPerDigest) {
+      // The window closes early, so the next notification to the recipient opens a new one.
+      heldNotificationRepository.flush();
+      heldNotificationRepository.updateDueAt(open.getWindowId(), now);
+      open.setClosesAt(now);
+    }
+    return true;
+  }
+
+  /**
+   * Converts a notification request into a held notification row of a window.
+   *
+   * @param notificationRequestDto The notification request.
+   * @param digestWindow           The open window of the recipient.
+   * @return The held notification row.
+   */
+  private HeldNotification toHeldNotification(NotificationRequestDto notificationRequestDto, DigestWindow digestWindow) {
+    HeldNotification heldNotification = new HeldNotification();
+    heldNotification.setWindowId(digestWindow.getWindowId());
+    heldNotification.setTrackingId(notificationRequestDto.trackingId());
+    heldNotification.setRecipient(notificationRequestDto.recipient());
+    heldNotification.setSubject(notificationRequestDto.subject());
+    heldNotification.setTemplateName(notificationRequestDto.templateName());
+    heldNotification.setType(notificationRequestDto.type());
+    heldNotification.setCategory(notificationRequestDto.category());
+    heldNotification.setDueAt(digestWindow.getClosesAt());
+    if (notificationRequestDto.templateVariables() != null) {
+      try {
+        heldNotification.setTemplateVariables(objectMapper.writeValueAsString(notificationRequestDto.templateVariables()));
+      } catch (JsonProcessingException e) {
+        throw new IllegalArgumentException("Template variables cannot be written as JSON", e);
+      }
+    }
+    return heldNotification;
+  }
+
+  /**
+   * Converts a held notification row back into the notification request it was written from.
+   *
+   * @param heldNotification The held notification row.
+   * @return The notification request.
+   * @throws JsonProcessingException If the template variables cannot be read.
+   */
+  private NotificationRequestDto toRequest(HeldNotification heldNotification) throws JsonProcessingException {
+    Map<String, Object> templateVariables = heldNotification.getTemplateVariables() == null ? null
+            : objectMapper.readValue(heldNotification.getTemplateVariables(), TEMPLATE_VARIABLES_TYPE);
+    return new NotificationRequestDto(heldNotification.getRecipient(), heldNotification.getSubject(),
+            heldNotification.getTemplateName(), templateVariables, heldNotification.getType(),
+            heldNotification.getCategory(), null, heldNotification.getTrackingId());
+  }
+
+  private static String key(String recipient) {
+    return recipient.toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,239 @@
+package com.clinicwave.clinicwavenotificationservice.digest;
+
+import com.clinicwave.clinicwavenotificationservice.delivery.DeliveryLogWriter;
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
+import com.clinicwave.clinicwavenotificationservice.service.NotificationService;
+import com.clinicwave.clinicwavenotificationservice.strategy.NotificationResult;
+import com.clinicwave.clinicwavenotificationservice.template.EmailTemplateRenderer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This class sends the digests of the {@link NotificationDigestBuffer} once their window closes.
+ * <p>
+ * Every flush interval, the due digests are claimed from the buffer. The notifications of a digest are rendered
+ * with their own templates, and the body of each is placed in one digest email, rendered from the
+ * {@code notification-digest} template, which is sent with the other digests due at the same time. Every
+ * notification of a digest is recorded in the delivery log under its own tracking ID with the outcome of the
+ * digest, and a notification whose template cannot be rendered is recorded as failed and left out. When a digest
+ * cannot be sent, its notifications are sent one by one instead, each with its own outcome, so that a digest
+ * failing does not drop notifications whose requests were already accepted. The held notifications are deleted
+ * from the buffer once their digest was sent either way. Digests that are not due yet stay in the buffer over a
+ * shutdown, and are sent by whichever instance is running once they are due.
+ *
+ * @author agent on 10/18/26
+ */
+@Component
+@Slf4j
+public class NotificationDigestDispatcher {
+  private static final Pattern BODY = Pattern.compile("<body[^>]*>(.*)</body>", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+  private final NotificationDigestBuffer notificationDigestBuffer;
+  private final NotificationService notificationService;
+  private final EmailTemplateRenderer emailTemplateRenderer;
+  private final DeliveryLogWriter deliveryLogWriter;
+  private final Duration flushInterval;
+  private final Duration shutdownTimeout;
+  private final String subjectFormat;
+  private final ScheduledExecutorService ticker;
+
+  private final Counter sentCounter;
+  private final Counter failedCounter;
+  private final Counter fallbackCounter;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param notificationDigestBuffer The buffer the due digests are claimed from.
+   * @param notificationService      The service used to send the digests.
+   * @param emailTemplateRenderer    The renderer of the templates of the notifications in a digest.
+   * @param deliveryLogWriter        The writer of the delivery log the notifications of a digest are recorded in.
+   * @param meterRegistry            The registry used to expose the digest metrics.
+   * @param flushInterval            How often due digests are claimed from the buffer.
+   * @param shutdownTimeout          How long to wait for the digests being sent on shutdown.
+   * @param subjectFormat            The subject of a digest, formatted with the number of notifications it holds.
+   */
+  @Autowired
+  public NotificationDigestDispatcher(NotificationDigestBuffer notificationDigestBuffer,
+                                      NotificationService notificationService,
+                                      EmailTemplateRenderer emailTemplateRenderer,
+                                      DeliveryLogWriter deliveryLogWriter,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${notification.digest.flush-interval:PT1S}") Duration flushInterval,
+                                      @Value("${notification.digest.shutdown-timeout:PT30S}") Duration shutdownTimeout,
+                                      @Value("${notification.digest.subject:You have %d new notifications from ClinicWave}") String subjectFormat) {
+    this.notificationDigestBuffer = notificationDigestBuffer;
+    this.notificationService = notificationService;
+    this.emailTemplateRenderer = emailTemplateRenderer;
+    this.deliveryLogWriter = deliveryLogWriter;
+    this.flushInterval = flushInterval;
+    this.shutdownTimeout = shutdownTimeout;
+    this.subjectFormat = subjectFormat;
+    this.ticker = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("notification-digest-"));
+
+    this.sentCounter = Counter.builder("notification.digest.digests")
+            .description("Digest emails sent once their coalescing window closed")
+            .tag("result", "sent")
+            .register(meterRegistry);
+    this.failedCounter = Counter.builder("notification.digest.digests")
+            .description("Digest emails sent once their coalescing window closed")
+            .tag("result", "failed")
+            .register(meterRegistry);
+    this.fallbackCounter = Counter.builder("notification.digest.fallbacks")
+            .description("Notifications sent one by one because their digest could not be sent")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Starts claiming due digests from the buffer every flush interval.
+   */
+  @PostConstruct
+  public void start() {
+    ticker.scheduleWithFixedDelay(this::dispatchDue, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Stops the flushes once the digests being sent are done. The digests left in the buffer are sent once due,
+   * and those being sent when the wait runs out are claimed again once their lease expires.
+   */
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    ticker.shutdown();
+    if (!ticker.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+      log.warn("The digests being sent were not completed before shutdown");
+      ticker.shutdownNow();
+    }
+  }
+
+  /**
+   * Sends the digests whose window has closed.
+   */
+  public void dispatchDue() {
+    try {
+      dispatch(notificationDigestBuffer.claimDue());
+    } catch (RuntimeException e) {
+      log.error("Failed to send notification digests", e);
+    }
+  }
+
+  /**
+   * Renders the given digests and sends them together. The notifications of the digests that fail are then sent
+   * one by one, and the held notifications of every digest are deleted from the buffer.
+   *
+   * @param digests The digests claimed from the buffer.
+   * @return The number of digest emails sent successfully.
+   */
+  int dispatch(List<NotificationDigest> digests) {
+    if (digests.isEmpty()) {
+      return 0;
+    }
+    List<NotificationRequestDto> requests = new ArrayList<>(digests.size());
+    List<List<NotificationRequestDto>> included = new ArrayList<>(digests.size());
+    for (NotificationDigest digest : digests) {
+      List<NotificationRequestDto> notifications = new ArrayList<>(digest.notifications().size());
+      NotificationRequestDto request = toDigestRequest(digest, notifications);
+      if (request != null) {
+        requests.add(request);
+        included.add(notifications);
+      }
+    }
+
+    int sent = 0;
+    List<NotificationRequestDto> undelivered = new ArrayList<>();
+    List<NotificationResult> results = notificationService.sendNotificationsWithoutDigest(requests);
+    for (int i = 0; i < results.size(); i++) {
+      NotificationResult result = results.get(i);
+      if (result.isSuccess()) {
+        sent++;
+        sentCounter.increment();
+        for (NotificationRequestDto notificationRequestDto : included.get(i)) {
+          deliveryLogWriter.record(notificationRequestDto, null);
+        }
+      } else {
+        failedCounter.increment();
+        log.warn("Failed to send a digest of {} notifications to: {}, sending them one by one", included.get(i).size(),
+                result.notificationRequestDto().recipient(), result.error());
+        undelivered.addAll(included.get(i));
+      }
+    }
+    log.debug("Sent {} of {} notification digests", sent, results.size());
+    if (!undelivered.isEmpty()) {
+      sendIndividually(undelivered);
+    }
+    notificationDigestBuffer.complete(digests.stream().flatMap(digest -> digest.heldIds().stream()).toList());
+    return sent;
+  }
+
+  /**
+   * Sends the notifications of failed digests one by one. The service records each attempt in the delivery log.
+   *
+   * @param notificationRequestDtos The notifications of the digests that could not be sent.
+   */
+  private void sendIndividually(List<NotificationRequestDto> notificationRequestDtos) {
+    fallbackCounter.increment(notificationRequestDtos.size());
+    for (NotificationResult result : notificationService.sendNotificationsWithoutDigest(notificationRequestDtos)) {
+      if (!result.isSuccess()) {
+        log.error("Failed to send notification to: {} after its digest failed", result.notificationRequestDto().recipient(),
+                result.error());
+      }
+    }
+  }
+
+  /**
+   * Renders the notifications of a digest and builds the digest email holding them.
+   *
+   * @param digest   The digest.
+   * @param included Filled with the notifications that could be rendered, in the order they appear.
+   * @return The digest email request, or null if no notification could be rendered.
+   */
+  private NotificationRequestDto toDigestRequest(NotificationDigest digest, List<NotificationRequestDto> included) {
+    List<Map<String, Object>> entries = new ArrayList<>(digest.notifications().size());
+    for (NotificationRequestDto notificationRequestDto : digest.notifications()) {
+      try {
+        String body = extractBody(emailTemplateRenderer.render(notificationRequestDto.templateName(),
+                notificationRequestDto.templateVariables()));
+        entries.add(Map.of("subject", notificationRequestDto.subject(), "body", body));
+        included.add(notificationRequestDto);
+      } catch (RuntimeException e) {
+        log.warn("Leaving notification to: {} out of its digest, its template cannot be rendered",
+                notificationRequestDto.recipient(), e);
+        deliveryLogWriter.record(notificationRequestDto, e);
+      }
+    }
+    if (included.isEmpty()) {
+      return null;
+    }
+    String subject = included.size() == 1 ? included.getFirst().subject() : String.format(subjectFormat, included.size());
+    return new NotificationRequestDto(digest.recipient(), subject, NotificationDigestBuffer.DIGEST_TEMPLATE,
+            Map.of("notifications", entries), NotificationTypeEnum.EMAIL, included.getFirst().category());
+  }
+
+  /**
+   * Returns the content of the body of a rendered HTML document, so it can be placed inside the digest.
+   *
+   * @param html The rendered template.
+   * @return The content of its body element, or the whole template if it has none.
+   */
+  static String extractBody(String html) {
+    Matcher matcher = BODY.matcher(html);
+    return matcher.find() ? matcher.group(1).strip() : html.strip();
+  }
+}
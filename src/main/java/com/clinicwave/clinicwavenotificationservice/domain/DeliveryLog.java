@@ -0,0 +1,54 @@
+package com.clinicwave.clinicwavenotificationservice.domain;
+
+import com.clinicwave.clinicwavenotificationservice.audit.Audit;
+import com.clinicwave.clinicwavenotificationservice.enums.DeliveryStatusEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * This class represents the DeliveryLog entity, one attempt to send a notification and its outcome.
+ * <p>
+ * Rows are only ever inserted, in JDBC batches, so the ids come from a pooled sequence rather than an identity
+ * column. On PostgreSQL the table is partitioned by month of {@code createdAt}, see
+ * {@link com.clinicwave.clinicwavenotificationservice.delivery.DeliveryLogPartitionManager}.
+ *
+ * @author agent on 10/18/26
+ */
+@Entity
+@Table(name = "DeliveryLog", indexes = {
+        @Index(name = "idx_delivery_log_tracking_id", columnList = "trackingId"),
+        @Index(name = "idx_delivery_log_recipient", columnList = "recipient, createdAt")
+})
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeliveryLog extends Audit {
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "delivery_log_seq")
+  @SequenceGenerator(name = "delivery_log_seq", sequenceName = "delivery_log_seq", allocationSize = 100)
+  private Long id;
+
+  @Column(length = 64)
+  private String trackingId;
+
+  private String recipient;
+
+  private String templateName;
+
+  @Enumerated(EnumType.STRING)
+  private NotificationTypeEnum type;
+
+  @Enumerated(EnumType.STRING)
+  private NotificationCategoryEnum category;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private DeliveryStatusEnum status;
+
+  @Column(length = 1000)
+  private String error;
+}
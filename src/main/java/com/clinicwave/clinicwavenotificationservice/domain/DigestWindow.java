@@ -0,0 +1,38 @@
+package com.clinicwave.clinicwavenotificationservice.domain;
+
+import com.clinicwave.clinicwavenotificationservice.audit.Audit;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * This class represents the DigestWindow entity, the coalescing window of a recipient during which their digest
+ * notifications are held back.
+ * <p>
+ * There is at most one row per recipient, keyed by the lower-cased recipient, so that instances opening a window
+ * for the same recipient at once conflict on the key. A window whose closing time has passed is as good as none;
+ * it is reopened with a new window ID by the next notification to the recipient, or deleted.
+ *
+ * @author agent on 10/18/26
+ */
+@Entity
+@Table(name = "DigestWindow", indexes = @Index(name = "idx_digest_window_closes_at", columnList = "closesAt"))
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class DigestWindow extends Audit {
+  @Id
+  private String recipientKey;
+
+  @Column(nullable = false, length = 36)
+  private String windowId;
+
+  @Column(nullable = false)
+  private Instant closesAt;
+
+  @Column(nullable = false)
+  private Integer held = 0;
+}
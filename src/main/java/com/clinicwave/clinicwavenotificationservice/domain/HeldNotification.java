@@ -0,0 +1,66 @@
+package com.clinicwave.clinicwavenotificationservice.domain;
+
+import com.clinicwave.clinicwavenotificationservice.audit.Audit;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * This class represents the HeldNotification entity, a notification held back to be sent as part of the digest
+ * of its coalescing window.
+ * <p>
+ * A row is due once its window closes, and deleted once its digest was sent. While the digest is being sent, the
+ * due time is moved past a lease, so that it becomes due again if the instance sending it dies. The ids come from a
+ * pooled sequence, like those of the other notification tables.
+ *
+ * @author agent on 10/18/26
+ */
+@Entity
+@Table(name = "HeldNotification", indexes = {
+        @Index(name = "idx_held_notification_due_at", columnList = "dueAt"),
+        @Index(name = "idx_held_notification_window_id", columnList = "windowId")
+})
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class HeldNotification extends Audit {
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "held_notification_seq")
+  @SequenceGenerator(name = "held_notification_seq", sequenceName = "held_notification_seq", allocationSize = 50)
+  private Long id;
+
+  @Column(nullable = false, length = 36)
+  private String windowId;
+
+  @Column(length = 64)
+  private String trackingId;
+
+  @Column(nullable = false)
+  private String recipient;
+
+  @Column(nullable = false)
+  private String subject;
+
+  @Column(nullable = false)
+  private String templateName;
+
+  @Column(length = 65535)
+  @ToString.Exclude
+  private String templateVariables;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private NotificationTypeEnum type;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private NotificationCategoryEnum category;
+
+  @Column(nullable = false)
+  private Instant dueAt;
+}
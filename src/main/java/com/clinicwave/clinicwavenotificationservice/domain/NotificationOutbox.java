@@ -0,0 +1,76 @@
+package com.clinicwave.clinicwavenotificationservice.domain;
+
+import com.clinicwave.clinicwavenotificationservice.audit.Audit;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.OutboxStatusEnum;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * This class represents the NotificationOutbox entity, a notification accepted over REST that has not been
+ * sent yet.
+ * <p>
+ * The ids come from a pooled sequence rather than an identity column, so that Hibernate can insert a batch of
+ * notifications in a single JDBC batch. A notification with a send-at time is still dispatched right away, and
+ * is then held back by the notification scheduler.
+ *
+ * @author agent on 10/18/26
+ */
+@Entity
+@Table(name = "NotificationOutbox", indexes = @Index(name = "idx_notification_outbox_claim", columnList = "status, availableAt"))
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class NotificationOutbox extends Audit {
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_outbox_seq")
+  @SequenceGenerator(name = "notification_outbox_seq", sequenceName = "notification_outbox_seq", allocationSize = 50)
+  private Long id;
+
+  @Column(nullable = false, unique = true, length = 36)
+  private String trackingId;
+
+  @Column(nullable = false)
+  private String recipient;
+
+  @Column(nullable = false)
+  private String subject;
+
+  @Column(nullable = false)
+  private String templateName;
+
+  @Column(length = 65535)
+  @ToString.Exclude
+  private String templateVariables;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private NotificationTypeEnum type;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private NotificationCategoryEnum category;
+
+  private String idempotencyKey;
+
+  private Instant sendAt;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private OutboxStatusEnum status = OutboxStatusEnum.PENDING;
+
+  @Column(nullable = false)
+  private Integer attempts = 0;
+
+  @Column(nullable = false)
+  private LocalDateTime availableAt;
+
+  @Column(length = 1000)
+  private String lastError;
+}
@@ -0,0 +1,28 @@
+package com.clinicwave.clinicwavenotificationservice.domain;
+
+import com.clinicwave.clinicwavenotificationservice.audit.Audit;
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * This class represents the ProcessedNotification entity, the idempotency key of a notification that has been
+ * sent. The time it was sent is its creation time.
+ *
+ * @author agent on 10/18/26
+ */
+@Entity
+@Table(name = "ProcessedNotification", indexes = @Index(name = "idx_processed_notification_created_at", columnList = "createdAt"))
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProcessedNotification extends Audit {
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "processed_notification_seq")
+  @SequenceGenerator(name = "processed_notification_seq", sequenceName = "processed_notification_seq", allocationSize = 50)
+  private Long id;
+
+  @Column(nullable = false, unique = true)
+  private String idempotencyKey;
+}
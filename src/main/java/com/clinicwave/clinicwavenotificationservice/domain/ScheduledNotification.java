@@ -0,0 +1,67 @@
+package com.clinicwave.clinicwavenotificationservice.domain;
+
+import com.clinicwave.clinicwavenotificationservice.audit.Audit;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * This class represents the ScheduledNotification entity, a notification held back until its send-at time.
+ * <p>
+ * A row is deleted once the notification is sent or given up on. While it is being sent, its send-at time is
+ * moved past a lease, so that it becomes due again if the instance sending it dies. The ids come from a pooled
+ * sequence, so that Hibernate can insert a batch of notifications in a single JDBC batch.
+ *
+ * @author agent on 10/18/26
+ */
+@Entity
+@Table(name = "ScheduledNotification", indexes = @Index(name = "idx_scheduled_notification_send_at", columnList = "sendAt"))
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class ScheduledNotification extends Audit {
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "scheduled_notification_seq")
+  @SequenceGenerator(name = "scheduled_notification_seq", sequenceName = "scheduled_notification_seq", allocationSize = 50)
+  private Long id;
+
+  @Column(length = 64)
+  private String trackingId;
+
+  @Column(nullable = false)
+  private String recipient;
+
+  @Column(nullable = false)
+  private String subject;
+
+  @Column(nullable = false)
+  private String templateName;
+
+  @Column(length = 65535)
+  @ToString.Exclude
+  private String templateVariables;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private NotificationTypeEnum type;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private NotificationCategoryEnum category;
+
+  private String idempotencyKey;
+
+  @Column(nullable = false)
+  private Instant sendAt;
+
+  @Column(nullable = false)
+  private Integer attempts = 0;
+
+  @Column(length = 1000)
+  private String lastError;
+}
@@ -44,4 +44,13 @@ public class SmtpSetting extends Audit {
 
   @Column(nullable = false)
   private Boolean isActive = true;
+
+  @Column(nullable = false)
+  private Integer weight = 1;
+
+  private Integer maxConcurrency;
+
+  private Integer maxMessagesPerSecond;
+
+  private Integer maxMessagesPerHour;
 }
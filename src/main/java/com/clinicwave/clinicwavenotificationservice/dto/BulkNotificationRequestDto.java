@@ -0,0 +1,31 @@
+package com.clinicwave.clinicwavenotificationservice.dto;
+
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.Map;
+
+/**
+ * This class represents a data transfer object for the shared part of a bulk notification request.
+ * It is the first line of a bulk request and applies to every recipient that follows it.
+ *
+ * @author agent on 10/18/26
+ */
+public record BulkNotificationRequestDto(
+        @NotBlank(message = "Subject is required")
+        String subject,
+
+        @NotBlank(message = "Template name is required")
+        String templateName,
+
+        Map<String, Object> templateVariables,
+
+        @NotNull(message = "Notification type is required")
+        NotificationTypeEnum type,
+
+        @NotNull(message = "Notification category is required")
+        NotificationCategoryEnum category
+) {
+}
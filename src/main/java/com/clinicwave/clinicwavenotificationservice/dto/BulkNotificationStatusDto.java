@@ -0,0 +1,17 @@
+package com.clinicwave.clinicwavenotificationservice.dto;
+
+import com.clinicwave.clinicwavenotificationservice.enums.BulkNotificationStatusEnum;
+
+/**
+ * This class represents a data transfer object for the progress of a bulk notification request.
+ *
+ * @author agent on 10/18/26
+ */
+public record BulkNotificationStatusDto(
+        String jobId,
+        BulkNotificationStatusEnum status,
+        long received,
+        long sent,
+        long failed
+) {
+}
@@ -0,0 +1,23 @@
+package com.clinicwave.clinicwavenotificationservice.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+
+import java.util.Map;
+
+/**
+ * This class represents a data transfer object for a single recipient of a bulk notification request.
+ * The subject and template variables, when present, override the shared ones for this recipient only.
+ *
+ * @author agent on 10/18/26
+ */
+public record BulkRecipientDto(
+        @Email(message = "Recipient email address is invalid")
+        @NotBlank(message = "Recipient email address is required")
+        String recipient,
+
+        String subject,
+
+        Map<String, Object> templateVariables
+) {
+}
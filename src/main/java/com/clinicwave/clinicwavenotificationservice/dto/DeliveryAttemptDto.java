@@ -0,0 +1,24 @@
+package com.clinicwave.clinicwavenotificationservice.dto;
+
+import com.clinicwave.clinicwavenotificationservice.enums.DeliveryStatusEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
+
+import java.time.LocalDateTime;
+
+/**
+ * This class represents a data transfer object for one attempt to send a notification.
+ *
+ * @author agent on 10/18/26
+ */
+public record DeliveryAttemptDto(
+        String trackingId,
+        String recipient,
+        String templateName,
+        NotificationTypeEnum type,
+        NotificationCategoryEnum category,
+        DeliveryStatusEnum status,
+        String error,
+        LocalDateTime attemptedAt
+) {
+}
@@ -0,0 +1,40 @@
+package com.clinicwave.clinicwavenotificationservice.dto;
+
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
+import org.hibernate.validator.spi.group.DefaultGroupSequenceProvider;
+
+import java.util.List;
+
+/**
+ * This class chooses how the recipient of a {@link NotificationRequestDto} is validated: as a phone number for
+ * SMS notifications, and as an email address for every other type.
+ *
+ * @author agent on 10/18/26
+ */
+public class NotificationRecipientGroupProvider implements DefaultGroupSequenceProvider<NotificationRequestDto> {
+  /**
+   * The validation group of the constraints on the recipient of email notifications.
+   */
+  public interface EmailRecipient {
+  }
+
+  /**
+   * The validation group of the constraints on the recipient of SMS notifications.
+   */
+  public interface PhoneRecipient {
+  }
+
+  /**
+   * Returns the groups to validate a notification request with.
+   *
+   * @param notificationRequestDto The notification request, or null when the sequence is computed up front.
+   * @return The default group of the request followed by the group of its recipient.
+   */
+  @Override
+  public List<Class<?>> getValidationGroups(NotificationRequestDto notificationRequestDto) {
+    Class<?> recipientGroup = notificationRequestDto != null && notificationRequestDto.type() == NotificationTypeEnum.SMS
+            ? PhoneRecipient.class
+            : EmailRecipient.class;
+    return List.of(NotificationRequestDto.class, recipientGroup);
+  }
+}
@@ -5,18 +5,27 @@ import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import org.hibernate.validator.group.GroupSequenceProvider;
 
 import java.io.Serializable;
+import java.time.Instant;
 import java.util.Map;
 
 /**
  * This class represents a data transfer object for a notification request.
+ * The recipient is an email address, or a phone number in E.164 format for SMS notifications.
+ * A request with a send-at time in the future is held back until that time.
  *
  * @author aamir on 7/11/24
  */
+@GroupSequenceProvider(NotificationRecipientGroupProvider.class)
 public record NotificationRequestDto(
-        @Email(message = "Recipient email address is invalid")
-        @NotBlank(message = "Recipient email address is required")
+        @Email(message = "Recipient email address is invalid", groups = NotificationRecipientGroupProvider.EmailRecipient.class)
+        @Pattern(regexp = "\\+[1-9][0-9]{6,14}", message = "Recipient phone number must be in E.164 format",
+                groups = NotificationRecipientGroupProvider.PhoneRecipient.class)
+        @NotBlank(message = "Recipient is required")
         String recipient,
 
         @NotBlank(message = "Subject is required")
@@ -31,6 +40,98 @@ public record NotificationRequestDto(
         NotificationTypeEnum type,
 
         @NotNull(message = "Notification category is required")
-        NotificationCategoryEnum category
+        NotificationCategoryEnum category,
+
+        // Optional key identifying the notification, so that it is sent only once when it is delivered again
+        @Size(max = 255, message = "Idempotency key must be at most 255 characters")
+        String idempotencyKey,
+
+        // Optional ID the delivery attempts of the notification are logged under, assigned when it is accepted over REST
+        @Size(max = 64, message = "Tracking ID must be at most 64 characters")
+        String trackingId,
+
+        // Optional time the notification is to be sent at, such as a reminder a day before an appointment
+        Instant sendAt
 ) implements Serializable {
+  /**
+   * Creates a notification request without an idempotency key.
+   *
+   * @param recipient         The recipient's email address or phone number.
+   * @param subject           The subject of the notification.
+   * @param templateName      The name of the template to render.
+   * @param templateVariables The variables to render the template with.
+   * @param type              The notification type.
+   * @param category          The notification category.
+   */
+  public NotificationRequestDto(String recipient, String subject, String templateName, Map<String, Object> templateVariables,
+                                NotificationTypeEnum type, NotificationCategoryEnum category) {
+    this(recipient, subject, templateName, templateVariables, type, category, null);
+  }
+
+  /**
+   * Creates a notification request without a tracking ID.
+   *
+   * @param recipient         The recipient's email address or phone number.
+   * @param subject           The subject of the notification.
+   * @param templateName      The name of the template to render.
+   * @param templateVariables The variables to render the template with.
+   * @param type              The notification type.
+   * @param category          The notification category.
+   * @param idempotencyKey    The idempotency key, or null.
+   */
+  public NotificationRequestDto(String recipient, String subject, String templateName, Map<String, Object> templateVariables,
+                                NotificationTypeEnum type, NotificationCategoryEnum category, String idempotencyKey) {
+    this(recipient, subject, templateName, templateVariables, type, category, idempotencyKey, null);
+  }
+
+  /**
+   * Creates a notification request to be sent at once.
+   *
+   * @param recipient         The recipient's email address or phone number.
+   * @param subject           The subject of the notification.
+   * @param templateName      The name of the template to render.
+   * @param templateVariables The variables to render the template with.
+   * @param type              The notification type.
+   * @param category          The notification category.
+   * @param idempotencyKey    The idempotency key, or null.
+   * @param trackingId        The tracking ID, or null.
+   */
+  public NotificationRequestDto(String recipient, String subject, String templateName, Map<String, Object> templateVariables,
+                                NotificationTypeEnum type, NotificationCategoryEnum category, String idempotencyKey,
+                                String trackingId) {
+    this(recipient, subject, templateName, templateVariables, type, category, idempotencyKey, trackingId, null);
+  }
+
+  /**
+   * Returns this request with the given idempotency key, unless it already carries one.
+   *
+   * @param key The idempotency key, e.g. from a message header; may be null.
+   * @return This request if it has a key or the given key is null, otherwise a copy with the key.
+   */
+  public NotificationRequestDto withIdempotencyKey(String key) {
+    if (idempotencyKey != null || key == null) {
+      return this;
+    }
+    return new NotificationRequestDto(recipient, subject, templateName, templateVariables, type, category, key, trackingId, sendAt);
+  }
+
+  /**
+   * Returns this request with the given tracking ID, replacing any tracking ID it carries.
+   *
+   * @param id The tracking ID assigned to the notification.
+   * @return A copy of this request with the tracking ID.
+   */
+  public NotificationRequestDto withTrackingId(String id) {
+    return new NotificationRequestDto(recipient, subject, templateName, templateVariables, type, category, idempotencyKey, id, sendAt);
+  }
+
+  /**
+   * Tells whether the notification is to be sent later than a given time.
+   *
+   * @param now The current time.
+   * @return True if the request has a send-at time after now.
+   */
+  public boolean isDeferred(Instant now) {
+    return sendAt != null && sendAt.isAfter(now);
+  }
 }
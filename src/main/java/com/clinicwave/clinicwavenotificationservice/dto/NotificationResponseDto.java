@@ -0,0 +1,12 @@
+package com.clinicwave.clinicwavenotificationservice.dto;
+
+/**
+ * A DTO (Data Transfer Object) returned when a notification request has been accepted for delivery.
+ *
+ * @author agent on 10/18/26
+ */
+public record NotificationResponseDto(
+        // The ID used to track the notification through the delivery pipeline
+        String trackingId
+) {
+}
@@ -0,0 +1,18 @@
+package com.clinicwave.clinicwavenotificationservice.dto;
+
+import com.clinicwave.clinicwavenotificationservice.enums.DeliveryStatusEnum;
+
+import java.util.List;
+
+/**
+ * This class represents a data transfer object for the delivery status of a notification: the outcome of its
+ * latest attempt, and every attempt, oldest first.
+ *
+ * @author agent on 10/18/26
+ */
+public record NotificationStatusDto(
+        String trackingId,
+        DeliveryStatusEnum status,
+        List<DeliveryAttemptDto> attempts
+) {
+}
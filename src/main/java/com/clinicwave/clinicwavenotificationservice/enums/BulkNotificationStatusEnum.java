@@ -0,0 +1,13 @@
+package com.clinicwave.clinicwavenotificationservice.enums;
+
+/**
+ * This enum represents the stages a bulk notification request goes through.
+ *
+ * @author agent on 10/18/26
+ */
+public enum BulkNotificationStatusEnum {
+  RECEIVING,
+  SENDING,
+  COMPLETED,
+  ABORTED
+}
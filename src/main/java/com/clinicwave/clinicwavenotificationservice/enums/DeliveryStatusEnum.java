@@ -0,0 +1,12 @@
+package com.clinicwave.clinicwavenotificationservice.enums;
+
+/**
+ * This enum represents the outcome of an attempt to send a notification, or that it was scheduled to be sent later.
+ *
+ * @author agent on 10/18/26
+ */
+public enum DeliveryStatusEnum {
+  SCHEDULED,
+  SENT,
+  FAILED
+}
@@ -0,0 +1,12 @@
+package com.clinicwave.clinicwavenotificationservice.enums;
+
+/**
+ * This enum represents the states of a notification in the outbox.
+ * Notifications are removed from the outbox once they have been sent.
+ *
+ * @author agent on 10/18/26
+ */
+public enum OutboxStatusEnum {
+  PENDING,
+  FAILED
+}
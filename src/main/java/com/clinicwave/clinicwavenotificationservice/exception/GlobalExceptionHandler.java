@@ -2,11 +2,16 @@ package com.clinicwave.clinicwavenotificationservice.exception;
 
 import com.clinicwave.clinicwavenotificationservice.dto.ErrorResponseDto;
 import com.clinicwave.clinicwavenotificationservice.dto.ValidationErrorResponseDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -25,11 +30,27 @@ import java.util.stream.Collectors;
  * The class defines several methods, each annotated with @ExceptionHandler and handling a specific type of exception.
  * When an exception to that type is thrown anywhere in the application, the corresponding method in this class will be invoked to handle it.
  * Each method constructs an ErrorResponseDto object containing details about the exception and returns it in the response entity.
+ * Every handled exception is counted by its type and the status it was answered with, including the Spring MVC
+ * exceptions answered by the handlers inherited from ResponseEntityExceptionHandler.
  *
  * @author aamir on 7/8/24
  */
 @ControllerAdvice
 public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
+  private final Meter.MeterProvider<Counter> errorCounter;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param meterRegistry The registry used to expose the handled exception counts.
+   */
+  @Autowired
+  public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+    this.errorCounter = Counter.builder("notification.api.errors")
+            .description("Exceptions handled by the REST API, by exception type and response status")
+            .withRegistry(meterRegistry);
+  }
+
   /**
    * Handles all types of exceptions.
    */
@@ -63,6 +84,17 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
     return createErrorResponse(exception, webRequest, HttpStatus.BAD_REQUEST);
   }
 
+  /**
+   * Handles InvalidBulkNotificationException.
+   */
+  @ExceptionHandler(InvalidBulkNotificationException.class)
+  public ResponseEntity<ErrorResponseDto> handleInvalidBulkNotificationException(
+          Exception exception,
+          WebRequest webRequest
+  ) {
+    return createErrorResponse(exception, webRequest, HttpStatus.BAD_REQUEST);
+  }
+
   /**
    * Handles EmailSendingException.
    */
@@ -85,6 +117,21 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
     return createErrorResponse(exception, webRequest, HttpStatus.INTERNAL_SERVER_ERROR);
   }
 
+  /**
+   * Handles NotificationQueueFullException.
+   * The response carries a Retry-After header telling the caller when to try again.
+   */
+  @ExceptionHandler(NotificationQueueFullException.class)
+  public ResponseEntity<ErrorResponseDto> handleNotificationQueueFullException(
+          NotificationQueueFullException exception,
+          WebRequest webRequest
+  ) {
+    ResponseEntity<ErrorResponseDto> response = createErrorResponse(exception, webRequest, HttpStatus.TOO_MANY_REQUESTS);
+    return ResponseEntity.status(response.getStatusCode())
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfter().toSeconds()))
+            .body(response.getBody());
+  }
+
   /**
    * Handles MethodArgumentNotValidException.
    * This exception is thrown when validation on an argument annotated with @Valid fails.
@@ -120,9 +167,33 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
             errors
     );
 
+    countError(exception, status.value());
     return new ResponseEntity<>(validationErrorResponseDto, status);
   }
 
+  /**
+   * Counts the Spring MVC exceptions answered by the handlers inherited from ResponseEntityExceptionHandler,
+   * all of which build their response here.
+   *
+   * @param exception  the exception that was thrown
+   * @param body       the body for the response
+   * @param headers    the headers for the response
+   * @param status     the status code for the response
+   * @param webRequest the current web request
+   * @return the response entity built by ResponseEntityExceptionHandler
+   */
+  @Override
+  protected ResponseEntity<Object> handleExceptionInternal(
+          @NonNull Exception exception,
+          @Nullable Object body,
+          @NonNull HttpHeaders headers,
+          @NonNull HttpStatusCode status,
+          @NonNull WebRequest webRequest
+  ) {
+    countError(exception, status.value());
+    return super.handleExceptionInternal(exception, body, headers, status, webRequest);
+  }
+
   /**
    * Creates an ErrorResponseDto object with the specified exception, web request, and status.
    *
@@ -143,6 +214,17 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
             LocalDateTime.now()
     );
 
+    countError(exception, status.value());
     return new ResponseEntity<>(errorResponseDto, status);
   }
+
+  /**
+   * Counts a handled exception by its type and the status it was answered with.
+   *
+   * @param exception The exception that was thrown.
+   * @param status    The HTTP status code returned.
+   */
+  private void countError(Exception exception, int status) {
+    errorCounter.withTags("exception", exception.getClass().getSimpleName(), "status", String.valueOf(status)).increment();
+  }
 }
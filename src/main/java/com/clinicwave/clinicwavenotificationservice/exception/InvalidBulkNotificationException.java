@@ -0,0 +1,24 @@
+package com.clinicwave.clinicwavenotificationservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * This exception is thrown when a bulk notification request cannot be read.
+ * It is annotated with @ResponseStatus to automatically return a HttpStatus.BAD_REQUEST when thrown.
+ * The exception takes in jobId and errorDetails as parameters to construct a detailed error message.
+ *
+ * @author agent on 10/18/26
+ */
+@ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "Invalid bulk notification request")
+public class InvalidBulkNotificationException extends RuntimeException {
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param jobId        The ID of the bulk notification job.
+   * @param errorDetails The details of the error that occurred.
+   */
+  public InvalidBulkNotificationException(String jobId, String errorDetails) {
+    super(String.format("Invalid bulk notification request '%s'. Error: %s", jobId, errorDetails));
+  }
+}
@@ -0,0 +1,23 @@
+package com.clinicwave.clinicwavenotificationservice.exception;
+
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+
+import java.time.Duration;
+
+/**
+ * This exception is thrown when a send waited longer than allowed for a place in the lane of its notification
+ * category. The send was not attempted, so the notification can be retried as it is.
+ *
+ * @author agent on 10/18/26
+ */
+public class LaneTimeoutException extends RuntimeException {
+  /**
+   * Constructs a new LaneTimeoutException.
+   *
+   * @param category The category of the lane the send waited for.
+   * @param timeout  How long the send waited.
+   */
+  public LaneTimeoutException(NotificationCategoryEnum category, Duration timeout) {
+    super(String.format("No place in the %s lane became free within %d ms", category, timeout.toMillis()));
+  }
+}
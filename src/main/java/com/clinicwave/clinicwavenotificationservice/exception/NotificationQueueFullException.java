@@ -0,0 +1,31 @@
+package com.clinicwave.clinicwavenotificationservice.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Duration;
+
+/**
+ * This exception is thrown when the in-process notification queue cannot accept more requests.
+ * It is annotated with @ResponseStatus to automatically return a HttpStatus.TOO_MANY_REQUESTS when thrown.
+ * The exception takes in the queue capacity and the suggested retry delay as parameters.
+ *
+ * @author agent on 10/18/26
+ */
+@Getter
+@ResponseStatus(value = HttpStatus.TOO_MANY_REQUESTS, reason = "Notification queue is full")
+public class NotificationQueueFullException extends RuntimeException {
+  private final transient Duration retryAfter;
+
+  /**
+   * Constructs a new NotificationQueueFullException.
+   *
+   * @param capacity   The capacity of the queue that is full.
+   * @param retryAfter How long the caller should wait before retrying.
+   */
+  public NotificationQueueFullException(int capacity, Duration retryAfter) {
+    super(String.format("Notification queue is full (capacity: %d). Retry after %d seconds", capacity, retryAfter.toSeconds()));
+    this.retryAfter = retryAfter;
+  }
+}
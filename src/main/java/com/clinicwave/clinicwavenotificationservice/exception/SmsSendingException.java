@@ -0,0 +1,25 @@
+package com.clinicwave.clinicwavenotificationservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * This exception is thrown when an SMS fails to send, either because the provider rejected it or because the
+ * request carrying it failed.
+ * It is annotated with @ResponseStatus to automatically return a HttpStatus.SERVICE_UNAVAILABLE when thrown.
+ *
+ * @author agent on 10/18/26
+ */
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE, reason = "SMS Sending Failed")
+public class SmsSendingException extends RuntimeException {
+  /**
+   * Constructor for the exception.
+   *
+   * @param provider     The name of the SMS provider.
+   * @param recipient    The phone number the SMS was sent to.
+   * @param errorDetails The details of the error that occurred.
+   */
+  public SmsSendingException(String provider, String recipient, String errorDetails) {
+    super(String.format("Failed to send SMS to '%s' through provider '%s'. Error: %s", recipient, provider, errorDetails));
+  }
+}
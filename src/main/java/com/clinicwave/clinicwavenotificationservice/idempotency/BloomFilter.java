@@ -0,0 +1,124 @@
+package com.clinicwave.clinicwavenotificationservice.idempotency;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class is a thread-safe Bloom filter of strings: a fixed-size bit set that answers whether a key may
+ * have been added, with no false negatives and a configurable rate of false positives. Adding and looking up
+ * a key take a constant number of steps however many keys were added, and the filter needs about 10 bits
+ * per key at a 1% false positive rate, far less than keeping the keys themselves.
+ *
+ * @author agent on 10/18/26
+ */
+public final class BloomFilter {
+  private static final double LN_2 = Math.log(2);
+
+  private final AtomicLongArray bits;
+  private final long bitCount;
+  private final int hashFunctions;
+
+  private BloomFilter(long bitCount, int hashFunctions) {
+    this.bits = new AtomicLongArray(Math.toIntExact((bitCount + Long.SIZE - 1) / Long.SIZE));
+    this.bitCount = bitCount;
+    this.hashFunctions = hashFunctions;
+  }
+
+  /**
+   * Creates a Bloom filter sized for the given number of keys and false positive rate.
+   *
+   * @param expectedInsertions The number of keys expected to be added.
+   * @param falsePositiveRate  The desired rate of false positives once that many keys were added.
+   * @return BloomFilter object
+   */
+  public static BloomFilter create(long expectedInsertions, double falsePositiveRate) {
+    if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+      throw new IllegalArgumentException("A Bloom filter needs a positive number of keys and a false positive rate between 0 and 1");
+    }
+    long bitCount = Math.max(Long.SIZE, (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (LN_2 * LN_2)));
+    int hashFunctions = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * LN_2));
+    return new BloomFilter(bitCount, hashFunctions);
+  }
+
+  /**
+   * Adds a key to the filter.
+   *
+   * @param key The key.
+   */
+  public void put(String key) {
+    long hash1 = hash(key);
+    long hash2 = mix(hash1);
+    for (int i = 0; i < hashFunctions; i++) {
+      long bit = index(hash1 + i * hash2);
+      long mask = 1L << bit;
+      int word = (int) (bit >>> 6);
+      if ((bits.get(word) & mask) == 0) {
+        bits.getAndAccumulate(word, mask, (value, update) -> value | update);
+      }
+    }
+  }
+
+  /**
+   * Checks whether a key may have been added to the filter.
+   *
+   * @param key The key.
+   * @return false if the key was certainly not added, true if it probably was.
+   */
+  public boolean mightContain(String key) {
+    long hash1 = hash(key);
+    long hash2 = mix(hash1);
+    for (int i = 0; i < hashFunctions; i++) {
+      long bit = index(hash1 + i * hash2);
+      if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the size of the filter in bits.
+   *
+   * @return The number of bits.
+   */
+  public long getBitCount() {
+    return bitCount;
+  }
+
+  /**
+   * Maps a combined hash onto a bit of the filter.
+   *
+   * @param combinedHash The combined hash.
+   * @return The index of the bit.
+   */
+  private long index(long combinedHash) {
+    return (combinedHash & Long.MAX_VALUE) % bitCount;
+  }
+
+  /**
+   * Hashes the UTF-8 bytes of a key with 64-bit FNV-1a, then mixes the result to spread its bits.
+   *
+   * @param key The key.
+   * @return The hash.
+   */
+  private static long hash(String key) {
+    long hash = 0xcbf29ce484222325L;
+    for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+      hash ^= b;
+      hash *= 0x100000001b3L;
+    }
+    return mix(hash);
+  }
+
+  /**
+   * The SplitMix64 finalizer, used to derive well-distributed hashes.
+   *
+   * @param value The value to mix.
+   * @return The mixed value.
+   */
+  private static long mix(long value) {
+    value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+    value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+    return value ^ (value >>> 31);
+  }
+}
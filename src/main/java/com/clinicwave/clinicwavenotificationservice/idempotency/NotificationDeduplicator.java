@@ -0,0 +1,328 @@
+package com.clinicwave.clinicwavenotificationservice.idempotency;
+
+import com.clinicwave.clinicwavenotificationservice.domain.ProcessedNotification;
+import com.clinicwave.clinicwavenotificationservice.repository.ProcessedNotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Stream;
+
+/**
+ * This class remembers the idempotency keys of the notifications that were sent, so that a notification
+ * delivered again, e.g. by Kafka after a rebalance or a failed offset commit, is not sent twice.
+ * <p>
+ * Keys are kept for at least the configured window, in two generations that are rotated once per window. Every
+ * generation has a Bloom filter holding all its keys and a cache holding up to {@code max-cached-keys} of them,
+ * so memory stays bounded however many notifications are sent. Most keys are new, and the Bloom filters rule
+ * them out without touching the cache. A key the filters match is confirmed by the cache, then by the optional
+ * persistent store, which lets the service recognise keys beyond the cache and keys sent before a restart; the
+ * filters are refilled from the store on startup. Keys are written to the store in batches in the background,
+ * so the keys of the last moments before a crash can be missing from it.
+ * <p>
+ * A key the filters match that neither the cache nor the store confirms is treated as new: sending a
+ * notification twice is preferable to not sending it.
+ *
+ * @author agent on 10/18/26
+ */
+@Component
+@Slf4j
+public class NotificationDeduplicator {
+  /**
+   * The Kafka header producers may carry the idempotency key of a notification in.
+   */
+  public static final String IDEMPOTENCY_KEY_HEADER = "idempotency-key";
+
+  private final ProcessedNotificationRepository processedNotificationRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final Clock clock;
+  private final Duration window;
+  private final int expectedKeys;
+  private final double falsePositiveRate;
+  private final int maxCachedKeys;
+  private final boolean storeEnabled;
+
+  private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+  private final Queue<String> unsavedKeys = new ConcurrentLinkedQueue<>();
+  private volatile Generation current;
+  private volatile Generation previous;
+
+  private final Counter duplicateCounter;
+  private final Counter unconfirmedCounter;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param processedNotificationRepository The repository of the persistent store.
+   * @param transactionManager              The transaction manager of the store's datasource.
+   * @param meterRegistry                   The registry used to expose the deduplication metrics.
+   * @param window                          How long a key is remembered at least.
+   * @param expectedKeys                    The number of keys expected per window, used to size the Bloom filters.
+   * @param falsePositiveRate               The false positive rate of the Bloom filters at the expected keys.
+   * @param maxCachedKeys                   The maximum number of keys cached per generation.
+   * @param storeEnabled                    Whether keys are also written to the persistent store.
+   */
+  @Autowired
+  public NotificationDeduplicator(ProcessedNotificationRepository processedNotificationRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${notification.idempotency.window:PT24H}") Duration window,
+                                  @Value("${notification.idempotency.expected-keys:1000000}") int expectedKeys,
+                                  @Value("${notification.idempotency.false-positive-rate:0.01}") double falsePositiveRate,
+                                  @Value("${notification.idempotency.max-cached-keys:100000}") int maxCachedKeys,
+                                  @Value("${notification.idempotency.store.enabled:false}") boolean storeEnabled) {
+    this(processedNotificationRepository, transactionManager, meterRegistry, Clock.systemDefaultZone(), window,
+            expectedKeys, falsePositiveRate, maxCachedKeys, storeEnabled);
+  }
+
+  NotificationDeduplicator(ProcessedNotificationRepository processedNotificationRepository,
+                           PlatformTransactionManager transactionManager, MeterRegistry meterRegistry, Clock clock,
+                           Duration window, int expectedKeys, double falsePositiveRate, int maxCachedKeys,
+                           boolean storeEnabled) {
+    this.processedNotificationRepository = processedNotificationRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.clock = clock;
+    this.window = window;
+    this.expectedKeys = expectedKeys;
+    this.falsePositiveRate = falsePositiveRate;
+    this.maxCachedKeys = maxCachedKeys;
+    this.storeEnabled = storeEnabled;
+    this.current = newGeneration();
+    this.previous = newGeneration();
+
+    Gauge.builder("notification.idempotency.cached-keys", this, deduplicator -> deduplicator.current.keys().size() + deduplicator.previous.keys().size())
+            .description("Idempotency keys held in the cache")
+            .register(meterRegistry);
+    this.duplicateCounter = Counter.builder("notification.idempotency.duplicates")
+            .description("Notifications skipped because their idempotency key was already sent")
+            .register(meterRegistry);
+    this.unconfirmedCounter = Counter.builder("notification.idempotency.unconfirmed")
+            .description("Idempotency keys matched by the Bloom filter but confirmed by neither the cache nor the store")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Returns the idempotency key carried in the headers of a Kafka record.
+   *
+   * @param headers The headers of the record.
+   * @return The idempotency key, or null if the record has none.
+   */
+  public static String idempotencyKey(Headers headers) {
+    Header header = headers.lastHeader(IDEMPOTENCY_KEY_HEADER);
+    return header == null || header.value() == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Fills the Bloom filters and the cache with the keys the persistent store holds for the current window,
+   * so that notifications sent before a restart are recognised.
+   */
+  @PostConstruct
+  public void loadStoredKeys() {
+    if (!storeEnabled) {
+      return;
+    }
+    LocalDateTime since = LocalDateTime.now(clock).minus(window);
+    Generation generation = current;
+    Integer loaded = transactionTemplate.execute(status -> {
+      try (Stream<String> keys = processedNotificationRepository.streamIdempotencyKeysSince(since)) {
+        int[] count = {0};
+        keys.forEach(key -> {
+          generation.remember(key, maxCachedKeys);
+          count[0]++;
+        });
+        return count[0];
+      }
+    });
+    log.info("Loaded {} idempotency keys from the store", loaded);
+  }
+
+  /**
+   * Claims an idempotency key for a send. The send must be followed by {@link #complete(String)} if it
+   * succeeded or {@link #release(String)} if it failed.
+   *
+   * @param key The idempotency key of the notification.
+   * @return true if the notification should be sent, false if it was already sent or is being sent.
+   */
+  public boolean tryAcquire(String key) {
+    if (!inFlight.add(key)) {
+      duplicateCounter.increment();
+      return false;
+    }
+    if (wasSent(key)) {
+      inFlight.remove(key);
+      duplicateCounter.increment();
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Remembers the idempotency key of a notification that was sent.
+   *
+   * @param key The idempotency key claimed with {@link #tryAcquire(String)}.
+   */
+  public void complete(String key) {
+    rotateIfDue();
+    current.remember(key, maxCachedKeys);
+    if (storeEnabled) {
+      unsavedKeys.add(key);
+    }
+    inFlight.remove(key);
+  }
+
+  /**
+   * Gives up the claim on the idempotency key of a notification that could not be sent, so it can be sent
+   * when it is delivered again.
+   *
+   * @param key The idempotency key claimed with {@link #tryAcquire(String)}.
+   */
+  public void release(String key) {
+    inFlight.remove(key);
+  }
+
+  /**
+   * Writes the keys of the notifications sent since the last flush to the persistent store in one batch.
+   */
+  @Scheduled(fixedDelayString = "${notification.idempotency.store.flush-interval:PT1S}")
+  public void flush() {
+    if (!storeEnabled || unsavedKeys.isEmpty()) {
+      return;
+    }
+    List<ProcessedNotification> processedNotifications = new ArrayList<>();
+    for (String key = unsavedKeys.poll(); key != null; key = unsavedKeys.poll()) {
+      processedNotifications.add(new ProcessedNotification(null, key));
+    }
+    try {
+      transactionTemplate.executeWithoutResult(status -> processedNotificationRepository.saveAll(processedNotifications));
+    } catch (DataIntegrityViolationException e) {
+      // Another instance stored one of the keys first; store the others one by one.
+      for (ProcessedNotification processedNotification : processedNotifications) {
+        try {
+          transactionTemplate.executeWithoutResult(status ->
+                  processedNotificationRepository.save(new ProcessedNotification(null, processedNotification.getIdempotencyKey())));
+        } catch (DataIntegrityViolationException duplicate) {
+          log.debug("Idempotency key {} was already stored", processedNotification.getIdempotencyKey());
+        }
+      }
+    }
+  }
+
+  /**
+   * Deletes the keys that have left the window from the persistent store.
+   */
+  @Scheduled(fixedDelayString = "${notification.idempotency.store.purge-interval:PT1H}")
+  public void purge() {
+    if (!storeEnabled) {
+      return;
+    }
+    LocalDateTime before = LocalDateTime.now(clock).minus(window.multipliedBy(2));
+    Integer deleted = transactionTemplate.execute(status -> processedNotificationRepository.deleteSentBefore(before));
+    log.debug("Purged {} idempotency keys from the store", deleted);
+  }
+
+  /**
+   * Writes the keys not stored yet before shutdown.
+   */
+  @PreDestroy
+  public void shutdown() {
+    flush();
+  }
+
+  /**
+   * Checks whether the notification with the given key was already sent.
+   *
+   * @param key The idempotency key.
+   * @return Whether the cache or the store confirms the key.
+   */
+  private boolean wasSent(String key) {
+    rotateIfDue();
+    Generation currentGeneration = current;
+    Generation previousGeneration = previous;
+    if (!currentGeneration.bloomFilter().mightContain(key) && !previousGeneration.bloomFilter().mightContain(key)) {
+      return false;
+    }
+    if (currentGeneration.keys().containsKey(key) || previousGeneration.keys().containsKey(key)) {
+      return true;
+    }
+    if (storeEnabled && (unsavedKeys.contains(key) || processedNotificationRepository
+            .existsByIdempotencyKeyAndCreatedAtAfter(key, LocalDateTime.now(clock).minus(window.multipliedBy(2))))) {
+      return true;
+    }
+    unconfirmedCounter.increment();
+    return false;
+  }
+
+  /**
+   * Starts a new generation once the current one is a window old; keys of the generation before are forgotten.
+   */
+  private void rotateIfDue() {
+    long now = clock.millis();
+    if (now - current.startedAt() < window.toMillis()) {
+      return;
+    }
+    synchronized (this) {
+      Generation generation = current;
+      long age = now - generation.startedAt();
+      if (age < window.toMillis()) {
+        return;
+      }
+      // After two idle windows, the current generation is too old to keep as well.
+      previous = age < window.toMillis() * 2 ? generation : newGeneration();
+      current = newGeneration();
+    }
+  }
+
+  /**
+   * Creates an empty generation starting now.
+   *
+   * @return Generation object
+   */
+  private Generation newGeneration() {
+    return new Generation(BloomFilter.create(expectedKeys, falsePositiveRate), new ConcurrentHashMap<>(), clock.millis());
+  }
+
+  /**
+   * The keys sent during one window.
+   *
+   * @param bloomFilter The Bloom filter holding all keys of the generation.
+   * @param keys        The cached keys of the generation.
+   * @param startedAt   The epoch millisecond the generation started at.
+   */
+  private record Generation(BloomFilter bloomFilter, Map<String, Boolean> keys, long startedAt) {
+    /**
+     * Adds a key to the generation, caching it if the cache has room.
+     *
+     * @param key           The key.
+     * @param maxCachedKeys The maximum number of cached keys.
+     */
+    void remember(String key, int maxCachedKeys) {
+      bloomFilter.put(key);
+      if (keys.size() < maxCachedKeys) {
+        keys.put(key, Boolean.TRUE);
+      }
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package com.clinicwave.clinicwavenotificationservice.lane;
+
+import java.time.Duration;
+
+/**
+ * This record holds the settings of the lane of a single notification category.
+ *
+ * @param concurrency      The maximum number of sends of the category in progress at once; also the number of
+ *                         consumers of the category's topic.
+ * @param reservedCapacity The number of sends only the category may use, so it never waits behind other categories.
+ * @param latencySlo       The time within which notifications of the category should be delivered.
+ * @author agent on 10/18/26
+ */
+public record LaneSettings(
+        int concurrency,
+        int reservedCapacity,
+        Duration latencySlo
+) {
+}
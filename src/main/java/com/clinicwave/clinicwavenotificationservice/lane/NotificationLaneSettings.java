@@ -0,0 +1,26 @@
+package com.clinicwave.clinicwavenotificationservice.lane;
+
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This record holds the settings of the notification lanes.
+ *
+ * @param capacity       The number of sends the relay of each limited channel handles at once, shared by the lanes
+ *                       of the channel; channels not listed are not limited.
+ * @param acquireTimeout How long a send waits for a place in its lane before it fails.
+ * @param priority       The categories from the highest to the lowest priority; categories not listed come last.
+ * @param lanes          The settings of each category's lane.
+ * @author agent on 10/18/26
+ */
+public record NotificationLaneSettings(
+        Map<NotificationTypeEnum, Integer> capacity,
+        Duration acquireTimeout,
+        List<NotificationCategoryEnum> priority,
+        Map<NotificationCategoryEnum, LaneSettings> lanes
+) {
+}
@@ -0,0 +1,459 @@
+package com.clinicwave.clinicwavenotificationservice.lane;
+
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
+import com.clinicwave.clinicwavenotificationservice.exception.LaneTimeoutException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class schedules the sends of the different notification categories onto the relays' capacity, so that
+ * a large MARKETING campaign cannot hold up VERIFICATION codes or SYSTEM_ALERTs.
+ * <p>
+ * Every channel that sends through a relay of limited capacity, such as EMAIL through the SMTP pool, has its own
+ * capacity and a lane per category; channels without a capacity, such as WEB, are not limited. Every lane has a
+ * share of its channel's capacity reserved for it, which no other category can take, and a maximum number of sends
+ * in progress, both kept in semaphores of the lane so that sends within the reservation never contend with other
+ * lanes. The capacity that is not reserved is shared by the lanes of the channel: when several lanes wait for it,
+ * the lane with the highest priority goes first. A send that cannot start within the acquire timeout fails
+ * without being attempted, so that it is retried rather than holding its caller.
+ * <p>
+ * Each category also reports how long its notifications take to be delivered against its latency objective.
+ *
+ * @author agent on 10/18/26
+ */
+@Component
+public class NotificationLanes {
+  private final List<NotificationCategoryEnum> priorityOrder;
+  private final int[] priority;
+  private final Duration acquireTimeout;
+  private final Map<NotificationTypeEnum, Channel> channels = new EnumMap<>(NotificationTypeEnum.class);
+
+  private final Map<NotificationCategoryEnum, Timer> latencyTimers = new EnumMap<>(NotificationCategoryEnum.class);
+  private final Map<NotificationCategoryEnum, Counter> sloBreachCounters = new EnumMap<>(NotificationCategoryEnum.class);
+  private final Map<NotificationCategoryEnum, Duration> latencySlos = new EnumMap<>(NotificationCategoryEnum.class);
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param settings      The settings of the lanes.
+   * @param meterRegistry The registry used to expose the lane metrics.
+   */
+  @Autowired
+  public NotificationLanes(NotificationLaneSettings settings, MeterRegistry meterRegistry) {
+    NotificationCategoryEnum[] categories = NotificationCategoryEnum.values();
+    this.priority = new int[categories.length];
+    this.acquireTimeout = settings.acquireTimeout();
+
+    List<NotificationCategoryEnum> order = new ArrayList<>(settings.priority());
+    for (NotificationCategoryEnum category : categories) {
+      if (!order.contains(category)) {
+        order.add(category);
+      }
+    }
+    this.priorityOrder = List.copyOf(order);
+
+    for (NotificationCategoryEnum category : categories) {
+      LaneSettings lane = settings.lanes().get(category);
+      priority[category.ordinal()] = priorityOrder.indexOf(category);
+      latencySlos.put(category, lane.latencySlo());
+      registerLatencyMeters(category, lane, meterRegistry);
+    }
+    settings.capacity().forEach((type, capacity) ->
+            channels.put(type, new Channel(type, capacity, settings.lanes(), meterRegistry)));
+  }
+
+  /**
+   * Waits until a send of the given channel and category may start and takes its place in the lane.
+   * The returned permit must be closed once the send has completed.
+   *
+   * @param type     The channel of the notification; a channel without lanes is not limited.
+   * @param category The category of the notification; null is treated as GENERAL.
+   * @return The permit for the send.
+   * @throws LaneTimeoutException  if the send could not start within the acquire timeout.
+   * @throws IllegalStateException if the thread was interrupted while waiting.
+   */
+  public LanePermit acquire(NotificationTypeEnum type, NotificationCategoryEnum category) {
+    return acquire(type, category, 1);
+  }
+
+  /**
+   * Waits until several messages of the given channel and category may be sent together, such as a chunk sent
+   * over one relay session, and takes one place in the lane for each of them.
+   * The returned permit must be closed once the messages have been sent.
+   *
+   * @param type     The channel of the notifications; a channel without lanes is not limited.
+   * @param category The category of the notifications; null is treated as GENERAL.
+   * @param places   The number of places to take, at most
+   *                 {@link #getMaxPlaces(NotificationTypeEnum, NotificationCategoryEnum)}.
+   * @return The permit for the messages.
+   * @throws IllegalArgumentException if the lane can never hold that many places at once.
+   * @throws LaneTimeoutException     if the messages could not start within the acquire timeout.
+   * @throws IllegalStateException    if the thread was interrupted while waiting.
+   */
+  public LanePermit acquire(NotificationTypeEnum type, NotificationCategoryEnum category, int places) {
+    Channel channel = channels.get(type);
+    if (channel == null) {
+      return LanePermit.UNLIMITED;
+    }
+    return channel.lanes[laneOf(category).ordinal()].acquire(places);
+  }
+
+  /**
+   * Returns the largest number of places the lane of the given channel and category can hold at once, which
+   * bounds the number of messages that can be sent together.
+   *
+   * @param type     The channel.
+   * @param category The category; null is treated as GENERAL.
+   * @return The largest number of places, or {@link Integer#MAX_VALUE} if the channel is not limited.
+   */
+  public int getMaxPlaces(NotificationTypeEnum type, NotificationCategoryEnum category) {
+    Channel channel = channels.get(type);
+    return channel != null ? channel.lanes[laneOf(category).ordinal()].maxPlaces : Integer.MAX_VALUE;
+  }
+
+  /**
+   * Returns the number of sends of the given channel and category in progress.
+   *
+   * @param type     The channel.
+   * @param category The category.
+   * @return The number of sends in progress, or 0 if the channel is not limited.
+   */
+  public int getInFlight(NotificationTypeEnum type, NotificationCategoryEnum category) {
+    Channel channel = channels.get(type);
+    return channel != null ? channel.lanes[category.ordinal()].inFlight.get() : 0;
+  }
+
+  /**
+   * Records how long a notification took from being received to being delivered.
+   *
+   * @param category The category of the notification; null is treated as GENERAL.
+   * @param latency  The time from receiving to delivering the notification.
+   */
+  public void recordLatency(NotificationCategoryEnum category, Duration latency) {
+    NotificationCategoryEnum lane = laneOf(category);
+    latencyTimers.get(lane).record(latency);
+    if (latency.compareTo(latencySlos.get(lane)) > 0) {
+      sloBreachCounters.get(lane).increment();
+    }
+  }
+
+  /**
+   * Returns a comparator ordering categories from the highest to the lowest priority.
+   *
+   * @return The comparator.
+   */
+  public Comparator<NotificationCategoryEnum> byPriority() {
+    return Comparator.comparingInt(category -> priority[laneOf(category).ordinal()]);
+  }
+
+  /**
+   * Returns the lane of a category, treating notifications without a category as GENERAL.
+   *
+   * @param category The category of the notification.
+   * @return The category whose lane the notification uses.
+   */
+  private static NotificationCategoryEnum laneOf(NotificationCategoryEnum category) {
+    return category != null ? category : NotificationCategoryEnum.GENERAL;
+  }
+
+  /**
+   * Registers the latency and objective breach meters of a category.
+   *
+   * @param category      The category.
+   * @param lane          The settings of the category's lanes.
+   * @param meterRegistry The registry to register the meters with.
+   */
+  private void registerLatencyMeters(NotificationCategoryEnum category, LaneSettings lane, MeterRegistry meterRegistry) {
+    String tag = category.name();
+    latencyTimers.put(category, Timer.builder("notification.lane.latency")
+            .description("Time from receiving a notification of the category to delivering it")
+            .tag("category", tag)
+            .serviceLevelObjectives(lane.latencySlo())
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry));
+    sloBreachCounters.put(category, Counter.builder("notification.lane.latency.slo-breaches")
+            .description("Notifications of the category delivered later than its latency objective")
+            .tag("category", tag)
+            .register(meterRegistry));
+  }
+
+  /**
+   * The lanes of one channel and the capacity they share. The shared capacity is guarded by a lock of the
+   * channel, which is only taken by sends beyond their lane's reservation and by the sends freeing its places.
+   */
+  private final class Channel {
+    private final Lane[] lanes;
+    private final ReentrantLock sharedLock = new ReentrantLock();
+    private final Condition capacityReleased = sharedLock.newCondition();
+    private int sharedFree;
+
+    private Channel(NotificationTypeEnum type, int capacity, Map<NotificationCategoryEnum, LaneSettings> settings,
+                    MeterRegistry meterRegistry) {
+      NotificationCategoryEnum[] categories = NotificationCategoryEnum.values();
+      int totalReserved = 0;
+      for (NotificationCategoryEnum category : categories) {
+        LaneSettings lane = settings.get(category);
+        totalReserved += Math.min(lane.reservedCapacity(), lane.concurrency());
+      }
+      if (totalReserved > capacity) {
+        throw new IllegalArgumentException("The " + type + " lanes reserve " + totalReserved + " sends but the capacity is only " + capacity);
+      }
+      this.sharedFree = capacity - totalReserved;
+
+      this.lanes = new Lane[categories.length];
+      for (NotificationCategoryEnum category : categories) {
+        lanes[category.ordinal()] = new Lane(this, type, category, settings.get(category), capacity, meterRegistry);
+      }
+    }
+
+    /**
+     * Checks whether a lane of higher priority than the given one is waiting for shared capacity.
+     *
+     * @param lane The lane.
+     * @return Whether the lane has to stand back.
+     */
+    private boolean higherPriorityWaiting(Lane lane) {
+      for (Lane other : lanes) {
+        if (other.priority < lane.priority && other.waitingForShared.get() > 0) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Wakes up the sends waiting for shared capacity or for their lane's reservation.
+     */
+    private void signalWaiting() {
+      sharedLock.lock();
+      try {
+        capacityReleased.signalAll();
+      } finally {
+        sharedLock.unlock();
+      }
+    }
+  }
+
+  /**
+   * The lane of one category on one channel.
+   */
+  private final class Lane {
+    private final Channel channel;
+    private final NotificationCategoryEnum category;
+    private final int priority;
+    private final int maxPlaces;
+    private final Semaphore concurrency;
+    private final Semaphore reserved;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger waitingForShared = new AtomicInteger();
+    private final Timer waitTimer;
+    private final Counter timeoutCounter;
+
+    private Lane(Channel channel, NotificationTypeEnum type, NotificationCategoryEnum category, LaneSettings settings,
+                 int capacity, MeterRegistry meterRegistry) {
+      this.channel = channel;
+      this.category = category;
+      this.priority = NotificationLanes.this.priority[category.ordinal()];
+      int maxConcurrency = Math.min(settings.concurrency(), capacity);
+      int reservedCapacity = Math.min(settings.reservedCapacity(), maxConcurrency);
+      this.maxPlaces = Math.min(maxConcurrency, reservedCapacity + channel.sharedFree);
+      // A fair semaphore, so that a chunk waiting for several places is not overtaken by single sends forever.
+      this.concurrency = new Semaphore(maxConcurrency, true);
+      this.reserved = new Semaphore(reservedCapacity);
+
+      String channelTag = type.name();
+      String categoryTag = category.name();
+      Gauge.builder("notification.lane.in-flight", inFlight, AtomicInteger::get)
+              .description("Sends of the category in progress on the channel")
+              .tags("channel", channelTag, "category", categoryTag)
+              .register(meterRegistry);
+      this.waitTimer = Timer.builder("notification.lane.wait")
+              .description("Time sends of the category waited for relay capacity")
+              .tags("channel", channelTag, "category", categoryTag)
+              .register(meterRegistry);
+      this.timeoutCounter = Counter.builder("notification.lane.timeouts")
+              .description("Sends of the category that gave up waiting for relay capacity")
+              .tags("channel", channelTag, "category", categoryTag)
+              .register(meterRegistry);
+    }
+
+    /**
+     * Takes places in the lane, first from its reservation and then from the shared capacity of the channel.
+     *
+     * @param places The number of places to take.
+     * @return The permit for the places.
+     */
+    private LanePermit acquire(int places) {
+      if (places < 1 || places > maxPlaces) {
+        throw new IllegalArgumentException("The " + category + " lane cannot hold " + places + " sends at once");
+      }
+      long start = System.nanoTime();
+      boolean started = false;
+      try {
+        if (!concurrency.tryAcquire(places, acquireTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+          throw timeout();
+        }
+        try {
+          int fromReserved = takeReserved(places);
+          int fromShared = fromReserved < places ? takeShared(places, fromReserved, start + acquireTimeout.toNanos()) : 0;
+          started = true;
+          inFlight.addAndGet(places);
+          waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+          return new LanePermit(this, places - fromShared, fromShared);
+        } finally {
+          if (!started) {
+            concurrency.release(places);
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting for the " + category + " lane", e);
+      }
+    }
+
+    /**
+     * Waits for the places a send could not take from the lane's reservation. Places of the reservation freed
+     * in the meantime are taken first; the rest come from the shared capacity, unless a lane of higher priority
+     * is waiting for it.
+     *
+     * @param places       The number of places the send takes.
+     * @param fromReserved The number of places already taken from the reservation.
+     * @param deadline     The time by which the places must be taken, as a {@link System#nanoTime()} value.
+     * @return The number of places taken from the shared capacity.
+     * @throws LaneTimeoutException if the places were not taken by the deadline; the places taken from the
+     *                              reservation are given back.
+     * @throws InterruptedException if interrupted while waiting; the places taken from the reservation are given back.
+     */
+    private int takeShared(int places, int fromReserved, long deadline) throws InterruptedException {
+      int taken = fromReserved;
+      boolean started = false;
+      channel.sharedLock.lock();
+      waitingForShared.incrementAndGet();
+      try {
+        while (true) {
+          taken += takeReserved(places - taken);
+          int needed = places - taken;
+          if (needed == 0) {
+            started = true;
+            return 0;
+          }
+          if (channel.sharedFree >= needed && !channel.higherPriorityWaiting(this)) {
+            channel.sharedFree -= needed;
+            started = true;
+            return needed;
+          }
+          long remaining = deadline - System.nanoTime();
+          if (remaining <= 0) {
+            throw timeout();
+          }
+          channel.capacityReleased.awaitNanos(remaining);
+        }
+      } finally {
+        waitingForShared.decrementAndGet();
+        if (!started) {
+          reserved.release(taken);
+          // Lanes of lower priority may have been standing back for this send.
+          channel.capacityReleased.signalAll();
+        }
+        channel.sharedLock.unlock();
+      }
+    }
+
+    /**
+     * Takes as many of the given places as are free in the lane's reservation, without waiting.
+     *
+     * @param places The number of places wanted.
+     * @return The number of places taken.
+     */
+    private int takeReserved(int places) {
+      for (int taken = places; taken > 0; taken--) {
+        if (reserved.tryAcquire(taken)) {
+          return taken;
+        }
+      }
+      return 0;
+    }
+
+    /**
+     * Frees the places of completed sends and wakes up the sends that may be waiting for them.
+     *
+     * @param fromReserved The number of places taken from the reservation.
+     * @param fromShared   The number of places taken from the shared capacity.
+     */
+    private void release(int fromReserved, int fromShared) {
+      inFlight.addAndGet(-(fromReserved + fromShared));
+      if (fromShared > 0) {
+        channel.sharedLock.lock();
+        try {
+          channel.sharedFree += fromShared;
+          channel.capacityReleased.signalAll();
+        } finally {
+          channel.sharedLock.unlock();
+        }
+      }
+      if (fromReserved > 0) {
+        reserved.release(fromReserved);
+        if (waitingForShared.get() > 0) {
+          channel.signalWaiting();
+        }
+      }
+      concurrency.release(fromReserved + fromShared);
+    }
+
+    /**
+     * Counts a send that gave up waiting for the lane and creates the exception it fails with.
+     *
+     * @return The exception.
+     */
+    private LaneTimeoutException timeout() {
+      timeoutCounter.increment();
+      return new LaneTimeoutException(category, acquireTimeout);
+    }
+  }
+
+  /**
+   * One or more places in a lane, held for the duration of a send.
+   */
+  public static final class LanePermit implements AutoCloseable {
+    private static final LanePermit UNLIMITED = new LanePermit(null, 0, 0);
+
+    private final Lane lane;
+    private final int fromReserved;
+    private final int fromShared;
+    private boolean released;
+
+    private LanePermit(Lane lane, int fromReserved, int fromShared) {
+      this.lane = lane;
+      this.fromReserved = fromReserved;
+      this.fromShared = fromShared;
+    }
+
+    /**
+     * Frees the places in the lane. Closing a permit more than once has no effect.
+     */
+    @Override
+    public void close() {
+      if (!released && lane != null) {
+        released = true;
+        lane.release(fromReserved, fromShared);
+      }
+    }
+  }
+}
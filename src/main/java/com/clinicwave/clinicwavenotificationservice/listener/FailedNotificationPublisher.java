@@ -0,0 +1,131 @@
+package com.clinicwave.clinicwavenotificationservice.listener;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.retrytopic.DeadLetterPublishingRecovererFactory;
+import org.springframework.kafka.retrytopic.DestinationTopicResolver;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.Set;
+
+/**
+ * This class hands the notifications that failed on the batch and parallel listeners over to the retry topics of
+ * the record listener, so that they are retried, and given up on, the same way in every listener mode.
+ * <p>
+ * A failed record is published to the retry topic of its next attempt with a jittered backoff, or to the
+ * dead-letter topic once its attempts are used up or it failed with an error retrying cannot fix. Records that
+ * could not be deserialized go straight to the dead-letter topic, as the bytes they arrived as. The retry topics
+ * are consumed by the retry listeners of the record listener, which only start along with it in the single
+ * listener mode; in the batch and parallel modes they are started here once the application is ready.
+ *
+ * @author agent on 10/18/26
+ */
+@Component
+@Slf4j
+public class FailedNotificationPublisher {
+  /**
+   * The id of the record listener whose retry topics failed notifications are published to.
+   */
+  public static final String MAIN_LISTENER_ID = "notification-listener";
+
+  private static final Set<String> RETRYING_MODES = Set.of("batch", "parallel");
+  private static final LogAccessor LOG_ACCESSOR = new LogAccessor(FailedNotificationPublisher.class);
+
+  private final ConsumerRecordRecoverer recoverer;
+  private final KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
+  private final String listenerMode;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param destinationTopicResolver      The resolver of the retry and dead-letter topics of the record listener.
+   * @param retryTopicSettings            The settings of the retry topics, used to jitter the backoff.
+   * @param kafkaListenerEndpointRegistry The registry holding the retry listener containers.
+   * @param listenerMode                  The Kafka listener mode.
+   */
+  @Autowired
+  public FailedNotificationPublisher(DestinationTopicResolver destinationTopicResolver,
+                                     RetryTopicSettings retryTopicSettings,
+                                     KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry,
+                                     @Value("${notification.kafka.listener.mode:single}") String listenerMode) {
+    this(createRecoverer(destinationTopicResolver, retryTopicSettings), kafkaListenerEndpointRegistry, listenerMode);
+  }
+
+  FailedNotificationPublisher(ConsumerRecordRecoverer recoverer,
+                              KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry,
+                              String listenerMode) {
+    this.recoverer = recoverer;
+    this.kafkaListenerEndpointRegistry = kafkaListenerEndpointRegistry;
+    this.listenerMode = listenerMode;
+  }
+
+  /**
+   * Publishes a record that failed to the retry topic of its next attempt, or to the dead-letter topic.
+   * Returns once the broker acknowledged the record.
+   *
+   * @param consumerRecord The record that failed.
+   * @param error          The error it failed with.
+   * @throws KafkaException if the record could not be published.
+   */
+  public void publish(ConsumerRecord<?, ?> consumerRecord, Exception error) {
+    recoverer.accept(consumerRecord, error);
+  }
+
+  /**
+   * Publishes a record whose value could not be deserialized to the dead-letter topic.
+   *
+   * @param consumerRecord The record with a null value.
+   * @throws KafkaException if the record could not be published.
+   */
+  public void publishUndeserializable(ConsumerRecord<?, ?> consumerRecord) {
+    DeserializationException error = SerializationUtils.getExceptionFromHeader(consumerRecord,
+            SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, LOG_ACCESSOR);
+    publish(consumerRecord, error != null ? error
+            : new DeserializationException("Notification request has no value", new byte[0], false, null));
+  }
+
+  /**
+   * Starts the retry and dead-letter listeners of the record listener when failed notifications are published
+   * to them by the batch or parallel listener.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void startRetryListeners() {
+    if (!RETRYING_MODES.contains(listenerMode)) {
+      return;
+    }
+    for (String listenerId : kafkaListenerEndpointRegistry.getListenerContainerIds()) {
+      MessageListenerContainer container = kafkaListenerEndpointRegistry.getListenerContainer(listenerId);
+      if (listenerId.startsWith(MAIN_LISTENER_ID + "-") && container != null && !container.isRunning()) {
+        container.start();
+        log.info("Started retry listener {}", listenerId);
+      }
+    }
+  }
+
+  /**
+   * Creates the recoverer the record listener publishes its failed records with, with the jittered backoff.
+   *
+   * @param destinationTopicResolver The resolver of the retry and dead-letter topics.
+   * @param retryTopicSettings       The settings of the retry topics.
+   * @return The recoverer.
+   */
+  private static ConsumerRecordRecoverer createRecoverer(DestinationTopicResolver destinationTopicResolver,
+                                                         RetryTopicSettings retryTopicSettings) {
+    JitteredRetryBackoff jitteredRetryBackoff = new JitteredRetryBackoff(retryTopicSettings, Clock.systemUTC());
+    DeadLetterPublishingRecovererFactory factory = new DeadLetterPublishingRecovererFactory(destinationTopicResolver);
+    factory.setHeadersFunction(jitteredRetryBackoff::nextAttemptHeaders);
+    return factory.create(MAIN_LISTENER_ID);
+  }
+}
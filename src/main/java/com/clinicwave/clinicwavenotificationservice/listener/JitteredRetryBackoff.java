@@ -0,0 +1,74 @@
+package com.clinicwave.clinicwavenotificationservice.listener;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.kafka.retrytopic.RetryTopicHeaders;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * This class spreads out the retries of notifications that failed at the same time.
+ * <p>
+ * A retry topic holds each record back until the time in its backoff timestamp header, which is the time of
+ * the failure plus the fixed delay of the topic. When a relay goes down, every notification sent at that moment
+ * fails together and would be retried together, hitting the relay with the same burst again. This class
+ * supplies a later backoff timestamp header for records on their way to a retry topic, with the delay randomly
+ * lengthened or shortened by up to the configured jitter. As the retry topic reads the last backoff timestamp
+ * header of a record, this one takes precedence over the unjittered one.
+ *
+ * @author agent on 10/18/26
+ */
+public class JitteredRetryBackoff {
+  private final RetryTopicSettings settings;
+  private final Clock clock;
+
+  /**
+   * Constructor for the backoff.
+   *
+   * @param settings The settings of the retry topics.
+   * @param clock    The clock the retries are scheduled by.
+   */
+  public JitteredRetryBackoff(RetryTopicSettings settings, Clock clock) {
+    this.settings = settings;
+    this.clock = clock;
+  }
+
+  /**
+   * Creates the headers to add to a failed record before it is published to the next topic.
+   * Records that will not be retried, because they ran out of attempts or failed with a non-retryable
+   * error, get no headers.
+   *
+   * @param consumerRecord The record that failed.
+   * @param exception      The exception it failed with.
+   * @return The headers to add.
+   */
+  public Headers nextAttemptHeaders(ConsumerRecord<?, ?> consumerRecord, Exception exception) {
+    Headers headers = new RecordHeaders();
+    int attempt = getAttempt(consumerRecord);
+    if (attempt >= settings.attempts() || settings.isNonRetryable(exception)) {
+      return headers;
+    }
+
+    long delayMillis = settings.delayBefore(attempt - 1).toMillis();
+    long jitterMillis = (long) (delayMillis * settings.jitter() * ThreadLocalRandom.current().nextDouble(-1, 1));
+    long backoffTimestamp = clock.millis() + delayMillis + jitterMillis;
+    headers.add(RetryTopicHeaders.DEFAULT_HEADER_BACKOFF_TIMESTAMP, BigInteger.valueOf(backoffTimestamp).toByteArray());
+    return headers;
+  }
+
+  /**
+   * Returns which attempt the failed record was; records from the main topic carry no attempts header.
+   *
+   * @param consumerRecord The record that failed.
+   * @return The attempt, starting at 1.
+   */
+  private static int getAttempt(ConsumerRecord<?, ?> consumerRecord) {
+    Header header = consumerRecord.headers().lastHeader(RetryTopicHeaders.DEFAULT_HEADER_ATTEMPTS);
+    return header != null ? ByteBuffer.wrap(header.value()).getInt() : 1;
+  }
+}
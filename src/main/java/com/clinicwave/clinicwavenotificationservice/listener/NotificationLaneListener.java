@@ -0,0 +1,173 @@
+package com.clinicwave.clinicwavenotificationservice.listener;
+
+import com.clinicwave.clinicwavenotificationservice.config.NotificationLaneConfig;
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+import com.clinicwave.clinicwavenotificationservice.idempotency.NotificationDeduplicator;
+import com.clinicwave.clinicwavenotificationservice.lane.NotificationLanes;
+import com.clinicwave.clinicwavenotificationservice.service.NotificationService;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.kafka.annotation.DltHandler;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.retrytopic.DltStrategy;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * This class gives every notification category its own Kafka topic and consumers, so that a backlog of one
+ * category does not delay the others.
+ * <p>
+ * In the {@code lanes} listener mode, the shared notification topic is only read to route each notification
+ * to the topic of its category, which takes no longer than producing it again. Each category topic is then
+ * consumed by its own listener container with the concurrency of the category's lane, and its sends take
+ * their place in the category's lane of the relay capacity. Producers may also publish to the category topics
+ * directly. Failed notifications are retried through retry topics of their own category.
+ *
+ * @author agent on 10/18/26
+ */
+@Component
+@Slf4j
+public class NotificationLaneListener {
+  private static final String TOPIC_NAME = "notification-topic";
+  private static final String GROUP_ID = "notification-group";
+  private static final String LANES_MODE = "#{'${notification.kafka.listener.mode:single}' == 'lanes'}";
+  private static final String RETRY_INITIAL_DELAY = "#{T(java.time.Duration).parse('${notification.kafka.retry.initial-delay:PT10S}').toMillis()}";
+  private static final String RETRY_MAX_DELAY = "#{T(java.time.Duration).parse('${notification.kafka.retry.max-delay:PT10M}').toMillis()}";
+
+  private static final String SYSTEM_ALERT_TOPIC = "notification-topic-system-alert";
+  private static final String VERIFICATION_TOPIC = "notification-topic-verification";
+  private static final String GENERAL_TOPIC = "notification-topic-general";
+  private static final String MARKETING_TOPIC = "notification-topic-marketing";
+
+  private final NotificationService notificationService;
+  private final NotificationLanes notificationLanes;
+  private final KafkaTemplate<String, Object> kafkaTemplate;
+  private final Clock clock;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param notificationService The service used to send the notifications.
+   * @param notificationLanes   The lanes the delivery latency is reported to.
+   * @param kafkaTemplate       The template used to route notifications to their category topic.
+   */
+  @Autowired
+  public NotificationLaneListener(NotificationService notificationService,
+                                  NotificationLanes notificationLanes,
+                                  @Qualifier("notificationKafkaTemplate") KafkaTemplate<String, Object> kafkaTemplate) {
+    this(notificationService, notificationLanes, kafkaTemplate, Clock.systemUTC());
+  }
+
+  NotificationLaneListener(NotificationService notificationService, NotificationLanes notificationLanes,
+                           KafkaTemplate<String, Object> kafkaTemplate, Clock clock) {
+    this.notificationService = notificationService;
+    this.notificationLanes = notificationLanes;
+    this.kafkaTemplate = kafkaTemplate;
+    this.clock = clock;
+  }
+
+  /**
+   * Returns the topic of a notification category.
+   *
+   * @param category The notification category; null is treated as GENERAL.
+   * @return The topic notifications of the category are consumed from.
+   */
+  public static String topicFor(NotificationCategoryEnum category) {
+    return switch (category != null ? category : NotificationCategoryEnum.GENERAL) {
+      case SYSTEM_ALERT -> SYSTEM_ALERT_TOPIC;
+      case VERIFICATION -> VERIFICATION_TOPIC;
+      case GENERAL -> GENERAL_TOPIC;
+      case MARKETING -> MARKETING_TOPIC;
+    };
+  }
+
+  /**
+   * Kafka batch listener method that routes the notifications of the shared topic to their category topics.
+   * The record keys, timestamps and headers are kept, so notifications with the same key stay in order and their
+   * delivery latency is measured from when they were first published. The batch only completes once every
+   * notification was routed, so none are lost if routing fails.
+   *
+   * @param records The records returned by the poll.
+   */
+  @KafkaListener(topics = TOPIC_NAME, groupId = GROUP_ID, containerFactory = "batchKafkaListenerContainerFactory", autoStartup = LANES_MODE)
+  public void routeNotifications(List<ConsumerRecord<String, NotificationRequestDto>> records) {
+    List<CompletableFuture<?>> sends = new ArrayList<>(records.size());
+    for (ConsumerRecord<String, NotificationRequestDto> consumerRecord : records) {
+      NotificationRequestDto notificationRequestDto = consumerRecord.value();
+      // Records that failed to deserialize arrive as null values.
+      if (notificationRequestDto == null) {
+        log.warn("Skipping notification request at offset {} that could not be deserialized", consumerRecord.offset());
+        continue;
+      }
+      sends.add(kafkaTemplate.send(new ProducerRecord<>(topicFor(notificationRequestDto.category()), null,
+              consumerRecord.timestamp(), consumerRecord.key(), notificationRequestDto, consumerRecord.headers())));
+    }
+    CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).join();
+    log.debug("Routed {} notification requests to their category topics", sends.size());
+  }
+
+  /**
+   * Kafka listener method for the category topics. Each category topic has its own listener container with
+   * the concurrency of the category's lane.
+   *
+   * @param notificationRequestDto The notification request to be handled.
+   * @param timestamp              The time the notification was first published.
+   * @param idempotencyKey         The idempotency key from the record headers, used if the request has none.
+   */
+  @RetryableTopic(
+          attempts = "${notification.kafka.retry.attempts:4}",
+          backoff = @Backoff(delayExpression = RETRY_INITIAL_DELAY,
+                  multiplierExpression = "${notification.kafka.retry.multiplier:6}",
+                  maxDelayExpression = RETRY_MAX_DELAY),
+          kafkaTemplate = "notificationKafkaTemplate",
+          autoCreateTopics = "${notification.kafka.retry.auto-create-topics:true}",
+          topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+          dltStrategy = DltStrategy.FAIL_ON_ERROR,
+          autoStartDltHandler = LANES_MODE
+  )
+  @KafkaListener(topics = SYSTEM_ALERT_TOPIC, groupId = GROUP_ID, autoStartup = LANES_MODE,
+          concurrency = "${notification.lanes.system-alert.concurrency:" + NotificationLaneConfig.CAPACITY + "}")
+  @KafkaListener(topics = VERIFICATION_TOPIC, groupId = GROUP_ID, autoStartup = LANES_MODE,
+          concurrency = "${notification.lanes.verification.concurrency:" + NotificationLaneConfig.CAPACITY + "}")
+  @KafkaListener(topics = GENERAL_TOPIC, groupId = GROUP_ID, autoStartup = LANES_MODE,
+          concurrency = "${notification.lanes.general.concurrency:" + NotificationLaneConfig.CAPACITY + "}")
+  @KafkaListener(topics = MARKETING_TOPIC, groupId = GROUP_ID, autoStartup = LANES_MODE,
+          concurrency = "${notification.lanes.marketing.concurrency:" + NotificationLaneConfig.CAPACITY + "}")
+  public void handleLaneNotification(NotificationRequestDto notificationRequestDto,
+                                     @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long timestamp,
+                                     @Header(name = NotificationDeduplicator.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+    log.info("Received {} notification request for: {}", notificationRequestDto.category(), notificationRequestDto.recipient());
+    // Scheduled and duplicate notifications were not delivered, so they say nothing about the latency.
+    if (notificationService.sendNotification(notificationRequestDto.withIdempotencyKey(idempotencyKey))) {
+      notificationLanes.recordLatency(notificationRequestDto.category(), Duration.ofMillis(Math.max(0, clock.millis() - timestamp)));
+    }
+  }
+
+  /**
+   * Kafka listener method for the notification requests that ended up on a category's dead-letter topic.
+   *
+   * @param notificationRequestDto The notification request that could not be sent.
+   * @param errorMessage           The message of the error the last attempt failed with.
+   */
+  @DltHandler
+  public void handleDeadLetter(NotificationRequestDto notificationRequestDto,
+                               @Header(name = KafkaHeaders.EXCEPTION_MESSAGE, required = false) String errorMessage) {
+    log.error("Giving up on {} notification to: {}. Error: {}", notificationRequestDto.category(),
+            notificationRequestDto.recipient(), errorMessage);
+  }
+}
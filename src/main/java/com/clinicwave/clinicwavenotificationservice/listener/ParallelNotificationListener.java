@@ -0,0 +1,367 @@
+package com.clinicwave.clinicwavenotificationservice.listener;
+
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.idempotency.NotificationDeduplicator;
+import com.clinicwave.clinicwavenotificationservice.service.NotificationService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * This class is a Kafka listener that processes the records of a poll in parallel while keeping them
+ * ordered per key.
+ * <p>
+ * Records are assigned to one of {@code notification.kafka.parallel.max-concurrency} lanes by their message key,
+ * or by their recipient when they have no key. Each lane processes its records one after the other, so records
+ * sharing a key are sent in order, while lanes run in parallel so that a slow send only holds up records with
+ * the same key. Once a record fails, the later records with the same key are not attempted either.
+ * <p>
+ * Offsets are committed per partition up to, but not including, the first record that did not complete.
+ * Partitions with such a record are rewound to it so that it and everything after it is delivered again. The
+ * records after it that did complete are remembered until the committed offset passes them, and skipped when
+ * they are delivered again, so they are not sent twice. What is remembered about a partition is forgotten when the
+ * partition is revoked or lost in a rebalance: its next consumer starts from the committed offset, and, if the
+ * partition comes back, so does this one.
+ * <p>
+ * A failed record is attempted up to {@code notification.kafka.parallel.max-attempts} times in place, then handed
+ * over to the retry topics like in the other listener modes; a record that failed with an error retrying cannot
+ * fix is handed over at once. Records that could not be deserialized go to the dead-letter topic.
+ *
+ * @author agent on 10/18/26
+ */
+@Component
+@Slf4j
+public class ParallelNotificationListener implements ConsumerAwareRebalanceListener {
+  private static final String TOPIC_NAME = "notification-topic";
+  private static final String GROUP_ID = "notification-group";
+  private static final String PARALLEL_MODE = "#{'${notification.kafka.listener.mode:single}' == 'parallel'}";
+
+  private final NotificationService notificationService;
+  private final FailedNotificationPublisher failedNotificationPublisher;
+  private final RetryTopicSettings retryTopicSettings;
+  private final ExecutorService laneExecutor;
+  private final int lanes;
+  private final int maxAttempts;
+  private final Duration redeliveryBackoff;
+
+  // Per partition, the offsets beyond the committed offset that completed, and the failed attempts of the records
+  // that did not. Partitions are only processed by the consumer they are assigned to, one poll at a time, and
+  // removed when they are revoked from it.
+  private final Map<TopicPartition, Set<Long>> completedOffsets = new ConcurrentHashMap<>();
+  private final Map<TopicPartition, Map<Long, Integer>> failedAttempts = new ConcurrentHashMap<>();
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param notificationService         The service used to send the notifications.
+   * @param failedNotificationPublisher The publisher handing failed records over to the retry topics.
+   * @param retryTopicSettings          The settings of the retry topics, naming the errors retrying cannot fix.
+   * @param lanes                       The number of lanes records are spread over.
+   * @param virtualThreadsEnabled       Whether the lanes run on virtual threads.
+   * @param maxAttempts                 How many times a record is attempted before it is handed to the retry topics.
+   * @param redeliveryBackoff           How long to wait before records that did not complete are delivered again.
+   */
+  @Autowired
+  public ParallelNotificationListener(NotificationService notificationService,
+                                      FailedNotificationPublisher failedNotificationPublisher,
+                                      RetryTopicSettings retryTopicSettings,
+                                      @Value("${notification.kafka.parallel.max-concurrency:16}") int lanes,
+                                      @Value("${notification.virtual-threads.enabled:false}") boolean virtualThreadsEnabled,
+                                      @Value("${notification.kafka.parallel.max-attempts:3}") int maxAttempts,
+                                      @Value("${notification.kafka.parallel.redelivery-backoff:PT1S}") Duration redeliveryBackoff) {
+    this.notificationService = notificationService;
+    this.failedNotificationPublisher = failedNotificationPublisher;
+    this.retryTopicSettings = retryTopicSettings;
+    this.lanes = lanes;
+    this.maxAttempts = maxAttempts;
+    this.redeliveryBackoff = redeliveryBackoff;
+    this.laneExecutor = virtualThreadsEnabled
+            ? Executors.newVirtualThreadPerTaskExecutor()
+            : Executors.newFixedThreadPool(lanes, new CustomizableThreadFactory("notification-lane-"));
+  }
+
+  /**
+   * Kafka batch listener method that processes a poll in parallel and commits the completed records.
+   *
+   * @param records  The records returned by the poll.
+   * @param consumer The consumer that returned the records, used to commit and rewind offsets.
+   */
+  @KafkaListener(topics = TOPIC_NAME, groupId = GROUP_ID, containerFactory = "parallelKafkaListenerContainerFactory", autoStartup = PARALLEL_MODE)
+  public void handleNotifications(List<ConsumerRecord<String, NotificationRequestDto>> records, Consumer<?, ?> consumer) {
+    log.info("Received batch of {} notification requests", records.size());
+    ProcessedOffsets processedOffsets = process(records);
+
+    consumer.commitSync(processedOffsets.offsets());
+    if (!processedOffsets.incompletePartitions().isEmpty()) {
+      processedOffsets.incompletePartitions()
+              .forEach(partition -> consumer.seek(partition, processedOffsets.offsets().get(partition).offset()));
+      log.warn("Redelivering incomplete records of partitions: {}", processedOffsets.incompletePartitions());
+      pauseBeforeRedelivery();
+    }
+  }
+
+  /**
+   * Forgets the partitions revoked from a consumer, once the container committed their offsets.
+   *
+   * @param consumer   The consumer the partitions were revoked from.
+   * @param partitions The revoked partitions.
+   */
+  @Override
+  public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+    forget(partitions);
+  }
+
+  /**
+   * Forgets the partitions a consumer lost without revoking them, such as after it missed the session timeout.
+   *
+   * @param consumer   The consumer that lost the partitions.
+   * @param partitions The lost partitions.
+   */
+  @Override
+  public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+    forget(partitions);
+  }
+
+  /**
+   * Shuts the lane executor down.
+   */
+  @PreDestroy
+  public void shutdown() {
+    laneExecutor.shutdown();
+  }
+
+  /**
+   * Processes the records on their lanes and works out which offsets can be committed.
+   *
+   * @param records The records returned by the poll.
+   * @return The offsets to commit and the partitions that have to be rewound.
+   */
+  ProcessedOffsets process(List<ConsumerRecord<String, NotificationRequestDto>> records) {
+    // Assign each record to a lane; records with the same key keep their poll order within the lane.
+    Map<Integer, List<ConsumerRecord<String, NotificationRequestDto>>> recordsByLane = new HashMap<>();
+    for (ConsumerRecord<String, NotificationRequestDto> consumerRecord : records) {
+      int lane = Math.floorMod(orderingKey(consumerRecord).hashCode(), lanes);
+      recordsByLane.computeIfAbsent(lane, key -> new ArrayList<>()).add(consumerRecord);
+    }
+
+    Set<ConsumerRecord<String, NotificationRequestDto>> incompleteRecords = ConcurrentHashMap.newKeySet();
+    CompletableFuture<?>[] laneFutures = recordsByLane.values().stream()
+            .map(laneRecords -> CompletableFuture.runAsync(() -> processLane(laneRecords, incompleteRecords), laneExecutor))
+            .toArray(CompletableFuture[]::new);
+    CompletableFuture.allOf(laneFutures).join();
+
+    return committableOffsets(records, incompleteRecords);
+  }
+
+  /**
+   * Processes the records of a single lane in order. Records that completed on an earlier delivery are skipped.
+   *
+   * @param laneRecords       The records assigned to the lane.
+   * @param incompleteRecords Collects the records that did not complete.
+   */
+  private void processLane(List<ConsumerRecord<String, NotificationRequestDto>> laneRecords,
+                           Set<ConsumerRecord<String, NotificationRequestDto>> incompleteRecords) {
+    Set<String> blockedKeys = new HashSet<>();
+    for (ConsumerRecord<String, NotificationRequestDto> consumerRecord : laneRecords) {
+      if (isCompleted(consumerRecord)) {
+        continue;
+      }
+      String key = orderingKey(consumerRecord);
+      if (blockedKeys.contains(key)) {
+        // Do not overtake an earlier record with the same key that failed.
+        incompleteRecords.add(consumerRecord);
+        continue;
+      }
+
+      if (consumerRecord.value() == null) {
+        log.warn("Publishing notification request at offset {} of {} that could not be deserialized to the dead-letter topic",
+                consumerRecord.offset(), consumerRecord.topic() + "-" + consumerRecord.partition());
+        if (!handOver(consumerRecord, null)) {
+          incompleteRecords.add(consumerRecord);
+        }
+        continue;
+      }
+
+      try {
+        notificationService.sendNotification(consumerRecord.value()
+                .withIdempotencyKey(NotificationDeduplicator.idempotencyKey(consumerRecord.headers())));
+      } catch (RuntimeException e) {
+        log.error("Failed to send notification to: {}", consumerRecord.value().recipient(), e);
+        if (!recordFailure(consumerRecord, e)) {
+          incompleteRecords.add(consumerRecord);
+          blockedKeys.add(key);
+        }
+      }
+    }
+  }
+
+  /**
+   * Counts a failed attempt of a record, and hands the record over to the retry topics once its attempts are
+   * used up or it failed with an error retrying cannot fix.
+   *
+   * @param consumerRecord The record that failed.
+   * @param error          The error it failed with.
+   * @return Whether the record was handed over, and so needs no further attempt here.
+   */
+  private boolean recordFailure(ConsumerRecord<String, NotificationRequestDto> consumerRecord, RuntimeException error) {
+    TopicPartition partition = new TopicPartition(consumerRecord.topic(), consumerRecord.partition());
+    int attempts = failedAttempts.computeIfAbsent(partition, key -> new ConcurrentHashMap<>())
+            .merge(consumerRecord.offset(), 1, Integer::sum);
+    if (attempts < maxAttempts && !retryTopicSettings.isNonRetryable(error)) {
+      return false;
+    }
+    return handOver(consumerRecord, error);
+  }
+
+  /**
+   * Publishes a record to the retry or dead-letter topic.
+   *
+   * @param consumerRecord The record that failed.
+   * @param error          The error it failed with, or null if it could not be deserialized.
+   * @return Whether the record was published.
+   */
+  private boolean handOver(ConsumerRecord<String, NotificationRequestDto> consumerRecord, RuntimeException error) {
+    try {
+      if (error == null) {
+        failedNotificationPublisher.publishUndeserializable(consumerRecord);
+      } else {
+        failedNotificationPublisher.publish(consumerRecord, error);
+      }
+      return true;
+    } catch (RuntimeException e) {
+      log.error("Failed to publish notification request at offset {} of {} to the retry topic", consumerRecord.offset(),
+              consumerRecord.topic() + "-" + consumerRecord.partition(), e);
+      return false;
+    }
+  }
+
+  /**
+   * Tells whether a record completed on an earlier delivery.
+   *
+   * @param consumerRecord The record.
+   * @return Whether the record completed.
+   */
+  private boolean isCompleted(ConsumerRecord<String, NotificationRequestDto> consumerRecord) {
+    Set<Long> completed = completedOffsets.get(new TopicPartition(consumerRecord.topic(), consumerRecord.partition()));
+    return completed != null && completed.contains(consumerRecord.offset());
+  }
+
+  /**
+   * Works out, per partition, the offset up to which every record completed, and remembers the records beyond
+   * it that completed.
+   *
+   * @param records           The records returned by the poll, in offset order per partition.
+   * @param incompleteRecords The records that did not complete.
+   * @return The offsets to commit and the partitions that have to be rewound.
+   */
+  private ProcessedOffsets committableOffsets(List<ConsumerRecord<String, NotificationRequestDto>> records,
+                                              Set<ConsumerRecord<String, NotificationRequestDto>> incompleteRecords) {
+    Map<TopicPartition, OffsetAndMetadata> offsets = new LinkedHashMap<>();
+    Set<TopicPartition> incompletePartitions = new HashSet<>();
+    for (ConsumerRecord<String, NotificationRequestDto> consumerRecord : records) {
+      TopicPartition partition = new TopicPartition(consumerRecord.topic(), consumerRecord.partition());
+      if (incompletePartitions.contains(partition)) {
+        if (!incompleteRecords.contains(consumerRecord)) {
+          completedOffsets.computeIfAbsent(partition, key -> ConcurrentHashMap.newKeySet()).add(consumerRecord.offset());
+        }
+        continue;
+      }
+      if (incompleteRecords.contains(consumerRecord)) {
+        // The committed offset is the next record to consume, which is the first incomplete one.
+        offsets.put(partition, new OffsetAndMetadata(consumerRecord.offset()));
+        incompletePartitions.add(partition);
+      } else {
+        offsets.put(partition, new OffsetAndMetadata(consumerRecord.offset() + 1));
+      }
+    }
+    offsets.forEach((partition, offset) -> forgetBefore(partition, offset.offset()));
+    return new ProcessedOffsets(offsets, incompletePartitions);
+  }
+
+  /**
+   * Forgets the records of a partition before its committed offset, which are not delivered again.
+   *
+   * @param partition       The partition.
+   * @param committedOffset The committed offset of the partition.
+   */
+  private void forgetBefore(TopicPartition partition, long committedOffset) {
+    completedOffsets.computeIfPresent(partition, (key, completed) -> {
+      completed.removeIf(offset -> offset < committedOffset);
+      return completed.isEmpty() ? null : completed;
+    });
+    failedAttempts.computeIfPresent(partition, (key, attempts) -> {
+      attempts.keySet().removeIf(offset -> offset < committedOffset);
+      return attempts.isEmpty() ? null : attempts;
+    });
+  }
+
+  /**
+   * Forgets the completed records and failed attempts of partitions that are no longer assigned to this listener.
+   * The records beyond the committed offset are delivered again to whichever consumer the partition goes to, and
+   * sent once more; offsets remembered from before could otherwise skip records of a later assignment.
+   *
+   * @param partitions The partitions.
+   */
+  private void forget(Collection<TopicPartition> partitions) {
+    partitions.forEach(partition -> {
+      completedOffsets.remove(partition);
+      failedAttempts.remove(partition);
+    });
+  }
+
+  /**
+   * Returns the key records are ordered by: the message key, or the recipient when there is none.
+   *
+   * @param consumerRecord The record.
+   * @return The ordering key.
+   */
+  private String orderingKey(ConsumerRecord<String, NotificationRequestDto> consumerRecord) {
+    if (consumerRecord.key() != null) {
+      return consumerRecord.key();
+    }
+    return consumerRecord.value() != null ? consumerRecord.value().recipient() : "";
+  }
+
+  /**
+   * Waits before the rewound records are polled again so that a persistent failure does not spin.
+   */
+  private void pauseBeforeRedelivery() {
+    try {
+      Thread.sleep(redeliveryBackoff);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * The offsets to commit after processing a poll.
+   *
+   * @param offsets              The next offset to consume, per partition.
+   * @param incompletePartitions The partitions whose committed offset points at a record that did not complete.
+   */
+  record ProcessedOffsets(Map<TopicPartition, OffsetAndMetadata> offsets, Set<TopicPartition> incompletePartitions) {
+  }
+}
@@ -0,0 +1,52 @@
+package com.clinicwave.clinicwavenotificationservice.listener;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * This record holds the settings of the retry topics failed notifications are retried through.
+ *
+ * @param attempts            The total number of attempts, including the first one on the main topic.
+ * @param initialDelay        The delay before the first retry.
+ * @param multiplier          The factor each following delay grows by.
+ * @param maxDelay            The longest delay between two attempts.
+ * @param jitter              The fraction by which each delay is randomly lengthened or shortened.
+ * @param nonRetryableErrors  The exceptions that skip the retries and go straight to the dead-letter topic.
+ * @author agent on 10/18/26
+ */
+public record RetryTopicSettings(
+        int attempts,
+        Duration initialDelay,
+        double multiplier,
+        Duration maxDelay,
+        double jitter,
+        List<Class<? extends Throwable>> nonRetryableErrors
+) {
+  /**
+   * Returns the delay before the given retry, without jitter.
+   *
+   * @param retry The retry, starting at 0 for the first retry.
+   * @return The delay before the retry.
+   */
+  public Duration delayBefore(int retry) {
+    double delayMillis = initialDelay.toMillis() * Math.pow(multiplier, retry);
+    return Duration.ofMillis((long) Math.min(delayMillis, maxDelay.toMillis()));
+  }
+
+  /**
+   * Checks whether the exception or one of its causes is a non-retryable error.
+   *
+   * @param exception The exception a notification failed with.
+   * @return Whether the notification goes straight to the dead-letter topic.
+   */
+  public boolean isNonRetryable(Throwable exception) {
+    for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+      for (Class<? extends Throwable> nonRetryableError : nonRetryableErrors) {
+        if (nonRetryableError.isInstance(cause)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,163 @@
+package com.clinicwave.clinicwavenotificationservice.mail;
+
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.mail.MailException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * This class is a JavaMailSender that spreads sends over several SMTP relays.
+ * <p>
+ * Calls to {@code send} are spread over the relays by smooth weighted round-robin, so a relay with weight 2
+ * receives twice as many sends as a relay with weight 1, interleaved rather than in bursts. Relays taken out of
+ * rotation by their {@link SmtpRelayHealth} and relays that reached their maximum concurrency are skipped.
+ * When every relay in rotation is at its maximum concurrency, the send goes to the one with the fewest sends in
+ * progress relative to its weight, where it waits for a pooled connection. If every relay is out of rotation,
+ * all of them are used again rather than failing every send.
+ *
+ * @author agent on 10/18/26
+ */
+public class BalancedJavaMailSender implements JavaMailSender, AutoCloseable {
+  private final List<Relay> relays;
+  private final int[] currentWeights;
+
+  /**
+   * Constructor for the mail sender.
+   *
+   * @param relays The relays to spread sends over; must not be empty.
+   */
+  public BalancedJavaMailSender(List<Relay> relays) {
+    if (relays.isEmpty()) {
+      throw new IllegalArgumentException("At least one SMTP relay is required");
+    }
+    this.relays = List.copyOf(relays);
+    this.currentWeights = new int[relays.size()];
+  }
+
+  /**
+   * Returns the relays sends are spread over.
+   *
+   * @return The relays.
+   */
+  public List<Relay> getRelays() {
+    return relays;
+  }
+
+  /**
+   * Creates a message on the session of the first relay. The message can be sent through any relay.
+   *
+   * @return A new MimeMessage.
+   */
+  @Override
+  public MimeMessage createMimeMessage() {
+    return relays.get(0).mailSender().createMimeMessage();
+  }
+
+  /**
+   * Creates a message from the given stream on the session of the first relay.
+   *
+   * @param contentStream The raw MIME content.
+   * @return A new MimeMessage.
+   * @throws MailException If the message could not be parsed.
+   */
+  @Override
+  public MimeMessage createMimeMessage(InputStream contentStream) throws MailException {
+    return relays.get(0).mailSender().createMimeMessage(contentStream);
+  }
+
+  @Override
+  public void send(MimeMessage... mimeMessages) throws MailException {
+    selectRelay().mailSender().send(mimeMessages);
+  }
+
+  @Override
+  public void send(SimpleMailMessage... simpleMessages) throws MailException {
+    selectRelay().mailSender().send(simpleMessages);
+  }
+
+  /**
+   * Closes the connection pools of every relay.
+   */
+  @Override
+  public void close() {
+    relays.forEach(relay -> relay.mailSender().close());
+  }
+
+  /**
+   * Chooses the relay for the next send.
+   *
+   * @return The next relay in rotation with room to spare, or else the least loaded relay.
+   */
+  Relay selectRelay() {
+    Relay selected = selectByWeight();
+    if (selected == null) {
+      selected = selectLeastLoaded(true);
+    }
+    return selected != null ? selected : selectLeastLoaded(false);
+  }
+
+  /**
+   * Chooses the next relay by smooth weighted round-robin among the relays in rotation with room to spare.
+   * Every candidate's current weight grows by its weight, and the one with the highest current weight is
+   * chosen and set back by the candidates' total weight.
+   *
+   * @return The chosen relay, or null if no relay is in rotation with room to spare.
+   */
+  private synchronized Relay selectByWeight() {
+    int selectedIndex = -1;
+    int totalWeight = 0;
+    for (int i = 0; i < relays.size(); i++) {
+      Relay relay = relays.get(i);
+      SmtpRelayHealth health = relay.mailSender().getHealth();
+      if (!health.isAvailable() || health.getInFlight() >= relay.maxConcurrency()) {
+        continue;
+      }
+      currentWeights[i] += relay.weight();
+      totalWeight += relay.weight();
+      if (selectedIndex < 0 || currentWeights[i] > currentWeights[selectedIndex]) {
+        selectedIndex = i;
+      }
+    }
+    if (selectedIndex < 0) {
+      return null;
+    }
+    currentWeights[selectedIndex] -= totalWeight;
+    return relays.get(selectedIndex);
+  }
+
+  /**
+   * Chooses the relay with the fewest sends in progress relative to its weight.
+   *
+   * @param availableOnly Whether relays out of rotation are skipped.
+   * @return The chosen relay, or null if every relay was skipped.
+   */
+  private Relay selectLeastLoaded(boolean availableOnly) {
+    Relay selected = null;
+    double selectedLoad = Double.MAX_VALUE;
+    for (Relay relay : relays) {
+      SmtpRelayHealth health = relay.mailSender().getHealth();
+      if (availableOnly && !health.isAvailable()) {
+        continue;
+      }
+      double load = (health.getInFlight() + 1.0) / relay.weight();
+      if (load < selectedLoad) {
+        selected = relay;
+        selectedLoad = load;
+      }
+    }
+    return selected;
+  }
+
+  /**
+   * A relay together with its share of the load.
+   *
+   * @param mailSender     The pooled sender for the relay.
+   * @param weight         The relay's weight relative to the other relays; at least 1.
+   * @param maxConcurrency The number of sends the relay handles at once.
+   */
+  public record Relay(PooledJavaMailSender mailSender, int weight, int maxConcurrency) {
+  }
+}
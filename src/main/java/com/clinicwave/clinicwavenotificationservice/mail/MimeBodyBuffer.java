@@ -0,0 +1,262 @@
+package com.clinicwave.clinicwavenotificationservice.mail;
+
+import jakarta.activation.DataSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+
+/**
+ * This class is a reusable buffer holding the UTF-8 encoded HTML body of an email, and the data source the
+ * body part of the MIME message reads it from.
+ * <p>
+ * Templates are rendered into the buffer through {@link #writer()}, which encodes characters straight into
+ * the buffer's bytes, and the MIME message streams those bytes to the SMTP connection when it is sent, so the
+ * body is never held as a String or copied into the message. The buffer must therefore not be reset or reused
+ * before the message has been sent; {@link MimeBodyBufferPool} hands it out and takes it back.
+ *
+ * @author agent on 10/18/26
+ */
+public class MimeBodyBuffer extends ByteArrayOutputStream implements DataSource {
+  public static final String CONTENT_TYPE = "text/html; charset=UTF-8";
+
+  // Lines longer than this cannot be sent as 7bit, see RFC 5322
+  private static final int MAX_7BIT_LINE_LENGTH = 998;
+
+  private final Utf8Writer writer = new Utf8Writer();
+
+  /**
+   * Constructor for the buffer.
+   *
+   * @param initialCapacity The initial capacity of the buffer, in bytes.
+   */
+  public MimeBodyBuffer(int initialCapacity) {
+    super(initialCapacity);
+  }
+
+  /**
+   * Returns the writer that encodes characters into this buffer as UTF-8.
+   * The writer holds no state between calls other than a pending high surrogate, and closing it does nothing.
+   *
+   * @return The writer of this buffer.
+   */
+  public Writer writer() {
+    return writer;
+  }
+
+  /**
+   * Returns the number of bytes the buffer can hold before it has to grow.
+   *
+   * @return The capacity of the buffer, in bytes.
+   */
+  public synchronized int capacity() {
+    return buf.length;
+  }
+
+  /**
+   * Empties the buffer so that it can be reused, keeping its capacity.
+   */
+  @Override
+  public synchronized void reset() {
+    super.reset();
+    writer.highSurrogate = 0;
+  }
+
+  /**
+   * Chooses the transfer encoding of the body the way JavaMail would, but from the encoded bytes instead of
+   * by writing the content out once more: 7bit for ASCII text with short lines, quoted-printable for mostly
+   * ASCII text and base64 otherwise.
+   *
+   * @return The Content-Transfer-Encoding of the body.
+   */
+  public synchronized String transferEncoding() {
+    int nonAscii = 0;
+    int lineLength = 0;
+    boolean longLines = false;
+    for (int i = 0; i < count; i++) {
+      byte b = buf[i];
+      if (b < 0) {
+        nonAscii++;
+      }
+      if (b == '\r' || b == '\n') {
+        lineLength = 0;
+      } else if (++lineLength > MAX_7BIT_LINE_LENGTH) {
+        longLines = true;
+      }
+    }
+    if (nonAscii == 0 && !longLines) {
+      return "7bit";
+    }
+    return nonAscii > count - nonAscii ? "base64" : "quoted-printable";
+  }
+
+  /**
+   * Returns a stream over the buffered body, without copying it.
+   *
+   * @return The input stream.
+   */
+  @Override
+  public synchronized InputStream getInputStream() {
+    return new ByteArrayInputStream(buf, 0, count);
+  }
+
+  /**
+   * The body is written through {@link #writer()}, not through the data source.
+   *
+   * @throws UnsupportedOperationException Always.
+   */
+  @Override
+  public OutputStream getOutputStream() {
+    throw new UnsupportedOperationException("The body is written through the writer of the buffer");
+  }
+
+  /**
+   * Returns the content type of the body.
+   *
+   * @return The content type.
+   */
+  @Override
+  public String getContentType() {
+    return CONTENT_TYPE;
+  }
+
+  /**
+   * Returns the name of the data source.
+   *
+   * @return The name.
+   */
+  @Override
+  public String getName() {
+    return "body";
+  }
+
+  /**
+   * Makes room for the given number of bytes and returns the index to write them at.
+   *
+   * @param length The number of bytes to be written.
+   * @return The index of the first free byte.
+   */
+  private int reserve(int length) {
+    ensureCapacity(count + length);
+    int index = count;
+    count += length;
+    return index;
+  }
+
+  /**
+   * Grows the buffer, at least doubling it, if it cannot hold the given number of bytes.
+   *
+   * @param capacity The number of bytes the buffer must be able to hold.
+   */
+  private void ensureCapacity(int capacity) {
+    if (capacity > buf.length) {
+      byte[] grown = new byte[Math.max(buf.length << 1, capacity)];
+      System.arraycopy(buf, 0, grown, 0, count);
+      buf = grown;
+    }
+  }
+
+  /**
+   * A writer that encodes characters into the buffer as UTF-8 without an intermediate char or byte buffer.
+   * Unpaired surrogates are written as '?', like the JDK's UTF-8 encoder does.
+   */
+  private final class Utf8Writer extends Writer {
+    private char highSurrogate;
+
+    @Override
+    public void write(int c) {
+      synchronized (MimeBodyBuffer.this) {
+        writeChar((char) c);
+      }
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int length) {
+      synchronized (MimeBodyBuffer.this) {
+        int end = offset + length;
+        int i = offset;
+        // Markup is mostly ASCII, which is copied byte for byte until the first other character.
+        if (highSurrogate == 0) {
+          ensureCapacity(count + length);
+          while (i < end && chars[i] < 0x80) {
+            buf[count++] = (byte) chars[i++];
+          }
+        }
+        for (; i < end; i++) {
+          writeChar(chars[i]);
+        }
+      }
+    }
+
+    @Override
+    public void write(String text, int offset, int length) {
+      synchronized (MimeBodyBuffer.this) {
+        int end = offset + length;
+        int i = offset;
+        if (highSurrogate == 0) {
+          ensureCapacity(count + length);
+          char c;
+          while (i < end && (c = text.charAt(i)) < 0x80) {
+            buf[count++] = (byte) c;
+            i++;
+          }
+        }
+        for (; i < end; i++) {
+          writeChar(text.charAt(i));
+        }
+      }
+    }
+
+    @Override
+    public void flush() {
+      // The characters are already in the buffer.
+    }
+
+    @Override
+    public void close() {
+      // The buffer is released to its pool, not closed.
+    }
+
+    private void writeChar(char c) {
+      // The index is reserved before buf is read, as reserving may replace the array.
+      if (highSurrogate != 0) {
+        char high = highSurrogate;
+        highSurrogate = 0;
+        if (Character.isLowSurrogate(c)) {
+          writeCodePoint(Character.toCodePoint(high, c));
+          return;
+        }
+        int index = reserve(1);
+        buf[index] = '?';
+      }
+      if (c < 0x80) {
+        int index = reserve(1);
+        buf[index] = (byte) c;
+      } else if (c < 0x800) {
+        int index = reserve(2);
+        buf[index] = (byte) (0xC0 | (c >> 6));
+        buf[index + 1] = (byte) (0x80 | (c & 0x3F));
+      } else if (Character.isHighSurrogate(c)) {
+        highSurrogate = c;
+      } else if (Character.isLowSurrogate(c)) {
+        int index = reserve(1);
+        buf[index] = '?';
+      } else {
+        int index = reserve(3);
+        buf[index] = (byte) (0xE0 | (c >> 12));
+        buf[index + 1] = (byte) (0x80 | ((c >> 6) & 0x3F));
+        buf[index + 2] = (byte) (0x80 | (c & 0x3F));
+      }
+    }
+
+    private void writeCodePoint(int codePoint) {
+      int index = reserve(4);
+      buf[index] = (byte) (0xF0 | (codePoint >> 18));
+      buf[index + 1] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+      buf[index + 2] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+      buf[index + 3] = (byte) (0x80 | (codePoint & 0x3F));
+    }
+  }
+}
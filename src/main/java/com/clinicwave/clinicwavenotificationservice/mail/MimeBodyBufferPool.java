@@ -0,0 +1,87 @@
+package com.clinicwave.clinicwavenotificationservice.mail;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * This class pools the {@link MimeBodyBuffer}s emails are rendered into, so that a buffer that has grown to
+ * hold a large newsletter is reused for the next email instead of being allocated and grown again.
+ * <p>
+ * Callers that find the pool empty get a new buffer rather than waiting. Buffers that grew beyond the
+ * maximum retained capacity are dropped when they are released, so that a single oversized email does not
+ * pin its memory for good.
+ *
+ * @author agent on 10/18/26
+ */
+@Component
+public class MimeBodyBufferPool {
+  private final BlockingQueue<MimeBodyBuffer> idleBuffers;
+  private final int initialCapacity;
+  private final int maxRetainedCapacity;
+  private final Counter allocationCounter;
+  private final Counter discardCounter;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param meterRegistry       The registry used to expose the pool metrics.
+   * @param maxIdle             The maximum number of idle buffers kept in the pool.
+   * @param initialCapacity     The initial capacity of new buffers, in bytes.
+   * @param maxRetainedCapacity The largest capacity, in bytes, of a buffer returned to the pool.
+   */
+  @Autowired
+  public MimeBodyBufferPool(MeterRegistry meterRegistry,
+                            @Value("${notification.mail.body-buffer.max-idle:64}") int maxIdle,
+                            @Value("${notification.mail.body-buffer.initial-capacity:16384}") int initialCapacity,
+                            @Value("${notification.mail.body-buffer.max-retained-capacity:1048576}") int maxRetainedCapacity) {
+    this.idleBuffers = new ArrayBlockingQueue<>(maxIdle);
+    this.initialCapacity = initialCapacity;
+    this.maxRetainedCapacity = maxRetainedCapacity;
+    this.allocationCounter = Counter.builder("notification.mail.body-buffer.allocations")
+            .description("Email body buffers allocated because the pool had no idle buffer")
+            .register(meterRegistry);
+    this.discardCounter = Counter.builder("notification.mail.body-buffer.discards")
+            .description("Email body buffers dropped on release because they were too large or the pool was full")
+            .register(meterRegistry);
+    Gauge.builder("notification.mail.body-buffer.idle", idleBuffers, BlockingQueue::size)
+            .description("Idle email body buffers held by the pool")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Takes an empty buffer from the pool, or allocates one if the pool is empty.
+   *
+   * @return An empty buffer.
+   */
+  public MimeBodyBuffer acquire() {
+    MimeBodyBuffer buffer = idleBuffers.poll();
+    if (buffer == null) {
+      allocationCounter.increment();
+      return new MimeBodyBuffer(initialCapacity);
+    }
+    return buffer;
+  }
+
+  /**
+   * Returns a buffer to the pool once the message it backs has been sent or abandoned.
+   *
+   * @param buffer The buffer to return.
+   */
+  public void release(MimeBodyBuffer buffer) {
+    if (buffer.capacity() > maxRetainedCapacity) {
+      discardCounter.increment();
+      return;
+    }
+    buffer.reset();
+    if (!idleBuffers.offer(buffer)) {
+      discardCounter.increment();
+    }
+  }
+}
@@ -0,0 +1,245 @@
+package com.clinicwave.clinicwavenotificationservice.mail;
+
+import com.clinicwave.clinicwavenotificationservice.ratelimit.RateLimiter;
+import jakarta.mail.Address;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.lang.Nullable;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is a JavaMailSender that sends over connections borrowed from a {@link SmtpTransportPool}
+ * instead of opening and closing a new SMTP session for every call to {@code send}.
+ * Every send is recorded in the relay's {@link SmtpRelayHealth}, and every message waits for the relay's
+ * {@link RateLimiter} before it is sent. A message that would wait longer than the maximum rate limit wait
+ * fails at once, so that it is retried later instead of holding up its caller, and a message that could not be
+ * sent gives its rate limit token back. The time to open each connection and to send each message over it is
+ * recorded in the relay's {@link SmtpStageTimers}.
+ *
+ * @author agent on 10/18/26
+ */
+public class PooledJavaMailSender extends JavaMailSenderImpl implements AutoCloseable {
+  private static final String HEADER_MESSAGE_ID = "Message-ID";
+
+  private final SmtpTransportPool transportPool;
+  private final SmtpRelayHealth health;
+  private final RateLimiter rateLimiter;
+  private final SmtpStageTimers stageTimers;
+  private final long holdConnectionNanos;
+  private final long maxRateLimitWaitNanos;
+
+  /**
+   * Constructor for the mail sender.
+   *
+   * @param poolSettings     The settings of the connection pool backing this sender.
+   * @param health           The health of the relay this sender sends to.
+   * @param rateLimiter      The rate limiter of the relay this sender sends to.
+   * @param maxRateLimitWait The longest a message waits for the rate limiter before it fails.
+   * @param stageTimers      The timers of the connections and sends to the relay this sender sends to.
+   */
+  public PooledJavaMailSender(SmtpTransportPoolSettings poolSettings, SmtpRelayHealth health, RateLimiter rateLimiter,
+                              Duration maxRateLimitWait, SmtpStageTimers stageTimers) {
+    this.transportPool = new SmtpTransportPool(this::connectTimedTransport, poolSettings);
+    this.health = health;
+    this.rateLimiter = rateLimiter;
+    this.stageTimers = stageTimers;
+    this.holdConnectionNanos = poolSettings.validateAfterIdle().toNanos();
+    this.maxRateLimitWaitNanos = maxRateLimitWait.toNanos();
+  }
+
+  /**
+   * Returns the connection pool backing this sender.
+   *
+   * @return The connection pool.
+   */
+  public SmtpTransportPool getTransportPool() {
+    return transportPool;
+  }
+
+  /**
+   * Returns the health of the relay this sender sends to.
+   *
+   * @return The relay health.
+   */
+  public SmtpRelayHealth getHealth() {
+    return health;
+  }
+
+  /**
+   * Returns the rate limiter of the relay this sender sends to.
+   *
+   * @return The rate limiter.
+   */
+  public RateLimiter getRateLimiter() {
+    return rateLimiter;
+  }
+
+  /**
+   * Sends the given messages over a single pooled connection.
+   * A rejected recipient only fails its own message; any other error discards the connection and the
+   * remaining messages continue on a fresh one. A message that finds no free pooled connection in time fails
+   * without counting against the relay, since the relay was never contacted. A message that has to wait for the rate limiter longer than
+   * a connection may sit idle hands the connection back to the pool while it waits, and one that would have to
+   * wait longer than the maximum rate limit wait fails without waiting.
+   *
+   * @param mimeMessages     The messages to be sent.
+   * @param originalMessages The original messages the MimeMessages were created from, if any.
+   * @throws MailException If one or more messages could not be sent.
+   */
+  @Override
+  protected void doSend(MimeMessage[] mimeMessages, @Nullable Object[] originalMessages) throws MailException {
+    Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+    PooledTransport pooledTransport = null;
+    boolean relayFailed = false;
+    long throttledNanos = 0;
+    long start = System.nanoTime();
+    health.sendStarted();
+
+    try {
+      for (int i = 0; i < mimeMessages.length; i++) {
+        Object original = (originalMessages != null ? originalMessages[i] : mimeMessages[i]);
+        long waitNanos = rateLimiter.tryReserve(maxRateLimitWaitNanos);
+        if (waitNanos < 0) {
+          failedMessages.put(original, new MessagingException("SMTP rate limit reached, the message would wait longer than "
+                  + Duration.ofNanos(maxRateLimitWaitNanos)));
+          continue;
+        }
+        if (waitNanos > 0) {
+          if (pooledTransport != null && waitNanos > holdConnectionNanos) {
+            transportPool.release(pooledTransport, false);
+            pooledTransport = null;
+          }
+          try {
+            RateLimiter.await(waitNanos);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rateLimiter.refund();
+            failedMessages.put(original, new MessagingException("Interrupted while waiting for the SMTP rate limit", e));
+            continue;
+          }
+          throttledNanos += waitNanos;
+        }
+
+        if (pooledTransport == null) {
+          try {
+            pooledTransport = transportPool.borrow();
+          } catch (AuthenticationFailedException e) {
+            relayFailed = true;
+            rateLimiter.refund();
+            throw new MailAuthenticationException(e);
+          } catch (SmtpPoolExhaustedException e) {
+            rateLimiter.refund();
+            failedMessages.put(original, e);
+            continue;
+          } catch (MessagingException e) {
+            relayFailed = true;
+            rateLimiter.refund();
+            failedMessages.put(original, e);
+            continue;
+          }
+        }
+
+        try {
+          sendMessage(pooledTransport, mimeMessages[i]);
+        } catch (SendFailedException e) {
+          rateLimiter.refund();
+          failedMessages.put(original, e);
+        } catch (MessagingException | RuntimeException e) {
+          relayFailed = true;
+          rateLimiter.refund();
+          failedMessages.put(original, e);
+          transportPool.release(pooledTransport, true);
+          pooledTransport = null;
+        }
+      }
+    } finally {
+      if (pooledTransport != null) {
+        transportPool.release(pooledTransport, false);
+      }
+      // Time spent waiting for the rate limiter says nothing about the relay's own latency.
+      health.sendCompleted(relayFailed, Math.max(0, System.nanoTime() - start - throttledNanos));
+    }
+
+    if (!failedMessages.isEmpty()) {
+      throw new MailSendException(failedMessages);
+    }
+  }
+
+  /**
+   * Closes the connection pool backing this sender.
+   */
+  @Override
+  public void close() {
+    transportPool.close();
+  }
+
+  /**
+   * Opens a new connection to the relay and records how long it took.
+   *
+   * @return The connected transport.
+   * @throws MessagingException If the connection could not be opened.
+   */
+  private Transport connectTimedTransport() throws MessagingException {
+    long start = System.nanoTime();
+    try {
+      Transport transport = connectTransport();
+      stageTimers.connected().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      return transport;
+    } catch (MessagingException | RuntimeException e) {
+      stageTimers.connectFailed().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      throw e;
+    }
+  }
+
+  /**
+   * Prepares and sends a single message, keeping any Message-ID that was set explicitly, and records how long
+   * the send took.
+   *
+   * @param pooledTransport The connection to send over.
+   * @param mimeMessage     The message to be sent.
+   * @throws MessagingException If the message could not be sent.
+   */
+  private void sendMessage(PooledTransport pooledTransport, MimeMessage mimeMessage) throws MessagingException {
+    long start = System.nanoTime();
+    try {
+      prepareAndSendMessage(pooledTransport, mimeMessage);
+      stageTimers.sent().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    } catch (MessagingException | RuntimeException e) {
+      stageTimers.sendFailed().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      throw e;
+    }
+  }
+
+  /**
+   * Prepares and sends a single message, keeping any Message-ID that was set explicitly.
+   *
+   * @param pooledTransport The connection to send over.
+   * @param mimeMessage     The message to be sent.
+   * @throws MessagingException If the message could not be sent.
+   */
+  private void prepareAndSendMessage(PooledTransport pooledTransport, MimeMessage mimeMessage) throws MessagingException {
+    if (mimeMessage.getSentDate() == null) {
+      mimeMessage.setSentDate(new Date());
+    }
+    String messageId = mimeMessage.getMessageID();
+    mimeMessage.saveChanges();
+    if (messageId != null) {
+      // Preserve explicitly specified message id, as it would otherwise get overwritten by saveChanges.
+      mimeMessage.setHeader(HEADER_MESSAGE_ID, messageId);
+    }
+    Address[] addresses = mimeMessage.getAllRecipients();
+    pooledTransport.sendMessage(mimeMessage, (addresses != null ? addresses : new Address[0]));
+  }
+}
@@ -0,0 +1,74 @@
+package com.clinicwave.clinicwavenotificationservice.mail;
+
+import jakarta.mail.Address;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * This class wraps a connected {@link Transport} borrowed from a {@link SmtpTransportPool}.
+ * It keeps track of the bookkeeping the pool needs to decide whether the connection can be reused.
+ *
+ * @author agent on 10/18/26
+ */
+@Slf4j
+public class PooledTransport {
+  private final Transport transport;
+  private int messagesSent;
+  private long lastUsedNanos;
+
+  /**
+   * Constructor for a freshly connected transport.
+   *
+   * @param transport The connected transport.
+   */
+  PooledTransport(Transport transport) {
+    this.transport = transport;
+    this.lastUsedNanos = System.nanoTime();
+  }
+
+  /**
+   * Sends a message over the underlying connection.
+   *
+   * @param message   The message to be sent.
+   * @param addresses The envelope recipients.
+   * @throws MessagingException If the message could not be sent.
+   */
+  public void sendMessage(Message message, Address[] addresses) throws MessagingException {
+    messagesSent++;
+    transport.sendMessage(message, addresses);
+  }
+
+  /**
+   * Checks the connection with a NOOP command.
+   *
+   * @return true if the server answered the NOOP.
+   */
+  boolean isAlive() {
+    return transport.isConnected();
+  }
+
+  int getMessagesSent() {
+    return messagesSent;
+  }
+
+  long getIdleNanos(long nowNanos) {
+    return nowNanos - lastUsedNanos;
+  }
+
+  void markUsed(long nowNanos) {
+    lastUsedNanos = nowNanos;
+  }
+
+  /**
+   * Closes the underlying connection, ignoring any error as the connection is discarded anyway.
+   */
+  void close() {
+    try {
+      transport.close();
+    } catch (MessagingException e) {
+      log.debug("Failed to close SMTP connection cleanly", e);
+    }
+  }
+}
@@ -0,0 +1,22 @@
+package com.clinicwave.clinicwavenotificationservice.mail;
+
+import jakarta.mail.MessagingException;
+
+/**
+ * This exception is thrown when no connection could be borrowed from a {@link SmtpTransportPool} because every
+ * connection stayed in use for the whole borrow timeout, or the wait was interrupted. The relay was never
+ * contacted, so the failure says nothing about its health.
+ *
+ * @author agent on 10/18/26
+ */
+public class SmtpPoolExhaustedException extends MessagingException {
+  /**
+   * Constructs a new SmtpPoolExhaustedException.
+   *
+   * @param message The detail message.
+   * @param cause   The exception the wait failed with, or null.
+   */
+  public SmtpPoolExhaustedException(String message, Exception cause) {
+    super(message, cause);
+  }
+}
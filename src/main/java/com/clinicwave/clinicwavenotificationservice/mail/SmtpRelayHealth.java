@@ -0,0 +1,115 @@
+package com.clinicwave.clinicwavenotificationservice.mail;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class tracks the load, latency and error rate of a single SMTP relay.
+ * <p>
+ * Latency and error rate are exponentially weighted moving averages over the sends handled by the relay.
+ * A send counts as failed when the relay itself misbehaved, for example when connecting, authenticating or
+ * talking to it failed; recipients rejected by the relay do not count. Once the error rate exceeds
+ * {@code maxErrorRate} over at least {@code minRequests} sends, the relay is ejected for {@code ejectionTime}.
+ * After that it is put back into rotation and has to prove itself again.
+ *
+ * @author agent on 10/18/26
+ */
+@Slf4j
+public class SmtpRelayHealth {
+  private static final double SMOOTHING_FACTOR = 0.1;
+
+  private final String relayName;
+  private final SmtpRelayHealthSettings settings;
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  private double errorRate;
+  private double latencyMillis;
+  private int requests;
+  private volatile boolean ejected;
+  private volatile long ejectedUntil;
+
+  /**
+   * Constructor for the relay health.
+   *
+   * @param relayName The name of the relay, used in log messages.
+   * @param settings  The settings deciding when the relay is ejected.
+   */
+  public SmtpRelayHealth(String relayName, SmtpRelayHealthSettings settings) {
+    this.relayName = relayName;
+    this.settings = settings;
+  }
+
+  /**
+   * Records that a send to the relay started.
+   */
+  public void sendStarted() {
+    inFlight.incrementAndGet();
+  }
+
+  /**
+   * Records the outcome of a send to the relay and ejects the relay when its error rate became too high.
+   *
+   * @param failed       Whether the relay itself failed the send.
+   * @param elapsedNanos How long the send took.
+   */
+  public synchronized void sendCompleted(boolean failed, long elapsedNanos) {
+    inFlight.decrementAndGet();
+    requests++;
+    errorRate += SMOOTHING_FACTOR * ((failed ? 1.0 : 0.0) - errorRate);
+    latencyMillis += SMOOTHING_FACTOR * (TimeUnit.NANOSECONDS.toMicros(elapsedNanos) / 1000.0 - latencyMillis);
+
+    if (!isEjected() && requests >= settings.minRequests() && errorRate > settings.maxErrorRate()) {
+      ejectedUntil = System.nanoTime() + settings.ejectionTime().toNanos();
+      ejected = true;
+      requests = 0;
+      log.warn("SMTP relay {} taken out of rotation for {} with an error rate of {}",
+              relayName, settings.ejectionTime(), String.format("%.2f", errorRate));
+    }
+  }
+
+  /**
+   * Returns whether the relay is in rotation.
+   *
+   * @return True unless the relay was ejected and its ejection time has not passed yet.
+   */
+  public boolean isAvailable() {
+    return !isEjected();
+  }
+
+  /**
+   * Returns the number of sends currently in progress on the relay.
+   *
+   * @return The number of sends in progress.
+   */
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  /**
+   * Returns the smoothed share of sends the relay failed.
+   *
+   * @return The error rate, between 0 and 1.
+   */
+  public synchronized double getErrorRate() {
+    return errorRate;
+  }
+
+  /**
+   * Returns the smoothed time a send to the relay takes.
+   *
+   * @return The latency in milliseconds.
+   */
+  public synchronized double getLatencyMillis() {
+    return latencyMillis;
+  }
+
+  private boolean isEjected() {
+    if (ejected && System.nanoTime() - ejectedUntil >= 0) {
+      ejected = false;
+      log.info("SMTP relay {} put back into rotation", relayName);
+    }
+    return ejected;
+  }
+}
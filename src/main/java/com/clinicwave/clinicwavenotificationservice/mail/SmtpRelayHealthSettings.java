@@ -0,0 +1,20 @@
+package com.clinicwave.clinicwavenotificationservice.mail;
+
+import java.time.Duration;
+
+/**
+ * This record holds the settings used by {@link SmtpRelayHealth} to take failing relays out of rotation.
+ *
+ * @author agent on 10/18/26
+ */
+public record SmtpRelayHealthSettings(
+        // The smoothed share of failed sends above which a relay is taken out of rotation
+        double maxErrorRate,
+
+        // The number of sends a relay must have handled before its error rate is trusted
+        int minRequests,
+
+        // How long a failing relay stays out of rotation before it is tried again
+        Duration ejectionTime
+) {
+}
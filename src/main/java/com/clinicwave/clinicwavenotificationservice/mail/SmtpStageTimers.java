@@ -0,0 +1,53 @@
+package com.clinicwave.clinicwavenotificationservice.mail;
+
+import com.clinicwave.clinicwavenotificationservice.metrics.NotificationStage;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.List;
+
+/**
+ * The timers of the SMTP stages of a relay: opening a connection and sending a message over it, each split
+ * by whether it succeeded.
+ *
+ * @param connected     The time to open connections that were opened.
+ * @param connectFailed The time to fail to open a connection.
+ * @param sent          The time to send messages that were accepted by the relay.
+ * @param sendFailed    The time to send messages that failed.
+ * @author agent on 10/18/26
+ */
+public record SmtpStageTimers(Timer connected, Timer connectFailed, Timer sent, Timer sendFailed) {
+  /**
+   * Registers the SMTP stage timers of a relay.
+   *
+   * @param meterRegistry The registry to register the timers with.
+   * @param relayTags     The tags identifying the relay.
+   * @return The registered timers.
+   */
+  public static SmtpStageTimers register(MeterRegistry meterRegistry, Tags relayTags) {
+    return new SmtpStageTimers(
+            register(meterRegistry, NotificationStage.SMTP_CONNECT, relayTags, "success"),
+            register(meterRegistry, NotificationStage.SMTP_CONNECT, relayTags, "failure"),
+            register(meterRegistry, NotificationStage.SMTP_SEND, relayTags, "success"),
+            register(meterRegistry, NotificationStage.SMTP_SEND, relayTags, "failure")
+    );
+  }
+
+  /**
+   * Returns the timers as meters, to be removed when the relay is closed.
+   *
+   * @return The timers.
+   */
+  public List<Meter> meters() {
+    return List.of(connected, connectFailed, sent, sendFailed);
+  }
+
+  private static Timer register(MeterRegistry meterRegistry, NotificationStage stage, Tags relayTags, String outcome) {
+    return stage.timer()
+            .tags(relayTags)
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+  }
+}
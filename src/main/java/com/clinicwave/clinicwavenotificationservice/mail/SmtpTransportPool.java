@@ -0,0 +1,196 @@
+package com.clinicwave.clinicwavenotificationservice.mail;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class is a bounded pool of connected SMTP {@link Transport} objects for a single SmtpSetting.
+ * <p>
+ * Connections are handed out most-recently-used first so that the warmest connections are reused and the
+ * oldest ones age out. A connection is closed instead of being returned to the pool once it has sent
+ * {@code maxMessagesPerConnection} messages, when it was reported broken, or when it stayed idle for longer
+ * than {@code maxIdle}. Connections idle for longer than {@code validateAfterIdle} are checked with a NOOP
+ * before they are handed out again.
+ * <p>
+ * Closing the pool does not fail the sends still running on it: a closed pool lends no idle connection again,
+ * and each connection is closed when it is returned. A send that borrows after the pool was closed, such as the
+ * rest of a batch started before the SMTP settings changed, is given a new connection that is closed after use.
+ * <p>
+ * A borrow that finds no free connection within the borrow timeout fails with a {@link SmtpPoolExhaustedException},
+ * and is counted apart from the failures of the relay.
+ *
+ * @author agent on 10/18/26
+ */
+@Slf4j
+public class SmtpTransportPool implements AutoCloseable {
+  private final TransportFactory transportFactory;
+  private final SmtpTransportPoolSettings settings;
+  private final Semaphore permits;
+  private final Deque<PooledTransport> idleTransports = new ConcurrentLinkedDeque<>();
+  private final AtomicLong borrowTimeoutCount = new AtomicLong();
+  private volatile boolean closed;
+
+  /**
+   * Constructor for the pool.
+   *
+   * @param transportFactory The factory used to open and authenticate new connections.
+   * @param settings         The pool tuning settings.
+   */
+  public SmtpTransportPool(TransportFactory transportFactory, SmtpTransportPoolSettings settings) {
+    this.transportFactory = transportFactory;
+    this.settings = settings;
+    this.permits = new Semaphore(settings.maxSize(), true);
+  }
+
+  /**
+   * Borrows a connected transport, opening a new connection if no idle one can be reused or the pool is closed.
+   * Every borrowed transport must be handed back through {@link #release(PooledTransport, boolean)}.
+   *
+   * @return A connected transport.
+   * @throws SmtpPoolExhaustedException If no connection became available within the borrow timeout.
+   * @throws MessagingException         If connecting to the relay failed.
+   */
+  public PooledTransport borrow() throws MessagingException {
+    acquirePermit();
+    try {
+      long now = System.nanoTime();
+      PooledTransport pooledTransport;
+      while (!closed && (pooledTransport = idleTransports.pollFirst()) != null) {
+        if (isReusable(pooledTransport, now)) {
+          return pooledTransport;
+        }
+        pooledTransport.close();
+      }
+      return new PooledTransport(transportFactory.connect());
+    } catch (MessagingException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  /**
+   * Hands a borrowed transport back to the pool.
+   *
+   * @param pooledTransport The transport obtained from {@link #borrow()}.
+   * @param broken          Whether the connection is in an unknown state and must not be reused.
+   */
+  public void release(PooledTransport pooledTransport, boolean broken) {
+    try {
+      if (closed || broken || pooledTransport.getMessagesSent() >= settings.maxMessagesPerConnection()) {
+        pooledTransport.close();
+      } else {
+        pooledTransport.markUsed(System.nanoTime());
+        idleTransports.offerFirst(pooledTransport);
+        if (closed) {
+          // The pool was closed while the connection was being returned, after it closed the idle connections.
+          closeIdle();
+        }
+      }
+    } finally {
+      permits.release();
+    }
+  }
+
+  /**
+   * Closes idle connections that exceeded the maximum idle time.
+   */
+  public void evictIdle() {
+    long now = System.nanoTime();
+    long maxIdleNanos = settings.maxIdle().toNanos();
+    Iterator<PooledTransport> iterator = idleTransports.descendingIterator();
+    while (iterator.hasNext()) {
+      PooledTransport pooledTransport = iterator.next();
+      if (pooledTransport.getIdleNanos(now) > maxIdleNanos && idleTransports.removeFirstOccurrence(pooledTransport)) {
+        pooledTransport.close();
+      }
+    }
+  }
+
+  /**
+   * Returns the number of idle connections currently held by the pool.
+   *
+   * @return The number of idle connections.
+   */
+  public int getIdleCount() {
+    return idleTransports.size();
+  }
+
+  /**
+   * Returns the number of borrows that failed because no connection became available within the borrow timeout.
+   *
+   * @return The number of timed out borrows.
+   */
+  public long getBorrowTimeoutCount() {
+    return borrowTimeoutCount.get();
+  }
+
+  /**
+   * Stops lending idle connections and closes them. Connections that are still borrowed, or borrowed later by
+   * sends in progress, are closed when they are released.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    closeIdle();
+  }
+
+  private void closeIdle() {
+    PooledTransport pooledTransport;
+    while ((pooledTransport = idleTransports.pollFirst()) != null) {
+      pooledTransport.close();
+    }
+  }
+
+  /**
+   * Waits up to the borrow timeout for a free slot in the pool.
+   *
+   * @throws SmtpPoolExhaustedException If no slot became available in time.
+   */
+  private void acquirePermit() throws SmtpPoolExhaustedException {
+    try {
+      if (!permits.tryAcquire(settings.borrowTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+        borrowTimeoutCount.incrementAndGet();
+        throw new SmtpPoolExhaustedException("Timed out after " + settings.borrowTimeout().toMillis()
+                + "ms waiting for an SMTP connection", null);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SmtpPoolExhaustedException("Interrupted while waiting for an SMTP connection", e);
+    }
+  }
+
+  /**
+   * Checks whether an idle connection can be handed out again.
+   *
+   * @param pooledTransport The idle connection.
+   * @param now             The current {@link System#nanoTime()}.
+   * @return true if the connection is young enough and, when required, answered a NOOP.
+   */
+  private boolean isReusable(PooledTransport pooledTransport, long now) {
+    long idleNanos = pooledTransport.getIdleNanos(now);
+    if (idleNanos > settings.maxIdle().toNanos()) {
+      return false;
+    }
+    if (idleNanos > settings.validateAfterIdle().toNanos() && !pooledTransport.isAlive()) {
+      log.debug("Discarding SMTP connection that failed the NOOP check");
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * A factory that opens and authenticates a new SMTP connection.
+   */
+  @FunctionalInterface
+  public interface TransportFactory {
+    Transport connect() throws MessagingException;
+  }
+}
@@ -0,0 +1,26 @@
+package com.clinicwave.clinicwavenotificationservice.mail;
+
+import java.time.Duration;
+
+/**
+ * This record holds the tuning settings for a {@link SmtpTransportPool}.
+ *
+ * @author agent on 10/18/26
+ */
+public record SmtpTransportPoolSettings(
+        // The maximum number of connections, borrowed or idle, per SmtpSetting
+        int maxSize,
+
+        // How long a caller waits for a connection before giving up
+        Duration borrowTimeout,
+
+        // How long a connection may stay idle in the pool before it is evicted
+        Duration maxIdle,
+
+        // The number of messages after which a connection is closed and replaced
+        int maxMessagesPerConnection,
+
+        // Idle time after which a connection is checked with a NOOP before it is reused
+        Duration validateAfterIdle
+) {
+}
@@ -0,0 +1,48 @@
+package com.clinicwave.clinicwavenotificationservice.metrics;
+
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * This enum defines the stages of the notification pipeline that are timed separately, so that a slow
+ * delivery can be traced to the stage it spent its time in.
+ * Every stage is exposed as its own timer with a percentile histogram.
+ *
+ * @author agent on 10/18/26
+ */
+public enum NotificationStage {
+  DESERIALIZATION("notification.stage.deserialization", "Time to deserialize a notification request from Kafka"),
+  STRATEGY_LOOKUP("notification.stage.strategy-lookup", "Time to look up the strategy of a notification type"),
+  TEMPLATE_RENDER("notification.stage.template-render", "Time to render the template of a notification"),
+  MIME_MESSAGE("notification.stage.mime-message", "Time to build the MIME message of an email, including rendering its template"),
+  SMTP_CONNECT("notification.stage.smtp-connect", "Time to open a connection to an SMTP relay"),
+  SMTP_SEND("notification.stage.smtp-send", "Time to send a message over an open SMTP connection"),
+  DB_LOOKUP("notification.stage.db-lookup", "Time to look up the settings of the notification pipeline in the database");
+
+  private final String metricName;
+  private final String description;
+
+  NotificationStage(String metricName, String description) {
+    this.metricName = metricName;
+    this.description = description;
+  }
+
+  /**
+   * Returns the name of the timer of this stage.
+   *
+   * @return The metric name.
+   */
+  public String getMetricName() {
+    return metricName;
+  }
+
+  /**
+   * Creates a builder for the timer of this stage, publishing a percentile histogram.
+   *
+   * @return The timer builder.
+   */
+  public Timer.Builder timer() {
+    return Timer.builder(metricName)
+            .description(description)
+            .publishPercentileHistogram();
+  }
+}
@@ -0,0 +1,84 @@
+package com.clinicwave.clinicwavenotificationservice.metrics;
+
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class records how long each notification spends in the stages of the pipeline that work on a single
+ * notification: deserializing it, looking up its strategy, rendering its template and building its message.
+ * <p>
+ * The timers are tagged by notification type, category and template, and by the outcome of the stage along
+ * with the simple name of the exception it failed with, or {@code none}.
+ *
+ * @author agent on 10/18/26
+ */
+@Component
+public class NotificationStageMetrics {
+  public static final String UNKNOWN = "unknown";
+  public static final String NO_EXCEPTION = "none";
+
+  private final Map<NotificationStage, Meter.MeterProvider<Timer>> timers = new EnumMap<>(NotificationStage.class);
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param meterRegistry The registry used to expose the stage timers.
+   */
+  @Autowired
+  public NotificationStageMetrics(MeterRegistry meterRegistry) {
+    for (NotificationStage stage : NotificationStage.values()) {
+      timers.put(stage, stage.timer().withRegistry(meterRegistry));
+    }
+  }
+
+  /**
+   * Records the time a notification spent in a stage.
+   *
+   * @param stage                  The stage.
+   * @param notificationRequestDto The notification, or null if the stage failed before it was known.
+   * @param nanos                  The time spent in the stage, in nanoseconds.
+   * @param error                  The error the stage failed with, or null if it succeeded.
+   */
+  public void record(NotificationStage stage, NotificationRequestDto notificationRequestDto, long nanos, Throwable error) {
+    String type = UNKNOWN;
+    String category = UNKNOWN;
+    String template = UNKNOWN;
+    if (notificationRequestDto != null) {
+      type = notificationRequestDto.type() != null ? notificationRequestDto.type().name() : UNKNOWN;
+      category = notificationRequestDto.category() != null ? notificationRequestDto.category().name() : UNKNOWN;
+      template = notificationRequestDto.templateName() != null ? notificationRequestDto.templateName() : UNKNOWN;
+    }
+    timers.get(stage)
+            .withTags("type", type, "category", category, "template", template,
+                    "outcome", outcome(error), "exception", exception(error))
+            .record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Returns the outcome tag value for a stage that failed with the given error.
+   *
+   * @param error The error, or null if the stage succeeded.
+   * @return {@code success} or {@code failure}.
+   */
+  public static String outcome(Throwable error) {
+    return error == null ? "success" : "failure";
+  }
+
+  /**
+   * Returns the exception tag value for a stage that failed with the given error.
+   *
+   * @param error The error, or null if the stage succeeded.
+   * @return The simple name of the error's class, or {@code none}.
+   */
+  public static String exception(Throwable error) {
+    return error == null ? NO_EXCEPTION : error.getClass().getSimpleName();
+  }
+}
@@ -0,0 +1,85 @@
+package com.clinicwave.clinicwavenotificationservice.metrics;
+
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.util.Map;
+
+/**
+ * This class is a Kafka deserializer that times the deserializer it wraps as the
+ * {@link NotificationStage#DESERIALIZATION} stage of every notification request it reads.
+ * It is meant to sit inside an {@code ErrorHandlingDeserializer}, so that records that fail to deserialize
+ * are timed and counted before they are turned into null values.
+ *
+ * @author agent on 10/18/26
+ */
+public class TimedNotificationDeserializer implements Deserializer<NotificationRequestDto> {
+  private final Deserializer<NotificationRequestDto> delegate;
+  private final NotificationStageMetrics notificationStageMetrics;
+
+  /**
+   * Constructor for the deserializer.
+   *
+   * @param delegate                 The deserializer to be timed.
+   * @param notificationStageMetrics The metrics the deserialization time is recorded in.
+   */
+  public TimedNotificationDeserializer(Deserializer<NotificationRequestDto> delegate, NotificationStageMetrics notificationStageMetrics) {
+    this.delegate = delegate;
+    this.notificationStageMetrics = notificationStageMetrics;
+  }
+
+  /**
+   * Configures the wrapped deserializer.
+   *
+   * @param configs The consumer configuration.
+   * @param isKey   Whether the deserializer is used for keys.
+   */
+  @Override
+  public void configure(Map<String, ?> configs, boolean isKey) {
+    delegate.configure(configs, isKey);
+  }
+
+  /**
+   * Deserializes a notification request without headers.
+   *
+   * @param topic The topic the record was read from.
+   * @param data  The serialized notification request.
+   * @return The notification request.
+   */
+  @Override
+  public NotificationRequestDto deserialize(String topic, byte[] data) {
+    return deserialize(topic, null, data);
+  }
+
+  /**
+   * Deserializes a notification request and records how long it took.
+   *
+   * @param topic   The topic the record was read from.
+   * @param headers The headers of the record, or null.
+   * @param data    The serialized notification request.
+   * @return The notification request.
+   */
+  @Override
+  public NotificationRequestDto deserialize(String topic, Headers headers, byte[] data) {
+    long start = System.nanoTime();
+    try {
+      NotificationRequestDto notificationRequestDto = headers != null
+              ? delegate.deserialize(topic, headers, data)
+              : delegate.deserialize(topic, data);
+      notificationStageMetrics.record(NotificationStage.DESERIALIZATION, notificationRequestDto, System.nanoTime() - start, null);
+      return notificationRequestDto;
+    } catch (RuntimeException e) {
+      notificationStageMetrics.record(NotificationStage.DESERIALIZATION, null, System.nanoTime() - start, e);
+      throw e;
+    }
+  }
+
+  /**
+   * Closes the wrapped deserializer.
+   */
+  @Override
+  public void close() {
+    delegate.close();
+  }
+}
@@ -0,0 +1,393 @@
+package com.clinicwave.clinicwavenotificationservice.outbox;
+
+import com.clinicwave.clinicwavenotificationservice.domain.NotificationOutbox;
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.enums.OutboxStatusEnum;
+import com.clinicwave.clinicwavenotificationservice.exception.InvalidNotificationTypeException;
+import com.clinicwave.clinicwavenotificationservice.exception.TemplateProcessingException;
+import com.clinicwave.clinicwavenotificationservice.lane.NotificationLanes;
+import com.clinicwave.clinicwavenotificationservice.repository.NotificationOutboxRepository;
+import com.clinicwave.clinicwavenotificationservice.service.NotificationService;
+import com.clinicwave.clinicwavenotificationservice.strategy.NotificationResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class drains the notification outbox in the background, sending the notifications through the
+ * notification strategies.
+ * <p>
+ * Notifications are claimed in batches with {@code SELECT ... FOR UPDATE SKIP LOCKED}, so several instances
+ * can drain the same outbox without sending a notification twice. Claiming a notification leases it: its
+ * availability is moved past the lease and the transaction commits before sending, so no database connection
+ * or row lock is held while talking to the relays. Sent notifications are deleted and failed ones are made
+ * available again after a growing delay, both for the whole batch in one transaction. A notification whose
+ * instance dies before it was deleted becomes available again when its lease runs out, so every notification
+ * is sent at least once.
+ * <p>
+ * Notifications marked as failed stay in the outbox for the failed retention period, so that they can be looked
+ * into, and are then purged. Their number is exposed as the {@code notification.outbox.failed} gauge.
+ *
+ * @author agent on 10/18/26
+ */
+@Component
+@ConditionalOnProperty(name = "notification.outbox.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class NotificationOutboxDispatcher {
+  private static final List<Class<? extends RuntimeException>> NON_RETRYABLE_ERRORS = List.of(
+          TemplateProcessingException.class,
+          InvalidNotificationTypeException.class
+  );
+  private static final int MAX_ERROR_LENGTH = 1000;
+  private static final TypeReference<Map<String, Object>> TEMPLATE_VARIABLES_TYPE = new TypeReference<>() {
+  };
+
+  private final NotificationOutboxRepository notificationOutboxRepository;
+  private final NotificationService notificationService;
+  private final NotificationLanes notificationLanes;
+  private final TransactionTemplate transactionTemplate;
+  private final ObjectMapper objectMapper;
+  private final Clock clock;
+  private final int batchSize;
+  private final Duration pollInterval;
+  private final Duration lease;
+  private final int maxAttempts;
+  private final Duration retryDelay;
+  private final Duration shutdownTimeout;
+  private final Duration failedRetention;
+
+  private final Semaphore wakeUps = new Semaphore(0);
+  private final ExecutorService drainer;
+  private volatile boolean running;
+
+  private final Counter sentCounter;
+  private final Counter retriedCounter;
+  private final Counter failedCounter;
+  private final AtomicLong failedNotifications = new AtomicLong();
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param notificationOutboxRepository The repository of the outbox.
+   * @param notificationService          The service used to send the notifications.
+   * @param notificationLanes            The lanes the delivery latency is reported to.
+   * @param transactionManager           The transaction manager of the outbox's datasource.
+   * @param objectMapper                 The ObjectMapper used to read the template variables.
+   * @param meterRegistry                The registry used to expose the outbox counters.
+   * @param batchSize                    The maximum number of notifications claimed at once.
+   * @param pollInterval                 How long to wait for new notifications when the outbox is drained.
+   * @param lease                        How long a claimed notification is kept from other dispatchers.
+   * @param maxAttempts                  The number of attempts after which a notification is marked as failed.
+   * @param retryDelay                   The delay before the first retry, doubled for every further retry.
+   * @param shutdownTimeout              How long to wait for the batch being sent on shutdown.
+   * @param failedRetention              How long failed notifications are kept, or zero to keep them all.
+   */
+  @Autowired
+  public NotificationOutboxDispatcher(NotificationOutboxRepository notificationOutboxRepository,
+                                      NotificationService notificationService,
+                                      NotificationLanes notificationLanes,
+                                      PlatformTransactionManager transactionManager,
+                                      ObjectMapper objectMapper,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${notification.outbox.dispatch.batch-size:100}") int batchSize,
+                                      @Value("${notification.outbox.dispatch.poll-interval:PT1S}") Duration pollInterval,
+                                      @Value("${notification.outbox.dispatch.lease:PT5M}") Duration lease,
+                                      @Value("${notification.outbox.dispatch.max-attempts:5}") int maxAttempts,
+                                      @Value("${notification.outbox.dispatch.retry-delay:PT30S}") Duration retryDelay,
+                                      @Value("${notification.outbox.dispatch.shutdown-timeout:PT30S}") Duration shutdownTimeout,
+                                      @Value("${notification.outbox.failed.retention:P7D}") Duration failedRetention) {
+    this(notificationOutboxRepository, notificationService, notificationLanes, transactionManager, objectMapper,
+            meterRegistry, Clock.systemDefaultZone(), batchSize, pollInterval, lease, maxAttempts, retryDelay, shutdownTimeout,
+            failedRetention);
+  }
+
+  NotificationOutboxDispatcher(NotificationOutboxRepository notificationOutboxRepository,
+                               NotificationService notificationService, NotificationLanes notificationLanes,
+                               PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry, Clock clock, int batchSize, Duration pollInterval,
+                               Duration lease, int maxAttempts, Duration retryDelay, Duration shutdownTimeout,
+                               Duration failedRetention) {
+    this.notificationOutboxRepository = notificationOutboxRepository;
+    this.notificationService = notificationService;
+    this.notificationLanes = notificationLanes;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.objectMapper = objectMapper;
+    this.clock = clock;
+    this.batchSize = batchSize;
+    this.pollInterval = pollInterval;
+    this.lease = lease;
+    this.maxAttempts = maxAttempts;
+    this.retryDelay = retryDelay;
+    this.shutdownTimeout = shutdownTimeout;
+    this.failedRetention = failedRetention;
+    this.drainer = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("notification-outbox-dispatcher-"));
+
+    this.sentCounter = Counter.builder("notification.outbox.notifications")
+            .description("Notifications drained from the outbox")
+            .tag("result", "sent")
+            .register(meterRegistry);
+    this.retriedCounter = Counter.builder("notification.outbox.notifications")
+            .description("Notifications drained from the outbox")
+            .tag("result", "retried")
+            .register(meterRegistry);
+    this.failedCounter = Counter.builder("notification.outbox.notifications")
+            .description("Notifications drained from the outbox")
+            .tag("result", "failed")
+            .register(meterRegistry);
+    Gauge.builder("notification.outbox.failed", failedNotifications, AtomicLong::get)
+            .description("Notifications in the outbox marked as failed, as of the last purge")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Starts draining the outbox in the background.
+   */
+  @PostConstruct
+  public void start() {
+    running = true;
+    drainer.execute(this::drainContinuously);
+  }
+
+  /**
+   * Tells the dispatcher that notifications were written to the outbox, so that it does not wait for the end
+   * of its poll interval to claim them.
+   */
+  public void wakeUp() {
+    if (wakeUps.availablePermits() == 0) {
+      wakeUps.release();
+    }
+  }
+
+  /**
+   * Claims a batch of available notifications, sends them and records the outcome.
+   *
+   * @return The number of notifications claimed.
+   */
+  public int drain() {
+    LocalDateTime claimedAt = LocalDateTime.now(clock);
+    List<NotificationOutbox> claimed = transactionTemplate.execute(status -> claim(claimedAt));
+    if (claimed == null || claimed.isEmpty()) {
+      return 0;
+    }
+
+    List<Long> sentIds = new ArrayList<>();
+    Map<Long, RuntimeException> failures = new LinkedHashMap<>();
+    List<NotificationOutbox> sendable = new ArrayList<>(claimed.size());
+    List<NotificationRequestDto> requests = new ArrayList<>(claimed.size());
+    for (NotificationOutbox notificationOutbox : claimed) {
+      try {
+        requests.add(toRequest(notificationOutbox));
+        sendable.add(notificationOutbox);
+      } catch (JsonProcessingException e) {
+        failures.put(notificationOutbox.getId(), new IllegalStateException("Unreadable template variables", e));
+      }
+    }
+
+    List<NotificationResult> results = notificationService.sendNotifications(requests);
+    LocalDateTime sentAt = LocalDateTime.now(clock);
+    for (int i = 0; i < results.size(); i++) {
+      NotificationOutbox notificationOutbox = sendable.get(i);
+      NotificationResult result = results.get(i);
+      if (result.isSuccess()) {
+        sentIds.add(notificationOutbox.getId());
+        notificationLanes.recordLatency(notificationOutbox.getCategory(),
+                Duration.between(notificationOutbox.getCreatedAt(), sentAt));
+      } else {
+        failures.put(notificationOutbox.getId(), result.error());
+      }
+    }
+
+    transactionTemplate.executeWithoutResult(status -> complete(sentIds, failures));
+    log.debug("Drained {} notifications from the outbox, {} failed", claimed.size(), failures.size());
+    return claimed.size();
+  }
+
+  /**
+   * Deletes the failed notifications that have been kept for the failed retention period, and counts the ones
+   * left for the {@code notification.outbox.failed} gauge.
+   */
+  @Scheduled(fixedDelayString = "${notification.outbox.failed.purge-interval:PT1H}")
+  public void purgeFailed() {
+    if (!failedRetention.isZero()) {
+      LocalDateTime before = LocalDateTime.now(clock).minus(failedRetention);
+      Integer purged = transactionTemplate.execute(status ->
+              notificationOutboxRepository.deleteByStatusUpdatedBefore(OutboxStatusEnum.FAILED, before));
+      if (purged != null && purged > 0) {
+        log.info("Purged {} failed notifications from the outbox", purged);
+      }
+    }
+    failedNotifications.set(notificationOutboxRepository.countByStatus(OutboxStatusEnum.FAILED));
+  }
+
+  /**
+   * Stops draining the outbox once the batch being sent is done.
+   * Notifications left in the outbox are sent after the next start.
+   */
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    running = false;
+    wakeUp();
+    drainer.shutdown();
+    if (!drainer.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+      log.warn("The outbox batch being sent was not completed before shutdown; it will be sent again after its lease");
+      drainer.shutdownNow();
+    }
+  }
+
+  /**
+   * Drains the outbox until the dispatcher is shut down, waiting for new notifications whenever a batch
+   * comes back short.
+   */
+  private void drainContinuously() {
+    while (running) {
+      try {
+        if (drain() < batchSize) {
+          awaitWakeUp();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (RuntimeException e) {
+        log.error("Failed to drain the notification outbox", e);
+        try {
+          awaitWakeUp();
+        } catch (InterruptedException interrupted) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Waits until notifications are written to the outbox or the poll interval has passed.
+   */
+  private void awaitWakeUp() throws InterruptedException {
+    if (wakeUps.tryAcquire(pollInterval.toMillis(), TimeUnit.MILLISECONDS)) {
+      wakeUps.drainPermits();
+    }
+  }
+
+  /**
+   * Locks the next batch of available notifications and leases them to this dispatcher.
+   * Must be called in a transaction.
+   *
+   * @param claimedAt The time of the claim.
+   * @return The claimed notifications, oldest first.
+   */
+  private List<NotificationOutbox> claim(LocalDateTime claimedAt) {
+    List<NotificationOutbox> claimed = notificationOutboxRepository.findClaimable(OutboxStatusEnum.PENDING, claimedAt, Limit.of(batchSize));
+    for (NotificationOutbox notificationOutbox : claimed) {
+      notificationOutbox.setAttempts(notificationOutbox.getAttempts() + 1);
+      notificationOutbox.setAvailableAt(claimedAt.plus(lease));
+    }
+    return claimed;
+  }
+
+  /**
+   * Deletes the sent notifications and schedules the failed ones for another attempt, or marks them as failed
+   * when they are out of attempts or cannot succeed. Must be called in a transaction.
+   *
+   * @param sentIds  The ids of the notifications that were sent.
+   * @param failures The errors of the notifications that failed, by id.
+   */
+  private void complete(List<Long> sentIds, Map<Long, RuntimeException> failures) {
+    if (!sentIds.isEmpty()) {
+      notificationOutboxRepository.deleteAllByIdInBatch(sentIds);
+      sentCounter.increment(sentIds.size());
+    }
+    if (failures.isEmpty()) {
+      return;
+    }
+
+    LocalDateTime failedAt = LocalDateTime.now(clock);
+    for (NotificationOutbox notificationOutbox : notificationOutboxRepository.findAllById(failures.keySet())) {
+      RuntimeException error = failures.get(notificationOutbox.getId());
+      notificationOutbox.setLastError(truncate(String.valueOf(error.getMessage())));
+      if (notificationOutbox.getAttempts() >= maxAttempts || isNonRetryable(error)) {
+        notificationOutbox.setStatus(OutboxStatusEnum.FAILED);
+        failedCounter.increment();
+        failedNotifications.incrementAndGet();
+        log.error("Giving up on notification {} to: {} after {} attempts", notificationOutbox.getTrackingId(),
+                notificationOutbox.getRecipient(), notificationOutbox.getAttempts(), error);
+      } else {
+        Duration delay = retryDelay.multipliedBy(1L << Math.min(notificationOutbox.getAttempts() - 1, 20));
+        notificationOutbox.setAvailableAt(failedAt.plus(delay));
+        retriedCounter.increment();
+        log.warn("Failed to send notification {} to: {}, retrying in {}", notificationOutbox.getTrackingId(),
+                notificationOutbox.getRecipient(), delay, error);
+      }
+    }
+  }
+
+  /**
+   * Converts an outbox row back into the notification request it was written from.
+   *
+   * @param notificationOutbox The outbox row.
+   * @return The notification request.
+   * @throws JsonProcessingException If the template variables cannot be read.
+   */
+  private NotificationRequestDto toRequest(NotificationOutbox notificationOutbox) throws JsonProcessingException {
+    Map<String, Object> templateVariables = notificationOutbox.getTemplateVariables() == null ? null
+            : objectMapper.readValue(notificationOutbox.getTemplateVariables(), TEMPLATE_VARIABLES_TYPE);
+    return new NotificationRequestDto(notificationOutbox.getRecipient(), notificationOutbox.getSubject(),
+            notificationOutbox.getTemplateName(), templateVariables, notificationOutbox.getType(),
+            notificationOutbox.getCategory(), notificationOutbox.getIdempotencyKey(), notificationOutbox.getTrackingId(),
+            notificationOutbox.getSendAt());
+  }
+
+  /**
+   * Checks whether an error cannot be fixed by sending the notification again.
+   *
+   * @param error The error.
+   * @return Whether the error or one of its causes is non-retryable.
+   */
+  private static boolean isNonRetryable(Throwable error) {
+    for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+      for (Class<? extends RuntimeException> nonRetryable : NON_RETRYABLE_ERRORS) {
+        if (nonRetryable.isInstance(cause)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Shortens an error message to fit the outbox's error column.
+   *
+   * @param message The error message.
+   * @return The message, at most {@value #MAX_ERROR_LENGTH} characters long.
+   */
+  private static String truncate(String message) {
+    return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+  }
+}
@@ -0,0 +1,188 @@
+package com.clinicwave.clinicwavenotificationservice.ratelimit;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class limits the rate at which messages are sent to a single SMTP relay, or to an SMS provider.
+ * <p>
+ * Each limit is a token bucket holding as many tokens as messages allowed per period, refilled evenly over the
+ * period. The buckets are lock-free: a bucket only stores the time at which it will next be full enough, and a
+ * caller takes a token by moving that time forward with a compare-and-set. A caller that finds a bucket empty
+ * is not rejected; it is told how long to wait for its token, which it has already reserved, so waiting callers
+ * are served in the order they arrived. A caller that cannot wait long, such as a Kafka consumer that has to poll
+ * again in time, can instead reserve only if its wait stays within a bound, and a caller whose message was not
+ * sent after all gives its token back.
+ *
+ * @author agent on 10/18/26
+ */
+public class RateLimiter {
+  private static final RateLimiter UNLIMITED = new RateLimiter(List.of());
+
+  private final List<TokenBucket> buckets;
+  private final AtomicLong throttledCount = new AtomicLong();
+  private final AtomicLong throttledNanos = new AtomicLong();
+  private final AtomicLong rejectedCount = new AtomicLong();
+
+  private RateLimiter(List<TokenBucket> buckets) {
+    this.buckets = buckets;
+  }
+
+  /**
+   * Creates a rate limiter enforcing the given limits.
+   *
+   * @param maxMessagesPerSecond The maximum number of messages per second, or null for no limit.
+   * @param maxMessagesPerHour   The maximum number of messages per hour, or null for no limit.
+   * @return The rate limiter.
+   */
+  public static RateLimiter of(Integer maxMessagesPerSecond, Integer maxMessagesPerHour) {
+    List<TokenBucket> buckets = new ArrayList<>(2);
+    if (maxMessagesPerSecond != null && maxMessagesPerSecond > 0) {
+      buckets.add(new TokenBucket(maxMessagesPerSecond, Duration.ofSeconds(1)));
+    }
+    if (maxMessagesPerHour != null && maxMessagesPerHour > 0) {
+      buckets.add(new TokenBucket(maxMessagesPerHour, Duration.ofHours(1)));
+    }
+    return buckets.isEmpty() ? UNLIMITED : new RateLimiter(List.copyOf(buckets));
+  }
+
+  /**
+   * Returns a rate limiter that never limits.
+   *
+   * @return The unlimited rate limiter.
+   */
+  public static RateLimiter unlimited() {
+    return UNLIMITED;
+  }
+
+  /**
+   * Takes a token from every bucket for one message.
+   * The tokens are taken even if they are not available yet; the caller must wait for the returned time
+   * before sending.
+   *
+   * @return How long to wait before the message may be sent, in nanoseconds; 0 if it may be sent right away.
+   */
+  public long reserve() {
+    return tryReserve(Long.MAX_VALUE);
+  }
+
+  /**
+   * Takes a token from every bucket for one message, unless the message would have to wait longer than the given
+   * time for them, in which case no token is taken.
+   *
+   * @param maxWaitNanos The longest the caller may wait, in nanoseconds.
+   * @return How long to wait before the message may be sent, in nanoseconds; 0 if it may be sent right away, or -1
+   * if it would have to wait longer than the given time.
+   */
+  public long tryReserve(long maxWaitNanos) {
+    long now = System.nanoTime();
+    long waitNanos = 0;
+    for (int i = 0; i < buckets.size(); i++) {
+      long bucketWaitNanos = buckets.get(i).tryReserve(now, maxWaitNanos);
+      if (bucketWaitNanos < 0) {
+        for (int j = 0; j < i; j++) {
+          buckets.get(j).refund();
+        }
+        rejectedCount.incrementAndGet();
+        return -1;
+      }
+      waitNanos = Math.max(waitNanos, bucketWaitNanos);
+    }
+    if (waitNanos > 0) {
+      throttledCount.incrementAndGet();
+      throttledNanos.addAndGet(waitNanos);
+    }
+    return waitNanos;
+  }
+
+  /**
+   * Gives back the tokens taken for a message that was not sent, so that they can be used by a later message.
+   */
+  public void refund() {
+    buckets.forEach(TokenBucket::refund);
+  }
+
+  /**
+   * Waits for a reserved token.
+   *
+   * @param waitNanos The time returned by {@link #reserve()}.
+   * @throws InterruptedException If interrupted while waiting.
+   */
+  public static void await(long waitNanos) throws InterruptedException {
+    long deadline = System.nanoTime() + waitNanos;
+    long remaining = waitNanos;
+    while (remaining > 0) {
+      LockSupport.parkNanos(remaining);
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+      remaining = deadline - System.nanoTime();
+    }
+  }
+
+  /**
+   * Returns the number of messages that had to wait for a token.
+   *
+   * @return The number of throttled messages.
+   */
+  public long getThrottledCount() {
+    return throttledCount.get();
+  }
+
+  /**
+   * Returns the number of messages that were not given a token because they would have waited too long.
+   *
+   * @return The number of rejected messages.
+   */
+  public long getRejectedCount() {
+    return rejectedCount.get();
+  }
+
+  /**
+   * Returns the total time messages had to wait for a token.
+   *
+   * @param unit The unit of the returned time.
+   * @return The total waiting time.
+   */
+  public double getThrottledTime(TimeUnit unit) {
+    return (double) throttledNanos.get() / unit.toNanos(1);
+  }
+
+  /**
+   * A token bucket implemented as a generic cell rate algorithm: instead of counting tokens, it keeps the
+   * theoretical arrival time of the next message, which advances by one emission interval per message.
+   */
+  private static final class TokenBucket {
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrivalTime = new AtomicLong(System.nanoTime());
+
+    private TokenBucket(int capacity, Duration period) {
+      this.emissionIntervalNanos = period.toNanos() / capacity;
+      this.burstToleranceNanos = emissionIntervalNanos * (capacity - 1);
+    }
+
+    private long tryReserve(long now, long maxWaitNanos) {
+      while (true) {
+        long arrivalTime = theoreticalArrivalTime.get();
+        long start = arrivalTime - now > 0 ? arrivalTime : now;
+        long waitNanos = Math.max(0, start - burstToleranceNanos - now);
+        if (waitNanos > maxWaitNanos) {
+          return -1;
+        }
+        if (theoreticalArrivalTime.compareAndSet(arrivalTime, start + emissionIntervalNanos)) {
+          return waitNanos;
+        }
+      }
+    }
+
+    private void refund() {
+      // Moving the arrival time back frees the last slot; a time in the past counts as now, so no burst builds up.
+      theoreticalArrivalTime.addAndGet(-emissionIntervalNanos);
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package com.clinicwave.clinicwavenotificationservice.repository;
+
+import com.clinicwave.clinicwavenotificationservice.domain.DeliveryLog;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+/**
+ * This interface is a repository for the DeliveryLog entity.
+ *
+ * @author agent on 10/18/26
+ */
+public interface DeliveryLogRepository extends JpaRepository<DeliveryLog, Long> {
+  /**
+   * Finds the delivery attempts of a notification, oldest first.
+   *
+   * @param trackingId The tracking ID of the notification.
+   * @return The delivery attempts.
+   */
+  List<DeliveryLog> findByTrackingIdOrderByCreatedAtAscIdAsc(String trackingId);
+
+  /**
+   * Finds the most recent delivery attempts to a recipient, newest first.
+   *
+   * @param recipient The recipient.
+   * @param limit     The maximum number of attempts to return.
+   * @return The delivery attempts.
+   */
+  List<DeliveryLog> findByRecipientOrderByCreatedAtDescIdDesc(String recipient, Limit limit);
+}
@@ -0,0 +1,40 @@
+package com.clinicwave.clinicwavenotificationservice.repository;
+
+import com.clinicwave.clinicwavenotificationservice.domain.DigestWindow;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * This interface is a repository for the DigestWindow entity.
+ *
+ * @author agent on 10/18/26
+ */
+public interface DigestWindowRepository extends JpaRepository<DigestWindow, String> {
+  /**
+   * Locks the window of a recipient, so that the notifications offered to it by several instances at once are
+   * counted one after the other. Must be called in a transaction.
+   *
+   * @param recipientKey The lower-cased recipient.
+   * @return The window of the recipient, if one was ever opened and not deleted since.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select w from DigestWindow w where w.recipientKey = :recipientKey")
+  Optional<DigestWindow> findForUpdate(@Param("recipientKey") String recipientKey);
+
+  /**
+   * Deletes the windows that closed before the given time. Must be called in a transaction.
+   *
+   * @param now The current time.
+   * @return The number of windows deleted.
+   */
+  @Modifying
+  @Query("delete from DigestWindow w where w.closesAt <= :now")
+  int deleteClosed(@Param("now") Instant now);
+}
@@ -0,0 +1,48 @@
+package com.clinicwave.clinicwavenotificationservice.repository;
+
+import com.clinicwave.clinicwavenotificationservice.domain.HeldNotification;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * This interface is a repository for the HeldNotification entity.
+ *
+ * @author agent on 10/18/26
+ */
+public interface HeldNotificationRepository extends JpaRepository<HeldNotification, Long> {
+  /**
+   * Locks the held notifications that are due at the given time, skipping the rows locked by other transactions
+   * ({@code SELECT ... FOR UPDATE SKIP LOCKED}, a lock timeout of -2), so that several instances send each digest
+   * once. The notifications of a window are returned together, in the order they were held. Must be called in a
+   * transaction.
+   *
+   * @param now   The current time.
+   * @param limit The maximum number of notifications to claim.
+   * @return The locked notifications, by window.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+  @Query("select h from HeldNotification h where h.dueAt <= :now order by h.windowId, h.id")
+  List<HeldNotification> findClaimable(@Param("now") Instant now, Limit limit);
+
+  /**
+   * Makes the notifications held in a window due at the given time. Must be called in a transaction.
+   *
+   * @param windowId The ID of the window.
+   * @param dueAt    When the notifications are due.
+   * @return The number of notifications updated.
+   */
+  @Modifying
+  @Query("update HeldNotification h set h.dueAt = :dueAt where h.windowId = :windowId")
+  int updateDueAt(@Param("windowId") String windowId, @Param("dueAt") Instant dueAt);
+}
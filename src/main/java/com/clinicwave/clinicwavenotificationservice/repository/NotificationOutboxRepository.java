@@ -0,0 +1,58 @@
+package com.clinicwave.clinicwavenotificationservice.repository;
+
+import com.clinicwave.clinicwavenotificationservice.domain.NotificationOutbox;
+import com.clinicwave.clinicwavenotificationservice.enums.OutboxStatusEnum;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * This interface is a repository for the NotificationOutbox entity.
+ *
+ * @author agent on 10/18/26
+ */
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+  /**
+   * Locks the oldest notifications with the given status that are available at the given time, skipping the
+   * rows locked by other transactions ({@code SELECT ... FOR UPDATE SKIP LOCKED}, a lock timeout of -2), so that
+   * several instances can claim disjoint batches. Must be called in a transaction.
+   *
+   * @param status The status of the notifications.
+   * @param now    The current time.
+   * @param limit  The maximum number of notifications to claim.
+   * @return The locked notifications, oldest first.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+  @Query("select n from NotificationOutbox n where n.status = :status and n.availableAt <= :now order by n.id")
+  List<NotificationOutbox> findClaimable(@Param("status") OutboxStatusEnum status, @Param("now") LocalDateTime now, Limit limit);
+
+  /**
+   * Counts the notifications with the given status.
+   *
+   * @param status The status of the notifications.
+   * @return The number of notifications.
+   */
+  long countByStatus(OutboxStatusEnum status);
+
+  /**
+   * Deletes the notifications with the given status that were last updated before the given time.
+   * Must be called in a transaction.
+   *
+   * @param status The status of the notifications.
+   * @param before The time before which the notifications were last updated.
+   * @return The number of deleted notifications.
+   */
+  @Modifying
+  @Query("delete from NotificationOutbox n where n.status = :status and n.updatedAt < :before")
+  int deleteByStatusUpdatedBefore(@Param("status") OutboxStatusEnum status, @Param("before") LocalDateTime before);
+}
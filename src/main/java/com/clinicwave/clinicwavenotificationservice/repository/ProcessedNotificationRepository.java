@@ -0,0 +1,39 @@
+package com.clinicwave.clinicwavenotificationservice.repository;
+
+import com.clinicwave.clinicwavenotificationservice.domain.ProcessedNotification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * This interface is a repository for the ProcessedNotification entity.
+ *
+ * @author agent on 10/18/26
+ */
+public interface ProcessedNotificationRepository extends JpaRepository<ProcessedNotification, Long> {
+  boolean existsByIdempotencyKeyAndCreatedAtAfter(String idempotencyKey, LocalDateTime since);
+
+  /**
+   * Streams the idempotency keys of the notifications sent after the given time, newest first.
+   * Must be consumed in a transaction.
+   *
+   * @param since The time after which the notifications were sent.
+   * @return The idempotency keys.
+   */
+  @Query("select p.idempotencyKey from ProcessedNotification p where p.createdAt > :since order by p.id desc")
+  Stream<String> streamIdempotencyKeysSince(@Param("since") LocalDateTime since);
+
+  /**
+   * Deletes the idempotency keys of the notifications sent before the given time.
+   *
+   * @param before The time before which the notifications were sent.
+   * @return The number of deleted keys.
+   */
+  @Modifying
+  @Query("delete from ProcessedNotification p where p.createdAt < :before")
+  int deleteSentBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,51 @@
+package com.clinicwave.clinicwavenotificationservice.repository;
+
+import com.clinicwave.clinicwavenotificationservice.domain.ScheduledNotification;
+import com.clinicwave.clinicwavenotificationservice.scheduler.ScheduledNotificationDeadline;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * This interface is a repository for the ScheduledNotification entity.
+ *
+ * @author agent on 10/18/26
+ */
+public interface ScheduledNotificationRepository extends JpaRepository<ScheduledNotification, Long> {
+  /**
+   * Finds the deadlines of the notifications due in a window, along with those that were due before a given
+   * time and are still waiting, such as notifications leased by an instance that died.
+   *
+   * @param from          The start of the window, inclusive.
+   * @param to            The end of the window, exclusive.
+   * @param overdueBefore The time before which every waiting notification is returned.
+   * @return The deadlines, without the rest of the notifications.
+   */
+  @Query("select new com.clinicwave.clinicwavenotificationservice.scheduler.ScheduledNotificationDeadline(s.id, s.sendAt) "
+          + "from ScheduledNotification s where s.sendAt < :to and (s.sendAt >= :from or s.sendAt < :overdueBefore)")
+  List<ScheduledNotificationDeadline> findDeadlines(@Param("from") Instant from, @Param("to") Instant to,
+                                                    @Param("overdueBefore") Instant overdueBefore);
+
+  /**
+   * Locks the given notifications that are due at the given time, skipping the rows locked by other
+   * transactions ({@code SELECT ... FOR UPDATE SKIP LOCKED}, a lock timeout of -2), so that several instances
+   * holding the same notifications in their timing wheels send each of them once. Must be called in a
+   * transaction.
+   *
+   * @param ids The ids of the notifications.
+   * @param now The current time.
+   * @return The locked notifications.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+  @Query("select s from ScheduledNotification s where s.id in :ids and s.sendAt <= :now order by s.sendAt, s.id")
+  List<ScheduledNotification> findClaimable(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+}
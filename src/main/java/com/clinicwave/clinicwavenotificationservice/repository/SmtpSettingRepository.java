@@ -3,7 +3,7 @@ package com.clinicwave.clinicwavenotificationservice.repository;
 import com.clinicwave.clinicwavenotificationservice.domain.SmtpSetting;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-import java.util.Optional;
+import java.util.List;
 
 /**
  * This interface is a repository for the SmtpSetting entity.
@@ -11,5 +11,5 @@ import java.util.Optional;
  * @author aamir on 7/8/24
  */
 public interface SmtpSettingRepository extends JpaRepository<SmtpSetting, Long> {
-  Optional<SmtpSetting> findByIsActiveTrue();
+  List<SmtpSetting> findAllByIsActiveTrueOrderByIdAsc();
 }
@@ -0,0 +1,156 @@
+package com.clinicwave.clinicwavenotificationservice.scheduler;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * This class is a hierarchical timing wheel, which keeps items until their deadline with constant-time insertion
+ * and expiry however many items it holds.
+ * <p>
+ * Time is divided into ticks. The first level has one bucket per tick for the next {@code wheelSize} ticks; each
+ * further level has buckets {@code wheelSize} times as wide as the level below, so a few levels cover any
+ * deadline. An item is put in the bucket of its deadline on the lowest level whose range reaches it. When the
+ * clock reaches the start of a higher-level bucket, its items are spread over the lower levels, and the items
+ * of the first-level bucket of the current tick are expired. Levels are added as deadlines further out arrive.
+ * <p>
+ * Deadlines are rounded down to their tick, and items whose deadline has passed are expired on the next
+ * advance. The wheel is not thread-safe.
+ *
+ * @param <T> The type of the items.
+ * @author agent on 10/18/26
+ */
+public final class HierarchicalTimingWheel<T> {
+  private final long tickMillis;
+  private final int wheelBits;
+  private final int wheelMask;
+  private final List<ArrayDeque<Entry<T>>[]> levels = new ArrayList<>();
+  private final List<T> overdue = new ArrayList<>();
+  private long currentTick;
+  private int size;
+
+  /**
+   * Constructor for the wheel.
+   *
+   * @param tickMillis  The length of a tick in milliseconds, the precision of the deadlines.
+   * @param wheelSize   The number of buckets per level, a power of two.
+   * @param startMillis The current time in milliseconds.
+   */
+  public HierarchicalTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+    if (tickMillis < 1) {
+      throw new IllegalArgumentException("The tick must be at least 1 ms");
+    }
+    if (wheelSize < 2 || Integer.bitCount(wheelSize) != 1) {
+      throw new IllegalArgumentException("The wheel size must be a power of two greater than 1");
+    }
+    this.tickMillis = tickMillis;
+    this.wheelBits = Integer.numberOfTrailingZeros(wheelSize);
+    this.wheelMask = wheelSize - 1;
+    this.currentTick = Math.floorDiv(startMillis, tickMillis);
+  }
+
+  /**
+   * Adds an item to be expired at its deadline.
+   *
+   * @param deadlineMillis The deadline in milliseconds.
+   * @param item           The item.
+   */
+  public void add(long deadlineMillis, T item) {
+    place(new Entry<>(Math.floorDiv(deadlineMillis, tickMillis), item));
+    size++;
+  }
+
+  /**
+   * Moves the clock forward, expiring every item whose deadline is reached.
+   *
+   * @param nowMillis The current time in milliseconds.
+   * @param expired   The consumer the expired items are handed to.
+   */
+  public void advance(long nowMillis, Consumer<T> expired) {
+    expire(overdue, expired);
+    long targetTick = Math.floorDiv(nowMillis, tickMillis);
+    while (currentTick < targetTick) {
+      if (size == 0) {
+        // Nothing to expire or cascade on the way, so jump straight to the target.
+        currentTick = targetTick;
+        return;
+      }
+      currentTick++;
+      // Cascade from the highest level down, so that items spread onto the first level expire in this tick.
+      for (int level = levels.size() - 1; level > 0; level--) {
+        if ((currentTick & ((1L << (level * wheelBits)) - 1)) == 0) {
+          ArrayDeque<Entry<T>> bucket = levels.get(level)[slot(currentTick, level)];
+          List<Entry<T>> cascaded = new ArrayList<>(bucket);
+          bucket.clear();
+          cascaded.forEach(this::place);
+        }
+      }
+      if (!levels.isEmpty()) {
+        ArrayDeque<Entry<T>> bucket = levels.getFirst()[slot(currentTick, 0)];
+        for (Entry<T> entry = bucket.poll(); entry != null; entry = bucket.poll()) {
+          overdue.add(entry.item());
+        }
+      }
+      expire(overdue, expired);
+    }
+  }
+
+  /**
+   * Returns the number of items waiting to be expired.
+   *
+   * @return The number of items.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Puts an entry in the bucket of its deadline on the lowest level whose range reaches it.
+   *
+   * @param entry The entry.
+   */
+  private void place(Entry<T> entry) {
+    long delta = entry.deadlineTick() - currentTick;
+    if (delta <= 0) {
+      overdue.add(entry.item());
+      return;
+    }
+    int level = 0;
+    while (level < 63 / wheelBits && delta >>> ((level + 1) * wheelBits) != 0) {
+      level++;
+    }
+    bucketsOf(level)[slot(entry.deadlineTick(), level)].add(entry);
+  }
+
+  private int slot(long tick, int level) {
+    return (int) ((tick >>> (level * wheelBits)) & wheelMask);
+  }
+
+  @SuppressWarnings("unchecked")
+  private ArrayDeque<Entry<T>>[] bucketsOf(int level) {
+    while (levels.size() <= level) {
+      ArrayDeque<Entry<T>>[] buckets = new ArrayDeque[wheelMask + 1];
+      for (int i = 0; i < buckets.length; i++) {
+        buckets[i] = new ArrayDeque<>();
+      }
+      levels.add(buckets);
+    }
+    return levels.get(level);
+  }
+
+  private void expire(List<T> items, Consumer<T> expired) {
+    if (items.isEmpty()) {
+      return;
+    }
+    size -= items.size();
+    items.forEach(expired);
+    items.clear();
+  }
+
+  /**
+   * An item and the tick of its deadline.
+   */
+  private record Entry<T>(long deadlineTick, T item) {
+  }
+}
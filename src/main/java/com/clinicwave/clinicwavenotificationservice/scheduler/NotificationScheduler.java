@@ -0,0 +1,207 @@
+package com.clinicwave.clinicwavenotificationservice.scheduler;
+
+import com.clinicwave.clinicwavenotificationservice.domain.ScheduledNotification;
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.repository.ScheduledNotificationRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class holds back notifications with a send-at time in the future until they are due.
+ * <p>
+ * Scheduled notifications are stored in the database, inserted in JDBC batches, so they survive restarts and
+ * any number of them can wait. Only the ids and deadlines of the notifications due within the load horizon are
+ * kept in memory, in a hierarchical timing wheel, which adds and expires them in constant time. The wheel is
+ * topped up from the database every load interval, together with any notification that should have been sent
+ * already, such as one leased by an instance that died while sending it. At startup, every notification due
+ * within the horizon is loaded, so notifications that came due while the service was down are sent at once.
+ * <p>
+ * Due notifications are taken from the wheel and sent in batches by the {@link ScheduledNotificationDispatcher}.
+ *
+ * @author agent on 10/18/26
+ */
+@Component
+@Slf4j
+public class NotificationScheduler {
+  private final ScheduledNotificationRepository scheduledNotificationRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final ObjectMapper objectMapper;
+  private final Clock clock;
+  private final Duration horizon;
+  private final Duration loadInterval;
+  private final HierarchicalTimingWheel<Long> timingWheel;
+  private Instant loadedUntil;
+
+  private final Counter scheduledCounter;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param scheduledNotificationRepository The repository of the scheduled notifications.
+   * @param transactionManager              The transaction manager of the scheduled notifications' datasource.
+   * @param objectMapper                    The ObjectMapper used to write the template variables.
+   * @param meterRegistry                   The registry used to expose the scheduler metrics.
+   * @param tick                            The precision of the send-at times.
+   * @param wheelSize                       The number of buckets per level of the timing wheel, a power of two.
+   * @param horizon                         How far ahead notifications are loaded into the timing wheel.
+   * @param loadInterval                    How often the timing wheel is topped up from the database.
+   */
+  @Autowired
+  public NotificationScheduler(ScheduledNotificationRepository scheduledNotificationRepository,
+                               PlatformTransactionManager transactionManager,
+                               ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry,
+                               @Value("${notification.scheduler.tick:PT1S}") Duration tick,
+                               @Value("${notification.scheduler.wheel-size:512}") int wheelSize,
+                               @Value("${notification.scheduler.horizon:PT10M}") Duration horizon,
+                               @Value("${notification.scheduler.load-interval:PT1M}") Duration loadInterval) {
+    this(scheduledNotificationRepository, transactionManager, objectMapper, meterRegistry, Clock.systemUTC(),
+            tick, wheelSize, horizon, loadInterval);
+  }
+
+  NotificationScheduler(ScheduledNotificationRepository scheduledNotificationRepository,
+                        PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                        MeterRegistry meterRegistry, Clock clock, Duration tick, int wheelSize, Duration horizon,
+                        Duration loadInterval) {
+    if (horizon.compareTo(loadInterval) <= 0) {
+      throw new IllegalArgumentException("The horizon must be longer than the load interval");
+    }
+    this.scheduledNotificationRepository = scheduledNotificationRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.objectMapper = objectMapper;
+    this.clock = clock;
+    this.horizon = horizon;
+    this.loadInterval = loadInterval;
+    this.timingWheel = new HierarchicalTimingWheel<>(tick.toMillis(), wheelSize, clock.millis());
+
+    this.scheduledCounter = Counter.builder("notification.scheduler.scheduled")
+            .description("Notifications held back until their send-at time")
+            .register(meterRegistry);
+    Gauge.builder("notification.scheduler.wheel.size", this, NotificationScheduler::wheelSize)
+            .description("Scheduled notifications due within the load horizon, waiting in the timing wheel")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Loads the notifications due within the horizon, including those that came due while the service was down.
+   */
+  @PostConstruct
+  public void start() {
+    loadUpcoming();
+  }
+
+  /**
+   * Stores notifications to be sent at their send-at time, in one transaction.
+   *
+   * @param notificationRequestDtos The notification requests, each with a send-at time.
+   */
+  public void schedule(List<NotificationRequestDto> notificationRequestDtos) {
+    List<ScheduledNotification> scheduledNotifications = notificationRequestDtos.stream()
+            .map(this::toScheduledNotification)
+            .toList();
+    transactionTemplate.executeWithoutResult(status -> scheduledNotificationRepository.saveAll(scheduledNotifications));
+    scheduledCounter.increment(scheduledNotifications.size());
+    // Tracked after the commit, so that none is due before it can be claimed; those beyond the loaded window are
+    // found by a later load.
+    for (ScheduledNotification scheduledNotification : scheduledNotifications) {
+      track(scheduledNotification.getId(), scheduledNotification.getSendAt());
+    }
+  }
+
+  /**
+   * Adds a stored notification to the timing wheel if it is due within the loaded window.
+   *
+   * @param id     The id of the scheduled notification.
+   * @param sendAt When it is due.
+   */
+  public synchronized void track(Long id, Instant sendAt) {
+    if (sendAt.isBefore(loadedUntil)) {
+      timingWheel.add(sendAt.toEpochMilli(), id);
+    }
+  }
+
+  /**
+   * Takes the notifications that are due from the timing wheel.
+   *
+   * @return The ids of the due notifications.
+   */
+  public synchronized List<Long> pollDue() {
+    List<Long> due = new ArrayList<>();
+    timingWheel.advance(clock.millis(), due::add);
+    return due;
+  }
+
+  /**
+   * Moves the loaded window forward and adds the notifications due in it to the timing wheel, along with those
+   * that were due more than a load interval ago and are still waiting.
+   */
+  @Scheduled(fixedDelayString = "${notification.scheduler.load-interval:PT1M}",
+          initialDelayString = "${notification.scheduler.load-interval:PT1M}")
+  public void loadUpcoming() {
+    Instant now = clock.instant();
+    Instant to = now.plus(horizon);
+    Instant from;
+    Instant overdueBefore;
+    synchronized (this) {
+      // The window is moved before it is read, so that a notification stored meanwhile is either read here or
+      // added to the wheel by schedule(). The first load reads everything due before the end of the window.
+      from = loadedUntil != null ? loadedUntil : to;
+      overdueBefore = loadedUntil != null ? now.minus(loadInterval) : to;
+      loadedUntil = to;
+    }
+    List<ScheduledNotificationDeadline> deadlines = scheduledNotificationRepository.findDeadlines(from, to, overdueBefore);
+    synchronized (this) {
+      for (ScheduledNotificationDeadline deadline : deadlines) {
+        timingWheel.add(deadline.sendAt().toEpochMilli(), deadline.id());
+      }
+    }
+    log.debug("Loaded {} scheduled notifications due before {}", deadlines.size(), to);
+  }
+
+  private synchronized int wheelSize() {
+    return timingWheel.size();
+  }
+
+  /**
+   * Converts a notification request into a scheduled notification row.
+   *
+   * @param notificationRequestDto The notification request.
+   * @return The scheduled notification row.
+   */
+  private ScheduledNotification toScheduledNotification(NotificationRequestDto notificationRequestDto) {
+    ScheduledNotification scheduledNotification = new ScheduledNotification();
+    scheduledNotification.setTrackingId(notificationRequestDto.trackingId());
+    scheduledNotification.setRecipient(notificationRequestDto.recipient());
+    scheduledNotification.setSubject(notificationRequestDto.subject());
+    scheduledNotification.setTemplateName(notificationRequestDto.templateName());
+    scheduledNotification.setType(notificationRequestDto.type());
+    scheduledNotification.setCategory(notificationRequestDto.category());
+    scheduledNotification.setIdempotencyKey(notificationRequestDto.idempotencyKey());
+    scheduledNotification.setSendAt(notificationRequestDto.sendAt());
+    if (notificationRequestDto.templateVariables() != null) {
+      try {
+        scheduledNotification.setTemplateVariables(objectMapper.writeValueAsString(notificationRequestDto.templateVariables()));
+      } catch (JsonProcessingException e) {
+        throw new IllegalArgumentException("Template variables cannot be written as JSON", e);
+      }
+    }
+    return scheduledNotification;
+  }
+}
@@ -0,0 +1,17 @@
+package com.clinicwave.clinicwavenotificationservice.scheduler;
+
+import java.time.Instant;
+
+/**
+ * This record is the part of a scheduled notification the timing wheel needs: its id and when it is due.
+ *
+ * @author agent on 10/18/26
+ */
+public record ScheduledNotificationDeadline(
+        // The id of the scheduled notification
+        Long id,
+
+        // When the notification is due
+        Instant sendAt
+) {
+}
@@ -0,0 +1,336 @@
+package com.clinicwave.clinicwavenotificationservice.scheduler;
+
+import com.clinicwave.clinicwavenotificationservice.domain.ScheduledNotification;
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.exception.InvalidNotificationTypeException;
+import com.clinicwave.clinicwavenotificationservice.exception.TemplateProcessingException;
+import com.clinicwave.clinicwavenotificationservice.repository.ScheduledNotificationRepository;
+import com.clinicwave.clinicwavenotificationservice.service.NotificationService;
+import com.clinicwave.clinicwavenotificationservice.strategy.NotificationResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class sends the scheduled notifications once they are due.
+ * <p>
+ * Every tick, the due notifications are taken from the timing wheel of the {@link NotificationScheduler} and
+ * sent in batches. A batch is claimed with {@code SELECT ... FOR UPDATE SKIP LOCKED}, so several instances
+ * holding the same notifications send each of them once. Claiming a notification leases it: its send-at time
+ * is moved past the lease and the transaction commits before sending, so no row lock is held while talking to
+ * the relays, and a notification whose instance dies while sending it becomes due again. Sent notifications
+ * are deleted; failed ones are retried after a growing delay, and deleted once they are out of attempts.
+ *
+ * @author agent on 10/18/26
+ */
+@Component
+@Slf4j
+public class ScheduledNotificationDispatcher {
+  private static final List<Class<? extends RuntimeException>> NON_RETRYABLE_ERRORS = List.of(
+          TemplateProcessingException.class,
+          InvalidNotificationTypeException.class
+  );
+  private static final int MAX_ERROR_LENGTH = 1000;
+  private static final TypeReference<Map<String, Object>> TEMPLATE_VARIABLES_TYPE = new TypeReference<>() {
+  };
+
+  private final NotificationScheduler notificationScheduler;
+  private final ScheduledNotificationRepository scheduledNotificationRepository;
+  private final NotificationService notificationService;
+  private final TransactionTemplate transactionTemplate;
+  private final ObjectMapper objectMapper;
+  private final Clock clock;
+  private final Duration tick;
+  private final int batchSize;
+  private final Duration lease;
+  private final int maxAttempts;
+  private final Duration retryDelay;
+  private final Duration shutdownTimeout;
+  private final ScheduledExecutorService ticker;
+
+  private final Counter sentCounter;
+  private final Counter retriedCounter;
+  private final Counter failedCounter;
+  private final Timer latenessTimer;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param notificationScheduler           The scheduler whose timing wheel the due notifications are taken from.
+   * @param scheduledNotificationRepository The repository of the scheduled notifications.
+   * @param notificationService             The service used to send the notifications.
+   * @param transactionManager              The transaction manager of the scheduled notifications' datasource.
+   * @param objectMapper                    The ObjectMapper used to read the template variables.
+   * @param meterRegistry                   The registry used to expose the dispatch metrics.
+   * @param tick                            How often due notifications are taken from the timing wheel.
+   * @param batchSize                       The maximum number of notifications claimed and sent at once.
+   * @param lease                           How long a claimed notification is kept from other dispatchers.
+   * @param maxAttempts                     The number of attempts after which a notification is given up on.
+   * @param retryDelay                      The delay before the first retry, doubled for every further retry.
+   * @param shutdownTimeout                 How long to wait for the batch being sent on shutdown.
+   */
+  @Autowired
+  public ScheduledNotificationDispatcher(NotificationScheduler notificationScheduler,
+                                         ScheduledNotificationRepository scheduledNotificationRepository,
+                                         NotificationService notificationService,
+                                         PlatformTransactionManager transactionManager,
+                                         ObjectMapper objectMapper,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${notification.scheduler.tick:PT1S}") Duration tick,
+                                         @Value("${notification.scheduler.dispatch.batch-size:100}") int batchSize,
+                                         @Value("${notification.scheduler.dispatch.lease:PT5M}") Duration lease,
+                                         @Value("${notification.scheduler.dispatch.max-attempts:5}") int maxAttempts,
+                                         @Value("${notification.scheduler.dispatch.retry-delay:PT1M}") Duration retryDelay,
+                                         @Value("${notification.scheduler.dispatch.shutdown-timeout:PT30S}") Duration shutdownTimeout) {
+    this(notificationScheduler, scheduledNotificationRepository, notificationService, transactionManager,
+            objectMapper, meterRegistry, Clock.systemUTC(), tick, batchSize, lease, maxAttempts, retryDelay,
+            shutdownTimeout);
+  }
+
+  ScheduledNotificationDispatcher(NotificationScheduler notificationScheduler,
+                                  ScheduledNotificationRepository scheduledNotificationRepository,
+                                  NotificationService notificationService, PlatformTransactionManager transactionManager,
+                                  ObjectMapper objectMapper, MeterRegistry meterRegistry, Clock clock, Duration tick,
+                                  int batchSize, Duration lease, int maxAttempts, Duration retryDelay,
+                                  Duration shutdownTimeout) {
+    this.notificationScheduler = notificationScheduler;
+    this.scheduledNotificationRepository = scheduledNotificationRepository;
+    this.notificationService = notificationService;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.objectMapper = objectMapper;
+    this.clock = clock;
+    this.tick = tick;
+    this.batchSize = batchSize;
+    this.lease = lease;
+    this.maxAttempts = maxAttempts;
+    this.retryDelay = retryDelay;
+    this.shutdownTimeout = shutdownTimeout;
+    this.ticker = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("notification-scheduler-"));
+
+    this.sentCounter = Counter.builder("notification.scheduler.notifications")
+            .description("Scheduled notifications dispatched once due")
+            .tag("result", "sent")
+            .register(meterRegistry);
+    this.retriedCounter = Counter.builder("notification.scheduler.notifications")
+            .description("Scheduled notifications dispatched once due")
+            .tag("result", "retried")
+            .register(meterRegistry);
+    this.failedCounter = Counter.builder("notification.scheduler.notifications")
+            .description("Scheduled notifications dispatched once due")
+            .tag("result", "failed")
+            .register(meterRegistry);
+    this.latenessTimer = Timer.builder("notification.scheduler.lateness")
+            .description("Time between the send-at time of a scheduled notification and its dispatch")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+  }
+
+  /**
+   * Starts taking due notifications from the timing wheel every tick.
+   */
+  @PostConstruct
+  public void start() {
+    ticker.scheduleWithFixedDelay(this::dispatchDue, tick.toMillis(), tick.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Stops dispatching once the batch being sent is done. Notifications not sent yet stay in the database and
+   * are sent after the next start.
+   */
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    ticker.shutdown();
+    if (!ticker.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+      log.warn("The scheduled notifications being sent were not completed before shutdown; they will be sent again after their lease");
+      ticker.shutdownNow();
+    }
+  }
+
+  /**
+   * Sends the notifications that are due, in batches.
+   */
+  public void dispatchDue() {
+    try {
+      List<Long> due = notificationScheduler.pollDue();
+      for (int from = 0; from < due.size(); from += batchSize) {
+        dispatch(due.subList(from, Math.min(from + batchSize, due.size())));
+      }
+    } catch (RuntimeException e) {
+      // The notifications of a failed batch become due again once their lease runs out.
+      log.error("Failed to dispatch scheduled notifications", e);
+    }
+  }
+
+  /**
+   * Claims the given notifications that are still due, sends them and records the outcome.
+   *
+   * @param ids The ids of the notifications taken from the timing wheel.
+   * @return The number of notifications claimed.
+   */
+  int dispatch(List<Long> ids) {
+    Instant claimedAt = clock.instant();
+    Map<Long, Instant> dueAt = new LinkedHashMap<>();
+    List<ScheduledNotification> claimed = transactionTemplate.execute(status -> claim(ids, claimedAt, dueAt));
+    if (claimed == null || claimed.isEmpty()) {
+      return 0;
+    }
+    // Should this instance fail to complete the batch, the notifications are sent once their lease runs out.
+    for (ScheduledNotification scheduledNotification : claimed) {
+      notificationScheduler.track(scheduledNotification.getId(), scheduledNotification.getSendAt());
+    }
+
+    List<Long> sentIds = new ArrayList<>();
+    Map<Long, RuntimeException> failures = new LinkedHashMap<>();
+    List<ScheduledNotification> sendable = new ArrayList<>(claimed.size());
+    List<NotificationRequestDto> requests = new ArrayList<>(claimed.size());
+    for (ScheduledNotification scheduledNotification : claimed) {
+      try {
+        requests.add(toRequest(scheduledNotification));
+        sendable.add(scheduledNotification);
+      } catch (JsonProcessingException e) {
+        failures.put(scheduledNotification.getId(), new IllegalStateException("Unreadable template variables", e));
+      }
+    }
+
+    List<NotificationResult> results = notificationService.sendNotifications(requests);
+    for (int i = 0; i < results.size(); i++) {
+      ScheduledNotification scheduledNotification = sendable.get(i);
+      NotificationResult result = results.get(i);
+      latenessTimer.record(Duration.between(dueAt.get(scheduledNotification.getId()), claimedAt));
+      if (result.isSuccess()) {
+        sentIds.add(scheduledNotification.getId());
+      } else {
+        failures.put(scheduledNotification.getId(), result.error());
+      }
+    }
+
+    transactionTemplate.executeWithoutResult(status -> complete(sentIds, failures));
+    log.debug("Dispatched {} scheduled notifications, {} failed", claimed.size(), failures.size());
+    return claimed.size();
+  }
+
+  /**
+   * Locks the given notifications that are still due and leases them to this dispatcher.
+   * Must be called in a transaction.
+   *
+   * @param ids       The ids of the notifications.
+   * @param claimedAt The time of the claim.
+   * @param dueAt     Filled with the send-at time of every claimed notification, by id.
+   * @return The claimed notifications.
+   */
+  private List<ScheduledNotification> claim(List<Long> ids, Instant claimedAt, Map<Long, Instant> dueAt) {
+    List<ScheduledNotification> claimed = scheduledNotificationRepository.findClaimable(ids, claimedAt);
+    for (ScheduledNotification scheduledNotification : claimed) {
+      dueAt.put(scheduledNotification.getId(), scheduledNotification.getSendAt());
+      scheduledNotification.setAttempts(scheduledNotification.getAttempts() + 1);
+      scheduledNotification.setSendAt(claimedAt.plus(lease));
+    }
+    return claimed;
+  }
+
+  /**
+   * Deletes the sent notifications and schedules the failed ones for another attempt, or deletes them when
+   * they are out of attempts or cannot succeed. Must be called in a transaction.
+   *
+   * @param sentIds  The ids of the notifications that were sent.
+   * @param failures The errors of the notifications that failed, by id.
+   */
+  private void complete(List<Long> sentIds, Map<Long, RuntimeException> failures) {
+    if (!sentIds.isEmpty()) {
+      scheduledNotificationRepository.deleteAllByIdInBatch(sentIds);
+      sentCounter.increment(sentIds.size());
+    }
+    if (failures.isEmpty()) {
+      return;
+    }
+
+    Instant failedAt = clock.instant();
+    List<Long> givenUpIds = new ArrayList<>();
+    for (ScheduledNotification scheduledNotification : scheduledNotificationRepository.findAllById(failures.keySet())) {
+      RuntimeException error = failures.get(scheduledNotification.getId());
+      if (scheduledNotification.getAttempts() >= maxAttempts || isNonRetryable(error)) {
+        givenUpIds.add(scheduledNotification.getId());
+        failedCounter.increment();
+        log.error("Giving up on scheduled notification {} to: {} after {} attempts", scheduledNotification.getTrackingId(),
+                scheduledNotification.getRecipient(), scheduledNotification.getAttempts(), error);
+      } else {
+        Duration delay = retryDelay.multipliedBy(1L << Math.min(scheduledNotification.getAttempts() - 1, 20));
+        scheduledNotification.setSendAt(failedAt.plus(delay));
+        scheduledNotification.setLastError(truncate(String.valueOf(error.getMessage())));
+        notificationScheduler.track(scheduledNotification.getId(), scheduledNotification.getSendAt());
+        retriedCounter.increment();
+        log.warn("Failed to send scheduled notification {} to: {}, retrying in {}", scheduledNotification.getTrackingId(),
+                scheduledNotification.getRecipient(), delay, error);
+      }
+    }
+    if (!givenUpIds.isEmpty()) {
+      scheduledNotificationRepository.deleteAllByIdInBatch(givenUpIds);
+    }
+  }
+
+  /**
+   * Converts a scheduled notification back into the notification request it was stored from, to be sent now.
+   *
+   * @param scheduledNotification The scheduled notification row.
+   * @return The notification request, without a send-at time.
+   * @throws JsonProcessingException If the template variables cannot be read.
+   */
+  private NotificationRequestDto toRequest(ScheduledNotification scheduledNotification) throws JsonProcessingException {
+    Map<String, Object> templateVariables = scheduledNotification.getTemplateVariables() == null ? null
+            : objectMapper.readValue(scheduledNotification.getTemplateVariables(), TEMPLATE_VARIABLES_TYPE);
+    return new NotificationRequestDto(scheduledNotification.getRecipient(), scheduledNotification.getSubject(),
+            scheduledNotification.getTemplateName(), templateVariables, scheduledNotification.getType(),
+            scheduledNotification.getCategory(), scheduledNotification.getIdempotencyKey(),
+            scheduledNotification.getTrackingId());
+  }
+
+  /**
+   * Checks whether an error cannot be fixed by sending the notification again.
+   *
+   * @param error The error.
+   * @return Whether the error or one of its causes is non-retryable.
+   */
+  private static boolean isNonRetryable(Throwable error) {
+    for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+      for (Class<? extends RuntimeException> nonRetryable : NON_RETRYABLE_ERRORS) {
+        if (nonRetryable.isInstance(cause)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Shortens an error message to fit the error column.
+   *
+   * @param message The error message.
+   * @return The message, at most {@value #MAX_ERROR_LENGTH} characters long.
+   */
+  private static String truncate(String message) {
+    return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+  }
+}
@@ -0,0 +1,276 @@
+package com.clinicwave.clinicwavenotificationservice.serialization;
+
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.message.BadHeaderException;
+import org.apache.avro.message.BinaryMessageDecoder;
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.apache.avro.message.MissingSchemaException;
+import org.apache.avro.message.SchemaStore;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class writes and reads notification requests in the Avro binary format described by the
+ * {@code avro/notification-request.avsc} schema.
+ * <p>
+ * Requests are written in Avro's single-object encoding: a two-byte marker and the fingerprint of the schema the
+ * request was written with come before the request itself. The fingerprint tells which version of the schema to
+ * read the request with, so requests written with the first version, before the tracking ID and send-at time were
+ * added, are still read without them. Data without the marker, written with a schema version this codec does not
+ * know, or with bytes left over after the request, is rejected rather than read as whatever it happens to decode to.
+ * <p>
+ * Only template variables with scalar values (strings, booleans, numbers and nulls) can be written; callers
+ * check {@link #canEncode(NotificationRequestDto)} and fall back to JSON for other requests. Instances are
+ * thread-safe.
+ *
+ * @author agent on 10/18/26
+ */
+@Component
+public class NotificationRequestAvroCodec {
+  private static final String SCHEMA_LOCATION = "/avro/notification-request.avsc";
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+  // The fields of the schema before trackingId and sendAt were added to it.
+  private static final int FIRST_VERSION_FIELD_COUNT = 7;
+  private static final Instant MIN_SEND_AT = Instant.ofEpochSecond(0, Long.MIN_VALUE);
+  private static final Instant MAX_SEND_AT = Instant.ofEpochSecond(0, Long.MAX_VALUE);
+
+  private final Schema schema;
+  private final Schema typeSchema;
+  private final Schema categorySchema;
+  private final BinaryMessageEncoder<GenericRecord> encoder;
+  private final BinaryMessageDecoder<GenericRecord> decoder;
+
+  /**
+   * Constructor for the codec, loading the schema from the classpath.
+   */
+  public NotificationRequestAvroCodec() {
+    try (InputStream in = NotificationRequestAvroCodec.class.getResourceAsStream(SCHEMA_LOCATION)) {
+      if (in == null) {
+        throw new IllegalStateException("Avro schema " + SCHEMA_LOCATION + " not found on the classpath");
+      }
+      this.schema = new Schema.Parser().parse(in);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read Avro schema " + SCHEMA_LOCATION, e);
+    }
+    this.typeSchema = nonNullBranch(schema.getField("type").schema());
+    this.categorySchema = nonNullBranch(schema.getField("category").schema());
+    this.encoder = new BinaryMessageEncoder<>(GenericData.get(), schema);
+    // Every version of the schema requests may have been written with; other fingerprints are rejected.
+    SchemaStore.Cache knownVersions = new SchemaStore.Cache();
+    knownVersions.addSchema(firstVersion(schema));
+    this.decoder = new BinaryMessageDecoder<>(GenericData.get(), schema, knownVersions);
+  }
+
+  /**
+   * Returns the schema notification requests are written with.
+   *
+   * @return The Avro schema.
+   */
+  public Schema getSchema() {
+    return schema;
+  }
+
+  /**
+   * Checks whether a notification request can be written in Avro, which requires every template variable
+   * to have a scalar value, and a send-at time within about 292 years of the epoch.
+   *
+   * @param notificationRequestDto The notification request.
+   * @return Whether the request can be encoded.
+   */
+  public boolean canEncode(NotificationRequestDto notificationRequestDto) {
+    if (!isWritable(notificationRequestDto.sendAt())) {
+      return false;
+    }
+    if (notificationRequestDto.templateVariables() == null) {
+      return true;
+    }
+    for (Object value : notificationRequestDto.templateVariables().values()) {
+      if (value != null && !(value instanceof CharSequence || value instanceof Boolean || value instanceof Integer
+              || value instanceof Long || value instanceof Double)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Writes a notification request in Avro.
+   *
+   * @param notificationRequestDto The notification request; it must pass {@link #canEncode(NotificationRequestDto)}.
+   * @return The encoded request.
+   * @throws IllegalArgumentException If a template variable or the send-at time cannot be written.
+   */
+  public byte[] encode(NotificationRequestDto notificationRequestDto) {
+    if (!isWritable(notificationRequestDto.sendAt())) {
+      throw new IllegalArgumentException("Notification request cannot be written in Avro: send-at time "
+              + notificationRequestDto.sendAt() + " is out of range");
+    }
+    GenericRecord record = new GenericData.Record(schema);
+    record.put("recipient", notificationRequestDto.recipient());
+    record.put("subject", notificationRequestDto.subject());
+    record.put("templateName", notificationRequestDto.templateName());
+    record.put("templateVariables", notificationRequestDto.templateVariables());
+    if (notificationRequestDto.type() != null) {
+      record.put("type", new GenericData.EnumSymbol(typeSchema, notificationRequestDto.type().name()));
+    }
+    if (notificationRequestDto.category() != null) {
+      record.put("category", new GenericData.EnumSymbol(categorySchema, notificationRequestDto.category().name()));
+    }
+    record.put("idempotencyKey", notificationRequestDto.idempotencyKey());
+    record.put("trackingId", notificationRequestDto.trackingId());
+    record.put("sendAt", toEpochNanos(notificationRequestDto.sendAt()));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+    try {
+      encoder.encode(record, out);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException("Notification request cannot be written in Avro: " + e.getMessage(), e);
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Reads a notification request written in Avro with a known version of the schema. The fields added after the
+   * version it was written with are read as their defaults.
+   *
+   * @param data The encoded request.
+   * @return The notification request.
+   * @throws IllegalArgumentException If the data is not a single encoded request, or was written with a schema
+   *                                  version that is not known.
+   */
+  public NotificationRequestDto decode(byte[] data) {
+    GenericRecord record;
+    ByteArrayInputStream in = new ByteArrayInputStream(data);
+    try {
+      record = decoder.decode(in);
+    } catch (BadHeaderException e) {
+      throw new IllegalArgumentException("Data is not a notification request in Avro: " + e.getMessage(), e);
+    } catch (MissingSchemaException e) {
+      throw new IllegalArgumentException("Notification request was written with an unknown Avro schema version: "
+              + e.getMessage(), e);
+    } catch (IOException | RuntimeException e) {
+      throw new IllegalArgumentException("Data is not a notification request in Avro: " + e.getMessage(), e);
+    }
+    if (in.available() > 0) {
+      throw new IllegalArgumentException("Data is not a notification request in Avro: " + in.available()
+              + " bytes are left over after the request");
+    }
+    Object type = record.get("type");
+    Object category = record.get("category");
+    return new NotificationRequestDto(
+            asString(record.get("recipient")),
+            asString(record.get("subject")),
+            asString(record.get("templateName")),
+            asTemplateVariables(record.get("templateVariables")),
+            type != null ? NotificationTypeEnum.valueOf(type.toString()) : null,
+            category != null ? NotificationCategoryEnum.valueOf(category.toString()) : null,
+            asString(record.get("idempotencyKey")),
+            asString(record.get("trackingId")),
+            asInstant(record.get("sendAt"))
+    );
+  }
+
+  /**
+   * Copies the template variables read from Avro into an insertion-ordered map, converting any string that
+   * was not read as a Java String.
+   *
+   * @param value The map read from Avro, or null.
+   * @return The template variables, or null.
+   */
+  private static Map<String, Object> asTemplateVariables(Object value) {
+    if (value == null) {
+      return null;
+    }
+    Map<?, ?> map = (Map<?, ?>) value;
+    Map<String, Object> templateVariables = LinkedHashMap.newLinkedHashMap(map.size());
+    map.forEach((key, variable) -> templateVariables.put(key.toString(),
+            variable instanceof CharSequence text ? text.toString() : variable));
+    return templateVariables;
+  }
+
+  /**
+   * Converts a string read from Avro into a Java String, which the schema already asks Avro to read.
+   *
+   * @param value The string read from Avro, or null.
+   * @return The string, or null.
+   */
+  private static String asString(Object value) {
+    return value != null ? value.toString() : null;
+  }
+
+  /**
+   * Tells whether a send-at time fits in the nanoseconds since the epoch it is written as.
+   *
+   * @param sendAt The send-at time, or null.
+   * @return True if the time is null or within about 292 years of the epoch.
+   */
+  private static boolean isWritable(Instant sendAt) {
+    return sendAt == null || !(sendAt.isBefore(MIN_SEND_AT) || sendAt.isAfter(MAX_SEND_AT));
+  }
+
+  /**
+   * Converts a send-at time into the nanoseconds since the epoch it is written as.
+   *
+   * @param instant The send-at time, or null.
+   * @return The nanoseconds since the epoch, or null.
+   */
+  private static Long toEpochNanos(Instant instant) {
+    if (instant == null) {
+      return null;
+    }
+    return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), NANOS_PER_SECOND), instant.getNano());
+  }
+
+  /**
+   * Converts the nanoseconds since the epoch read from Avro back into a send-at time.
+   *
+   * @param value The nanoseconds read from Avro, or null.
+   * @return The send-at time, or null.
+   */
+  private static Instant asInstant(Object value) {
+    return value != null ? Instant.ofEpochSecond(0, (Long) value) : null;
+  }
+
+  /**
+   * Returns the first version of the schema, which producers that were not upgraded may still write requests with.
+   * Fields were only ever added at the end, so it is made of the first fields of the current schema.
+   *
+   * @param schema The current schema.
+   * @return The first version of the schema.
+   */
+  private static Schema firstVersion(Schema schema) {
+    List<Schema.Field> fields = schema.getFields().subList(0, FIRST_VERSION_FIELD_COUNT).stream()
+            .map(field -> new Schema.Field(field, field.schema()))
+            .toList();
+    return Schema.createRecord(schema.getName(), schema.getDoc(), schema.getNamespace(), false, fields);
+  }
+
+  /**
+   * Returns the branch of a nullable union that is not null.
+   *
+   * @param union The union schema.
+   * @return The non-null branch.
+   */
+  private static Schema nonNullBranch(Schema union) {
+    return union.getTypes().stream()
+            .filter(branch -> branch.getType() != Schema.Type.NULL)
+            .findFirst()
+            .orElseThrow();
+  }
+}
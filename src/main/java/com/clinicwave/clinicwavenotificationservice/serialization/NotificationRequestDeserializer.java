@@ -0,0 +1,96 @@
+package com.clinicwave.clinicwavenotificationservice.serialization;
+
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class is a Kafka deserializer that reads notification requests in JSON or Avro.
+ * The format is taken from the content-type header of the record; records without one are read in Avro on
+ * the configured topics and in JSON on all other topics, so that JSON and Avro producers can share a topic
+ * during a migration.
+ *
+ * @author agent on 10/18/26
+ */
+public class NotificationRequestDeserializer implements Deserializer<NotificationRequestDto> {
+  private final Deserializer<NotificationRequestDto> jsonDeserializer;
+  private final NotificationRequestAvroCodec avroCodec;
+  private final Set<String> avroTopics;
+
+  /**
+   * Constructor for the deserializer.
+   *
+   * @param jsonDeserializer The deserializer JSON records are read with.
+   * @param avroCodec        The codec Avro records are read with.
+   * @param avroTopics       The topics whose records without a content-type header are read in Avro.
+   */
+  public NotificationRequestDeserializer(Deserializer<NotificationRequestDto> jsonDeserializer,
+                                         NotificationRequestAvroCodec avroCodec, Set<String> avroTopics) {
+    this.jsonDeserializer = jsonDeserializer;
+    this.avroCodec = avroCodec;
+    this.avroTopics = Set.copyOf(avroTopics);
+  }
+
+  /**
+   * Configures the JSON deserializer.
+   *
+   * @param configs The consumer configuration.
+   * @param isKey   Whether the deserializer is used for keys.
+   */
+  @Override
+  public void configure(Map<String, ?> configs, boolean isKey) {
+    jsonDeserializer.configure(configs, isKey);
+  }
+
+  /**
+   * Deserializes a notification request from a record without headers.
+   *
+   * @param topic The topic the record was read from.
+   * @param data  The serialized notification request.
+   * @return The notification request.
+   */
+  @Override
+  public NotificationRequestDto deserialize(String topic, byte[] data) {
+    return deserialize(topic, null, data);
+  }
+
+  /**
+   * Deserializes a notification request in the format named by its headers or topic.
+   *
+   * @param topic   The topic the record was read from.
+   * @param headers The headers of the record, or null.
+   * @param data    The serialized notification request.
+   * @return The notification request.
+   * @throws SerializationException If an Avro record cannot be read.
+   */
+  @Override
+  public NotificationRequestDto deserialize(String topic, Headers headers, byte[] data) {
+    if (data == null) {
+      return null;
+    }
+    NotificationWireFormat format = NotificationWireFormat.of(headers);
+    if (format == null) {
+      format = avroTopics.contains(topic) ? NotificationWireFormat.AVRO : NotificationWireFormat.JSON;
+    }
+    if (format == NotificationWireFormat.AVRO) {
+      try {
+        return avroCodec.decode(data);
+      } catch (IllegalArgumentException e) {
+        throw new SerializationException("Failed to read notification request from " + topic, e);
+      }
+    }
+    return headers != null ? jsonDeserializer.deserialize(topic, headers, data) : jsonDeserializer.deserialize(topic, data);
+  }
+
+  /**
+   * Closes the JSON deserializer.
+   */
+  @Override
+  public void close() {
+    jsonDeserializer.close();
+  }
+}
@@ -0,0 +1,84 @@
+package com.clinicwave.clinicwavenotificationservice.serialization;
+
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class is a Kafka serializer that writes notification requests in Avro to the configured topics and in
+ * JSON to all other topics, and records the format in the content-type header of every record.
+ * Requests that cannot be written in Avro, because of template variables that are not scalar, are written
+ * in JSON on every topic.
+ *
+ * @author agent on 10/18/26
+ */
+public class NotificationRequestSerializer implements Serializer<NotificationRequestDto> {
+  private final JsonSerializer<NotificationRequestDto> jsonSerializer = new JsonSerializer<>();
+  private final NotificationRequestAvroCodec avroCodec;
+  private final Set<String> avroTopics;
+
+  /**
+   * Constructor for the serializer.
+   *
+   * @param avroCodec  The codec notification requests are written in Avro with.
+   * @param avroTopics The topics notification requests are written to in Avro.
+   */
+  public NotificationRequestSerializer(NotificationRequestAvroCodec avroCodec, Set<String> avroTopics) {
+    this.avroCodec = avroCodec;
+    this.avroTopics = Set.copyOf(avroTopics);
+  }
+
+  /**
+   * Configures the JSON serializer.
+   *
+   * @param configs The producer configuration.
+   * @param isKey   Whether the serializer is used for keys.
+   */
+  @Override
+  public void configure(Map<String, ?> configs, boolean isKey) {
+    jsonSerializer.configure(configs, isKey);
+  }
+
+  /**
+   * Serializes a notification request for a record without headers, in the format of its topic.
+   *
+   * @param topic The topic the record is written to.
+   * @param data  The notification request.
+   * @return The serialized request.
+   */
+  @Override
+  public byte[] serialize(String topic, NotificationRequestDto data) {
+    return serialize(topic, new RecordHeaders(), data);
+  }
+
+  /**
+   * Serializes a notification request in the format of its topic and records the format in the headers.
+   *
+   * @param topic   The topic the record is written to.
+   * @param headers The headers of the record.
+   * @param data    The notification request.
+   * @return The serialized request.
+   */
+  @Override
+  public byte[] serialize(String topic, Headers headers, NotificationRequestDto data) {
+    if (data != null && avroTopics.contains(topic) && avroCodec.canEncode(data)) {
+      NotificationWireFormat.AVRO.writeTo(headers);
+      return avroCodec.encode(data);
+    }
+    NotificationWireFormat.JSON.writeTo(headers);
+    return jsonSerializer.serialize(topic, headers, data);
+  }
+
+  /**
+   * Closes the JSON serializer.
+   */
+  @Override
+  public void close() {
+    jsonSerializer.close();
+  }
+}
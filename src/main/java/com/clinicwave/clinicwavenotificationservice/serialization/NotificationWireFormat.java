@@ -0,0 +1,67 @@
+package com.clinicwave.clinicwavenotificationservice.serialization;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This enum defines the formats notification requests are written in on Kafka.
+ * Every record written by this service carries its format in the content-type header, so that consumers can
+ * read JSON and Avro records side by side while producers migrate from one to the other.
+ *
+ * @author agent on 10/18/26
+ */
+public enum NotificationWireFormat {
+  JSON("application/json"),
+  AVRO("application/avro");
+
+  public static final String CONTENT_TYPE_HEADER = "content-type";
+
+  private final String contentType;
+  private final byte[] headerValue;
+
+  NotificationWireFormat(String contentType) {
+    this.contentType = contentType;
+    this.headerValue = contentType.getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Returns the content type of this format.
+   *
+   * @return The content type.
+   */
+  public String getContentType() {
+    return contentType;
+  }
+
+  /**
+   * Replaces the content-type header of a record with this format.
+   *
+   * @param headers The headers of the record.
+   */
+  public void writeTo(Headers headers) {
+    headers.remove(CONTENT_TYPE_HEADER);
+    headers.add(CONTENT_TYPE_HEADER, headerValue);
+  }
+
+  /**
+   * Returns the format named by the content-type header of a record.
+   *
+   * @param headers The headers of the record, or null.
+   * @return The format, or null if the record has no content-type header or names another content type.
+   */
+  public static NotificationWireFormat of(Headers headers) {
+    Header header = headers != null ? headers.lastHeader(CONTENT_TYPE_HEADER) : null;
+    if (header == null || header.value() == null) {
+      return null;
+    }
+    String contentType = new String(header.value(), StandardCharsets.UTF_8);
+    for (NotificationWireFormat format : values()) {
+      if (format.contentType.equalsIgnoreCase(contentType)) {
+        return format;
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,16 @@
+package com.clinicwave.clinicwavenotificationservice.service;
+
+import com.clinicwave.clinicwavenotificationservice.dto.BulkNotificationStatusDto;
+
+import java.io.InputStream;
+
+/**
+ * This interface is a service for sending one notification to many recipients.
+ *
+ * @author agent on 10/18/26
+ */
+public interface BulkNotificationService {
+  BulkNotificationStatusDto submit(InputStream inputStream);
+
+  BulkNotificationStatusDto getStatus(String jobId);
+}
@@ -0,0 +1,17 @@
+package com.clinicwave.clinicwavenotificationservice.service;
+
+import com.clinicwave.clinicwavenotificationservice.dto.DeliveryAttemptDto;
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationStatusDto;
+
+import java.util.List;
+
+/**
+ * This interface is a service for looking up the delivery attempts of notifications.
+ *
+ * @author agent on 10/18/26
+ */
+public interface DeliveryLogService {
+  NotificationStatusDto getStatus(String trackingId);
+
+  List<DeliveryAttemptDto> getRecentAttempts(String recipient, int limit);
+}
@@ -0,0 +1,12 @@
+package com.clinicwave.clinicwavenotificationservice.service;
+
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+
+/**
+ * This interface is a service for handing notifications off to background workers.
+ *
+ * @author agent on 10/18/26
+ */
+public interface NotificationDispatchService {
+  String dispatch(NotificationRequestDto notificationRequestDto);
+}
@@ -1,6 +1,9 @@
 package com.clinicwave.clinicwavenotificationservice.service;
 
 import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.strategy.NotificationResult;
+
+import java.util.List;
 
 /**
  * This interface is a service for sending notifications.
@@ -8,5 +11,9 @@ import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
  * @author aamir on 7/8/24
  */
 public interface NotificationService {
-  void sendNotification(NotificationRequestDto notificationRequestDto);
+  boolean sendNotification(NotificationRequestDto notificationRequestDto);
+
+  List<NotificationResult> sendNotifications(List<NotificationRequestDto> notificationRequestDtos);
+
+  List<NotificationResult> sendNotificationsWithoutDigest(List<NotificationRequestDto> notificationRequestDtos);
 }
@@ -9,4 +9,6 @@ import org.springframework.mail.javamail.JavaMailSender;
  */
 public interface SmtpSettingService {
   JavaMailSender createMailSender();
+
+  void refreshMailSender();
 }
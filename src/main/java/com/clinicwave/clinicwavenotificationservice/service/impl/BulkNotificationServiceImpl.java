@@ -0,0 +1,435 @@
+package com.clinicwave.clinicwavenotificationservice.service.impl;
+
+import com.clinicwave.clinicwavenotificationservice.dto.BulkNotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.dto.BulkNotificationStatusDto;
+import com.clinicwave.clinicwavenotificationservice.dto.BulkRecipientDto;
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.enums.BulkNotificationStatusEnum;
+import com.clinicwave.clinicwavenotificationservice.exception.InvalidBulkNotificationException;
+import com.clinicwave.clinicwavenotificationservice.exception.ResourceNotFoundException;
+import com.clinicwave.clinicwavenotificationservice.service.BulkNotificationService;
+import com.clinicwave.clinicwavenotificationservice.service.NotificationService;
+import com.clinicwave.clinicwavenotificationservice.strategy.NotificationResult;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * This class is a service class that sends one notification to many recipients.
+ * <p>
+ * A bulk request is newline-delimited JSON: the first line holds the shared subject, template, variables,
+ * type and category, and every following line holds a recipient with optional overrides. The request body is
+ * spooled to a temporary file and parsed in full before anything is sent, so a malformed request is rejected
+ * as a whole and the request thread never waits for a send. The spooled request is then read back by a
+ * background reader and cut into chunks that are sent by background workers through
+ * {@link NotificationService#sendNotifications(List)}, so that each chunk goes out over a pooled SMTP session.
+ * The reader pauses while {@code notification.bulk.max-in-flight-chunks} chunks are waiting to be sent, which
+ * keeps memory use flat however many recipients the request holds.
+ * <p>
+ * Recipients without variable overrides share the same variables map, so their rendered content is reused
+ * through the render cache instead of being rendered again for every recipient.
+ *
+ * @author agent on 10/18/26
+ */
+@Service
+@Slf4j
+public class BulkNotificationServiceImpl implements BulkNotificationService {
+  private final NotificationService notificationService;
+  private final ObjectMapper objectMapper;
+  private final Validator validator;
+  private final ThreadPoolExecutor executor;
+  private final ThreadPoolExecutor reader;
+  private final Semaphore inFlightChunks;
+  private final int chunkSize;
+  private final int maxTrackedJobs;
+  private final Duration shutdownTimeout;
+  private final Map<String, BulkNotificationJob> jobs;
+
+  private final Counter sentCounter;
+  private final Counter failedCounter;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param notificationService The service used by the workers to send the notifications.
+   * @param objectMapper        The ObjectMapper used to read the request stream.
+   * @param validator           The validator used to check the shared request and every recipient.
+   * @param meterRegistry       The registry used to expose the bulk notification counters.
+   * @param threadFactory       The factory creating the worker threads, platform or virtual.
+   * @param workers             The number of worker threads sending chunks.
+   * @param chunkSize           The number of recipients sent together.
+   * @param maxInFlightChunks   The maximum number of chunks read but not yet sent, across all requests.
+   * @param maxTrackedJobs      The number of bulk requests whose progress is kept.
+   * @param shutdownTimeout     How long to wait for read chunks to be sent on shutdown.
+   */
+  @Autowired
+  public BulkNotificationServiceImpl(NotificationService notificationService,
+                                     ObjectMapper objectMapper,
+                                     Validator validator,
+                                     MeterRegistry meterRegistry,
+                                     @Qualifier("notificationWorkerThreadFactory") ThreadFactory threadFactory,
+                                     @Value("${notification.bulk.workers:2}") int workers,
+                                     @Value("${notification.bulk.chunk-size:100}") int chunkSize,
+                                     @Value("${notification.bulk.max-in-flight-chunks:8}") int maxInFlightChunks,
+                                     @Value("${notification.bulk.max-tracked-jobs:100}") int maxTrackedJobs,
+                                     @Value("${notification.bulk.shutdown-timeout:PT30S}") Duration shutdownTimeout) {
+    this.notificationService = notificationService;
+    this.objectMapper = objectMapper;
+    this.validator = validator;
+    this.chunkSize = chunkSize;
+    this.maxTrackedJobs = maxTrackedJobs;
+    this.shutdownTimeout = shutdownTimeout;
+    this.inFlightChunks = new Semaphore(maxInFlightChunks);
+    this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+            threadFactory);
+    this.reader = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), threadFactory);
+    this.jobs = new LinkedHashMap<>() {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, BulkNotificationJob> eldest) {
+        return size() > BulkNotificationServiceImpl.this.maxTrackedJobs;
+      }
+    };
+
+    this.sentCounter = Counter.builder("notification.bulk.recipients")
+            .description("Recipients of bulk notification requests")
+            .tag("result", "sent")
+            .register(meterRegistry);
+    this.failedCounter = Counter.builder("notification.bulk.recipients")
+            .description("Recipients of bulk notification requests")
+            .tag("result", "failed")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Spools and parses a bulk notification request, and hands it to the background reader, which passes its
+   * recipients to the workers in chunks. Returns once the request has been accepted; nothing may have been sent
+   * yet.
+   *
+   * @param inputStream The newline-delimited JSON request body.
+   * @return The progress of the request when it has been accepted, with the number of recipients it holds.
+   * @throws InvalidBulkNotificationException If the request cannot be read. Nothing is sent then.
+   */
+  @Override
+  public BulkNotificationStatusDto submit(InputStream inputStream) {
+    BulkNotificationJob job = new BulkNotificationJob(UUID.randomUUID().toString());
+    synchronized (jobs) {
+      jobs.put(job.jobId, job);
+    }
+
+    Path spool = null;
+    try {
+      spool = Files.createTempFile("bulk-notification-", ".ndjson");
+      Files.copy(inputStream, spool, StandardCopyOption.REPLACE_EXISTING);
+      job.received.set(countRecipients(job, spool));
+      Path request = spool;
+      reader.execute(() -> dispatch(job, request));
+    } catch (IOException | RuntimeException e) {
+      job.aborted = true;
+      job.receiving = false;
+      deleteSpool(job, spool);
+      if (e instanceof InvalidBulkNotificationException invalid) {
+        throw invalid;
+      }
+      log.error("Failed to read bulk notification {}", job.jobId, e);
+      throw new InvalidBulkNotificationException(job.jobId, e.getMessage());
+    }
+
+    log.info("Bulk notification {} received with {} recipients", job.jobId, job.received.get());
+    return job.toStatus();
+  }
+
+  /**
+   * Returns the progress of a bulk notification request.
+   *
+   * @param jobId The ID of the bulk notification job.
+   * @return The progress of the request.
+   * @throws ResourceNotFoundException If no request with this ID is tracked.
+   */
+  @Override
+  public BulkNotificationStatusDto getStatus(String jobId) {
+    BulkNotificationJob job;
+    synchronized (jobs) {
+      job = jobs.get(jobId);
+    }
+    if (job == null) {
+      throw new ResourceNotFoundException("Bulk notification", "jobId", jobId);
+    }
+    return job.toStatus();
+  }
+
+  /**
+   * Stops reading requests and accepting chunks, and waits for the read ones to be sent.
+   */
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    // Requests still being cut into chunks are aborted; their chunks already read are sent.
+    reader.shutdownNow();
+    reader.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    executor.shutdown();
+    if (!executor.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+      log.warn("{} bulk notification chunks were not sent before shutdown", executor.getQueue().size());
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Parses a spooled request in full, validating its shared part and checking that every recipient line is
+   * well-formed JSON. Recipients that are well-formed but invalid are only skipped when they are sent.
+   *
+   * @param job   The bulk notification job.
+   * @param spool The spooled request.
+   * @return The number of recipients the request holds.
+   * @throws IOException If the request is malformed.
+   */
+  private long countRecipients(BulkNotificationJob job, Path spool) throws IOException {
+    long recipients = 0;
+    try (JsonParser parser = objectMapper.getFactory().createParser(spool.toFile())) {
+      readRequest(job, parser);
+      while (parser.nextToken() != null) {
+        objectMapper.readValue(parser, BulkRecipientDto.class);
+        recipients++;
+      }
+    }
+    return recipients;
+  }
+
+  /**
+   * Reads a spooled request back on the background reader and hands its recipients to the workers in chunks.
+   * The spooled request is deleted once it has been read.
+   *
+   * @param job   The bulk notification job.
+   * @param spool The spooled request, already parsed by {@link #countRecipients(BulkNotificationJob, Path)}.
+   */
+  private void dispatch(BulkNotificationJob job, Path spool) {
+    try (JsonParser parser = objectMapper.getFactory().createParser(spool.toFile())) {
+      BulkNotificationRequestDto bulkNotificationRequestDto = readRequest(job, parser);
+
+      List<NotificationRequestDto> chunk = new ArrayList<>(chunkSize);
+      long recipient = 0;
+      while (parser.nextToken() != null) {
+        BulkRecipientDto bulkRecipientDto = objectMapper.readValue(parser, BulkRecipientDto.class);
+        recipient++;
+        if (bulkRecipientDto == null || !validator.validate(bulkRecipientDto).isEmpty()) {
+          log.warn("Skipping invalid recipient {} of bulk notification {}", recipient, job.jobId);
+          job.failed.incrementAndGet();
+          failedCounter.increment();
+          continue;
+        }
+
+        chunk.add(toNotificationRequest(bulkNotificationRequestDto, bulkRecipientDto));
+        if (chunk.size() == chunkSize) {
+          submitChunk(job, chunk);
+          chunk = new ArrayList<>(chunkSize);
+        }
+      }
+      if (!chunk.isEmpty()) {
+        submitChunk(job, chunk);
+      }
+    } catch (IOException | RuntimeException e) {
+      job.aborted = true;
+      log.error("Failed to read spooled bulk notification {}", job.jobId, e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      job.aborted = true;
+      log.warn("Bulk notification {} was aborted by shutdown after {} sent and {} failed recipients",
+              job.jobId, job.sent.get(), job.failed.get());
+    } finally {
+      job.receiving = false;
+      deleteSpool(job, spool);
+    }
+  }
+
+  /**
+   * Deletes the spooled request of a job, if it was spooled.
+   *
+   * @param job   The bulk notification job.
+   * @param spool The spooled request, or null.
+   */
+  private static void deleteSpool(BulkNotificationJob job, Path spool) {
+    if (spool == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(spool);
+    } catch (IOException e) {
+      log.warn("Failed to delete spooled bulk notification {} at {}", job.jobId, spool, e);
+    }
+  }
+
+  /**
+   * Reads and validates the shared part of the request from the first line.
+   *
+   * @param job    The bulk notification job.
+   * @param parser The parser positioned at the start of the request.
+   * @return The shared part of the request.
+   * @throws IOException If the first line cannot be read.
+   */
+  private BulkNotificationRequestDto readRequest(BulkNotificationJob job, JsonParser parser) throws IOException {
+    if (parser.nextToken() == null) {
+      job.aborted = true;
+      throw new InvalidBulkNotificationException(job.jobId, "Request is empty");
+    }
+    BulkNotificationRequestDto bulkNotificationRequestDto = objectMapper.readValue(parser, BulkNotificationRequestDto.class);
+    if (bulkNotificationRequestDto == null) {
+      job.aborted = true;
+      throw new InvalidBulkNotificationException(job.jobId, "Shared notification is missing");
+    }
+    Set<ConstraintViolation<BulkNotificationRequestDto>> violations = validator.validate(bulkNotificationRequestDto);
+    if (!violations.isEmpty()) {
+      job.aborted = true;
+      throw new InvalidBulkNotificationException(job.jobId, violations.stream()
+              .map(ConstraintViolation::getMessage)
+              .sorted()
+              .collect(Collectors.joining(", ")));
+    }
+    return bulkNotificationRequestDto;
+  }
+
+  /**
+   * Builds the notification for one recipient, applying the recipient's overrides to the shared part.
+   * Recipients without variable overrides share the variables map of the request.
+   *
+   * @param bulkNotificationRequestDto The shared part of the request.
+   * @param bulkRecipientDto           The recipient and their overrides.
+   * @return The notification request for the recipient.
+   */
+  private NotificationRequestDto toNotificationRequest(BulkNotificationRequestDto bulkNotificationRequestDto,
+                                                       BulkRecipientDto bulkRecipientDto) {
+    Map<String, Object> templateVariables = bulkNotificationRequestDto.templateVariables();
+    if (bulkRecipientDto.templateVariables() != null && !bulkRecipientDto.templateVariables().isEmpty()) {
+      templateVariables = templateVariables == null ? new HashMap<>() : new HashMap<>(templateVariables);
+      templateVariables.putAll(bulkRecipientDto.templateVariables());
+    }
+    String subject = bulkRecipientDto.subject() != null ? bulkRecipientDto.subject() : bulkNotificationRequestDto.subject();
+
+    return new NotificationRequestDto(
+            bulkRecipientDto.recipient(),
+            subject,
+            bulkNotificationRequestDto.templateName(),
+            templateVariables,
+            bulkNotificationRequestDto.type(),
+            bulkNotificationRequestDto.category()
+    );
+  }
+
+  /**
+   * Hands a chunk to the workers, waiting while too many chunks are already in flight.
+   *
+   * @param job   The bulk notification job the chunk belongs to.
+   * @param chunk The notifications to be sent together.
+   * @throws InterruptedException If interrupted while waiting for a free slot.
+   */
+  private void submitChunk(BulkNotificationJob job, List<NotificationRequestDto> chunk) throws InterruptedException {
+    inFlightChunks.acquire();
+    job.pendingChunks.incrementAndGet();
+    try {
+      executor.execute(() -> sendChunk(job, chunk));
+    } catch (RejectedExecutionException e) {
+      log.error("Bulk notification {} rejected a chunk during shutdown", job.jobId);
+      completeChunk(job, 0, chunk.size());
+    }
+  }
+
+  /**
+   * Sends a chunk on a worker thread and records its outcome.
+   *
+   * @param job   The bulk notification job the chunk belongs to.
+   * @param chunk The notifications to be sent together.
+   */
+  private void sendChunk(BulkNotificationJob job, List<NotificationRequestDto> chunk) {
+    int sent = 0;
+    try {
+      List<NotificationResult> results = notificationService.sendNotifications(chunk);
+      for (NotificationResult result : results) {
+        if (result.isSuccess()) {
+          sent++;
+        } else {
+          log.error("Bulk notification {} failed for: {}", job.jobId, result.notificationRequestDto().recipient(), result.error());
+        }
+      }
+    } catch (RuntimeException e) {
+      log.error("Bulk notification {} failed to send a chunk of {} notifications", job.jobId, chunk.size(), e);
+    } finally {
+      completeChunk(job, sent, chunk.size() - sent);
+    }
+  }
+
+  /**
+   * Records the outcome of a chunk and frees its slot.
+   *
+   * @param job    The bulk notification job the chunk belongs to.
+   * @param sent   The number of notifications sent.
+   * @param failed The number of notifications that failed.
+   */
+  private void completeChunk(BulkNotificationJob job, int sent, int failed) {
+    job.sent.addAndGet(sent);
+    job.failed.addAndGet(failed);
+    sentCounter.increment(sent);
+    failedCounter.increment(failed);
+    job.pendingChunks.decrementAndGet();
+    inFlightChunks.release();
+  }
+
+  /**
+   * The progress of a bulk notification request. Only counters are kept, never the recipients.
+   */
+  private static final class BulkNotificationJob {
+    private final String jobId;
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicInteger pendingChunks = new AtomicInteger();
+    private volatile boolean receiving = true;
+    private volatile boolean aborted;
+
+    private BulkNotificationJob(String jobId) {
+      this.jobId = jobId;
+    }
+
+    private BulkNotificationStatusDto toStatus() {
+      BulkNotificationStatusEnum status;
+      if (aborted) {
+        status = BulkNotificationStatusEnum.ABORTED;
+      } else if (receiving) {
+        status = BulkNotificationStatusEnum.RECEIVING;
+      } else if (pendingChunks.get() > 0) {
+        status = BulkNotificationStatusEnum.SENDING;
+      } else {
+        status = BulkNotificationStatusEnum.COMPLETED;
+      }
+      return new BulkNotificationStatusDto(jobId, status, received.get(), sent.get(), failed.get());
+    }
+  }
+}
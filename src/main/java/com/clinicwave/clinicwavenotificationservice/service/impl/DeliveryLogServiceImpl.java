@@ -0,0 +1,85 @@
+package com.clinicwave.clinicwavenotificationservice.service.impl;
+
+import com.clinicwave.clinicwavenotificationservice.domain.DeliveryLog;
+import com.clinicwave.clinicwavenotificationservice.dto.DeliveryAttemptDto;
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationStatusDto;
+import com.clinicwave.clinicwavenotificationservice.exception.ResourceNotFoundException;
+import com.clinicwave.clinicwavenotificationservice.repository.DeliveryLogRepository;
+import com.clinicwave.clinicwavenotificationservice.service.DeliveryLogService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * This class is a service class for the DeliveryLog entity.
+ * It provides methods to look up the delivery attempts of a notification by its tracking ID, and the most recent
+ * attempts to a recipient. Both lookups are served by an index, so they stay cheap as the log grows.
+ * <p>
+ * Attempts are written asynchronously, so an attempt made a moment ago may not be visible yet.
+ *
+ * @author agent on 10/18/26
+ */
+@Service
+@Transactional(readOnly = true)
+public class DeliveryLogServiceImpl implements DeliveryLogService {
+  private final DeliveryLogRepository deliveryLogRepository;
+  private final int maxRecentAttempts;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param deliveryLogRepository The repository of the delivery log.
+   * @param maxRecentAttempts     The maximum number of attempts returned for a recipient.
+   */
+  @Autowired
+  public DeliveryLogServiceImpl(DeliveryLogRepository deliveryLogRepository,
+                                @Value("${notification.delivery-log.max-recent-attempts:100}") int maxRecentAttempts) {
+    this.deliveryLogRepository = deliveryLogRepository;
+    this.maxRecentAttempts = maxRecentAttempts;
+  }
+
+  /**
+   * Returns the delivery status of a notification: the outcome of its latest attempt, and every attempt.
+   *
+   * @param trackingId The tracking ID of the notification.
+   * @return The delivery status.
+   * @throws ResourceNotFoundException if no attempt to send the notification was logged.
+   */
+  @Override
+  public NotificationStatusDto getStatus(String trackingId) {
+    List<DeliveryAttemptDto> attempts = deliveryLogRepository.findByTrackingIdOrderByCreatedAtAscIdAsc(trackingId)
+            .stream()
+            .map(DeliveryLogServiceImpl::toDeliveryAttemptDto)
+            .toList();
+    if (attempts.isEmpty()) {
+      throw new ResourceNotFoundException("Notification", "trackingId", trackingId);
+    }
+    return new NotificationStatusDto(trackingId, attempts.getLast().status(), attempts);
+  }
+
+  /**
+   * Returns the most recent delivery attempts to a recipient, newest first.
+   *
+   * @param recipient The recipient.
+   * @param limit     The maximum number of attempts to return, capped at the configured maximum.
+   * @return The delivery attempts.
+   */
+  @Override
+  public List<DeliveryAttemptDto> getRecentAttempts(String recipient, int limit) {
+    return deliveryLogRepository
+            .findByRecipientOrderByCreatedAtDescIdDesc(recipient, Limit.of(Math.clamp(limit, 1, maxRecentAttempts)))
+            .stream()
+            .map(DeliveryLogServiceImpl::toDeliveryAttemptDto)
+            .toList();
+  }
+
+  private static DeliveryAttemptDto toDeliveryAttemptDto(DeliveryLog deliveryLog) {
+    return new DeliveryAttemptDto(deliveryLog.getTrackingId(), deliveryLog.getRecipient(),
+            deliveryLog.getTemplateName(), deliveryLog.getType(), deliveryLog.getCategory(),
+            deliveryLog.getStatus(), deliveryLog.getError(), deliveryLog.getCreatedAt());
+  }
+}
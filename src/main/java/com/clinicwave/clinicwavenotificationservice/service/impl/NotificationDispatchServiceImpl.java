@@ -0,0 +1,150 @@
+package com.clinicwave.clinicwavenotificationservice.service.impl;
+
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.exception.NotificationQueueFullException;
+import com.clinicwave.clinicwavenotificationservice.lane.NotificationLanes;
+import com.clinicwave.clinicwavenotificationservice.service.NotificationDispatchService;
+import com.clinicwave.clinicwavenotificationservice.service.NotificationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is a service class that queues notifications in memory and sends them on a pool of workers.
+ * The queue is bounded; when it is full, requests are rejected so that callers back off instead of
+ * piling up work the service cannot keep up with. The time from queueing to delivery is reported to the lane
+ * of the notification's category. Queued notifications are lost on a crash; this service is only used when the
+ * outbox is disabled with {@code notification.outbox.enabled=false}.
+ *
+ * @author agent on 10/18/26
+ */
+@Service
+@ConditionalOnProperty(name = "notification.outbox.enabled", havingValue = "false")
+@Slf4j
+public class NotificationDispatchServiceImpl implements NotificationDispatchService {
+  private final NotificationService notificationService;
+  private final NotificationLanes notificationLanes;
+  private final ThreadPoolExecutor executor;
+  private final int queueCapacity;
+  private final Duration retryAfter;
+  private final Duration shutdownTimeout;
+
+  private final Timer queueWaitTimer;
+  private final Counter rejectedCounter;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param notificationService The service used by the workers to send the notifications.
+   * @param notificationLanes   The lanes the delivery latency is reported to.
+   * @param meterRegistry       The registry used to expose the queue metrics.
+   * @param threadFactory       The factory creating the worker threads, platform or virtual.
+   * @param workers             The number of worker threads draining the queue.
+   * @param queueCapacity       The maximum number of notifications waiting in the queue.
+   * @param retryAfter          The delay suggested to callers when the queue is full.
+   * @param shutdownTimeout     How long to wait for queued notifications to be sent on shutdown.
+   */
+  @Autowired
+  public NotificationDispatchServiceImpl(NotificationService notificationService,
+                                         NotificationLanes notificationLanes,
+                                         MeterRegistry meterRegistry,
+                                         @Qualifier("notificationWorkerThreadFactory") ThreadFactory threadFactory,
+                                         @Value("${notification.dispatch.workers:4}") int workers,
+                                         @Value("${notification.dispatch.queue-capacity:1000}") int queueCapacity,
+                                         @Value("${notification.dispatch.retry-after:PT5S}") Duration retryAfter,
+                                         @Value("${notification.dispatch.shutdown-timeout:PT30S}") Duration shutdownTimeout) {
+    this.notificationService = notificationService;
+    this.notificationLanes = notificationLanes;
+    this.queueCapacity = queueCapacity;
+    this.retryAfter = retryAfter;
+    this.shutdownTimeout = shutdownTimeout;
+
+    BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(queueCapacity);
+    this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS, queue,
+            threadFactory, new ThreadPoolExecutor.AbortPolicy());
+
+    Gauge.builder("notification.dispatch.queue.depth", queue, BlockingQueue::size)
+            .description("Notifications waiting in the dispatch queue")
+            .register(meterRegistry);
+    Gauge.builder("notification.dispatch.queue.capacity", queue, BlockingQueue::remainingCapacity)
+            .description("Free slots in the dispatch queue")
+            .register(meterRegistry);
+    this.queueWaitTimer = Timer.builder("notification.dispatch.queue.wait")
+            .description("Time notifications spend in the dispatch queue before a worker picks them up")
+            .register(meterRegistry);
+    this.rejectedCounter = Counter.builder("notification.dispatch.rejected")
+            .description("Notifications rejected because the dispatch queue was full")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Queues a notification to be sent by a background worker.
+   *
+   * @param notificationRequestDto The notification request to be sent.
+   * @return The tracking ID assigned to the notification.
+   * @throws NotificationQueueFullException If the queue is full.
+   */
+  @Override
+  public String dispatch(NotificationRequestDto notificationRequestDto) {
+    String trackingId = UUID.randomUUID().toString();
+    NotificationRequestDto trackedRequestDto = notificationRequestDto.withTrackingId(trackingId);
+    long enqueuedAt = System.nanoTime();
+    try {
+      executor.execute(() -> send(trackingId, trackedRequestDto, enqueuedAt));
+    } catch (RejectedExecutionException e) {
+      rejectedCounter.increment();
+      log.warn("Notification queue is full, rejecting notification to: {}", notificationRequestDto.recipient());
+      throw new NotificationQueueFullException(queueCapacity, retryAfter);
+    }
+    log.debug("Notification {} queued for: {}", trackingId, notificationRequestDto.recipient());
+    return trackingId;
+  }
+
+  /**
+   * Stops accepting notifications and waits for the queued ones to be sent.
+   */
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    executor.shutdown();
+    if (!executor.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+      log.warn("{} queued notifications were not sent before shutdown", executor.getQueue().size());
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Sends a queued notification on a worker thread.
+   *
+   * @param trackingId             The tracking ID of the notification.
+   * @param notificationRequestDto The notification request to be sent.
+   * @param enqueuedAt             The {@link System#nanoTime()} at which the notification was queued.
+   */
+  private void send(String trackingId, NotificationRequestDto notificationRequestDto, long enqueuedAt) {
+    queueWaitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+    try {
+      if (notificationService.sendNotification(notificationRequestDto)) {
+        notificationLanes.recordLatency(notificationRequestDto.category(), Duration.ofNanos(System.nanoTime() - enqueuedAt));
+      }
+      log.info("Notification {} sent to: {}", trackingId, notificationRequestDto.recipient());
+    } catch (RuntimeException e) {
+      log.error("Failed to send notification {} to: {}", trackingId, notificationRequestDto.recipient(), e);
+    }
+  }
+}
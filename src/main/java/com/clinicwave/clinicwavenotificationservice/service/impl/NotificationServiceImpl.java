@@ -1,23 +1,57 @@
 package com.clinicwave.clinicwavenotificationservice.service.impl;
 
+import com.clinicwave.clinicwavenotificationservice.delivery.DeliveryLogWriter;
+import com.clinicwave.clinicwavenotificationservice.digest.NotificationDigestBuffer;
 import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
 import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
 import com.clinicwave.clinicwavenotificationservice.exception.InvalidNotificationTypeException;
+import com.clinicwave.clinicwavenotificationservice.idempotency.NotificationDeduplicator;
+import com.clinicwave.clinicwavenotificationservice.lane.NotificationLanes;
+import com.clinicwave.clinicwavenotificationservice.listener.FailedNotificationPublisher;
+import com.clinicwave.clinicwavenotificationservice.metrics.NotificationStage;
+import com.clinicwave.clinicwavenotificationservice.metrics.NotificationStageMetrics;
+import com.clinicwave.clinicwavenotificationservice.scheduler.NotificationScheduler;
 import com.clinicwave.clinicwavenotificationservice.service.NotificationService;
+import com.clinicwave.clinicwavenotificationservice.strategy.NotificationResult;
 import com.clinicwave.clinicwavenotificationservice.strategy.NotificationStrategy;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.retrytopic.DltStrategy;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * This class is a service class for the Notification entity.
  * It provides methods to send email notifications.
+ * Every send takes its place in the lane of its notification category, so that sends of urgent categories
+ * are not held up by bulk ones. Notifications carrying an idempotency key that was already sent are skipped, and
+ * notifications with a send-at time in the future are handed to the notification scheduler instead of being sent.
+ * When digests are enabled, notifications that can be coalesced are handed to the digest buffer instead, whichever
+ * source they come from, and sent later as part of a digest.
  *
  * @author aamir on 7/8/24
  */
@@ -25,17 +59,58 @@ import java.util.Optional;
 @Slf4j
 public class NotificationServiceImpl implements NotificationService {
   private final Map<NotificationTypeEnum, NotificationStrategy> notificationStrategyMap;
+  private final TaskExecutor notificationSendExecutor;
+  private final NotificationLanes notificationLanes;
+  private final NotificationDeduplicator notificationDeduplicator;
+  private final NotificationStageMetrics notificationStageMetrics;
+  private final DeliveryLogWriter deliveryLogWriter;
+  private final NotificationScheduler notificationScheduler;
+  private final NotificationDigestBuffer notificationDigestBuffer;
+  private final FailedNotificationPublisher failedNotificationPublisher;
+  private final int chunkSize;
 
   private static final String TOPIC_NAME = "notification-topic";
   private static final String GROUP_ID = "notification-group";
+  private static final String SINGLE_MODE = "#{'${notification.kafka.listener.mode:single}' == 'single'}";
+  private static final String BATCH_MODE = "#{'${notification.kafka.listener.mode:single}' == 'batch'}";
+  private static final String RETRY_INITIAL_DELAY = "#{T(java.time.Duration).parse('${notification.kafka.retry.initial-delay:PT10S}').toMillis()}";
+  private static final String RETRY_MAX_DELAY = "#{T(java.time.Duration).parse('${notification.kafka.retry.max-delay:PT10M}').toMillis()}";
 
   /**
    * Constructor for dependency injection.
    *
-   * @param notificationStrategyList The list of notification strategies to be used for sending notifications.
+   * @param notificationStrategyList    The list of notification strategies to be used for sending notifications.
+   * @param notificationSendExecutor    The executor the chunks of a batch are sent on.
+   * @param notificationLanes           The lanes that share the relay capacity between the notification categories.
+   * @param notificationDeduplicator    The deduplicator remembering the idempotency keys that were sent.
+   * @param notificationStageMetrics    The metrics the strategy lookup time is recorded in.
+   * @param deliveryLogWriter           The writer of the delivery log every attempt is recorded in.
+   * @param notificationScheduler       The scheduler holding back notifications until their send-at time.
+   * @param notificationDigestBuffer    The buffer holding back notifications to be sent as part of a digest.
+   * @param failedNotificationPublisher The publisher of the notifications that failed on the batch listener.
+   * @param chunkSize                   The maximum number of notifications sent together by one task of the send executor.
    */
   @Autowired
-  public NotificationServiceImpl(List<NotificationStrategy> notificationStrategyList) {
+  public NotificationServiceImpl(List<NotificationStrategy> notificationStrategyList,
+                                 @Qualifier("notificationSendExecutor") TaskExecutor notificationSendExecutor,
+                                 NotificationLanes notificationLanes,
+                                 NotificationDeduplicator notificationDeduplicator,
+                                 NotificationStageMetrics notificationStageMetrics,
+                                 DeliveryLogWriter deliveryLogWriter,
+                                 NotificationScheduler notificationScheduler,
+                                 NotificationDigestBuffer notificationDigestBuffer,
+                                 FailedNotificationPublisher failedNotificationPublisher,
+                                 @Value("${notification.send.chunk-size:10}") int chunkSize) {
+    this.notificationSendExecutor = notificationSendExecutor;
+    this.notificationLanes = notificationLanes;
+    this.notificationDeduplicator = notificationDeduplicator;
+    this.notificationStageMetrics = notificationStageMetrics;
+    this.deliveryLogWriter = deliveryLogWriter;
+    this.notificationScheduler = notificationScheduler;
+    this.notificationDigestBuffer = notificationDigestBuffer;
+    this.failedNotificationPublisher = failedNotificationPublisher;
+    this.chunkSize = chunkSize;
+
     // Initialize the notification strategy map with an EnumMap
     notificationStrategyMap = new EnumMap<>(NotificationTypeEnum.class);
 
@@ -46,25 +121,402 @@ public class NotificationServiceImpl implements NotificationService {
 
   /**
    * Kafka listener method to handle notification requests.
+   * A request that fails is published to the next retry topic, which hands it back to this method once its
+   * backoff has passed, and to the dead-letter topic once its attempts are used up.
    *
    * @param notificationRequestDto The notification request to be handled.
+   * @param idempotencyKey         The idempotency key from the record headers, used if the request has none.
    */
-  @KafkaListener(topics = TOPIC_NAME, groupId = GROUP_ID)
-  public void handleNotification(NotificationRequestDto notificationRequestDto) {
+  @RetryableTopic(
+          attempts = "${notification.kafka.retry.attempts:4}",
+          backoff = @Backoff(delayExpression = RETRY_INITIAL_DELAY,
+                  multiplierExpression = "${notification.kafka.retry.multiplier:6}",
+                  maxDelayExpression = RETRY_MAX_DELAY),
+          kafkaTemplate = "notificationKafkaTemplate",
+          autoCreateTopics = "${notification.kafka.retry.auto-create-topics:true}",
+          topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+          dltStrategy = DltStrategy.FAIL_ON_ERROR,
+          autoStartDltHandler = SINGLE_MODE
+  )
+  @KafkaListener(id = FailedNotificationPublisher.MAIN_LISTENER_ID, idIsGroup = false, topics = TOPIC_NAME, groupId = GROUP_ID,
+          autoStartup = SINGLE_MODE)
+  public void handleNotification(NotificationRequestDto notificationRequestDto,
+                                 @Header(name = NotificationDeduplicator.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
     log.info("Received notification request: {}", notificationRequestDto);
-    sendNotification(notificationRequestDto);
+    sendNotification(notificationRequestDto.withIdempotencyKey(idempotencyKey));
+  }
+
+  /**
+   * Kafka listener method for the notification requests that ended up on the dead-letter topic.
+   *
+   * @param notificationRequestDto The notification request that could not be sent.
+   * @param errorMessage           The message of the error the last attempt failed with.
+   */
+  @DltHandler
+  public void handleDeadLetter(NotificationRequestDto notificationRequestDto,
+                               @Header(name = KafkaHeaders.EXCEPTION_MESSAGE, required = false) String errorMessage) {
+    log.error("Giving up on notification to: {}. Error: {}", notificationRequestDto.recipient(), errorMessage);
+  }
+
+  /**
+   * Kafka batch listener method to handle all notification requests returned by a single poll.
+   * Failed notifications are published to the retry topics of the record listener one by one, so the
+   * notifications that were sent are not sent again. Requests that could not be deserialized are published to the
+   * dead-letter topic.
+   *
+   * @param records The records returned by the poll.
+   * @throws BatchListenerFailedException if a failed notification could not be published, so that the poll is
+   *                                      delivered again from that notification on.
+   */
+  @KafkaListener(topics = TOPIC_NAME, groupId = GROUP_ID, containerFactory = "batchKafkaListenerContainerFactory", autoStartup = BATCH_MODE)
+  public void handleNotificationBatch(List<ConsumerRecord<String, NotificationRequestDto>> records) {
+    List<ConsumerRecord<String, NotificationRequestDto>> validRecords = new ArrayList<>(records.size());
+    for (ConsumerRecord<String, NotificationRequestDto> consumerRecord : records) {
+      // Records that failed to deserialize arrive as null values.
+      if (consumerRecord.value() == null) {
+        log.warn("Publishing notification request at offset {} that could not be deserialized to the dead-letter topic",
+                consumerRecord.offset());
+        publishFailed(records, consumerRecord, null);
+      } else {
+        validRecords.add(consumerRecord);
+      }
+    }
+    log.info("Received batch of {} notification requests", validRecords.size());
+
+    List<NotificationResult> results = sendNotifications(validRecords.stream()
+            .map(consumerRecord -> consumerRecord.value()
+                    .withIdempotencyKey(NotificationDeduplicator.idempotencyKey(consumerRecord.headers())))
+            .toList());
+    int failed = 0;
+    for (int i = 0; i < results.size(); i++) {
+      NotificationResult result = results.get(i);
+      if (!result.isSuccess()) {
+        failed++;
+        log.error("Failed to send notification to: {}", result.notificationRequestDto().recipient(), result.error());
+        publishFailed(records, validRecords.get(i), result.error());
+      }
+    }
+    log.info("Batch of {} notification requests processed, {} failed", results.size(), failed);
+  }
+
+  /**
+   * Publishes a record of a poll that failed to the retry or dead-letter topic.
+   *
+   * @param records        The records returned by the poll.
+   * @param consumerRecord The record that failed.
+   * @param error          The error it failed with, or null if it could not be deserialized.
+   * @throws BatchListenerFailedException if the record could not be published.
+   */
+  private void publishFailed(List<ConsumerRecord<String, NotificationRequestDto>> records,
+                             ConsumerRecord<String, NotificationRequestDto> consumerRecord, Exception error) {
+    try {
+      if (error == null) {
+        failedNotificationPublisher.publishUndeserializable(consumerRecord);
+      } else {
+        failedNotificationPublisher.publish(consumerRecord, error);
+      }
+    } catch (RuntimeException e) {
+      throw new BatchListenerFailedException("Failed to publish notification request to the retry topic", e,
+              records.indexOf(consumerRecord));
+    }
   }
 
   /**
    * Sends a notification using the appropriate strategy based on the notification type.
+   * A notification with a send-at time in the future is scheduled instead, and one that can be coalesced into a
+   * digest may be held back. A notification whose idempotency key was already sent, or is being sent, is skipped;
+   * otherwise the attempt is recorded in the delivery log.
    *
    * @param notificationRequestDto The notification request to be sent.
+   * @return true if the notification was sent, false if it was scheduled, held back or skipped.
    * @throws InvalidNotificationTypeException if the notification type is not supported.
    */
   @Override
-  public void sendNotification(NotificationRequestDto notificationRequestDto) {
-    Optional.ofNullable(notificationStrategyMap.get(notificationRequestDto.type()))
-            .orElseThrow(() -> new InvalidNotificationTypeException("NotificationStrategy", "type", notificationRequestDto.type()))
-            .send(notificationRequestDto);
+  public boolean sendNotification(NotificationRequestDto notificationRequestDto) {
+    NotificationStrategy strategy = lookUpStrategy(notificationRequestDto);
+    if (notificationRequestDto.isDeferred(Instant.now())) {
+      notificationScheduler.schedule(List.of(notificationRequestDto));
+      deliveryLogWriter.recordScheduled(notificationRequestDto);
+      return false;
+    }
+    if (holdForDigest(notificationRequestDto)) {
+      return false;
+    }
+    String idempotencyKey = notificationRequestDto.idempotencyKey();
+    if (idempotencyKey != null && !notificationDeduplicator.tryAcquire(idempotencyKey)) {
+      log.info("Skipping notification to: {}, idempotency key {} was already sent", notificationRequestDto.recipient(), idempotencyKey);
+      return false;
+    }
+
+    boolean sent = false;
+    try {
+      CompletableFuture<Void> submitted;
+      try (NotificationLanes.LanePermit ignored = notificationLanes.acquire(notificationRequestDto.type(), notificationRequestDto.category())) {
+        submitted = strategy.submit(notificationRequestDto);
+      }
+      await(submitted);
+      sent = true;
+      deliveryLogWriter.record(notificationRequestDto, null);
+      return true;
+    } catch (RuntimeException e) {
+      deliveryLogWriter.record(notificationRequestDto, e);
+      throw e;
+    } finally {
+      if (idempotencyKey != null) {
+        completeIdempotencyKey(idempotencyKey, sent);
+      }
+    }
+  }
+
+  /**
+   * Sends several notifications, grouping them by notification type and category so that each strategy can
+   * send its notifications together. Each group is split into chunks that are sent on the notification send
+   * executor, so chunks run concurrently when virtual threads are enabled. A chunk takes a place in the lane of
+   * its category for each of its notifications, so it is never larger than the lane. Groups of higher priority
+   * categories are started first. Notifications whose idempotency key was already sent are skipped and reported
+   * as successful; a notification repeating the idempotency key of an earlier one in the same batch is skipped and
+   * reported with the outcome of that earlier one. Every other attempt is recorded in the delivery log.
+   * Notifications with a send-at time in the future are scheduled together, and notifications held back for a
+   * digest are stored in the digest buffer; both are reported as successful.
+   *
+   * @param notificationRequestDtos The notification requests to be sent.
+   * @return One result per request, in the same order as the requests.
+   */
+  @Override
+  public List<NotificationResult> sendNotifications(List<NotificationRequestDto> notificationRequestDtos) {
+    return sendNotifications(notificationRequestDtos, true);
+  }
+
+  /**
+   * Sends several notifications like {@link #sendNotifications(List)}, without holding any back for a digest.
+   * Used to send the digests, and the notifications of the digests that could not be sent.
+   *
+   * @param notificationRequestDtos The notification requests to be sent.
+   * @return One result per request, in the same order as the requests.
+   */
+  @Override
+  public List<NotificationResult> sendNotificationsWithoutDigest(List<NotificationRequestDto> notificationRequestDtos) {
+    return sendNotifications(notificationRequestDtos, false);
+  }
+
+  /**
+   * Sends several notifications, as described for {@link #sendNotifications(List)}.
+   *
+   * @param notificationRequestDtos The notification requests to be sent.
+   * @param coalesce                Whether notifications may be held back for a digest.
+   * @return One result per request, in the same order as the requests.
+   */
+  private List<NotificationResult> sendNotifications(List<NotificationRequestDto> notificationRequestDtos, boolean coalesce) {
+    NotificationResult[] results = new NotificationResult[notificationRequestDtos.size()];
+    boolean[] acquired = new boolean[notificationRequestDtos.size()];
+    Instant now = Instant.now();
+    List<Integer> deferred = new ArrayList<>();
+    // The position of the request that claimed each idempotency key of the batch, and the positions repeating it.
+    Map<String, Integer> claimedAt = new HashMap<>();
+    Map<Integer, Integer> duplicates = new LinkedHashMap<>();
+
+    // Group the positions of the requests by notification type and category.
+    Map<SendGroup, List<Integer>> indexesByGroup = new LinkedHashMap<>();
+    for (int i = 0; i < notificationRequestDtos.size(); i++) {
+      NotificationRequestDto notificationRequestDto = notificationRequestDtos.get(i);
+      if (notificationRequestDto.isDeferred(now)) {
+        deferred.add(i);
+        continue;
+      }
+      if (coalesce && holdForDigest(notificationRequestDto)) {
+        results[i] = NotificationResult.success(notificationRequestDto);
+        continue;
+      }
+      String idempotencyKey = notificationRequestDto.idempotencyKey();
+      if (idempotencyKey != null) {
+        Integer claimant = claimedAt.get(idempotencyKey);
+        if (claimant != null) {
+          duplicates.put(i, claimant);
+          continue;
+        }
+        if (!notificationDeduplicator.tryAcquire(idempotencyKey)) {
+          log.info("Skipping notification to: {}, idempotency key {} was already sent", notificationRequestDto.recipient(), idempotencyKey);
+          results[i] = NotificationResult.success(notificationRequestDto);
+          continue;
+        }
+        acquired[i] = true;
+        claimedAt.put(idempotencyKey, i);
+      }
+      SendGroup group = new SendGroup(notificationRequestDto.type(), notificationRequestDto.category());
+      indexesByGroup.computeIfAbsent(group, key -> new ArrayList<>()).add(i);
+    }
+    if (!deferred.isEmpty()) {
+      schedule(notificationRequestDtos, deferred, results);
+    }
+    List<SendGroup> groups = new ArrayList<>(indexesByGroup.keySet());
+    groups.sort(Comparator.comparing(SendGroup::category, notificationLanes.byPriority()));
+
+    List<CompletableFuture<Void>> chunks = new ArrayList<>();
+    for (SendGroup group : groups) {
+      List<Integer> indexes = indexesByGroup.get(group);
+      // A chunk holds a lane place per notification, so it can be no larger than its lane.
+      int groupChunkSize = Math.min(chunkSize, notificationLanes.getMaxPlaces(group.type(), group.category()));
+      for (int from = 0; from < indexes.size(); from += groupChunkSize) {
+        List<Integer> chunk = indexes.subList(from, Math.min(from + groupChunkSize, indexes.size()));
+        chunks.add(CompletableFuture.runAsync(() -> {
+          List<NotificationRequestDto> requests = chunk.stream().map(notificationRequestDtos::get).toList();
+          List<NotificationResult> chunkResults = sendGroup(group, requests);
+          for (int i = 0; i < chunk.size(); i++) {
+            results[chunk.get(i)] = chunkResults.get(i);
+            deliveryLogWriter.record(chunkResults.get(i).notificationRequestDto(), chunkResults.get(i).error());
+          }
+        }, notificationSendExecutor));
+      }
+    }
+    try {
+      CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).join();
+    } finally {
+      for (int i = 0; i < acquired.length; i++) {
+        if (acquired[i]) {
+          completeIdempotencyKey(notificationRequestDtos.get(i).idempotencyKey(), results[i] != null && results[i].isSuccess());
+        }
+      }
+    }
+    duplicates.forEach((duplicate, claimant) -> {
+      NotificationRequestDto notificationRequestDto = notificationRequestDtos.get(duplicate);
+      log.info("Skipping notification to: {}, idempotency key {} is sent earlier in the batch",
+              notificationRequestDto.recipient(), notificationRequestDto.idempotencyKey());
+      results[duplicate] = new NotificationResult(notificationRequestDto, results[claimant].error());
+    });
+
+    return Arrays.asList(results);
+  }
+
+  /**
+   * Schedules the deferred notifications of a batch together, reporting them as successful if they were stored.
+   *
+   * @param notificationRequestDtos The notification requests of the batch.
+   * @param deferred                The positions of the requests with a send-at time in the future.
+   * @param results                 The results of the batch, by position.
+   */
+  private void schedule(List<NotificationRequestDto> notificationRequestDtos, List<Integer> deferred,
+                        NotificationResult[] results) {
+    List<NotificationRequestDto> requests = deferred.stream().map(notificationRequestDtos::get).toList();
+    try {
+      notificationScheduler.schedule(requests);
+    } catch (RuntimeException e) {
+      for (int i = 0; i < requests.size(); i++) {
+        results[deferred.get(i)] = NotificationResult.failure(requests.get(i), e);
+      }
+      return;
+    }
+    for (int i = 0; i < requests.size(); i++) {
+      results[deferred.get(i)] = NotificationResult.success(requests.get(i));
+      deliveryLogWriter.recordScheduled(requests.get(i));
+    }
+  }
+
+  /**
+   * Hands a notification to the digest buffer, to be sent later as part of a digest. If the buffer cannot store
+   * it, the notification is sent now rather than failed.
+   *
+   * @param notificationRequestDto The notification request to be sent.
+   * @return True if the notification was held back, false if it is to be sent now.
+   */
+  private boolean holdForDigest(NotificationRequestDto notificationRequestDto) {
+    try {
+      if (notificationDigestBuffer.offer(notificationRequestDto)) {
+        log.debug("Notification to: {} held back for a digest", notificationRequestDto.recipient());
+        return true;
+      }
+    } catch (RuntimeException e) {
+      log.warn("Failed to hold notification to: {} back for a digest, sending it now", notificationRequestDto.recipient(), e);
+    }
+    return false;
+  }
+
+  /**
+   * Remembers the idempotency key of a sent notification, or gives it up if the notification was not sent.
+   *
+   * @param idempotencyKey The idempotency key claimed for the send.
+   * @param sent           Whether the notification was sent.
+   */
+  private void completeIdempotencyKey(String idempotencyKey, boolean sent) {
+    if (sent) {
+      notificationDeduplicator.complete(idempotencyKey);
+    } else {
+      notificationDeduplicator.release(idempotencyKey);
+    }
+  }
+
+  /**
+   * Looks up the strategy for the type of a notification and records how long the lookup took.
+   *
+   * @param notificationRequestDto The notification request to be sent.
+   * @return The strategy for the notification type.
+   * @throws InvalidNotificationTypeException if the notification type is not supported.
+   */
+  private NotificationStrategy lookUpStrategy(NotificationRequestDto notificationRequestDto) {
+    long start = System.nanoTime();
+    NotificationStrategy strategy = notificationStrategyMap.get(notificationRequestDto.type());
+    if (strategy == null) {
+      InvalidNotificationTypeException error = new InvalidNotificationTypeException("NotificationStrategy", "type", notificationRequestDto.type());
+      notificationStageMetrics.record(NotificationStage.STRATEGY_LOOKUP, notificationRequestDto, System.nanoTime() - start, error);
+      throw error;
+    }
+    notificationStageMetrics.record(NotificationStage.STRATEGY_LOOKUP, notificationRequestDto, System.nanoTime() - start, null);
+    return strategy;
+  }
+
+  /**
+   * Sends a group of notifications of the same type and category through the matching strategy, so that the
+   * strategy can send them together, such as over one SMTP session. The group takes one place in the lane for each
+   * of its notifications while it is handed to the strategy, and waits for the outcome after giving the places
+   * back; if the places do not become free in time, the whole group fails without being attempted.
+   *
+   * @param group    The notification type and category shared by the requests.
+   * @param requests The notification requests to be sent.
+   * @return One result per request, in the same order as the requests.
+   */
+  private List<NotificationResult> sendGroup(SendGroup group, List<NotificationRequestDto> requests) {
+    NotificationStrategy strategy;
+    try {
+      strategy = lookUpStrategy(requests.get(0));
+    } catch (InvalidNotificationTypeException e) {
+      return requests.stream()
+              .map(dto -> NotificationResult.failure(dto, new InvalidNotificationTypeException("NotificationStrategy", "type", group.type())))
+              .toList();
+    }
+
+    CompletableFuture<List<NotificationResult>> submitted;
+    try (NotificationLanes.LanePermit ignored = notificationLanes.acquire(group.type(), group.category(), requests.size())) {
+      submitted = strategy.submitAll(requests);
+    } catch (RuntimeException e) {
+      return requests.stream().map(dto -> NotificationResult.failure(dto, e)).toList();
+    }
+    try {
+      return submitted.join();
+    } catch (CompletionException e) {
+      RuntimeException error = e.getCause() instanceof RuntimeException cause ? cause : e;
+      return requests.stream().map(dto -> NotificationResult.failure(dto, error)).toList();
+    }
+  }
+
+  /**
+   * Waits for a notification handed to its strategy to be sent.
+   *
+   * @param submitted The future of the notification.
+   * @throws RuntimeException The error the notification failed with.
+   */
+  private void await(CompletableFuture<Void> submitted) {
+    try {
+      submitted.join();
+    } catch (CompletionException e) {
+      throw e.getCause() instanceof RuntimeException cause ? cause : e;
+    }
+  }
+
+  /**
+   * The notification type and category shared by the notifications of a chunk.
+   *
+   * @param type     The notification type.
+   * @param category The notification category.
+   */
+  private record SendGroup(NotificationTypeEnum type, NotificationCategoryEnum category) {
   }
 }
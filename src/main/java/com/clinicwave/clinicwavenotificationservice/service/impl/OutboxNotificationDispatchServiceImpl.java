@@ -0,0 +1,237 @@
+package com.clinicwave.clinicwavenotificationservice.service.impl;
+
+import com.clinicwave.clinicwavenotificationservice.domain.NotificationOutbox;
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.exception.NotificationQueueFullException;
+import com.clinicwave.clinicwavenotificationservice.outbox.NotificationOutboxDispatcher;
+import com.clinicwave.clinicwavenotificationservice.repository.NotificationOutboxRepository;
+import com.clinicwave.clinicwavenotificationservice.service.NotificationDispatchService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is a service class that writes notifications to the durable outbox, from which the
+ * {@link NotificationOutboxDispatcher} sends them, so that accepted notifications survive a restart.
+ * <p>
+ * Callers only get their tracking ID once their notification is committed, but they do not each pay for a
+ * transaction: a single writer thread takes all the notifications waiting at that moment and inserts them in
+ * one transaction and JDBC batch, so the more requests arrive together, the fewer round trips each costs.
+ * When more notifications wait to be written than the queue holds, requests are rejected so that callers back
+ * off.
+ *
+ * @author agent on 10/18/26
+ */
+@Service
+@ConditionalOnProperty(name = "notification.outbox.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class OutboxNotificationDispatchServiceImpl implements NotificationDispatchService {
+  private static final long POLL_INTERVAL_MILLIS = 100;
+
+  private final NotificationOutboxRepository notificationOutboxRepository;
+  private final NotificationOutboxDispatcher notificationOutboxDispatcher;
+  private final TransactionTemplate transactionTemplate;
+  private final ObjectMapper objectMapper;
+  private final BlockingQueue<PendingWrite> queue;
+  private final ExecutorService writer;
+  private final int batchSize;
+  private final int queueCapacity;
+  private final Duration retryAfter;
+  private final Duration shutdownTimeout;
+  private volatile boolean running = true;
+
+  private final Timer writeTimer;
+  private final DistributionSummary batchSizeSummary;
+  private final Counter rejectedCounter;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param notificationOutboxRepository The repository of the outbox.
+   * @param notificationOutboxDispatcher The dispatcher told about newly written notifications.
+   * @param transactionManager           The transaction manager of the outbox's datasource.
+   * @param objectMapper                 The ObjectMapper used to write the template variables.
+   * @param meterRegistry                The registry used to expose the outbox write metrics.
+   * @param batchSize                    The maximum number of notifications inserted in one transaction.
+   * @param queueCapacity                The maximum number of notifications waiting to be written.
+   * @param retryAfter                   The delay suggested to callers when the queue is full.
+   * @param shutdownTimeout              How long to wait for waiting notifications to be written on shutdown.
+   */
+  @Autowired
+  public OutboxNotificationDispatchServiceImpl(NotificationOutboxRepository notificationOutboxRepository,
+                                               NotificationOutboxDispatcher notificationOutboxDispatcher,
+                                               PlatformTransactionManager transactionManager,
+                                               ObjectMapper objectMapper,
+                                               MeterRegistry meterRegistry,
+                                               @Value("${notification.outbox.write.batch-size:50}") int batchSize,
+                                               @Value("${notification.dispatch.queue-capacity:1000}") int queueCapacity,
+                                               @Value("${notification.dispatch.retry-after:PT5S}") Duration retryAfter,
+                                               @Value("${notification.dispatch.shutdown-timeout:PT30S}") Duration shutdownTimeout) {
+    this.notificationOutboxRepository = notificationOutboxRepository;
+    this.notificationOutboxDispatcher = notificationOutboxDispatcher;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.objectMapper = objectMapper;
+    this.batchSize = batchSize;
+    this.queueCapacity = queueCapacity;
+    this.retryAfter = retryAfter;
+    this.shutdownTimeout = shutdownTimeout;
+    this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+    this.writeTimer = Timer.builder("notification.outbox.write")
+            .description("Time to insert a batch of notifications into the outbox")
+            .register(meterRegistry);
+    this.batchSizeSummary = DistributionSummary.builder("notification.outbox.write.batch-size")
+            .description("Notifications inserted into the outbox per transaction")
+            .register(meterRegistry);
+    this.rejectedCounter = Counter.builder("notification.dispatch.rejected")
+            .description("Notifications rejected because the dispatch queue was full")
+            .register(meterRegistry);
+
+    this.writer = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("notification-outbox-writer-"));
+    this.writer.execute(this::writeContinuously);
+  }
+
+  /**
+   * Writes a notification to the outbox, returning once it has been committed.
+   *
+   * @param notificationRequestDto The notification request to be sent.
+   * @return The tracking ID assigned to the notification.
+   * @throws NotificationQueueFullException If too many notifications are waiting to be written.
+   */
+  @Override
+  public String dispatch(NotificationRequestDto notificationRequestDto) {
+    String trackingId = UUID.randomUUID().toString();
+    PendingWrite pendingWrite = new PendingWrite(toOutbox(trackingId, notificationRequestDto), new CompletableFuture<>());
+    if (!running || !queue.offer(pendingWrite)) {
+      rejectedCounter.increment();
+      log.warn("Notification outbox queue is full, rejecting notification to: {}", notificationRequestDto.recipient());
+      throw new NotificationQueueFullException(queueCapacity, retryAfter);
+    }
+
+    try {
+      pendingWrite.written().join();
+    } catch (CompletionException e) {
+      throw e.getCause() instanceof RuntimeException cause ? cause : e;
+    }
+    log.debug("Notification {} written to the outbox for: {}", trackingId, notificationRequestDto.recipient());
+    return trackingId;
+  }
+
+  /**
+   * Stops accepting notifications and waits for the waiting ones to be written.
+   */
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    running = false;
+    writer.shutdown();
+    if (!writer.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+      log.warn("{} notifications were not written to the outbox before shutdown", queue.size());
+      writer.shutdownNow();
+    }
+  }
+
+  /**
+   * Writes the waiting notifications in batches until the service is shut down and the queue is empty.
+   */
+  private void writeContinuously() {
+    List<PendingWrite> batch = new ArrayList<>(batchSize);
+    while (running || !queue.isEmpty()) {
+      try {
+        PendingWrite first = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        queue.drainTo(batch, batchSize - 1);
+        write(batch);
+        batch.clear();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  /**
+   * Inserts a batch of notifications in one transaction and tells their callers the outcome.
+   *
+   * @param batch The notifications to insert.
+   */
+  private void write(List<PendingWrite> batch) {
+    long start = System.nanoTime();
+    try {
+      List<NotificationOutbox> notificationOutboxes = batch.stream().map(PendingWrite::notificationOutbox).toList();
+      transactionTemplate.executeWithoutResult(status -> notificationOutboxRepository.saveAll(notificationOutboxes));
+    } catch (RuntimeException e) {
+      log.error("Failed to write {} notifications to the outbox", batch.size(), e);
+      batch.forEach(pendingWrite -> pendingWrite.written().completeExceptionally(e));
+      return;
+    }
+    writeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    batchSizeSummary.record(batch.size());
+    notificationOutboxDispatcher.wakeUp();
+    batch.forEach(pendingWrite -> pendingWrite.written().complete(null));
+  }
+
+  /**
+   * Converts a notification request into an outbox row that is available right away.
+   *
+   * @param trackingId             The tracking ID of the notification.
+   * @param notificationRequestDto The notification request.
+   * @return The outbox row.
+   */
+  private NotificationOutbox toOutbox(String trackingId, NotificationRequestDto notificationRequestDto) {
+    NotificationOutbox notificationOutbox = new NotificationOutbox();
+    notificationOutbox.setTrackingId(trackingId);
+    notificationOutbox.setRecipient(notificationRequestDto.recipient());
+    notificationOutbox.setSubject(notificationRequestDto.subject());
+    notificationOutbox.setTemplateName(notificationRequestDto.templateName());
+    notificationOutbox.setType(notificationRequestDto.type());
+    notificationOutbox.setCategory(notificationRequestDto.category());
+    notificationOutbox.setIdempotencyKey(notificationRequestDto.idempotencyKey());
+    notificationOutbox.setSendAt(notificationRequestDto.sendAt());
+    notificationOutbox.setAvailableAt(LocalDateTime.now());
+    if (notificationRequestDto.templateVariables() != null) {
+      try {
+        notificationOutbox.setTemplateVariables(objectMapper.writeValueAsString(notificationRequestDto.templateVariables()));
+      } catch (JsonProcessingException e) {
+        throw new IllegalArgumentException("Template variables cannot be written as JSON", e);
+      }
+    }
+    return notificationOutbox;
+  }
+
+  /**
+   * A notification waiting to be written, with the future its caller waits on.
+   *
+   * @param notificationOutbox The outbox row to insert.
+   * @param written            Completed once the row has been committed.
+   */
+  private record PendingWrite(NotificationOutbox notificationOutbox, CompletableFuture<Void> written) {
+  }
+}
@@ -2,44 +2,240 @@ package com.clinicwave.clinicwavenotificationservice.service.impl;
 
 import com.clinicwave.clinicwavenotificationservice.domain.SmtpSetting;
 import com.clinicwave.clinicwavenotificationservice.exception.ResourceNotFoundException;
+import com.clinicwave.clinicwavenotificationservice.mail.BalancedJavaMailSender;
+import com.clinicwave.clinicwavenotificationservice.mail.PooledJavaMailSender;
+import com.clinicwave.clinicwavenotificationservice.ratelimit.RateLimiter;
+import com.clinicwave.clinicwavenotificationservice.mail.SmtpRelayHealth;
+import com.clinicwave.clinicwavenotificationservice.mail.SmtpRelayHealthSettings;
+import com.clinicwave.clinicwavenotificationservice.mail.SmtpStageTimers;
+import com.clinicwave.clinicwavenotificationservice.mail.SmtpTransportPool;
+import com.clinicwave.clinicwavenotificationservice.mail.SmtpTransportPoolSettings;
+import com.clinicwave.clinicwavenotificationservice.metrics.NotificationStage;
+import com.clinicwave.clinicwavenotificationservice.metrics.NotificationStageMetrics;
 import com.clinicwave.clinicwavenotificationservice.repository.SmtpSettingRepository;
 import com.clinicwave.clinicwavenotificationservice.service.SmtpSettingService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * This class is a service class for the SmtpSetting entity.
  * It provides methods to create a JavaMailSender object.
+ * <p>
+ * The JavaMailSender is built once from the active SmtpSetting entities and cached until the settings change.
+ * Changes are picked up either through an explicit refresh or through a periodic check of the audited updatedAt timestamps.
+ * The cached sender keeps a pool of open SMTP connections per relay. When the sender is invalidated, its pools
+ * stop lending connections and close each one as it is returned, so sends still running on it complete.
+ * <p>
+ * When several SmtpSetting entities are active, each one is a relay and sends are balanced over them by weight
+ * through a {@link BalancedJavaMailSender}. Each relay's load, latency and error rate are exposed as gauges,
+ * and relays that keep failing are taken out of rotation until they recover. Each relay also enforces the
+ * per-second and per-hour message limits of its SmtpSetting; messages over the limit wait for their turn, up to
+ * {@code notification.smtp.rate-limit.max-wait}, and fail to be retried later beyond it. The rate limiter of a relay
+ * is kept when the sender is rebuilt, as long as its limits are unchanged, so that a rebuild does not reset the
+ * budget of the relay.
+ * The database lookups of the settings and the connections and sends of every relay are timed per stage.
  *
  * @author aamir on 7/8/24
  */
 @Service
+@Slf4j
 public class SmtpSettingServiceImpl implements SmtpSettingService {
   private final SmtpSettingRepository smtpSettingRepository;
+  private final SmtpTransportPoolSettings smtpTransportPoolSettings;
+  private final SmtpRelayHealthSettings smtpRelayHealthSettings;
+  private final MeterRegistry meterRegistry;
+  private final Duration maxRateLimitWait;
+  private final AtomicReference<CachedMailSender> cachedMailSender = new AtomicReference<>();
+  private final Map<Long, RelayRateLimiter> rateLimiters = new ConcurrentHashMap<>();
+  private final Meter.MeterProvider<Timer> dbLookupTimer;
+
+  private final Counter cacheHitCounter;
+  private final Counter cacheMissCounter;
+  private final Counter rebuildCounter;
 
   /**
    * Constructor for dependency injection.
    *
-   * @param smtpSettingRepository The repository for SmtpSetting entities.
+   * @param smtpSettingRepository     The repository for SmtpSetting entities.
+   * @param smtpTransportPoolSettings The settings of the SMTP connection pools backing the mail sender.
+   * @param smtpRelayHealthSettings   The settings deciding when a relay is taken out of rotation.
+   * @param meterRegistry             The registry used to expose the mail sender cache and relay metrics.
+   * @param maxRateLimitWait          The longest a message waits for the rate limit of its relay before it fails.
    */
   @Autowired
-  public SmtpSettingServiceImpl(SmtpSettingRepository smtpSettingRepository) {
+  public SmtpSettingServiceImpl(SmtpSettingRepository smtpSettingRepository,
+                                SmtpTransportPoolSettings smtpTransportPoolSettings,
+                                SmtpRelayHealthSettings smtpRelayHealthSettings,
+                                MeterRegistry meterRegistry,
+                                @Value("${notification.smtp.rate-limit.max-wait:PT5S}") Duration maxRateLimitWait) {
     this.smtpSettingRepository = smtpSettingRepository;
+    this.smtpTransportPoolSettings = smtpTransportPoolSettings;
+    this.smtpRelayHealthSettings = smtpRelayHealthSettings;
+    this.meterRegistry = meterRegistry;
+    this.maxRateLimitWait = maxRateLimitWait;
+    this.cacheHitCounter = Counter.builder("notification.smtp.mail-sender.cache")
+            .description("Lookups of the cached JavaMailSender")
+            .tag("result", "hit")
+            .register(meterRegistry);
+    this.cacheMissCounter = Counter.builder("notification.smtp.mail-sender.cache")
+            .description("Lookups of the cached JavaMailSender")
+            .tag("result", "miss")
+            .register(meterRegistry);
+    this.rebuildCounter = Counter.builder("notification.smtp.mail-sender.rebuilds")
+            .description("Number of times the JavaMailSender was rebuilt from the active SmtpSetting")
+            .register(meterRegistry);
+    Gauge.builder("notification.smtp.pool.idle", cachedMailSender, SmtpSettingServiceImpl::getIdleConnections)
+            .description("Idle SMTP connections held by the connection pools")
+            .register(meterRegistry);
+    this.dbLookupTimer = NotificationStage.DB_LOOKUP.timer().withRegistry(meterRegistry);
   }
 
   /**
-   * Creates a JavaMailSender object using the active SmtpSetting entity.
+   * Returns the JavaMailSender for the active SmtpSetting entities.
+   * The database is only queried when no sender is cached yet or the cached one has been invalidated.
    *
    * @return A JavaMailSender object.
    */
   @Override
   public JavaMailSender createMailSender() {
-    SmtpSetting setting = getActiveSmtpSetting();
-    JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+    CachedMailSender cached = cachedMailSender.get();
+    if (cached != null) {
+      cacheHitCounter.increment();
+      return cached.mailSender();
+    }
+
+    cacheMissCounter.increment();
+    synchronized (cachedMailSender) {
+      // Another thread may have rebuilt the sender while we were waiting for the lock.
+      cached = cachedMailSender.get();
+      if (cached == null) {
+        cached = buildCachedMailSender(getActiveSmtpSettings());
+        cachedMailSender.set(cached);
+        rebuildCounter.increment();
+        log.info("JavaMailSender built for SmtpSetting ids: {}", cached.settingVersions().keySet());
+      }
+      return cached.mailSender();
+    }
+  }
+
+  /**
+   * Invalidates the cached JavaMailSender so that the next call to {@link #createMailSender()} rebuilds it.
+   */
+  @Override
+  public void refreshMailSender() {
+    CachedMailSender evicted = cachedMailSender.getAndSet(null);
+    if (evicted != null) {
+      close(evicted);
+      log.info("JavaMailSender for SmtpSetting ids: {} invalidated", evicted.settingVersions().keySet());
+    }
+  }
+
+  /**
+   * Periodically compares the cached JavaMailSender with the active SmtpSetting entities.
+   * The cache is invalidated when a setting was activated, deactivated or updated.
+   */
+  @Scheduled(fixedDelayString = "${notification.smtp.mail-sender-cache.check-interval:PT30S}")
+  public void checkForSmtpSettingChanges() {
+    CachedMailSender cached = cachedMailSender.get();
+    if (cached == null) {
+      return;
+    }
+
+    boolean unchanged = getSettingVersions(findActiveSmtpSettings("smtp-setting-change-check")).equals(cached.settingVersions());
+    if (!unchanged && cachedMailSender.compareAndSet(cached, null)) {
+      close(cached);
+      log.info("Active SmtpSettings changed, JavaMailSender for SmtpSetting ids: {} invalidated", cached.settingVersions().keySet());
+    }
+  }
+
+  /**
+   * Periodically closes pooled SMTP connections that have been idle for too long.
+   */
+  @Scheduled(fixedDelayString = "${notification.smtp.pool.eviction-interval:PT30S}")
+  public void evictIdleConnections() {
+    CachedMailSender cached = cachedMailSender.get();
+    if (cached != null) {
+      cached.relays().forEach(relay -> relay.getTransportPool().evictIdle());
+    }
+  }
+
+  /**
+   * Closes the pooled SMTP connections on shutdown.
+   */
+  @PreDestroy
+  public void closeMailSender() {
+    refreshMailSender();
+  }
+
+  /**
+   * Builds the JavaMailSender for the given SmtpSetting entities: a pooled sender for a single relay, or a
+   * balanced sender spreading sends over several relays.
+   *
+   * @param settings The active SmtpSetting entities.
+   * @return The JavaMailSender together with the relays and meters backing it.
+   */
+  private CachedMailSender buildCachedMailSender(List<SmtpSetting> settings) {
+    List<PooledJavaMailSender> relays = new ArrayList<>(settings.size());
+    List<BalancedJavaMailSender.Relay> balancedRelays = new ArrayList<>(settings.size());
+    List<Meter> meters = new ArrayList<>();
+    for (SmtpSetting setting : settings) {
+      int maxConcurrency = setting.getMaxConcurrency() != null ? setting.getMaxConcurrency() : smtpTransportPoolSettings.maxSize();
+      SmtpStageTimers stageTimers = SmtpStageTimers.register(meterRegistry, relayTags(setting));
+      PooledJavaMailSender relay = buildMailSender(setting, maxConcurrency, stageTimers);
+      relays.add(relay);
+      balancedRelays.add(new BalancedJavaMailSender.Relay(relay, Math.max(1, setting.getWeight()), maxConcurrency));
+      meters.addAll(registerRelayMeters(setting, relay));
+      meters.addAll(stageTimers.meters());
+    }
+
+    // Forget the rate limiters of relays that are no longer active.
+    rateLimiters.keySet().retainAll(getSettingVersions(settings).keySet());
+
+    JavaMailSender mailSender = relays.size() == 1 ? relays.get(0) : new BalancedJavaMailSender(balancedRelays);
+    return new CachedMailSender(getSettingVersions(settings), mailSender, List.copyOf(relays), meters);
+  }
+
+  /**
+   * Builds a pooled JavaMailSender object from the given SmtpSetting entity.
+   *
+   * @param setting        The SmtpSetting entity.
+   * @param maxConcurrency The maximum number of connections to the relay.
+   * @param stageTimers    The timers of the connections and sends to the relay.
+   * @return A PooledJavaMailSender object.
+   */
+  private PooledJavaMailSender buildMailSender(SmtpSetting setting, int maxConcurrency, SmtpStageTimers stageTimers) {
+    SmtpTransportPoolSettings poolSettings = new SmtpTransportPoolSettings(maxConcurrency,
+            smtpTransportPoolSettings.borrowTimeout(), smtpTransportPoolSettings.maxIdle(),
+            smtpTransportPoolSettings.maxMessagesPerConnection(), smtpTransportPoolSettings.validateAfterIdle());
+    SmtpRelayHealth health = new SmtpRelayHealth(setting.getHost() + ":" + setting.getPort(), smtpRelayHealthSettings);
+    RateLimiter rateLimiter = getRateLimiter(setting);
+
+    PooledJavaMailSender mailSender = new PooledJavaMailSender(poolSettings, health, rateLimiter, maxRateLimitWait, stageTimers);
     mailSender.setHost(setting.getHost());
     mailSender.setPort(setting.getPort());
     mailSender.setUsername(setting.getUsername());
@@ -55,13 +251,162 @@ public class SmtpSettingServiceImpl implements SmtpSettingService {
   }
 
   /**
-   * Retrieves the active SmtpSetting entity.
+   * Returns the rate limiter of a relay, keeping the one of an earlier sender if the limits of the relay are the
+   * same, so that the messages it already let through still count against them.
+   *
+   * @param setting The SmtpSetting entity of the relay.
+   * @return The rate limiter of the relay.
+   */
+  private RateLimiter getRateLimiter(SmtpSetting setting) {
+    return rateLimiters.compute(setting.getId(), (id, existing) ->
+            existing != null && existing.hasLimits(setting)
+                    ? existing
+                    : new RelayRateLimiter(setting.getMaxMessagesPerSecond(), setting.getMaxMessagesPerHour(),
+                    RateLimiter.of(setting.getMaxMessagesPerSecond(), setting.getMaxMessagesPerHour()))
+    ).rateLimiter();
+  }
+
+  /**
+   * Registers the load, latency, error rate, availability, rate limit and connection pool meters of a relay.
    *
-   * @return The active SmtpSetting entity.
+   * @param setting The SmtpSetting entity of the relay.
+   * @param relay   The pooled sender for the relay.
+   * @return The registered meters, to be removed when the relay is closed.
+   */
+  private List<Meter> registerRelayMeters(SmtpSetting setting, PooledJavaMailSender relay) {
+    Tags tags = relayTags(setting);
+    SmtpRelayHealth health = relay.getHealth();
+    return List.of(
+            FunctionTimer.builder("notification.smtp.relay.throttled", relay.getRateLimiter(),
+                            RateLimiter::getThrottledCount, rateLimiter -> rateLimiter.getThrottledTime(TimeUnit.NANOSECONDS),
+                            TimeUnit.NANOSECONDS)
+                    .description("Messages that waited for the SMTP relay's rate limit, and how long they waited")
+                    .tags(tags)
+                    .register(meterRegistry),
+            FunctionCounter.builder("notification.smtp.relay.rate-limited", relay.getRateLimiter(), RateLimiter::getRejectedCount)
+                    .description("Messages that failed because they would have waited too long for the SMTP relay's rate limit")
+                    .tags(tags)
+                    .register(meterRegistry),
+            FunctionCounter.builder("notification.smtp.relay.pool-timeouts", relay.getTransportPool(),
+                            SmtpTransportPool::getBorrowTimeoutCount)
+                    .description("Messages that failed because no pooled connection to the SMTP relay became free in time")
+                    .tags(tags)
+                    .register(meterRegistry),
+            Gauge.builder("notification.smtp.relay.in-flight", health, SmtpRelayHealth::getInFlight)
+                    .description("Sends in progress on the SMTP relay")
+                    .tags(tags)
+                    .register(meterRegistry),
+            Gauge.builder("notification.smtp.relay.latency", health, SmtpRelayHealth::getLatencyMillis)
+                    .description("Smoothed time a send to the SMTP relay takes")
+                    .baseUnit("milliseconds")
+                    .tags(tags)
+                    .register(meterRegistry),
+            Gauge.builder("notification.smtp.relay.error-rate", health, SmtpRelayHealth::getErrorRate)
+                    .description("Smoothed share of sends the SMTP relay failed")
+                    .tags(tags)
+                    .register(meterRegistry),
+            Gauge.builder("notification.smtp.relay.available", health, relayHealth -> relayHealth.isAvailable() ? 1 : 0)
+                    .description("Whether the SMTP relay is in rotation")
+                    .tags(tags)
+                    .register(meterRegistry)
+    );
+  }
+
+  /**
+   * Returns the tags identifying a relay in its meters.
+   *
+   * @param setting The SmtpSetting entity of the relay.
+   * @return The relay tags.
+   */
+  private static Tags relayTags(SmtpSetting setting) {
+    return Tags.of("relay", String.valueOf(setting.getId()), "host", setting.getHost());
+  }
+
+  /**
+   * Closes the connection pools of a cached JavaMailSender and removes its relay meters.
+   *
+   * @param cached The cached JavaMailSender.
+   */
+  private void close(CachedMailSender cached) {
+    cached.relays().forEach(PooledJavaMailSender::close);
+    cached.meters().forEach(meterRegistry::remove);
+  }
+
+  /**
+   * Retrieves the active SmtpSetting entities.
+   *
+   * @return The active SmtpSetting entities, ordered by ID.
    * @throws ResourceNotFoundException If no active SmtpSetting entity is found.
    */
-  private SmtpSetting getActiveSmtpSetting() {
-    return smtpSettingRepository.findByIsActiveTrue()
-            .orElseThrow(() -> new ResourceNotFoundException("SmtpSetting", "isActive", "true"));
+  private List<SmtpSetting> getActiveSmtpSettings() {
+    List<SmtpSetting> settings = findActiveSmtpSettings("smtp-setting-load");
+    if (settings.isEmpty()) {
+      throw new ResourceNotFoundException("SmtpSetting", "isActive", "true");
+    }
+    return settings;
+  }
+
+  /**
+   * Queries the active SmtpSetting entities and records how long the query took.
+   *
+   * @param query The name the query is timed under.
+   * @return The active SmtpSetting entities, ordered by ID.
+   */
+  private List<SmtpSetting> findActiveSmtpSettings(String query) {
+    long start = System.nanoTime();
+    Throwable error = null;
+    try {
+      return smtpSettingRepository.findAllByIsActiveTrueOrderByIdAsc();
+    } catch (RuntimeException e) {
+      error = e;
+      throw e;
+    } finally {
+      dbLookupTimer.withTags("query", query, "outcome", NotificationStageMetrics.outcome(error))
+              .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * Maps the IDs of the given SmtpSetting entities to their last update, identifying the settings a
+   * JavaMailSender was built from.
+   *
+   * @param settings The SmtpSetting entities.
+   * @return The last update of every setting, by ID.
+   */
+  private static Map<Long, LocalDateTime> getSettingVersions(List<SmtpSetting> settings) {
+    Map<Long, LocalDateTime> settingVersions = new LinkedHashMap<>();
+    settings.forEach(setting -> settingVersions.put(setting.getId(), setting.getUpdatedAt()));
+    return settingVersions;
+  }
+
+  /**
+   * Counts the idle connections of every relay of the cached JavaMailSender.
+   *
+   * @param cachedMailSender The reference holding the cached JavaMailSender.
+   * @return The number of idle connections.
+   */
+  private static int getIdleConnections(AtomicReference<CachedMailSender> cachedMailSender) {
+    CachedMailSender cached = cachedMailSender.get();
+    if (cached == null) {
+      return 0;
+    }
+    return cached.relays().stream().mapToInt(relay -> relay.getTransportPool().getIdleCount()).sum();
+  }
+
+  /**
+   * The rate limiter of a relay together with the limits it enforces.
+   */
+  private record RelayRateLimiter(Integer maxMessagesPerSecond, Integer maxMessagesPerHour, RateLimiter rateLimiter) {
+    private boolean hasLimits(SmtpSetting setting) {
+      return Objects.equals(maxMessagesPerSecond, setting.getMaxMessagesPerSecond())
+              && Objects.equals(maxMessagesPerHour, setting.getMaxMessagesPerHour());
+    }
+  }
+
+  /**
+   * A JavaMailSender together with the SmtpSetting entities it was built from, its relays and their meters.
+   */
+  private record CachedMailSender(Map<Long, LocalDateTime> settingVersions, JavaMailSender mailSender,
+                                  List<PooledJavaMailSender> relays, List<Meter> meters) {
   }
 }
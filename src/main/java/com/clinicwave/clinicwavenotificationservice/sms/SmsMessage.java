@@ -0,0 +1,11 @@
+package com.clinicwave.clinicwavenotificationservice.sms;
+
+/**
+ * This record represents a single SMS handed to an {@link SmsProviderClient}.
+ *
+ * @param to   The phone number of the recipient, in E.164 format.
+ * @param text The text of the message.
+ * @author agent on 10/18/26
+ */
+public record SmsMessage(String to, String text) {
+}
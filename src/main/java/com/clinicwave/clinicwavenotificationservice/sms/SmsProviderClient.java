@@ -0,0 +1,408 @@
+package com.clinicwave.clinicwavenotificationservice.sms;
+
+import com.clinicwave.clinicwavenotificationservice.exception.SmsSendingException;
+import com.clinicwave.clinicwavenotificationservice.ratelimit.RateLimiter;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class sends SMS through a provider's bulk-send HTTP API, gathering the messages handed to it into
+ * batches.
+ * <p>
+ * A batch is sent as soon as it holds {@code maxBatchSize} messages, or once its first message has waited
+ * {@code maxBatchDelay}, so that concurrent senders share requests without a lone message waiting long.
+ * Requests are sent with a non-blocking HTTP client that keeps its connections to the provider open between
+ * requests, and every batch takes its messages' tokens from the provider's rate limiter before it is sent; a
+ * batch that has to wait for them is scheduled for later rather than holding a thread. A message that would
+ * wait longer than {@code maxRateLimitWait} for its token fails right away instead.
+ * <p>
+ * The provider is expected to accept {@code {"from": ..., "messages": [{"to": ..., "text": ...}]}} and to
+ * answer with one {@code {"status": "accepted" | "rejected", "error": ...}} entry per message, in order.
+ * A rejected message fails on its own; a failed request fails every message of its batch.
+ *
+ * @author agent on 10/18/26
+ */
+@Slf4j
+public class SmsProviderClient implements AutoCloseable {
+  private static final String ACCEPTED = "accepted";
+
+  private final SmsProviderSettings settings;
+  private final HttpClient httpClient;
+  private final ObjectMapper objectMapper;
+  private final RateLimiter rateLimiter;
+  private final ScheduledExecutorService scheduler;
+  private final Object lock = new Object();
+  private List<PendingSms> pending = new ArrayList<>();
+  private ScheduledFuture<?> scheduledFlush;
+  private boolean closed;
+
+  private final Counter acceptedCounter;
+  private final Counter rejectedCounter;
+  private final Counter failedCounter;
+  private final Timer requestTimer;
+  private final Timer failedRequestTimer;
+  private final DistributionSummary batchSizeSummary;
+
+  /**
+   * Constructor for the client.
+   *
+   * @param settings      The settings of the provider.
+   * @param httpClient    The HTTP client the requests are sent with; it is closed with this client.
+   * @param objectMapper  The ObjectMapper used to write requests and read responses.
+   * @param meterRegistry The registry used to expose the provider metrics.
+   */
+  public SmsProviderClient(SmsProviderSettings settings, HttpClient httpClient, ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry) {
+    this.settings = settings;
+    this.httpClient = httpClient;
+    this.objectMapper = objectMapper;
+    this.rateLimiter = RateLimiter.of(settings.maxMessagesPerSecond(), null);
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("sms-batcher-"));
+
+    this.acceptedCounter = messageCounter(meterRegistry, "accepted");
+    this.rejectedCounter = messageCounter(meterRegistry, "rejected");
+    this.failedCounter = messageCounter(meterRegistry, "failed");
+    this.requestTimer = requestTimer(meterRegistry, "success");
+    this.failedRequestTimer = requestTimer(meterRegistry, "failure");
+    this.batchSizeSummary = DistributionSummary.builder("notification.sms.batch.size")
+            .description("Messages sent to the SMS provider per request")
+            .tag("provider", settings.name())
+            .register(meterRegistry);
+    FunctionTimer.builder("notification.sms.provider.throttled", rateLimiter,
+                    RateLimiter::getThrottledCount, limiter -> limiter.getThrottledTime(TimeUnit.NANOSECONDS),
+                    TimeUnit.NANOSECONDS)
+            .description("Messages that waited for the SMS provider's rate limit, and how long they waited")
+            .tag("provider", settings.name())
+            .register(meterRegistry);
+    FunctionCounter.builder("notification.sms.provider.rate-limited", rateLimiter, RateLimiter::getRejectedCount)
+            .description("Messages that failed because they would have waited too long for the SMS provider's rate limit")
+            .tag("provider", settings.name())
+            .register(meterRegistry);
+  }
+
+  /**
+   * Returns the name of the provider this client sends to.
+   *
+   * @return The provider name.
+   */
+  public String getProviderName() {
+    return settings.name();
+  }
+
+  /**
+   * Adds a message to the current batch, which is sent once it is full or has waited long enough.
+   *
+   * @param smsMessage The message to be sent.
+   * @return A future completed once the provider accepted the message, or completed exceptionally with an
+   * SmsSendingException if it did not.
+   */
+  public CompletableFuture<Void> send(SmsMessage smsMessage) {
+    return sendAll(List.of(smsMessage)).get(0);
+  }
+
+  /**
+   * Returns the longest time a message can take from being handed to this client until the provider answered
+   * for it: its batch delay, its wait for the rate limit, and the connection and request timeouts.
+   *
+   * @return The send timeout.
+   */
+  public Duration getSendTimeout() {
+    return settings.maxBatchDelay()
+            .plus(settings.maxRateLimitWait())
+            .plus(httpClient.connectTimeout().orElse(Duration.ZERO))
+            .plus(settings.requestTimeout());
+  }
+
+  /**
+   * Stops accepting messages, sends the current batch and waits for the requests in flight, at most for the
+   * request timeout, before closing the HTTP client.
+   */
+  @Override
+  public void close() {
+    List<PendingSms> batch;
+    synchronized (lock) {
+      closed = true;
+      batch = takePending();
+    }
+    if (!batch.isEmpty()) {
+      dispatch(batch);
+    }
+    scheduler.shutdown();
+    try {
+      if (!scheduler.awaitTermination(settings.requestTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+        log.warn("SMS batches for provider {} were still waiting for the rate limit at shutdown", settings.name());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    httpClient.close();
+  }
+
+  /**
+   * Adds messages to the batches, sending every batch that fills up. The last, partly filled batch is sent
+   * once its first message has waited long enough, so that messages handed over concurrently can share it.
+   *
+   * @param smsMessages The messages to be sent.
+   * @return One future per message, in the same order as the messages.
+   */
+  public List<CompletableFuture<Void>> sendAll(List<SmsMessage> smsMessages) {
+    List<CompletableFuture<Void>> futures = new ArrayList<>(smsMessages.size());
+    List<List<PendingSms>> batches = new ArrayList<>();
+    synchronized (lock) {
+      for (SmsMessage smsMessage : smsMessages) {
+        PendingSms pendingSms = new PendingSms(smsMessage, new CompletableFuture<>());
+        futures.add(pendingSms.sent());
+        if (closed) {
+          pendingSms.sent().completeExceptionally(
+                  new SmsSendingException(settings.name(), smsMessage.to(), "The SMS provider client is closed"));
+          continue;
+        }
+        pending.add(pendingSms);
+        if (pending.size() >= settings.maxBatchSize()) {
+          batches.add(takePending());
+        }
+      }
+      if (!pending.isEmpty() && scheduledFlush == null) {
+        scheduledFlush = scheduler.schedule(this::flush, settings.maxBatchDelay().toNanos(), TimeUnit.NANOSECONDS);
+      }
+    }
+    batches.forEach(this::dispatch);
+    return futures;
+  }
+
+  /**
+   * Sends the current batch once its first message has waited long enough.
+   */
+  private void flush() {
+    List<PendingSms> batch;
+    synchronized (lock) {
+      scheduledFlush = null;
+      batch = takePending();
+    }
+    if (!batch.isEmpty()) {
+      dispatch(batch);
+    }
+  }
+
+  /**
+   * Takes the current batch, cancelling its scheduled flush. Must be called while holding the lock.
+   *
+   * @return The messages of the current batch.
+   */
+  private List<PendingSms> takePending() {
+    List<PendingSms> batch = pending;
+    pending = new ArrayList<>(settings.maxBatchSize());
+    if (scheduledFlush != null) {
+      scheduledFlush.cancel(false);
+      scheduledFlush = null;
+    }
+    return batch;
+  }
+
+  /**
+   * Reserves the rate limit tokens of a batch and sends it, right away or once the tokens are available.
+   * Messages that would wait longer than the maximum rate limit wait for their token fail without being sent.
+   *
+   * @param batch The messages to be sent.
+   */
+  private void dispatch(List<PendingSms> batch) {
+    long maxWaitNanos = settings.maxRateLimitWait().toNanos();
+    long waitNanos = 0;
+    List<PendingSms> accepted = new ArrayList<>(batch.size());
+    List<PendingSms> rejected = new ArrayList<>();
+    for (PendingSms pendingSms : batch) {
+      long messageWaitNanos = rateLimiter.tryReserve(maxWaitNanos);
+      if (messageWaitNanos < 0) {
+        rejected.add(pendingSms);
+      } else {
+        accepted.add(pendingSms);
+        waitNanos = Math.max(waitNanos, messageWaitNanos);
+      }
+    }
+    if (!rejected.isEmpty()) {
+      fail(rejected, "SMS rate limit reached, the message would wait longer than " + settings.maxRateLimitWait());
+    }
+    if (accepted.isEmpty()) {
+      return;
+    }
+    if (waitNanos > 0 && !scheduler.isShutdown()) {
+      scheduler.schedule(() -> post(accepted), waitNanos, TimeUnit.NANOSECONDS);
+    } else {
+      post(accepted);
+    }
+  }
+
+  /**
+   * Sends a batch to the provider and completes the futures of its messages from the response.
+   *
+   * @param batch The messages to be sent.
+   */
+  private void post(List<PendingSms> batch) {
+    byte[] body;
+    try {
+      List<BulkSendMessage> messages = batch.stream()
+              .map(pendingSms -> new BulkSendMessage(pendingSms.smsMessage().to(), pendingSms.smsMessage().text()))
+              .toList();
+      body = objectMapper.writeValueAsBytes(new BulkSendRequest(settings.sender(), messages));
+    } catch (JsonProcessingException e) {
+      fail(batch, e.getMessage());
+      return;
+    }
+
+    HttpRequest request = HttpRequest.newBuilder(settings.bulkSendUri())
+            .timeout(settings.requestTimeout())
+            .header("Authorization", "Bearer " + settings.apiKey())
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+            .build();
+    long start = System.nanoTime();
+    batchSizeSummary.record(batch.size());
+    httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+            .whenComplete((response, error) -> {
+              long nanos = System.nanoTime() - start;
+              if (error != null) {
+                failedRequestTimer.record(nanos, TimeUnit.NANOSECONDS);
+                log.warn("SMS provider {} request with {} messages failed", settings.name(), batch.size(), error);
+                fail(batch, error.getMessage());
+              } else if (response.statusCode() / 100 != 2) {
+                failedRequestTimer.record(nanos, TimeUnit.NANOSECONDS);
+                log.warn("SMS provider {} answered a request with {} messages with status {}",
+                        settings.name(), batch.size(), response.statusCode());
+                fail(batch, "Provider answered with status " + response.statusCode());
+              } else {
+                requestTimer.record(nanos, TimeUnit.NANOSECONDS);
+                complete(batch, response.body());
+              }
+            });
+  }
+
+  /**
+   * Completes the futures of a batch from the provider's per-message results.
+   *
+   * @param batch The messages that were sent.
+   * @param body  The body of the provider's response.
+   */
+  private void complete(List<PendingSms> batch, byte[] body) {
+    List<BulkSendResult> results;
+    try {
+      BulkSendResponse response = objectMapper.readValue(body, BulkSendResponse.class);
+      results = response.results();
+    } catch (IOException e) {
+      fail(batch, "Unreadable provider response: " + e.getMessage());
+      return;
+    }
+    if (results == null || results.size() != batch.size()) {
+      fail(batch, "Provider answered with " + (results == null ? 0 : results.size()) + " results for " + batch.size() + " messages");
+      return;
+    }
+
+    for (int i = 0; i < batch.size(); i++) {
+      PendingSms pendingSms = batch.get(i);
+      BulkSendResult result = results.get(i);
+      if (ACCEPTED.equalsIgnoreCase(result.status())) {
+        acceptedCounter.increment();
+        pendingSms.sent().complete(null);
+      } else {
+        rejectedCounter.increment();
+        pendingSms.sent().completeExceptionally(new SmsSendingException(settings.name(), pendingSms.smsMessage().to(),
+                result.error() != null ? result.error() : "Rejected by the provider"));
+      }
+    }
+  }
+
+  /**
+   * Fails every message of a batch.
+   *
+   * @param batch        The messages that were not sent.
+   * @param errorDetails The details of the error that occurred.
+   */
+  private void fail(List<PendingSms> batch, String errorDetails) {
+    failedCounter.increment(batch.size());
+    for (PendingSms pendingSms : batch) {
+      pendingSms.sent().completeExceptionally(new SmsSendingException(settings.name(), pendingSms.smsMessage().to(), errorDetails));
+    }
+  }
+
+  private Counter messageCounter(MeterRegistry meterRegistry, String outcome) {
+    return Counter.builder("notification.sms.messages")
+            .description("Messages handed to the SMS provider, by whether it accepted them")
+            .tags("provider", settings.name(), "outcome", outcome)
+            .register(meterRegistry);
+  }
+
+  private Timer requestTimer(MeterRegistry meterRegistry, String outcome) {
+    return Timer.builder("notification.sms.batch.request")
+            .description("Time for the SMS provider to answer a bulk-send request")
+            .tags("provider", settings.name(), "outcome", outcome)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+  }
+
+  /**
+   * A message waiting to be sent, with the future its sender waits on.
+   *
+   * @param smsMessage The message.
+   * @param sent       Completed once the provider answered for the message.
+   */
+  private record PendingSms(SmsMessage smsMessage, CompletableFuture<Void> sent) {
+  }
+
+  /**
+   * The body of a bulk-send request.
+   *
+   * @param from     The sender of the messages.
+   * @param messages The messages.
+   */
+  private record BulkSendRequest(String from, List<BulkSendMessage> messages) {
+  }
+
+  /**
+   * A message in a bulk-send request.
+   *
+   * @param to   The phone number of the recipient.
+   * @param text The text of the message.
+   */
+  private record BulkSendMessage(String to, String text) {
+  }
+
+  /**
+   * The body of a bulk-send response.
+   *
+   * @param results The result of every message, in the order of the request.
+   */
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  private record BulkSendResponse(List<BulkSendResult> results) {
+  }
+
+  /**
+   * The result of a message in a bulk-send response.
+   *
+   * @param status Whether the message was accepted or rejected.
+   * @param error  Why the message was rejected, if it was.
+   */
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  private record BulkSendResult(String status, String error) {
+  }
+}
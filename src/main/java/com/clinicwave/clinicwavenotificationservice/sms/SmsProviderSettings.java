@@ -0,0 +1,39 @@
+package com.clinicwave.clinicwavenotificationservice.sms;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * This record holds the settings of the SMS provider an {@link SmsProviderClient} sends to.
+ *
+ * @author agent on 10/18/26
+ */
+public record SmsProviderSettings(
+        // The name of the provider, used to tag its metrics
+        String name,
+
+        // The URI of the provider's bulk-send endpoint
+        URI bulkSendUri,
+
+        // The API key sent as a bearer token
+        String apiKey,
+
+        // The sender ID or phone number the messages are sent from
+        String sender,
+
+        // The maximum number of messages sent in one request
+        int maxBatchSize,
+
+        // How long a message waits for others to fill its batch before the batch is sent anyway
+        Duration maxBatchDelay,
+
+        // The maximum number of messages per second the provider accepts, or null for no limit
+        Integer maxMessagesPerSecond,
+
+        // How long a message may wait for the rate limit before it fails instead
+        Duration maxRateLimitWait,
+
+        // How long a request may take before it is abandoned and its messages fail
+        Duration requestTimeout
+) {
+}
@@ -4,43 +4,64 @@ import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
 import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
 import com.clinicwave.clinicwavenotificationservice.exception.EmailSendingException;
 import com.clinicwave.clinicwavenotificationservice.exception.TemplateProcessingException;
+import com.clinicwave.clinicwavenotificationservice.mail.MimeBodyBuffer;
+import com.clinicwave.clinicwavenotificationservice.mail.MimeBodyBufferPool;
+import com.clinicwave.clinicwavenotificationservice.metrics.NotificationStage;
+import com.clinicwave.clinicwavenotificationservice.metrics.NotificationStageMetrics;
 import com.clinicwave.clinicwavenotificationservice.service.SmtpSettingService;
+import com.clinicwave.clinicwavenotificationservice.template.EmailTemplateRenderer;
+import jakarta.activation.DataHandler;
 import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeBodyPart;
 import jakarta.mail.internet.MimeMessage;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Component;
-import org.thymeleaf.context.Context;
-import org.thymeleaf.exceptions.TemplateInputException;
-import org.thymeleaf.spring6.SpringTemplateEngine;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * This class defines the strategy for sending email notifications.
  * It implements the NotificationStrategy interface.
+ * The time spent rendering the template and building the MIME message of every email is recorded per stage.
+ * <p>
+ * Templates are rendered straight into a pooled {@link MimeBodyBuffer} that backs the HTML part of the
+ * message, and that part is streamed from the buffer to the SMTP connection, so the body is not built as a
+ * String and copied into the message. The buffers go back to the pool once their messages have been sent.
  *
  * @author aamir on 7/10/24
  */
 @Component
 @Slf4j
 public class EmailNotificationStrategy implements NotificationStrategy {
-  private final SpringTemplateEngine springTemplateEngine;
+  private final EmailTemplateRenderer emailTemplateRenderer;
   private final SmtpSettingService smtpSettingService;
+  private final NotificationStageMetrics notificationStageMetrics;
+  private final MimeBodyBufferPool mimeBodyBufferPool;
 
   /**
    * Constructor for dependency injection.
    *
-   * @param smtpSettingService   The service for SmtpSetting entities.
-   * @param springTemplateEngine The SpringTemplateEngine to be used for rendering email templates.
+   * @param smtpSettingService       The service for SmtpSetting entities.
+   * @param emailTemplateRenderer    The renderer to be used for rendering email templates.
+   * @param notificationStageMetrics The metrics the rendering and message building times are recorded in.
+   * @param mimeBodyBufferPool       The pool of the buffers email bodies are rendered into.
    */
   @Autowired
-  public EmailNotificationStrategy(SpringTemplateEngine springTemplateEngine, SmtpSettingService smtpSettingService) {
-    this.springTemplateEngine = springTemplateEngine;
+  public EmailNotificationStrategy(EmailTemplateRenderer emailTemplateRenderer, SmtpSettingService smtpSettingService,
+                                   NotificationStageMetrics notificationStageMetrics, MimeBodyBufferPool mimeBodyBufferPool) {
+    this.emailTemplateRenderer = emailTemplateRenderer;
     this.smtpSettingService = smtpSettingService;
+    this.notificationStageMetrics = notificationStageMetrics;
+    this.mimeBodyBufferPool = mimeBodyBufferPool;
   }
 
   /**
@@ -61,59 +82,166 @@ public class EmailNotificationStrategy implements NotificationStrategy {
   @Override
   public void send(NotificationRequestDto notificationRequestDto) {
     log.debug("Sending email notification to: {}", notificationRequestDto.recipient());
+    MimeBodyBuffer mimeBodyBuffer = mimeBodyBufferPool.acquire();
     try {
       // Create a JavaMailSender object using the active SmtpSetting entity.
       JavaMailSender mailSender = smtpSettingService.createMailSender();
-      MimeMessage mimeMessage = createMimeMessage(mailSender, notificationRequestDto);
+      MimeMessage mimeMessage = createMimeMessage(mailSender, notificationRequestDto, mimeBodyBuffer);
 
-      // Send the email.
+      // Send the email over a connection borrowed from the SMTP connection pool.
       mailSender.send(mimeMessage);
       log.info("Email sent successfully to: {}", notificationRequestDto.recipient());
     } catch (MailException | MessagingException e) {
       log.error("Failed to send email to: {}", notificationRequestDto.recipient(), e);
       throw new EmailSendingException(notificationRequestDto.recipient(), notificationRequestDto.subject(), e.getMessage());
+    } finally {
+      mimeBodyBufferPool.release(mimeBodyBuffer);
     }
   }
 
   /**
-   * Creates a MimeMessage object for sending an email.
+   * Sends several email notifications over a single SMTP session.
+   * A notification whose message cannot be built or is rejected by the server fails on its own
+   * without affecting the other notifications.
+   *
+   * @param notificationRequestDtos The notification requests to be sent.
+   * @return One result per request, in the same order as the requests.
+   */
+  @Override
+  public List<NotificationResult> sendAll(List<NotificationRequestDto> notificationRequestDtos) {
+    log.debug("Sending {} email notifications", notificationRequestDtos.size());
+    NotificationResult[] results = new NotificationResult[notificationRequestDtos.size()];
+    JavaMailSender mailSender = smtpSettingService.createMailSender();
+    List<MimeBodyBuffer> mimeBodyBuffers = new ArrayList<>(notificationRequestDtos.size());
+
+    try {
+      // Build every message up front, recording the ones that cannot be built.
+      List<MimeMessage> mimeMessages = new ArrayList<>(notificationRequestDtos.size());
+      List<Integer> messageIndexes = new ArrayList<>(notificationRequestDtos.size());
+      for (int i = 0; i < notificationRequestDtos.size(); i++) {
+        NotificationRequestDto notificationRequestDto = notificationRequestDtos.get(i);
+        MimeBodyBuffer mimeBodyBuffer = mimeBodyBufferPool.acquire();
+        mimeBodyBuffers.add(mimeBodyBuffer);
+        try {
+          mimeMessages.add(createMimeMessage(mailSender, notificationRequestDto, mimeBodyBuffer));
+          messageIndexes.add(i);
+        } catch (MessagingException e) {
+          results[i] = NotificationResult.failure(notificationRequestDto,
+                  new EmailSendingException(notificationRequestDto.recipient(), notificationRequestDto.subject(), e.getMessage()));
+        } catch (TemplateProcessingException e) {
+          results[i] = NotificationResult.failure(notificationRequestDto, e);
+        }
+      }
+
+      if (!mimeMessages.isEmpty()) {
+        Map<Object, Exception> failedMessages = sendMimeMessages(mailSender, mimeMessages);
+        for (int i = 0; i < mimeMessages.size(); i++) {
+          int index = messageIndexes.get(i);
+          NotificationRequestDto notificationRequestDto = notificationRequestDtos.get(index);
+          Exception error = failedMessages.get(mimeMessages.get(i));
+          if (error == null) {
+            results[index] = NotificationResult.success(notificationRequestDto);
+          } else {
+            log.error("Failed to send email to: {}", notificationRequestDto.recipient(), error);
+            results[index] = NotificationResult.failure(notificationRequestDto,
+                    new EmailSendingException(notificationRequestDto.recipient(), notificationRequestDto.subject(), error.getMessage()));
+          }
+        }
+      }
+    } finally {
+      mimeBodyBuffers.forEach(mimeBodyBufferPool::release);
+    }
+
+    return Arrays.asList(results);
+  }
+
+  /**
+   * Sends the given messages in a single call and collects the messages that failed.
+   *
+   * @param mailSender   The JavaMailSender object to be used for sending the emails.
+   * @param mimeMessages The messages to be sent.
+   * @return The failed messages mapped to the error that occurred; empty if every message was sent.
+   */
+  private Map<Object, Exception> sendMimeMessages(JavaMailSender mailSender, List<MimeMessage> mimeMessages) {
+    try {
+      mailSender.send(mimeMessages.toArray(new MimeMessage[0]));
+      return Map.of();
+    } catch (MailSendException e) {
+      if (!e.getFailedMessages().isEmpty()) {
+        return e.getFailedMessages();
+      }
+      return failAll(mimeMessages, e);
+    } catch (MailException e) {
+      return failAll(mimeMessages, e);
+    }
+  }
+
+  /**
+   * Maps every message to the same error.
+   *
+   * @param mimeMessages The messages that failed.
+   * @param error        The error that occurred.
+   * @return The failed messages mapped to the error.
+   */
+  private Map<Object, Exception> failAll(List<MimeMessage> mimeMessages, Exception error) {
+    Map<Object, Exception> failedMessages = new IdentityHashMap<>();
+    mimeMessages.forEach(mimeMessage -> failedMessages.put(mimeMessage, error));
+    return failedMessages;
+  }
+
+  /**
+   * Creates a MimeMessage object for sending an email and records how long it took.
+   * The HTML part of the message reads from the given buffer, which must be kept until the message is sent.
    *
    * @param mailSender             The JavaMailSender object to be used for sending the email.
    * @param notificationRequestDto The notification request to be sent.
+   * @param mimeBodyBuffer         The buffer the email template is rendered into.
    * @return The created MimeMessage object.
    * @throws MessagingException If an error occurs while creating the MimeMessage object.
    */
-  private MimeMessage createMimeMessage(JavaMailSender mailSender, NotificationRequestDto notificationRequestDto) throws MessagingException {
-    // Create a new MimeMessage and MimeMessageHelper object.
-    MimeMessage mimeMessage = mailSender.createMimeMessage();
-    MimeMessageHelper mimeMessageHelper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
+  private MimeMessage createMimeMessage(JavaMailSender mailSender, NotificationRequestDto notificationRequestDto,
+                                        MimeBodyBuffer mimeBodyBuffer) throws MessagingException {
+    long start = System.nanoTime();
+    try {
+      // Create a new MimeMessage and MimeMessageHelper object.
+      MimeMessage mimeMessage = mailSender.createMimeMessage();
+      MimeMessageHelper mimeMessageHelper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
 
-    // Set the email properties.
-    mimeMessageHelper.setTo(notificationRequestDto.recipient());
-    mimeMessageHelper.setSubject(notificationRequestDto.subject());
+      // Set the email properties.
+      mimeMessageHelper.setTo(notificationRequestDto.recipient());
+      mimeMessageHelper.setSubject(notificationRequestDto.subject());
 
-    // Process the email template and set the email content.
-    String htmlContent = processTemplate(notificationRequestDto.templateName(), notificationRequestDto.templateVariables());
-    mimeMessageHelper.setText(htmlContent, true);
+      // Render the email template into the buffer backing the HTML part, which is all setText would add.
+      renderTemplate(notificationRequestDto, mimeBodyBuffer);
+      MimeBodyPart htmlPart = new MimeBodyPart();
+      htmlPart.setDataHandler(new DataHandler(mimeBodyBuffer));
+      htmlPart.setHeader("Content-Type", MimeBodyBuffer.CONTENT_TYPE);
+      htmlPart.setHeader("Content-Transfer-Encoding", mimeBodyBuffer.transferEncoding());
+      mimeMessageHelper.getMimeMultipart().addBodyPart(htmlPart);
 
-    return mimeMessage;
+      notificationStageMetrics.record(NotificationStage.MIME_MESSAGE, notificationRequestDto, System.nanoTime() - start, null);
+      return mimeMessage;
+    } catch (MessagingException | RuntimeException e) {
+      notificationStageMetrics.record(NotificationStage.MIME_MESSAGE, notificationRequestDto, System.nanoTime() - start, e);
+      throw e;
+    }
   }
 
   /**
-   * Processes an email template using Thymeleaf.
+   * Renders the email template of a notification into a buffer and records how long it took.
    *
-   * @param templateName      The name of the template to be processed.
-   * @param templateVariables The variables to be used in the template.
-   * @return The processed template.
+   * @param notificationRequestDto The notification request to be sent.
+   * @param mimeBodyBuffer         The buffer the rendered HTML content is written to.
    */
-  private String processTemplate(String templateName, Map<String, Object> templateVariables) {
+  private void renderTemplate(NotificationRequestDto notificationRequestDto, MimeBodyBuffer mimeBodyBuffer) {
+    long start = System.nanoTime();
     try {
-      // Process the template using Thymeleaf.
-      Context context = new Context();
-      context.setVariables(templateVariables);
-      return springTemplateEngine.process("email/" + templateName, context);
-    } catch (TemplateInputException e) {
-      throw new TemplateProcessingException(templateName, e.getMessage());
+      emailTemplateRenderer.render(notificationRequestDto.templateName(), notificationRequestDto.templateVariables(),
+              mimeBodyBuffer.writer());
+      notificationStageMetrics.record(NotificationStage.TEMPLATE_RENDER, notificationRequestDto, System.nanoTime() - start, null);
+    } catch (RuntimeException e) {
+      notificationStageMetrics.record(NotificationStage.TEMPLATE_RENDER, notificationRequestDto, System.nanoTime() - start, e);
+      throw e;
     }
   }
 }
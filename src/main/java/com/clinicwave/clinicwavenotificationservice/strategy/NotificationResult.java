@@ -0,0 +1,46 @@
+package com.clinicwave.clinicwavenotificationservice.strategy;
+
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+
+/**
+ * This record represents the outcome of sending a single notification as part of a batch.
+ *
+ * @author agent on 10/18/26
+ */
+public record NotificationResult(
+        // The notification request that was sent
+        NotificationRequestDto notificationRequestDto,
+
+        // The error that prevented the notification from being sent, or null on success
+        RuntimeException error
+) {
+  /**
+   * Creates a result for a notification that was sent successfully.
+   *
+   * @param notificationRequestDto The notification request that was sent.
+   * @return A successful result.
+   */
+  public static NotificationResult success(NotificationRequestDto notificationRequestDto) {
+    return new NotificationResult(notificationRequestDto, null);
+  }
+
+  /**
+   * Creates a result for a notification that could not be sent.
+   *
+   * @param notificationRequestDto The notification request that failed.
+   * @param error                  The error that occurred.
+   * @return A failed result.
+   */
+  public static NotificationResult failure(NotificationRequestDto notificationRequestDto, RuntimeException error) {
+    return new NotificationResult(notificationRequestDto, error);
+  }
+
+  /**
+   * Returns whether the notification was sent successfully.
+   *
+   * @return true if no error occurred.
+   */
+  public boolean isSuccess() {
+    return error == null;
+  }
+}
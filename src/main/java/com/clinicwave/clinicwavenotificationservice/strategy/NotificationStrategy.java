@@ -3,6 +3,10 @@ package com.clinicwave.clinicwavenotificationservice.strategy;
 import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
 import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * This interface defines the strategy for sending notifications.
  * Different implementations of this interface can be used to send notifications using different methods.
@@ -14,4 +18,50 @@ public interface NotificationStrategy {
   NotificationTypeEnum getType();
 
   void send(NotificationRequestDto notificationRequestDto);
+
+  /**
+   * Sends several notifications at once, tracking the outcome of each one separately.
+   * The default implementation sends them one by one; strategies that can share work across
+   * notifications should override it.
+   *
+   * @param notificationRequestDtos The notification requests to be sent.
+   * @return One result per request, in the same order as the requests.
+   */
+  default List<NotificationResult> sendAll(List<NotificationRequestDto> notificationRequestDtos) {
+    List<NotificationResult> results = new ArrayList<>(notificationRequestDtos.size());
+    for (NotificationRequestDto notificationRequestDto : notificationRequestDtos) {
+      try {
+        send(notificationRequestDto);
+        results.add(NotificationResult.success(notificationRequestDto));
+      } catch (RuntimeException e) {
+        results.add(NotificationResult.failure(notificationRequestDto, e));
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Hands a notification over to be sent, returning a future completed once it was sent.
+   * Callers hold the notification's lane place only until this method returns, so strategies whose sends are
+   * completed elsewhere, such as by a provider batching them, should override it to return before the send is
+   * done. The default implementation sends the notification before returning.
+   *
+   * @param notificationRequestDto The notification request to be sent.
+   * @return A future completed once the notification was sent, or completed exceptionally if it was not.
+   */
+  default CompletableFuture<Void> submit(NotificationRequestDto notificationRequestDto) {
+    send(notificationRequestDto);
+    return CompletableFuture.completedFuture(null);
+  }
+
+  /**
+   * Hands several notifications over to be sent, like {@link #submit}. The default implementation sends them
+   * with {@link #sendAll} before returning.
+   *
+   * @param notificationRequestDtos The notification requests to be sent.
+   * @return A future of one result per request, in the same order as the requests.
+   */
+  default CompletableFuture<List<NotificationResult>> submitAll(List<NotificationRequestDto> notificationRequestDtos) {
+    return CompletableFuture.completedFuture(sendAll(notificationRequestDtos));
+  }
 }
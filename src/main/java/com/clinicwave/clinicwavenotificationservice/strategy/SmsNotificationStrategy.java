@@ -0,0 +1,218 @@
+package com.clinicwave.clinicwavenotificationservice.strategy;
+
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
+import com.clinicwave.clinicwavenotificationservice.exception.SmsSendingException;
+import com.clinicwave.clinicwavenotificationservice.exception.TemplateProcessingException;
+import com.clinicwave.clinicwavenotificationservice.metrics.NotificationStage;
+import com.clinicwave.clinicwavenotificationservice.metrics.NotificationStageMetrics;
+import com.clinicwave.clinicwavenotificationservice.sms.SmsMessage;
+import com.clinicwave.clinicwavenotificationservice.sms.SmsProviderClient;
+import com.clinicwave.clinicwavenotificationservice.template.SmsTemplateRenderer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * This class defines the strategy for sending SMS notifications.
+ * It implements the NotificationStrategy interface.
+ * The text of every message is rendered from a plain-text template, and the messages are handed to the
+ * {@link SmsProviderClient}, which sends them to the provider in batches. Notifications are handed over without
+ * waiting for their batch, so that the caller's lane place is free while the batch fills up, and waits for the
+ * provider's answer are bounded by the client's send timeout. The time spent rendering the template of every
+ * message is recorded per stage.
+ *
+ * @author agent on 10/18/26
+ */
+@Component
+@ConditionalOnProperty(name = "notification.sms.enabled", havingValue = "true")
+@Slf4j
+public class SmsNotificationStrategy implements NotificationStrategy {
+  private final SmsTemplateRenderer smsTemplateRenderer;
+  private final SmsProviderClient smsProviderClient;
+  private final NotificationStageMetrics notificationStageMetrics;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param smsTemplateRenderer      The renderer to be used for rendering SMS templates.
+   * @param smsProviderClient        The client of the SMS provider.
+   * @param notificationStageMetrics The metrics the rendering times are recorded in.
+   */
+  @Autowired
+  public SmsNotificationStrategy(SmsTemplateRenderer smsTemplateRenderer, SmsProviderClient smsProviderClient,
+                                 NotificationStageMetrics notificationStageMetrics) {
+    this.smsTemplateRenderer = smsTemplateRenderer;
+    this.smsProviderClient = smsProviderClient;
+    this.notificationStageMetrics = notificationStageMetrics;
+  }
+
+  /**
+   * Returns the type of notification strategy.
+   *
+   * @return The type of notification strategy.
+   */
+  @Override
+  public NotificationTypeEnum getType() {
+    return NotificationTypeEnum.SMS;
+  }
+
+  /**
+   * Sends an SMS notification, waiting for the provider to accept it, at most for the client's send timeout.
+   * Messages sent concurrently share the provider's requests.
+   *
+   * @param notificationRequestDto The notification request to be sent.
+   */
+  @Override
+  public void send(NotificationRequestDto notificationRequestDto) {
+    await(submit(notificationRequestDto));
+  }
+
+  /**
+   * Sends several SMS notifications in as few provider requests as the batch size allows.
+   * A notification whose template cannot be rendered or that the provider rejects fails on its own without
+   * affecting the other notifications.
+   *
+   * @param notificationRequestDtos The notification requests to be sent.
+   * @return One result per request, in the same order as the requests.
+   */
+  @Override
+  public List<NotificationResult> sendAll(List<NotificationRequestDto> notificationRequestDtos) {
+    return submitAll(notificationRequestDtos).join();
+  }
+
+  /**
+   * Renders an SMS notification and adds it to the provider's current batch, without waiting for the batch to
+   * be sent.
+   *
+   * @param notificationRequestDto The notification request to be sent.
+   * @return A future completed once the provider accepted the message, or completed exceptionally with an
+   * SmsSendingException if it did not within the client's send timeout.
+   */
+  @Override
+  public CompletableFuture<Void> submit(NotificationRequestDto notificationRequestDto) {
+    log.debug("Sending SMS notification to: {}", notificationRequestDto.recipient());
+    SmsMessage smsMessage = new SmsMessage(notificationRequestDto.recipient(), renderTemplate(notificationRequestDto));
+    return withSendTimeout(smsProviderClient.send(smsMessage), smsMessage)
+            .thenRun(() -> log.info("SMS sent successfully to: {}", notificationRequestDto.recipient()));
+  }
+
+  /**
+   * Renders several SMS notifications and adds them to the provider's batches, without waiting for the batches
+   * to be sent. A notification whose template cannot be rendered fails right away.
+   *
+   * @param notificationRequestDtos The notification requests to be sent.
+   * @return A future of one result per request, in the same order as the requests, completed once the provider
+   * answered for every message or its send timeout passed.
+   */
+  @Override
+  public CompletableFuture<List<NotificationResult>> submitAll(List<NotificationRequestDto> notificationRequestDtos) {
+    log.debug("Sending {} SMS notifications", notificationRequestDtos.size());
+    NotificationResult[] results = new NotificationResult[notificationRequestDtos.size()];
+
+    // Render every message up front, recording the ones that cannot be rendered.
+    List<SmsMessage> smsMessages = new ArrayList<>(notificationRequestDtos.size());
+    List<Integer> messageIndexes = new ArrayList<>(notificationRequestDtos.size());
+    for (int i = 0; i < notificationRequestDtos.size(); i++) {
+      NotificationRequestDto notificationRequestDto = notificationRequestDtos.get(i);
+      try {
+        smsMessages.add(new SmsMessage(notificationRequestDto.recipient(), renderTemplate(notificationRequestDto)));
+        messageIndexes.add(i);
+      } catch (TemplateProcessingException e) {
+        results[i] = NotificationResult.failure(notificationRequestDto, e);
+      }
+    }
+
+    List<CompletableFuture<Void>> sent = smsProviderClient.sendAll(smsMessages);
+    CompletableFuture<?>[] answered = new CompletableFuture<?>[sent.size()];
+    for (int i = 0; i < sent.size(); i++) {
+      int index = messageIndexes.get(i);
+      NotificationRequestDto notificationRequestDto = notificationRequestDtos.get(index);
+      answered[i] = withSendTimeout(sent.get(i), smsMessages.get(i)).handle((ignored, error) -> {
+        if (error == null) {
+          results[index] = NotificationResult.success(notificationRequestDto);
+        } else {
+          log.error("Failed to send SMS to: {}", notificationRequestDto.recipient(), error);
+          results[index] = NotificationResult.failure(notificationRequestDto, unwrap(error));
+        }
+        return null;
+      });
+    }
+
+    return CompletableFuture.allOf(answered).thenApply(ignored -> Arrays.asList(results));
+  }
+
+  /**
+   * Bounds the wait for the provider to answer for a message by the client's send timeout, failing the message
+   * with an SmsSendingException once it passed.
+   *
+   * @param sent       The future of the message.
+   * @param smsMessage The message.
+   * @return A future completed like the message's, or failed once the send timeout passed.
+   */
+  private CompletableFuture<Void> withSendTimeout(CompletableFuture<Void> sent, SmsMessage smsMessage) {
+    Duration sendTimeout = smsProviderClient.getSendTimeout();
+    return sent.copy()
+            .orTimeout(sendTimeout.toNanos(), TimeUnit.NANOSECONDS)
+            .exceptionallyCompose(error -> {
+              Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+              return CompletableFuture.failedFuture(cause instanceof TimeoutException
+                      ? new SmsSendingException(smsProviderClient.getProviderName(), smsMessage.to(),
+                      "The provider did not answer within " + sendTimeout)
+                      : cause);
+            });
+  }
+
+  /**
+   * Waits for the provider to answer for a message.
+   *
+   * @param sent The future of the message.
+   * @throws SmsSendingException If the message was not sent.
+   */
+  private void await(CompletableFuture<Void> sent) {
+    try {
+      sent.join();
+    } catch (CompletionException e) {
+      throw unwrap(e);
+    }
+  }
+
+  /**
+   * Returns the error a message failed with, without the CompletionException wrapping it.
+   *
+   * @param error The error the future of the message completed with.
+   * @return The error the message failed with.
+   */
+  private RuntimeException unwrap(Throwable error) {
+    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    return cause instanceof RuntimeException runtimeException ? runtimeException : new CompletionException(cause);
+  }
+
+  /**
+   * Renders the SMS template of a notification and records how long it took.
+   *
+   * @param notificationRequestDto The notification request to be sent.
+   * @return The text of the message.
+   */
+  private String renderTemplate(NotificationRequestDto notificationRequestDto) {
+    long start = System.nanoTime();
+    try {
+      String text = smsTemplateRenderer.render(notificationRequestDto.templateName(), notificationRequestDto.templateVariables());
+      notificationStageMetrics.record(NotificationStage.TEMPLATE_RENDER, notificationRequestDto, System.nanoTime() - start, null);
+      return text;
+    } catch (RuntimeException e) {
+      notificationStageMetrics.record(NotificationStage.TEMPLATE_RENDER, notificationRequestDto, System.nanoTime() - start, e);
+      throw e;
+    }
+  }
+}
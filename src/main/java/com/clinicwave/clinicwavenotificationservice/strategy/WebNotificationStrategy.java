@@ -0,0 +1,57 @@
+package com.clinicwave.clinicwavenotificationservice.strategy;
+
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
+import com.clinicwave.clinicwavenotificationservice.web.WebNotificationBroadcaster;
+import com.clinicwave.clinicwavenotificationservice.web.WebNotificationHub;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * This class defines the strategy for sending in-app notifications to the clinic portal.
+ * It implements the NotificationStrategy interface.
+ * Notifications are broadcast by the {@link WebNotificationBroadcaster} to the recipient's inbox in the
+ * {@link WebNotificationHub} of every instance, which pushes them to the recipient's open portal connections, or
+ * keeps them for when the recipient connects. Sending waits for the broadcast to be acknowledged, but not for the
+ * notification to be written to any connection.
+ *
+ * @author agent on 10/18/26
+ */
+@Component
+@Slf4j
+public class WebNotificationStrategy implements NotificationStrategy {
+  private final WebNotificationBroadcaster webNotificationBroadcaster;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param webNotificationBroadcaster The broadcaster the notifications are published to every instance with.
+   */
+  @Autowired
+  public WebNotificationStrategy(WebNotificationBroadcaster webNotificationBroadcaster) {
+    this.webNotificationBroadcaster = webNotificationBroadcaster;
+  }
+
+  /**
+   * Returns the type of notification strategy.
+   *
+   * @return The type of notification strategy.
+   */
+  @Override
+  public NotificationTypeEnum getType() {
+    return NotificationTypeEnum.WEB;
+  }
+
+  /**
+   * Publishes an in-app notification to its recipient.
+   *
+   * @param notificationRequestDto The notification request to be sent.
+   * @throws org.springframework.kafka.KafkaException If the notification could not be broadcast.
+   */
+  @Override
+  public void send(NotificationRequestDto notificationRequestDto) {
+    webNotificationBroadcaster.broadcast(notificationRequestDto);
+    log.debug("Broadcast in-app notification to: {}", notificationRequestDto.recipient());
+  }
+}
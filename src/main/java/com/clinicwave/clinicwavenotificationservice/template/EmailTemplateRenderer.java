@@ -0,0 +1,271 @@
+package com.clinicwave.clinicwavenotificationservice.template;
+
+import com.clinicwave.clinicwavenotificationservice.exception.TemplateProcessingException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.exceptions.TemplateInputException;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * This class renders email templates and caches the rendered output.
+ * <p>
+ * Broadcasts often render the same template with the same variables for many recipients, so the rendered
+ * HTML is cached under the template name, the template version and the variables. The version is a checksum
+ * of the template file, so a changed template never serves output rendered from the old one. The variables
+ * are compared by value, which means two requests share a cache entry only if they would render the same
+ * output. Templates carrying per-recipient secrets, such as verification codes, can be excluded from caching.
+ * <p>
+ * Templates that are not cached can also be rendered straight into a Writer, without building the output
+ * as a String first.
+ *
+ * @author agent on 10/18/26
+ */
+@Component
+@Slf4j
+public class EmailTemplateRenderer {
+  private static final String EMAIL_TEMPLATE_PREFIX = "email/";
+  private static final String EMAIL_TEMPLATE_LOCATION = "classpath:/templates/email/%s.html";
+
+  private final SpringTemplateEngine springTemplateEngine;
+  private final ResourceLoader resourceLoader;
+  private final RenderCacheSettings renderCacheSettings;
+  private final Map<RenderKey, String> renderCache;
+  private final Map<String, TemplateVersion> templateVersions = new ConcurrentHashMap<>();
+  private final Counter cacheHitCounter;
+  private final Counter cacheMissCounter;
+  private final Counter evictionCounter;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param springTemplateEngine The SpringTemplateEngine to be used for rendering email templates.
+   * @param resourceLoader       The loader used to read the template files when computing their versions.
+   * @param renderCacheSettings  The settings of the rendered-template cache.
+   * @param meterRegistry        The registry used to expose the render cache metrics.
+   */
+  @Autowired
+  public EmailTemplateRenderer(SpringTemplateEngine springTemplateEngine,
+                               ResourceLoader resourceLoader,
+                               RenderCacheSettings renderCacheSettings,
+                               MeterRegistry meterRegistry) {
+    this.springTemplateEngine = springTemplateEngine;
+    this.resourceLoader = resourceLoader;
+    this.renderCacheSettings = renderCacheSettings;
+    this.renderCache = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<RenderKey, String> eldest) {
+        if (size() > renderCacheSettings.maxSize()) {
+          evictionCounter.increment();
+          return true;
+        }
+        return false;
+      }
+    };
+    this.cacheHitCounter = Counter.builder("notification.template.render-cache")
+            .description("Lookups of rendered email templates")
+            .tag("result", "hit")
+            .register(meterRegistry);
+    this.cacheMissCounter = Counter.builder("notification.template.render-cache")
+            .description("Lookups of rendered email templates")
+            .tag("result", "miss")
+            .register(meterRegistry);
+    this.evictionCounter = Counter.builder("notification.template.render-cache.evictions")
+            .description("Rendered email templates evicted to keep the cache within its maximum size")
+            .register(meterRegistry);
+    Gauge.builder("notification.template.render-cache.size", this, EmailTemplateRenderer::getCacheSize)
+            .description("Rendered email templates held by the render cache")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Renders an email template, reusing an earlier rendering of the same template and variables when cached.
+   *
+   * @param templateName      The name of the template to be rendered.
+   * @param templateVariables The variables to be used in the template.
+   * @return The rendered template.
+   */
+  public String render(String templateName, Map<String, Object> templateVariables) {
+    if (!renderCacheSettings.enabled() || renderCacheSettings.excludedTemplates().contains(templateName)) {
+      return processTemplate(templateName, templateVariables);
+    }
+
+    TemplateVersion templateVersion = getTemplateVersion(templateName);
+    if (templateVersion == null) {
+      // The template file cannot be read, so let the template engine report the problem.
+      return processTemplate(templateName, templateVariables);
+    }
+
+    RenderKey renderKey = new RenderKey(templateName, templateVersion.checksum(), copyVariables(templateVariables));
+    String content;
+    synchronized (renderCache) {
+      content = renderCache.get(renderKey);
+    }
+    if (content != null) {
+      cacheHitCounter.increment();
+      return content;
+    }
+
+    cacheMissCounter.increment();
+    content = processTemplate(templateName, templateVariables);
+    synchronized (renderCache) {
+      renderCache.put(renderKey, content);
+    }
+    return content;
+  }
+
+  /**
+   * Renders an email template into a writer. Templates that are not cached are streamed into the writer as
+   * Thymeleaf produces them; cached templates are rendered, or looked up, as a String and then written.
+   *
+   * @param templateName      The name of the template to be rendered.
+   * @param templateVariables The variables to be used in the template.
+   * @param writer            The writer the rendered template is written to.
+   * @throws UncheckedIOException If the writer fails.
+   */
+  public void render(String templateName, Map<String, Object> templateVariables, Writer writer) {
+    if (!renderCacheSettings.enabled() || renderCacheSettings.excludedTemplates().contains(templateName)) {
+      processTemplate(templateName, templateVariables, writer);
+      return;
+    }
+    try {
+      writer.write(render(templateName, templateVariables));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Returns the number of rendered templates held by the render cache.
+   *
+   * @return The number of cached renderings.
+   */
+  public int getCacheSize() {
+    synchronized (renderCache) {
+      return renderCache.size();
+    }
+  }
+
+  /**
+   * Processes an email template using Thymeleaf.
+   *
+   * @param templateName      The name of the template to be processed.
+   * @param templateVariables The variables to be used in the template.
+   * @return The processed template.
+   */
+  private String processTemplate(String templateName, Map<String, Object> templateVariables) {
+    try {
+      // Process the template using Thymeleaf.
+      Context context = new Context();
+      context.setVariables(templateVariables);
+      return springTemplateEngine.process(EMAIL_TEMPLATE_PREFIX + templateName, context);
+    } catch (TemplateInputException e) {
+      throw new TemplateProcessingException(templateName, e.getMessage());
+    }
+  }
+
+  /**
+   * Processes an email template using Thymeleaf, writing the output to a writer.
+   *
+   * @param templateName      The name of the template to be processed.
+   * @param templateVariables The variables to be used in the template.
+   * @param writer            The writer the processed template is written to.
+   */
+  private void processTemplate(String templateName, Map<String, Object> templateVariables, Writer writer) {
+    try {
+      Context context = new Context();
+      context.setVariables(templateVariables);
+      springTemplateEngine.process(EMAIL_TEMPLATE_PREFIX + templateName, context, writer);
+    } catch (TemplateInputException e) {
+      throw new TemplateProcessingException(templateName, e.getMessage());
+    }
+  }
+
+  /**
+   * Returns the current version of a template, reading the template file again once the last check is
+   * older than the version check interval.
+   *
+   * @param templateName The name of the template.
+   * @return The template version, or null if the template file cannot be read.
+   */
+  private TemplateVersion getTemplateVersion(String templateName) {
+    long now = System.nanoTime();
+    TemplateVersion templateVersion = templateVersions.get(templateName);
+    if (templateVersion != null && now - templateVersion.checkedAt() < renderCacheSettings.versionCheckInterval().toNanos()) {
+      return templateVersion;
+    }
+
+    Long checksum = readChecksum(templateName);
+    if (checksum == null) {
+      templateVersions.remove(templateName);
+      return null;
+    }
+    templateVersion = new TemplateVersion(checksum, now);
+    templateVersions.put(templateName, templateVersion);
+    return templateVersion;
+  }
+
+  /**
+   * Computes a checksum of a template file.
+   *
+   * @param templateName The name of the template.
+   * @return The CRC-32 checksum of the template file, or null if it does not exist or cannot be read.
+   */
+  private Long readChecksum(String templateName) {
+    Resource resource = resourceLoader.getResource(String.format(EMAIL_TEMPLATE_LOCATION, templateName));
+    if (!resource.exists()) {
+      return null;
+    }
+    try (InputStream inputStream = resource.getInputStream()) {
+      CRC32 crc32 = new CRC32();
+      crc32.update(inputStream.readAllBytes());
+      return crc32.getValue();
+    } catch (IOException e) {
+      log.warn("Failed to read email template: {}", templateName, e);
+      return null;
+    }
+  }
+
+  /**
+   * Copies the template variables so that later changes to the caller's map cannot alter a cache key.
+   *
+   * @param templateVariables The variables to be copied; may be null.
+   * @return An unmodifiable copy of the variables.
+   */
+  private static Map<String, Object> copyVariables(Map<String, Object> templateVariables) {
+    if (templateVariables == null || templateVariables.isEmpty()) {
+      return Map.of();
+    }
+    return Collections.unmodifiableMap(new HashMap<>(templateVariables));
+  }
+
+  /**
+   * The key of a cached rendering. Map equality and hash codes do not depend on iteration order,
+   * so the same variables always produce the same key.
+   */
+  private record RenderKey(String templateName, long templateVersion, Map<String, Object> templateVariables) {
+  }
+
+  /**
+   * The checksum of a template file and when it was computed.
+   */
+  private record TemplateVersion(long checksum, long checkedAt) {
+  }
+}
@@ -0,0 +1,101 @@
+package com.clinicwave.clinicwavenotificationservice.template;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.exceptions.TemplateEngineException;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class warms the email template cache up while the application starts.
+ * <p>
+ * Every template under {@code templates/email/} is parsed and rendered once with no variables, so that it
+ * sits in the template cache before the first notification is sent. The warm-up runs while the bean is
+ * initialized, which is before the Kafka listeners and the web server start and before the application
+ * reports itself ready, so no traffic reaches the service until the templates are compiled.
+ *
+ * @author agent on 10/18/26
+ */
+@Component
+@Slf4j
+public class EmailTemplateWarmer {
+  private static final String EMAIL_TEMPLATE_PATTERN = "classpath*:templates/email/*.html";
+  private static final String EMAIL_TEMPLATE_PREFIX = "email/";
+  private static final String TEMPLATE_SUFFIX = ".html";
+
+  private final SpringTemplateEngine springTemplateEngine;
+  private final ResourcePatternResolver resourcePatternResolver;
+  private final boolean enabled;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param springTemplateEngine    The SpringTemplateEngine whose cache is warmed up.
+   * @param resourcePatternResolver The resolver used to find the email templates.
+   * @param enabled                 Whether the templates are warmed up at startup.
+   */
+  @Autowired
+  public EmailTemplateWarmer(SpringTemplateEngine springTemplateEngine,
+                             ResourcePatternResolver resourcePatternResolver,
+                             @Value("${notification.template.warm-up.enabled:true}") boolean enabled) {
+    this.springTemplateEngine = springTemplateEngine;
+    this.resourcePatternResolver = resourcePatternResolver;
+    this.enabled = enabled;
+  }
+
+  /**
+   * Parses and test-renders every email template.
+   * A template that fails to render is logged and skipped; it will fail again, with a
+   * TemplateProcessingException, when a notification uses it.
+   *
+   * @throws IOException If the email templates cannot be listed.
+   */
+  @PostConstruct
+  public void warmUp() throws IOException {
+    if (!enabled) {
+      log.info("Email template warm-up is disabled");
+      return;
+    }
+
+    long start = System.nanoTime();
+    List<String> templateNames = findTemplateNames();
+    int warmed = 0;
+    for (String templateName : templateNames) {
+      try {
+        springTemplateEngine.process(EMAIL_TEMPLATE_PREFIX + templateName, new Context());
+        warmed++;
+      } catch (TemplateEngineException e) {
+        log.warn("Failed to warm up email template: {}", templateName, e);
+      }
+    }
+    log.info("Warmed up {} of {} email templates in {} ms", warmed, templateNames.size(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+  }
+
+  /**
+   * Lists the names of the email templates, as used in notification requests.
+   *
+   * @return The template names, without the directory and the file extension.
+   * @throws IOException If the email templates cannot be listed.
+   */
+  List<String> findTemplateNames() throws IOException {
+    List<String> templateNames = new ArrayList<>();
+    for (Resource resource : resourcePatternResolver.getResources(EMAIL_TEMPLATE_PATTERN)) {
+      String filename = resource.getFilename();
+      if (filename != null && filename.endsWith(TEMPLATE_SUFFIX)) {
+        templateNames.add(filename.substring(0, filename.length() - TEMPLATE_SUFFIX.length()));
+      }
+    }
+    return templateNames;
+  }
+}
@@ -0,0 +1,24 @@
+package com.clinicwave.clinicwavenotificationservice.template;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * This record holds the settings for the rendered-template cache of the {@link EmailTemplateRenderer}.
+ *
+ * @author agent on 10/18/26
+ */
+public record RenderCacheSettings(
+        // Whether rendered templates are cached at all
+        boolean enabled,
+
+        // The maximum number of rendered templates kept; the least recently used one is evicted first
+        int maxSize,
+
+        // How long a template's version is trusted before the template file is checked for changes again
+        Duration versionCheckInterval,
+
+        // Templates that are never cached, such as those carrying per-recipient secrets
+        Set<String> excludedTemplates
+) {
+}
@@ -0,0 +1,53 @@
+package com.clinicwave.clinicwavenotificationservice.template;
+
+import com.clinicwave.clinicwavenotificationservice.exception.TemplateProcessingException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.exceptions.TemplateEngineException;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+import java.util.Map;
+
+/**
+ * This class renders the plain-text SMS templates found under {@code templates/sms/}.
+ * SMS bodies are short and mostly carry per-recipient codes, so they are not cached once rendered.
+ *
+ * @author agent on 10/18/26
+ */
+@Component
+public class SmsTemplateRenderer {
+  private static final String SMS_TEMPLATE_PREFIX = "sms/";
+
+  private final SpringTemplateEngine springTemplateEngine;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param springTemplateEngine The SpringTemplateEngine to be used for rendering SMS templates.
+   */
+  @Autowired
+  public SmsTemplateRenderer(SpringTemplateEngine springTemplateEngine) {
+    this.springTemplateEngine = springTemplateEngine;
+  }
+
+  /**
+   * Renders an SMS template, without the line break that ends the template file.
+   *
+   * @param templateName      The name of the template to be rendered.
+   * @param templateVariables The variables to be used in the template.
+   * @return The text of the message.
+   * @throws TemplateProcessingException If the template does not exist, cannot be parsed or fails to render with
+   *                                     the given variables.
+   */
+  public String render(String templateName, Map<String, Object> templateVariables) {
+    try {
+      Context context = new Context();
+      context.setVariables(templateVariables);
+      return springTemplateEngine.process(SMS_TEMPLATE_PREFIX + templateName, context).strip();
+    } catch (TemplateEngineException e) {
+      // Covers missing and unparsable templates as well as expressions that fail on the given variables.
+      throw new TemplateProcessingException(templateName, e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package com.clinicwave.clinicwavenotificationservice.web;
+
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+
+import java.time.Instant;
+
+/**
+ * This record represents an in-app notification pushed to the clinic portal.
+ * The portal renders the notification itself from its template name. The template variables of the request are
+ * not pushed, since they may carry data meant for the service only, such as tokens or codes.
+ *
+ * @author agent on 10/18/26
+ */
+public record WebNotification(
+        // Increases with every notification to the recipient, and is sent as the event ID so that clients can resume after it
+        long id,
+
+        // The subject of the notification
+        String subject,
+
+        // The name of the template the portal renders the notification with
+        String templateName,
+
+        // The notification category
+        NotificationCategoryEnum category,
+
+        // When the notification was published
+        Instant createdAt
+) {
+}
@@ -0,0 +1,104 @@
+package com.clinicwave.clinicwavenotificationservice.web;
+
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * This class publishes in-app notifications to the {@link WebNotificationHub} of every instance, so that a
+ * portal user is pushed their notifications whichever instance their connection is open on.
+ * <p>
+ * Notifications are written to a broadcast topic, keyed by recipient, and every instance reads the whole topic
+ * with a consumer group of its own, starting from the end of the topic. The notifications of a recipient are
+ * therefore on one partition and read in the same order everywhere, and their offset is used as their event ID,
+ * so that every instance gives a notification the same ID. The template variables of the request are left out.
+ *
+ * @author agent on 10/18/26
+ */
+@Component
+@Slf4j
+public class WebNotificationBroadcaster {
+  static final String LISTENER_ID = "web-notification-listener";
+  private static final String BROADCAST_TOPIC = "${notification.web.broadcast-topic:notification-web-topic}";
+  // A group of its own on every instance, so that every instance is given every partition.
+  private static final String INSTANCE_GROUP_ID = "#{'notification-web-' + T(java.util.UUID).randomUUID()}";
+
+  private final KafkaTemplate<String, Object> kafkaTemplate;
+  private final WebNotificationHub webNotificationHub;
+  private final String broadcastTopic;
+  private final Duration sendTimeout;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param kafkaTemplate      The template used to write notifications to the broadcast topic.
+   * @param webNotificationHub The hub of this instance the broadcast notifications are published to.
+   * @param broadcastTopic     The topic the notifications are broadcast on.
+   * @param sendTimeout        How long to wait for the broker to acknowledge a broadcast notification.
+   */
+  @Autowired
+  public WebNotificationBroadcaster(@Qualifier("notificationKafkaTemplate") KafkaTemplate<String, Object> kafkaTemplate,
+                                    WebNotificationHub webNotificationHub,
+                                    @Value(BROADCAST_TOPIC) String broadcastTopic,
+                                    @Value("${notification.web.broadcast-timeout:PT5S}") Duration sendTimeout) {
+    this.kafkaTemplate = kafkaTemplate;
+    this.webNotificationHub = webNotificationHub;
+    this.broadcastTopic = broadcastTopic;
+    this.sendTimeout = sendTimeout;
+  }
+
+  /**
+   * Writes a notification to the broadcast topic and waits for the broker to acknowledge it.
+   *
+   * @param notificationRequestDto The notification request to be broadcast.
+   * @throws KafkaException If the notification could not be written in time.
+   */
+  public void broadcast(NotificationRequestDto notificationRequestDto) {
+    NotificationRequestDto broadcastDto = new NotificationRequestDto(notificationRequestDto.recipient(),
+            notificationRequestDto.subject(), notificationRequestDto.templateName(), null, notificationRequestDto.type(),
+            notificationRequestDto.category(), null, notificationRequestDto.trackingId());
+    try {
+      kafkaTemplate.send(broadcastTopic, notificationRequestDto.recipient().toLowerCase(Locale.ROOT), broadcastDto)
+              .get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new KafkaException("Interrupted while broadcasting in-app notification to: " + notificationRequestDto.recipient(), e);
+    } catch (ExecutionException | TimeoutException e) {
+      throw new KafkaException("Failed to broadcast in-app notification to: " + notificationRequestDto.recipient(), e);
+    }
+  }
+
+  /**
+   * Kafka listener method for the broadcast topic, publishing each notification to the hub of this instance.
+   *
+   * @param consumerRecord The broadcast notification.
+   */
+  @KafkaListener(id = LISTENER_ID, idIsGroup = false, topics = BROADCAST_TOPIC, groupId = INSTANCE_GROUP_ID,
+          properties = "auto.offset.reset=latest")
+  public void receive(ConsumerRecord<String, NotificationRequestDto> consumerRecord) {
+    NotificationRequestDto notificationRequestDto = consumerRecord.value();
+    // Records that failed to deserialize arrive as null values.
+    if (notificationRequestDto == null) {
+      log.warn("Skipping in-app notification at offset {} that could not be deserialized", consumerRecord.offset());
+      return;
+    }
+    // Offsets start at 0, and event ID 0 stands for no event.
+    webNotificationHub.publish(notificationRequestDto.recipient(), new WebNotification(consumerRecord.offset() + 1,
+            notificationRequestDto.subject(), notificationRequestDto.templateName(), notificationRequestDto.category(),
+            Instant.ofEpochMilli(consumerRecord.timestamp())));
+  }
+}
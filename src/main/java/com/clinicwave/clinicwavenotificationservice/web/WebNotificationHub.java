@@ -0,0 +1,286 @@
+package com.clinicwave.clinicwavenotificationservice.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class pushes in-app notifications to the clinic portal users connected to this instance over
+ * Server-Sent Events.
+ * <p>
+ * Every user has an inbox holding a ring buffer of their most recent notifications and their open
+ * connections. A connection is an asynchronous servlet response, so an idle connection holds no thread.
+ * Publishing a notification only adds it to the inbox and schedules a drain of every connection of the user;
+ * the drains write on virtual threads and send whatever the connection has not seen yet, so that a slow
+ * client delays only itself and several notifications published while it is being written to are sent
+ * together.
+ * <p>
+ * Notifications are published to the hub of every instance by the {@link WebNotificationBroadcaster}, with the
+ * same event IDs everywhere, so a client reconnecting to any instance with the {@code Last-Event-ID} of its last
+ * event is sent what it missed that is still in the buffer. Inboxes without connections are dropped once they
+ * have been idle for the retention period.
+ *
+ * @author agent on 10/18/26
+ */
+@Component
+@Slf4j
+public class WebNotificationHub {
+  private static final String EVENT_NAME = "notification";
+
+  private final Map<String, Inbox> inboxes = new ConcurrentHashMap<>();
+  private final AtomicInteger connectionCount = new AtomicInteger();
+  private final ExecutorService pushExecutor =
+          Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("web-push-", 1).factory());
+  private final int bufferSize;
+  private final Duration emitterTimeout;
+  private final Duration inboxRetention;
+  private final Duration reconnectTime;
+
+  private final Counter publishedCounter;
+  private final Counter deliveredCounter;
+  private final Counter catchUpGapCounter;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param meterRegistry  The registry used to expose the connection and delivery metrics.
+   * @param bufferSize     The number of recent notifications kept per user.
+   * @param emitterTimeout How long a connection stays open before the client is asked to reconnect.
+   * @param inboxRetention How long the inbox of a user without connections is kept.
+   * @param reconnectTime  How long clients wait before reconnecting after a connection is lost.
+   */
+  @Autowired
+  public WebNotificationHub(MeterRegistry meterRegistry,
+                            @Value("${notification.web.buffer-size:50}") int bufferSize,
+                            @Value("${notification.web.emitter-timeout:PT30M}") Duration emitterTimeout,
+                            @Value("${notification.web.inbox-retention:PT1H}") Duration inboxRetention,
+                            @Value("${notification.web.reconnect-time:PT3S}") Duration reconnectTime) {
+    this.bufferSize = bufferSize;
+    this.emitterTimeout = emitterTimeout;
+    this.inboxRetention = inboxRetention;
+    this.reconnectTime = reconnectTime;
+    this.publishedCounter = Counter.builder("notification.web.events.published")
+            .description("In-app notifications published to user inboxes")
+            .register(meterRegistry);
+    this.deliveredCounter = Counter.builder("notification.web.events.delivered")
+            .description("In-app notifications written to portal connections")
+            .register(meterRegistry);
+    this.catchUpGapCounter = Counter.builder("notification.web.catch-up.gaps")
+            .description("Connections that missed notifications which had already left the user's buffer")
+            .register(meterRegistry);
+    Gauge.builder("notification.web.connections", connectionCount, AtomicInteger::get)
+            .description("Open portal connections")
+            .register(meterRegistry);
+    Gauge.builder("notification.web.inboxes", inboxes, Map::size)
+            .description("Users with an inbox of recent in-app notifications")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Adds a notification to the inbox of its recipient and pushes it to the recipient's open connections.
+   * The call does not wait for the notification to be written.
+   *
+   * @param recipient       The recipient of the notification.
+   * @param webNotification The notification, whose ID is greater than that of every notification published to
+   *                        the recipient before.
+   */
+  public void publish(String recipient, WebNotification webNotification) {
+    Inbox inbox = inboxes.compute(key(recipient), (user, existing) -> {
+      Inbox target = existing != null ? existing : new Inbox();
+      target.buffer.add(webNotification);
+      target.touch();
+      return target;
+    });
+    publishedCounter.increment();
+    inbox.connections.forEach(Connection::schedule);
+  }
+
+  /**
+   * Opens a connection for a user. The buffered notifications that came after the given event are sent first,
+   * followed by every notification published while the connection is open.
+   *
+   * @param recipient   The user, identified as the recipient of their notifications.
+   * @param lastEventId The ID of the last event the client received, or null to be sent every buffered
+   *                    notification.
+   * @return The emitter streaming the events of the connection.
+   */
+  public SseEmitter connect(String recipient, Long lastEventId) {
+    String key = key(recipient);
+    SseEmitter emitter = new SseEmitter(emitterTimeout.toMillis());
+    Connection[] connection = new Connection[1];
+    inboxes.compute(key, (user, existing) -> {
+      Inbox inbox = existing != null ? existing : new Inbox();
+      connection[0] = new Connection(key, inbox, emitter, lastEventId != null ? lastEventId : 0);
+      inbox.connections.add(connection[0]);
+      inbox.touch();
+      return inbox;
+    });
+    connectionCount.incrementAndGet();
+    emitter.onCompletion(connection[0]::disconnect);
+    emitter.onTimeout(emitter::complete);
+    emitter.onError(error -> connection[0].disconnect());
+
+    try {
+      // Sent before the emitter is returned, this event is only buffered until the response is ready for it.
+      emitter.send(SseEmitter.event().reconnectTime(reconnectTime.toMillis()).comment("connected"));
+    } catch (IOException e) {
+      emitter.completeWithError(e);
+      return emitter;
+    }
+    connection[0].schedule();
+    return emitter;
+  }
+
+  /**
+   * Sends a comment on every open connection so that intermediaries keep idle connections open and closed
+   * connections are noticed, and drops the inboxes that have been idle longer than the retention period.
+   */
+  @Scheduled(fixedDelayString = "${notification.web.heartbeat-interval:PT25S}")
+  public void sendHeartbeats() {
+    long idleCutoff = System.nanoTime() - inboxRetention.toNanos();
+    for (String key : inboxes.keySet()) {
+      Inbox inbox = inboxes.computeIfPresent(key, (user, existing) ->
+              existing.connections.isEmpty() && existing.lastActivityNanos - idleCutoff < 0 ? null : existing);
+      if (inbox != null) {
+        inbox.connections.forEach(Connection::heartbeat);
+      }
+    }
+  }
+
+  /**
+   * Closes every open connection, letting the clients reconnect to another instance, and stops the drains.
+   */
+  @PreDestroy
+  public void shutdown() {
+    inboxes.values().forEach(inbox -> inbox.connections.forEach(connection -> connection.emitter.complete()));
+    pushExecutor.shutdown();
+  }
+
+  private static String key(String recipient) {
+    return recipient.toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Runs a write on a virtual thread, unless the hub is shutting down.
+   *
+   * @param task The write to be run.
+   * @return False if the write was not run.
+   */
+  private boolean execute(Runnable task) {
+    try {
+      pushExecutor.execute(task);
+      return true;
+    } catch (RejectedExecutionException e) {
+      return false;
+    }
+  }
+
+  /**
+   * The recent notifications and open connections of a user.
+   */
+  private final class Inbox {
+    private final WebNotificationRingBuffer buffer = new WebNotificationRingBuffer(bufferSize);
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private volatile long lastActivityNanos = System.nanoTime();
+
+    private void touch() {
+      lastActivityNanos = System.nanoTime();
+    }
+  }
+
+  /**
+   * An open connection, which is sent the notifications of its inbox it has not been sent yet.
+   */
+  private final class Connection {
+    private final String key;
+    private final Inbox inbox;
+    private final SseEmitter emitter;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean disconnected = new AtomicBoolean();
+    private volatile long lastSentId;
+
+    private Connection(String key, Inbox inbox, SseEmitter emitter, long lastSentId) {
+      this.key = key;
+      this.inbox = inbox;
+      this.emitter = emitter;
+      this.lastSentId = lastSentId;
+    }
+
+    /**
+     * Starts a drain, unless one is already running; a running drain sends the new notification too.
+     */
+    private void schedule() {
+      if (draining.compareAndSet(false, true) && !execute(this::drain)) {
+        draining.set(false);
+      }
+    }
+
+    /**
+     * Sends the notifications this connection has not been sent yet, until there are none left.
+     */
+    private void drain() {
+      do {
+        if (lastSentId > 0 && inbox.buffer.hasOverwrittenSince(lastSentId)) {
+          catchUpGapCounter.increment();
+        }
+        try {
+          for (WebNotification webNotification : inbox.buffer.since(lastSentId)) {
+            emitter.send(SseEmitter.event()
+                    .id(Long.toString(webNotification.id()))
+                    .name(EVENT_NAME)
+                    .data(webNotification, MediaType.APPLICATION_JSON));
+            lastSentId = webNotification.id();
+            deliveredCounter.increment();
+          }
+        } catch (IOException | IllegalStateException e) {
+          log.debug("Dropping the portal connection of {}: {}", key, e.getMessage());
+          emitter.completeWithError(e);
+          disconnect();
+          return;
+        }
+        draining.set(false);
+        // A notification published after the last read of the buffer but before the flag was cleared found a
+        // drain running and did not start one, so check for it here.
+      } while (inbox.buffer.latestId() > lastSentId && draining.compareAndSet(false, true));
+    }
+
+    private void heartbeat() {
+      execute(() -> {
+        try {
+          emitter.send(SseEmitter.event().comment("heartbeat"));
+        } catch (IOException | IllegalStateException e) {
+          emitter.completeWithError(e);
+          disconnect();
+        }
+      });
+    }
+
+    private void disconnect() {
+      if (disconnected.compareAndSet(false, true)) {
+        inbox.connections.remove(this);
+        inbox.touch();
+        connectionCount.decrementAndGet();
+      }
+    }
+  }
+}
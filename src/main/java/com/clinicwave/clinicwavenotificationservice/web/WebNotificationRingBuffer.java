@@ -0,0 +1,84 @@
+package com.clinicwave.clinicwavenotificationservice.web;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class keeps the most recent in-app notifications of a user, so that a client that reconnects can catch
+ * up on the notifications it missed while it was away.
+ * <p>
+ * The buffer holds a fixed number of notifications in an array that is written in a circle, overwriting the
+ * oldest notification once it is full. Notifications must be added in the order of their IDs.
+ *
+ * @author agent on 10/18/26
+ */
+public final class WebNotificationRingBuffer {
+  private final WebNotification[] slots;
+  private int next;
+  private int size;
+  private long lastOverwrittenId;
+
+  /**
+   * Constructor for the buffer.
+   *
+   * @param capacity The number of notifications kept.
+   */
+  public WebNotificationRingBuffer(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("The capacity must be at least 1");
+    }
+    this.slots = new WebNotification[capacity];
+  }
+
+  /**
+   * Adds a notification, overwriting the oldest one if the buffer is full.
+   *
+   * @param webNotification The notification, whose ID is greater than that of every notification added before.
+   */
+  public synchronized void add(WebNotification webNotification) {
+    if (size == slots.length) {
+      lastOverwrittenId = slots[next].id();
+    } else {
+      size++;
+    }
+    slots[next] = webNotification;
+    next = (next + 1) % slots.length;
+  }
+
+  /**
+   * Returns the buffered notifications that came after a given one, oldest first.
+   *
+   * @param lastId The ID of the last notification the caller has, or 0 for every buffered notification.
+   * @return The notifications whose ID is greater than lastId.
+   */
+  public synchronized List<WebNotification> since(long lastId) {
+    List<WebNotification> notifications = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      WebNotification webNotification = slots[(next - size + i + slots.length) % slots.length];
+      if (webNotification.id() > lastId) {
+        notifications.add(webNotification);
+      }
+    }
+    return notifications;
+  }
+
+  /**
+   * Returns the ID of the most recent notification.
+   *
+   * @return The ID of the most recent notification, or 0 if the buffer is empty.
+   */
+  public synchronized long latestId() {
+    return size == 0 ? 0 : slots[(next - 1 + slots.length) % slots.length].id();
+  }
+
+  /**
+   * Tells whether notifications after a given one were overwritten, so that a caller resuming after it has
+   * missed some.
+   *
+   * @param lastId The ID of the last notification the caller has.
+   * @return True if a notification after lastId is no longer in the buffer.
+   */
+  public synchronized boolean hasOverwrittenSince(long lastId) {
+    return lastOverwrittenId > lastId;
+  }
+}
@@ -16,6 +16,7 @@ import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * This class tests the KafkaConsumerConfig class.
@@ -73,4 +74,17 @@ class KafkaConsumerConfigTest {
     assertNotNull(factory);
     assertEquals(consumerFactory, factory.getConsumerFactory());
   }
-}
\ No newline at end of file
+
+  @Test
+  @DisplayName("batchKafkaListenerContainerFactory creates a batch listener factory with the batch settings")
+  void batchKafkaListenerContainerFactoryCreatesBatchListenerFactory() {
+    ConcurrentKafkaListenerContainerFactory<String, NotificationRequestDto> factory = kafkaConsumerConfig.batchKafkaListenerContainerFactory();
+    assertNotNull(factory);
+    assertTrue(factory.isBatchListener());
+
+    Map<String, Object> configs = factory.getConsumerFactory().getConfigurationProperties();
+    assertEquals(100, configs.get(ConsumerConfig.MAX_POLL_RECORDS_CONFIG));
+    assertEquals(500, configs.get(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG));
+    assertEquals("notification-group", configs.get(ConsumerConfig.GROUP_ID_CONFIG));
+  }
+}
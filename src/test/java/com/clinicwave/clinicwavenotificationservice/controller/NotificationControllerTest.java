@@ -1,10 +1,21 @@
 package com.clinicwave.clinicwavenotificationservice.controller;
 
+import com.clinicwave.clinicwavenotificationservice.dto.BulkNotificationStatusDto;
+import com.clinicwave.clinicwavenotificationservice.dto.DeliveryAttemptDto;
 import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationStatusDto;
+import com.clinicwave.clinicwavenotificationservice.enums.BulkNotificationStatusEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.DeliveryStatusEnum;
 import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
 import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
-import com.clinicwave.clinicwavenotificationservice.exception.EmailSendingException;
-import com.clinicwave.clinicwavenotificationservice.service.NotificationService;
+import com.clinicwave.clinicwavenotificationservice.exception.InvalidBulkNotificationException;
+import com.clinicwave.clinicwavenotificationservice.exception.NotificationQueueFullException;
+import com.clinicwave.clinicwavenotificationservice.exception.ResourceNotFoundException;
+import com.clinicwave.clinicwavenotificationservice.service.BulkNotificationService;
+import com.clinicwave.clinicwavenotificationservice.service.DeliveryLogService;
+import com.clinicwave.clinicwavenotificationservice.service.NotificationDispatchService;
+import com.clinicwave.clinicwavenotificationservice.web.WebNotification;
+import com.clinicwave.clinicwavenotificationservice.web.WebNotificationHub;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -15,13 +26,25 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -34,22 +57,31 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 class NotificationControllerTest {
   private final MockMvc mockMvc;
   private final ObjectMapper objectMapper;
+  private final WebNotificationHub webNotificationHub;
 
   @MockBean
-  private NotificationService notificationService;
+  private NotificationDispatchService notificationDispatchService;
+
+  @MockBean
+  private BulkNotificationService bulkNotificationService;
+
+  @MockBean
+  private DeliveryLogService deliveryLogService;
 
   private NotificationRequestDto notificationRequestDto;
 
   /**
    * Constructor-based dependency injection.
    *
-   * @param mockMvc      The MockMvc object
-   * @param objectMapper The ObjectMapper object
+   * @param mockMvc            The MockMvc object
+   * @param objectMapper       The ObjectMapper object
+   * @param webNotificationHub The WebNotificationHub object
    */
   @Autowired
-  public NotificationControllerTest(MockMvc mockMvc, ObjectMapper objectMapper) {
+  public NotificationControllerTest(MockMvc mockMvc, ObjectMapper objectMapper, WebNotificationHub webNotificationHub) {
     this.mockMvc = mockMvc;
     this.objectMapper = objectMapper;
+    this.webNotificationHub = webNotificationHub;
   }
 
   /**
@@ -74,14 +106,15 @@ class NotificationControllerTest {
   @Test
   @DisplayName("POST /api/notifications/send - Success")
   void testSendNotificationSuccess() throws Exception {
-    doNothing().when(notificationService).sendNotification(any(NotificationRequestDto.class));
+    when(notificationDispatchService.dispatch(any(NotificationRequestDto.class))).thenReturn("tracking-id");
 
     mockMvc.perform(post("/api/notifications/send")
                     .contentType(MediaType.APPLICATION_JSON)
                     .content(objectMapper.writeValueAsString(notificationRequestDto)))
-            .andExpect(status().isAccepted());
+            .andExpect(status().isAccepted())
+            .andExpect(jsonPath("$.trackingId").value("tracking-id"));
 
-    verify(notificationService, times(1)).sendNotification(any(NotificationRequestDto.class));
+    verify(notificationDispatchService, times(1)).dispatch(any(NotificationRequestDto.class));
   }
 
   @Test
@@ -101,20 +134,217 @@ class NotificationControllerTest {
                     .content(objectMapper.writeValueAsString(invalidDto)))
             .andExpect(status().isBadRequest());
 
-    verify(notificationService, never()).sendNotification(any(NotificationRequestDto.class));
+    verify(notificationDispatchService, never()).dispatch(any(NotificationRequestDto.class));
   }
 
   @Test
-  @DisplayName("POST /api/notifications/send - Internal Server Error")
-  void testSendNotificationInternalServerError() throws Exception {
-    doThrow(new EmailSendingException("test@example.com", "Test Subject", "Failed to send email"))
-            .when(notificationService).sendNotification(any(NotificationRequestDto.class));
+  @DisplayName("POST /api/notifications/send - Validates the recipient as a phone number for SMS notifications")
+  void testSendNotificationValidatesRecipientByType() throws Exception {
+    when(notificationDispatchService.dispatch(any(NotificationRequestDto.class))).thenReturn("tracking-id");
+    NotificationRequestDto smsDto = new NotificationRequestDto("+14155550123", "Verification", "phone-verification",
+            Map.of("verificationCode", "123456"), NotificationTypeEnum.SMS, NotificationCategoryEnum.VERIFICATION);
+    NotificationRequestDto smsToEmailDto = new NotificationRequestDto("test@example.com", "Verification", "phone-verification",
+            Map.of("verificationCode", "123456"), NotificationTypeEnum.SMS, NotificationCategoryEnum.VERIFICATION);
+    NotificationRequestDto emailToPhoneDto = new NotificationRequestDto("+14155550123", "Verification", "test-template",
+            Map.of(), NotificationTypeEnum.EMAIL, NotificationCategoryEnum.VERIFICATION);
+
+    mockMvc.perform(post("/api/notifications/send")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(smsDto)))
+            .andExpect(status().isAccepted());
+    mockMvc.perform(post("/api/notifications/send")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(smsToEmailDto)))
+            .andExpect(status().isBadRequest());
+    mockMvc.perform(post("/api/notifications/send")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(emailToPhoneDto)))
+            .andExpect(status().isBadRequest());
+
+    verify(notificationDispatchService, times(1)).dispatch(any(NotificationRequestDto.class));
+  }
+
+  @Test
+  @DisplayName("POST /api/notifications/send - Too Many Requests")
+  void testSendNotificationTooManyRequests() throws Exception {
+    when(notificationDispatchService.dispatch(any(NotificationRequestDto.class)))
+            .thenThrow(new NotificationQueueFullException(1000, Duration.ofSeconds(5)));
 
     mockMvc.perform(post("/api/notifications/send")
                     .contentType(MediaType.APPLICATION_JSON)
                     .content(objectMapper.writeValueAsString(notificationRequestDto)))
-            .andExpect(status().isServiceUnavailable());
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().string("Retry-After", "5"));
+
+    verify(notificationDispatchService, times(1)).dispatch(any(NotificationRequestDto.class));
+  }
+
+  @Test
+  @DisplayName("POST /api/notifications/bulk - Accepted")
+  void testSendBulkNotificationAccepted() throws Exception {
+    when(bulkNotificationService.submit(any(InputStream.class)))
+            .thenReturn(new BulkNotificationStatusDto("job-id", BulkNotificationStatusEnum.SENDING, 2, 0, 0));
+
+    mockMvc.perform(post("/api/notifications/bulk")
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .content("""
+                            {"subject":"Clinic closed","templateName":"announcement","type":"EMAIL","category":"GENERAL"}
+                            {"recipient":"first@example.com"}
+                            {"recipient":"second@example.com"}
+                            """))
+            .andExpect(status().isAccepted())
+            .andExpect(jsonPath("$.jobId").value("job-id"))
+            .andExpect(jsonPath("$.received").value(2));
+
+    verify(bulkNotificationService, times(1)).submit(any(InputStream.class));
+  }
+
+  @Test
+  @DisplayName("POST /api/notifications/bulk - Bad Request")
+  void testSendBulkNotificationBadRequest() throws Exception {
+    when(bulkNotificationService.submit(any(InputStream.class)))
+            .thenThrow(new InvalidBulkNotificationException("job-id", "Request is empty"));
+
+    mockMvc.perform(post("/api/notifications/bulk")
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .content(""))
+            .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @DisplayName("GET /api/notifications/bulk/{jobId} - Success")
+  void testGetBulkNotificationStatusSuccess() throws Exception {
+    when(bulkNotificationService.getStatus("job-id"))
+            .thenReturn(new BulkNotificationStatusDto("job-id", BulkNotificationStatusEnum.COMPLETED, 2, 1, 1));
+
+    mockMvc.perform(get("/api/notifications/bulk/job-id"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value("COMPLETED"))
+            .andExpect(jsonPath("$.sent").value(1))
+            .andExpect(jsonPath("$.failed").value(1));
+  }
+
+  @Test
+  @DisplayName("GET /api/notifications/bulk/{jobId} - Not Found")
+  void testGetBulkNotificationStatusNotFound() throws Exception {
+    when(bulkNotificationService.getStatus("unknown"))
+            .thenThrow(new ResourceNotFoundException("Bulk notification", "jobId", "unknown"));
+
+    mockMvc.perform(get("/api/notifications/bulk/unknown"))
+            .andExpect(status().isNotFound());
+  }
+
+  @Test
+  @DisplayName("GET /api/notifications/status/{trackingId} - Success")
+  void testGetNotificationStatusSuccess() throws Exception {
+    DeliveryAttemptDto failed = new DeliveryAttemptDto("tracking-id", "test@example.com", "test-template",
+            NotificationTypeEnum.EMAIL, NotificationCategoryEnum.VERIFICATION, DeliveryStatusEnum.FAILED,
+            "Rejected", LocalDateTime.of(2026, 10, 18, 10, 0));
+    DeliveryAttemptDto sent = new DeliveryAttemptDto("tracking-id", "test@example.com", "test-template",
+            NotificationTypeEnum.EMAIL, NotificationCategoryEnum.VERIFICATION, DeliveryStatusEnum.SENT,
+            null, LocalDateTime.of(2026, 10, 18, 10, 1));
+    when(deliveryLogService.getStatus("tracking-id"))
+            .thenReturn(new NotificationStatusDto("tracking-id", DeliveryStatusEnum.SENT, List.of(failed, sent)));
+
+    mockMvc.perform(get("/api/notifications/status/tracking-id"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value("SENT"))
+            .andExpect(jsonPath("$.attempts.length()").value(2))
+            .andExpect(jsonPath("$.attempts[0].error").value("Rejected"));
+  }
+
+  @Test
+  @DisplayName("GET /api/notifications/status/{trackingId} - Not Found")
+  void testGetNotificationStatusNotFound() throws Exception {
+    when(deliveryLogService.getStatus("unknown"))
+            .thenThrow(new ResourceNotFoundException("Notification", "trackingId", "unknown"));
+
+    mockMvc.perform(get("/api/notifications/status/unknown"))
+            .andExpect(status().isNotFound());
+  }
+
+  @Test
+  @DisplayName("GET /api/notifications/status - Returns the recent attempts to a recipient")
+  void testGetRecentDeliveryAttempts() throws Exception {
+    when(deliveryLogService.getRecentAttempts("test@example.com", 5)).thenReturn(List.of());
+
+    mockMvc.perform(get("/api/notifications/status")
+                    .param("recipient", "test@example.com")
+                    .param("limit", "5"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(0));
+    verify(deliveryLogService, times(1)).getRecentAttempts("test@example.com", 5);
+  }
+
+  @Test
+  @DisplayName("GET /api/notifications/web/stream - Streams buffered and new in-app notifications of the user after the last event")
+  void testStreamWebNotifications() throws Exception {
+    WebNotification first = publishWebNotification("portal-user@example.com", 1);
+    WebNotification second = publishWebNotification("portal-user@example.com", 2);
+    WebNotification other = publishWebNotification("other-user@example.com", 3);
+
+    MvcResult resumed = mockMvc.perform(get("/api/notifications/web/stream")
+                    .principal(() -> "Portal-User@example.com")
+                    .param("recipient", "other-user@example.com")
+                    .header("Last-Event-ID", first.id()))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    WebNotification third = publishWebNotification("portal-user@example.com", 4);
+
+    String stream = awaitContent(resumed, "id:" + third.id());
+    assertFalse(stream.contains("id:" + first.id()));
+    assertTrue(stream.contains("id:" + second.id()), stream);
+    assertTrue(stream.indexOf("id:" + second.id()) < stream.indexOf("id:" + third.id()));
+    assertFalse(stream.contains("id:" + other.id()), "Only the notifications of the authenticated user are streamed");
+    assertTrue(stream.contains("event:notification"));
+    assertTrue(stream.contains("\"subject\":\"Lab results ready\""));
+    assertFalse(stream.contains("templateVariables"));
+  }
+
+  @Test
+  @DisplayName("GET /api/notifications/web/stream - Streams the notifications of the user named by the gateway")
+  void testStreamWebNotificationsOfGatewayUser() throws Exception {
+    WebNotification own = publishWebNotification("gateway-user@example.com", 5);
+    WebNotification other = publishWebNotification("other-user@example.com", 6);
+
+    MvcResult streamed = mockMvc.perform(get("/api/notifications/web/stream")
+                    .header("X-Authenticated-User", "gateway-user@example.com")
+                    .param("recipient", "other-user@example.com"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    WebNotification later = publishWebNotification("gateway-user@example.com", 7);
+
+    String stream = awaitContent(streamed, "id:" + later.id());
+    assertTrue(stream.contains("id:" + own.id()), stream);
+    assertFalse(stream.contains("id:" + other.id()), "Only the notifications of the gateway user are streamed");
+  }
+
+  @Test
+  @DisplayName("GET /api/notifications/web/stream - Unauthorized without an authenticated user")
+  void testStreamWebNotificationsUnauthorized() throws Exception {
+    mockMvc.perform(get("/api/notifications/web/stream")
+                    .param("recipient", "portal-user@example.com"))
+            .andExpect(status().isUnauthorized());
+    mockMvc.perform(get("/api/notifications/web/stream")
+                    .header("X-Authenticated-User", " "))
+            .andExpect(status().isUnauthorized());
+  }
+
+  private WebNotification publishWebNotification(String recipient, long id) {
+    WebNotification webNotification = new WebNotification(id, "Lab results ready", "lab-results",
+            NotificationCategoryEnum.GENERAL, Instant.now());
+    webNotificationHub.publish(recipient, webNotification);
+    return webNotification;
+  }
 
-    verify(notificationService, times(1)).sendNotification(any(NotificationRequestDto.class));
+  private static String awaitContent(MvcResult mvcResult, String expected) throws Exception {
+    long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+    String content = mvcResult.getResponse().getContentAsString();
+    while (!content.contains(expected) && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+      content = mvcResult.getResponse().getContentAsString();
+    }
+    assertTrue(content.contains(expected), content);
+    return content;
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,48 @@
+package com.clinicwave.clinicwavenotificationservice.controller;
+
+import com.clinicwave.clinicwavenotificationservice.service.SmtpSettingService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * This class contains unit tests for the SmtpSettingController class.
+ *
+ * @author agent on 10/18/26
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class SmtpSettingControllerTest {
+  private final MockMvc mockMvc;
+
+  @MockBean
+  private SmtpSettingService smtpSettingService;
+
+  /**
+   * Constructor-based dependency injection.
+   *
+   * @param mockMvc The MockMvc object
+   */
+  @Autowired
+  public SmtpSettingControllerTest(MockMvc mockMvc) {
+    this.mockMvc = mockMvc;
+  }
+
+  @Test
+  @DisplayName("POST /api/smtp-settings/refresh - No Content")
+  void testRefreshMailSender() throws Exception {
+    mockMvc.perform(post("/api/smtp-settings/refresh"))
+            .andExpect(status().isNoContent());
+
+    verify(smtpSettingService, times(1)).refreshMailSender();
+  }
+}
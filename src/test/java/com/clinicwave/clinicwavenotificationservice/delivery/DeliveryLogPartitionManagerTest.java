@@ -0,0 +1,84 @@
+package com.clinicwave.clinicwavenotificationservice.delivery;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class contains unit tests for the DeliveryLogPartitionManager class.
+ *
+ * @author agent on 10/18/26
+ */
+@ExtendWith(MockitoExtension.class)
+class DeliveryLogPartitionManagerTest {
+  private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-10-18T10:00:00Z"), ZoneOffset.UTC);
+
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @Test
+  @DisplayName("createPartitionSql should cover the month up to the first day of the next one")
+  void createPartitionSql_ShouldCoverTheMonth() {
+    assertEquals("create table if not exists delivery_log_p202612 partition of delivery_log"
+                    + " for values from ('2026-12-01') to ('2027-01-01')",
+            DeliveryLogPartitionManager.createPartitionSql(YearMonth.of(2026, 12)));
+  }
+
+  @Test
+  @DisplayName("isOlderThan should only match the partitions of earlier months")
+  void isOlderThan_ShouldOnlyMatchEarlierPartitions() {
+    YearMonth oldestKept = YearMonth.of(2025, 10);
+
+    assertTrue(DeliveryLogPartitionManager.isOlderThan("delivery_log_p202509", oldestKept));
+    assertFalse(DeliveryLogPartitionManager.isOlderThan("delivery_log_p202510", oldestKept));
+    assertFalse(DeliveryLogPartitionManager.isOlderThan("delivery_log_default", oldestKept));
+    assertFalse(DeliveryLogPartitionManager.isOlderThan("delivery_log_p2025ab", oldestKept));
+  }
+
+  @Test
+  @DisplayName("start should leave the table alone on databases other than PostgreSQL")
+  void start_OnOtherDatabase_ShouldDoNothing() {
+    when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("H2");
+
+    new DeliveryLogPartitionManager(jdbcTemplate, transactionManager, 2, 12, CLOCK).start();
+
+    verify(jdbcTemplate, never()).execute(anyString());
+  }
+
+  @Test
+  @DisplayName("start should create the coming partitions and drop those past the retention period")
+  void start_OnPartitionedTable_ShouldMaintainPartitions() {
+    when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("PostgreSQL");
+    when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq("delivery_log"))).thenReturn(1);
+    when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("delivery_log")))
+            .thenReturn(List.of("delivery_log_p202509", "delivery_log_p202510", "delivery_log_p202610"));
+
+    new DeliveryLogPartitionManager(jdbcTemplate, transactionManager, 2, 12, CLOCK).start();
+
+    verify(jdbcTemplate).execute(DeliveryLogPartitionManager.createPartitionSql(YearMonth.of(2026, 10)));
+    verify(jdbcTemplate).execute(DeliveryLogPartitionManager.createPartitionSql(YearMonth.of(2026, 11)));
+    verify(jdbcTemplate).execute(DeliveryLogPartitionManager.createPartitionSql(YearMonth.of(2026, 12)));
+    verify(jdbcTemplate).execute("drop table if exists delivery_log_p202509");
+    verify(jdbcTemplate, never()).execute("drop table if exists delivery_log_p202510");
+  }
+}
@@ -0,0 +1,107 @@
+package com.clinicwave.clinicwavenotificationservice.delivery;
+
+import com.clinicwave.clinicwavenotificationservice.domain.DeliveryLog;
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.enums.DeliveryStatusEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
+import com.clinicwave.clinicwavenotificationservice.exception.EmailSendingException;
+import com.clinicwave.clinicwavenotificationservice.repository.DeliveryLogRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class contains unit tests for the DeliveryLogWriter class.
+ *
+ * @author agent on 10/18/26
+ */
+@ExtendWith(MockitoExtension.class)
+class DeliveryLogWriterTest {
+  @Mock
+  private DeliveryLogRepository deliveryLogRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private SimpleMeterRegistry meterRegistry;
+  private NotificationRequestDto notificationRequestDto;
+
+  /**
+   * Sets up the test environment before each test.
+   */
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    notificationRequestDto = new NotificationRequestDto("recipient@example.com", "Test Subject", "test-template",
+            Map.of(), NotificationTypeEnum.EMAIL, NotificationCategoryEnum.VERIFICATION, null, "tracking-1");
+  }
+
+  @Test
+  @DisplayName("record should write the sent and the failed attempts before shutdown completes")
+  void record_ShouldWriteAttemptsBeforeShutdown() throws InterruptedException {
+    List<DeliveryLog> written = new ArrayList<>();
+    when(deliveryLogRepository.saveAll(anyList())).thenAnswer(invocation -> {
+      written.addAll(invocation.getArgument(0));
+      return invocation.getArgument(0);
+    });
+    DeliveryLogWriter deliveryLogWriter = createDeliveryLogWriter(true, 100);
+
+    deliveryLogWriter.record(notificationRequestDto, null);
+    deliveryLogWriter.record(notificationRequestDto,
+            new EmailSendingException("recipient@example.com", "Test Subject", "Rejected"));
+    deliveryLogWriter.shutdown();
+
+    assertEquals(2, written.size());
+    assertEquals("tracking-1", written.get(0).getTrackingId());
+    assertEquals(DeliveryStatusEnum.SENT, written.get(0).getStatus());
+    assertNull(written.get(0).getError());
+    assertEquals(DeliveryStatusEnum.FAILED, written.get(1).getStatus());
+    assertNotNull(written.get(1).getError());
+    assertEquals(2, meterRegistry.get("notification.delivery-log.write.batch-size").summary().totalAmount());
+  }
+
+  @Test
+  @DisplayName("record should count the attempts made after shutdown as dropped")
+  void record_AfterShutdown_ShouldDropAttempts() throws InterruptedException {
+    DeliveryLogWriter deliveryLogWriter = createDeliveryLogWriter(true, 100);
+    deliveryLogWriter.shutdown();
+
+    deliveryLogWriter.record(notificationRequestDto, null);
+
+    assertEquals(1, meterRegistry.get("notification.delivery-log.dropped").counter().count());
+    verify(deliveryLogRepository, never()).saveAll(anyList());
+  }
+
+  @Test
+  @DisplayName("record should do nothing when the delivery log is disabled")
+  void record_WhenDisabled_ShouldDoNothing() throws InterruptedException {
+    DeliveryLogWriter deliveryLogWriter = createDeliveryLogWriter(false, 100);
+
+    deliveryLogWriter.record(notificationRequestDto, null);
+    deliveryLogWriter.shutdown();
+
+    assertEquals(0, meterRegistry.get("notification.delivery-log.dropped").counter().count());
+    verifyNoInteractions(deliveryLogRepository);
+  }
+
+  private DeliveryLogWriter createDeliveryLogWriter(boolean enabled, int queueCapacity) {
+    return new DeliveryLogWriter(deliveryLogRepository, transactionManager, meterRegistry, enabled, 500,
+            queueCapacity, Duration.ofSeconds(5));
+  }
+}
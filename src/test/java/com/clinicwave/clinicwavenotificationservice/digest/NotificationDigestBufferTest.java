@@ -0,0 +1,232 @@
+package com.clinicwave.clinicwavenotificationservice.digest;
+
+import com.clinicwave.clinicwavenotificationservice.domain.DigestWindow;
+import com.clinicwave.clinicwavenotificationservice.domain.HeldNotification;
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
+import com.clinicwave.clinicwavenotificationservice.repository.DigestWindowRepository;
+import com.clinicwave.clinicwavenotificationservice.repository.HeldNotificationRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class contains unit tests for the NotificationDigestBuffer class.
+ * The repositories are backed by in-memory maps, so that the windows and held notifications behave as stored rows.
+ *
+ * @author agent on 10/18/26
+ */
+@ExtendWith(MockitoExtension.class)
+class NotificationDigestBufferTest {
+  private static final Instant START = Instant.parse("2026-10-18T10:00:00Z");
+
+  @Mock
+  private DigestWindowRepository digestWindowRepository;
+
+  @Mock
+  private HeldNotificationRepository heldNotificationRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private final Map<String, DigestWindow> windows = new HashMap<>();
+  private final List<HeldNotification> heldNotifications = new ArrayList<>();
+  private MutableClock clock;
+  private SimpleMeterRegistry meterRegistry;
+  private NotificationDigestBuffer notificationDigestBuffer;
+
+  /**
+   * Sets up the test environment before each test.
+   */
+  @BeforeEach
+  void setUp() {
+    clock = new MutableClock();
+    meterRegistry = new SimpleMeterRegistry();
+    notificationDigestBuffer = new NotificationDigestBuffer(digestWindowRepository, heldNotificationRepository,
+            transactionManager, new ObjectMapper(), meterRegistry, clock, true, Duration.ofMinutes(5),
+            List.of(NotificationCategoryEnum.GENERAL), 3, 100, Duration.ofMinutes(5));
+
+    lenient().when(digestWindowRepository.findForUpdate(anyString()))
+            .thenAnswer(invocation -> Optional.ofNullable(windows.get(invocation.<String>getArgument(0))));
+    lenient().when(digestWindowRepository.saveAndFlush(any())).thenAnswer(invocation -> {
+      DigestWindow digestWindow = invocation.getArgument(0);
+      windows.put(digestWindow.getRecipientKey(), digestWindow);
+      return digestWindow;
+    });
+    lenient().when(digestWindowRepository.deleteClosed(any())).thenAnswer(invocation -> {
+      Instant now = invocation.getArgument(0);
+      int before = windows.size();
+      windows.values().removeIf(digestWindow -> !digestWindow.getClosesAt().isAfter(now));
+      return before - windows.size();
+    });
+    lenient().when(heldNotificationRepository.save(any())).thenAnswer(invocation -> {
+      HeldNotification heldNotification = invocation.getArgument(0);
+      heldNotification.setId((long) heldNotifications.size() + 1);
+      heldNotifications.add(heldNotification);
+      return heldNotification;
+    });
+    lenient().when(heldNotificationRepository.updateDueAt(anyString(), any())).thenAnswer(invocation -> {
+      List<HeldNotification> inWindow = heldNotifications.stream()
+              .filter(heldNotification -> heldNotification.getWindowId().equals(invocation.getArgument(0)))
+              .toList();
+      inWindow.forEach(heldNotification -> heldNotification.setDueAt(invocation.getArgument(1)));
+      return inWindow.size();
+    });
+    lenient().when(heldNotificationRepository.findClaimable(any(), any())).thenAnswer(invocation -> {
+      Instant now = invocation.getArgument(0);
+      return heldNotifications.stream()
+              .filter(heldNotification -> !heldNotification.getDueAt().isAfter(now))
+              .sorted(Comparator.comparing(HeldNotification::getWindowId).thenComparing(HeldNotification::getId))
+              .limit(invocation.<Limit>getArgument(1).max())
+              .toList();
+    });
+    lenient().doAnswer(invocation -> heldNotifications.removeIf(heldNotification ->
+                    invocation.<List<Long>>getArgument(0).contains(heldNotification.getId())))
+            .when(heldNotificationRepository).deleteAllByIdInBatch(anyList());
+  }
+
+  private static NotificationRequestDto createNotificationRequestDto(String recipient, String subject) {
+    return new NotificationRequestDto(recipient, subject, "appointment-reminder", Map.of("time", "10:00"),
+            NotificationTypeEnum.EMAIL, NotificationCategoryEnum.GENERAL, null, "tracking-" + subject);
+  }
+
+  @Test
+  @DisplayName("offer sends the first notification at once and holds the next ones until the window closes")
+  void offerHoldsNotificationsWhileWindowIsOpen() {
+    NotificationRequestDto first = createNotificationRequestDto("patient@example.com", "First");
+    NotificationRequestDto second = createNotificationRequestDto("Patient@Example.com", "Second");
+    NotificationRequestDto third = createNotificationRequestDto("patient@example.com", "Third");
+
+    assertFalse(notificationDigestBuffer.offer(first));
+    assertTrue(notificationDigestBuffer.offer(second));
+    assertTrue(notificationDigestBuffer.offer(third));
+    clock.advance(Duration.ofMinutes(4));
+    assertTrue(notificationDigestBuffer.claimDue().isEmpty());
+
+    clock.advance(Duration.ofMinutes(1));
+    List<NotificationDigest> digests = notificationDigestBuffer.claimDue();
+
+    assertEquals(List.of(new NotificationDigest("Patient@Example.com", List.of(second, third), List.of(1L, 2L))), digests);
+    assertEquals(2.0, meterRegistry.get("notification.digest.held").counter().count());
+    assertTrue(windows.isEmpty(), "the closed window is deleted");
+    assertFalse(notificationDigestBuffer.offer(first), "a new window opens once the last one closed");
+  }
+
+  @Test
+  @DisplayName("offer sends a full digest early and never holds notifications that cannot be part of a digest")
+  void offerSendsFullDigestsEarlyAndSkipsIneligibleNotifications() {
+    NotificationRequestDto alert = new NotificationRequestDto("patient@example.com", "Alert", "alert", Map.of(),
+            NotificationTypeEnum.EMAIL, NotificationCategoryEnum.SYSTEM_ALERT);
+    NotificationRequestDto keyed = new NotificationRequestDto("patient@example.com", "Keyed", "keyed", Map.of(),
+            NotificationTypeEnum.EMAIL, NotificationCategoryEnum.GENERAL, "order-1");
+    notificationDigestBuffer.offer(createNotificationRequestDto("patient@example.com", "Opening"));
+
+    assertFalse(notificationDigestBuffer.offer(alert));
+    assertFalse(notificationDigestBuffer.offer(keyed));
+    for (int i = 0; i < 3; i++) {
+      assertTrue(notificationDigestBuffer.offer(createNotificationRequestDto("patient@example.com", "Held " + i)));
+    }
+
+    List<NotificationDigest> digests = notificationDigestBuffer.claimDue();
+
+    assertEquals(1, digests.size());
+    assertEquals(3, digests.getFirst().notifications().size());
+    assertFalse(notificationDigestBuffer.offer(createNotificationRequestDto("patient@example.com", "Next")),
+            "the next notification opens a new window");
+  }
+
+  @Test
+  @DisplayName("claimDue leases a digest, so that it is claimed again only if it is not completed in time")
+  void claimDueLeasesDigestsUntilCompleted() {
+    notificationDigestBuffer.offer(createNotificationRequestDto("first@example.com", "Opening"));
+    notificationDigestBuffer.offer(createNotificationRequestDto("first@example.com", "Held"));
+    notificationDigestBuffer.offer(createNotificationRequestDto("second@example.com", "Opening"));
+    notificationDigestBuffer.offer(createNotificationRequestDto("second@example.com", "Held"));
+    clock.advance(Duration.ofMinutes(5));
+
+    List<NotificationDigest> claimed = notificationDigestBuffer.claimDue();
+    assertEquals(2, claimed.size());
+    assertTrue(notificationDigestBuffer.claimDue().isEmpty(), "a leased digest is not claimed twice");
+
+    notificationDigestBuffer.complete(claimed.getFirst().heldIds());
+    clock.advance(Duration.ofMinutes(5));
+    List<NotificationDigest> reclaimed = notificationDigestBuffer.claimDue();
+
+    assertEquals(List.of(claimed.get(1).heldIds()), reclaimed.stream().map(NotificationDigest::heldIds).toList());
+    assertEquals(Map.of("time", "10:00"), reclaimed.getFirst().notifications().getFirst().templateVariables());
+  }
+
+  @Test
+  @DisplayName("offer looks the window up again when another instance opened it meanwhile")
+  void offerRetriesWhenWindowWasOpenedConcurrently() {
+    DigestWindow opened = new DigestWindow("patient@example.com", "window", START.plus(Duration.ofMinutes(5)), 0);
+    doReturn(Optional.empty(), Optional.of(opened)).when(digestWindowRepository).findForUpdate("patient@example.com");
+    doThrow(new DataIntegrityViolationException("Duplicate key")).when(digestWindowRepository).saveAndFlush(any());
+
+    assertTrue(notificationDigestBuffer.offer(createNotificationRequestDto("patient@example.com", "Held")));
+    assertEquals(1, opened.getHeld());
+    assertEquals("window", heldNotifications.getFirst().getWindowId());
+  }
+
+  @Test
+  @DisplayName("offer holds nothing back while digests are disabled")
+  void offerSendsEverythingWhenDisabled() {
+    NotificationDigestBuffer disabled = new NotificationDigestBuffer(digestWindowRepository, heldNotificationRepository,
+            transactionManager, new ObjectMapper(), meterRegistry, clock, false, Duration.ofMinutes(5),
+            List.of(NotificationCategoryEnum.GENERAL), 3, 100, Duration.ofMinutes(5));
+
+    assertFalse(disabled.offer(createNotificationRequestDto("patient@example.com", "First")));
+    assertFalse(disabled.offer(createNotificationRequestDto("patient@example.com", "Second")));
+    verifyNoInteractions(digestWindowRepository, heldNotificationRepository);
+  }
+
+  private static final class MutableClock extends Clock {
+    private Instant instant = START;
+
+    void advance(Duration duration) {
+      instant = instant.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return instant;
+    }
+  }
+}
@@ -0,0 +1,143 @@
+package com.clinicwave.clinicwavenotificationservice.digest;
+
+import com.clinicwave.clinicwavenotificationservice.delivery.DeliveryLogWriter;
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
+import com.clinicwave.clinicwavenotificationservice.exception.TemplateProcessingException;
+import com.clinicwave.clinicwavenotificationservice.service.NotificationService;
+import com.clinicwave.clinicwavenotificationservice.strategy.NotificationResult;
+import com.clinicwave.clinicwavenotificationservice.template.EmailTemplateRenderer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class contains unit tests for the NotificationDigestDispatcher class.
+ *
+ * @author agent on 10/18/26
+ */
+@ExtendWith(MockitoExtension.class)
+class NotificationDigestDispatcherTest {
+  @Mock
+  private NotificationDigestBuffer notificationDigestBuffer;
+
+  @Mock
+  private NotificationService notificationService;
+
+  @Mock
+  private EmailTemplateRenderer emailTemplateRenderer;
+
+  @Mock
+  private DeliveryLogWriter deliveryLogWriter;
+
+  private NotificationDigestDispatcher notificationDigestDispatcher;
+
+  /**
+   * Sets up the test environment before each test.
+   */
+  @BeforeEach
+  void setUp() {
+    notificationDigestDispatcher = new NotificationDigestDispatcher(notificationDigestBuffer, notificationService,
+            emailTemplateRenderer, deliveryLogWriter, new SimpleMeterRegistry(), Duration.ofSeconds(1),
+            Duration.ofSeconds(1), "You have %d new notifications");
+  }
+
+  private static NotificationRequestDto createNotificationRequestDto(String subject, String templateName) {
+    return new NotificationRequestDto("patient@example.com", subject, templateName, Map.of(),
+            NotificationTypeEnum.EMAIL, NotificationCategoryEnum.GENERAL, null, "tracking-" + subject);
+  }
+
+  @Test
+  @DisplayName("dispatch sends the rendered notifications as one digest and logs each under its tracking ID")
+  @SuppressWarnings("unchecked")
+  void dispatchSendsOneDigestPerRecipient() {
+    NotificationRequestDto first = createNotificationRequestDto("Lab results", "lab-results");
+    NotificationRequestDto second = createNotificationRequestDto("Invoice", "invoice");
+    when(emailTemplateRenderer.render("lab-results", Map.of())).thenReturn("<html><body><p>Ready</p></body></html>");
+    when(emailTemplateRenderer.render("invoice", Map.of())).thenReturn("<p>Due</p>");
+    when(notificationService.sendNotificationsWithoutDigest(anyList()))
+            .thenAnswer(invocation -> ((List<NotificationRequestDto>) invocation.getArgument(0)).stream()
+                    .map(NotificationResult::success).toList());
+
+    int sent = notificationDigestDispatcher.dispatch(List.of(new NotificationDigest("patient@example.com", List.of(first, second), List.of(1L, 2L))));
+
+    ArgumentCaptor<List<NotificationRequestDto>> captor = ArgumentCaptor.forClass(List.class);
+    verify(notificationService).sendNotificationsWithoutDigest(captor.capture());
+    NotificationRequestDto digest = captor.getValue().getFirst();
+    assertEquals(1, sent);
+    assertEquals("You have 2 new notifications", digest.subject());
+    assertEquals(NotificationDigestBuffer.DIGEST_TEMPLATE, digest.templateName());
+    assertEquals(List.of(Map.of("subject", "Lab results", "body", "<p>Ready</p>"),
+            Map.of("subject", "Invoice", "body", "<p>Due</p>")), digest.templateVariables().get("notifications"));
+    verify(deliveryLogWriter).record(first, null);
+    verify(deliveryLogWriter).record(second, null);
+    verify(notificationDigestBuffer).complete(List.of(1L, 2L));
+  }
+
+  @Test
+  @DisplayName("dispatch leaves out a notification whose template cannot be rendered and logs it as failed")
+  @SuppressWarnings("unchecked")
+  void dispatchLeavesOutUnrenderableNotifications() {
+    NotificationRequestDto broken = createNotificationRequestDto("Broken", "missing");
+    NotificationRequestDto fine = createNotificationRequestDto("Invoice", "invoice");
+    TemplateProcessingException error = new TemplateProcessingException("missing", "not found");
+    when(emailTemplateRenderer.render("missing", Map.of())).thenThrow(error);
+    when(emailTemplateRenderer.render("invoice", Map.of())).thenReturn("<p>Due</p>");
+    when(notificationService.sendNotificationsWithoutDigest(anyList()))
+            .thenAnswer(invocation -> ((List<NotificationRequestDto>) invocation.getArgument(0)).stream()
+                    .map(NotificationResult::success).toList());
+
+    notificationDigestDispatcher.dispatch(List.of(new NotificationDigest("patient@example.com", List.of(broken, fine), List.of(1L, 2L))));
+
+    ArgumentCaptor<List<NotificationRequestDto>> captor = ArgumentCaptor.forClass(List.class);
+    verify(notificationService).sendNotificationsWithoutDigest(captor.capture());
+    assertEquals("Invoice", captor.getValue().getFirst().subject());
+    verify(deliveryLogWriter).record(broken, error);
+    verify(deliveryLogWriter).record(fine, null);
+  }
+
+  @Test
+  @DisplayName("dispatch sends the notifications of a digest that failed one by one")
+  @SuppressWarnings("unchecked")
+  void dispatchSendsNotificationsOfFailedDigestIndividually() {
+    NotificationRequestDto first = createNotificationRequestDto("Lab results", "lab-results");
+    NotificationRequestDto second = createNotificationRequestDto("Invoice", "invoice");
+    when(emailTemplateRenderer.render("lab-results", Map.of())).thenReturn("<p>Ready</p>");
+    when(emailTemplateRenderer.render("invoice", Map.of())).thenReturn("<p>Due</p>");
+    RuntimeException error = new TemplateProcessingException(NotificationDigestBuffer.DIGEST_TEMPLATE, "broken");
+    when(notificationService.sendNotificationsWithoutDigest(anyList()))
+            .thenAnswer(invocation -> List.of(NotificationResult.failure(invocation.<List<NotificationRequestDto>>getArgument(0).getFirst(), error)))
+            .thenAnswer(invocation -> ((List<NotificationRequestDto>) invocation.getArgument(0)).stream()
+                    .map(NotificationResult::success).toList());
+
+    int sent = notificationDigestDispatcher.dispatch(List.of(new NotificationDigest("patient@example.com", List.of(first, second), List.of(1L, 2L))));
+
+    assertEquals(0, sent);
+    verify(notificationService).sendNotificationsWithoutDigest(List.of(first, second));
+    verify(deliveryLogWriter, never()).record(any(), any());
+    verify(notificationDigestBuffer).complete(List.of(1L, 2L));
+  }
+
+  @Test
+  @DisplayName("shutdown leaves the digests that are not due in the buffer")
+  void shutdownKeepsHeldNotifications() throws InterruptedException {
+    notificationDigestDispatcher.shutdown();
+
+    verifyNoInteractions(notificationDigestBuffer, notificationService);
+  }
+}
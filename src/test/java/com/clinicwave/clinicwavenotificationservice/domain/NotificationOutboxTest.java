@@ -0,0 +1,92 @@
+package com.clinicwave.clinicwavenotificationservice.domain;
+
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.OutboxStatusEnum;
+import com.clinicwave.clinicwavenotificationservice.repository.NotificationOutboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class is a test class for the NotificationOutbox entity.
+ * The outbox dispatcher is disabled so that it does not drain the rows under test.
+ *
+ * @author agent on 10/18/26
+ */
+@SpringBootTest(properties = "notification.outbox.enabled=false")
+class NotificationOutboxTest {
+  private final NotificationOutboxRepository notificationOutboxRepository;
+
+  /**
+   * Constructor for dependency injection.
+   *
+   * @param notificationOutboxRepository The repository for NotificationOutbox entities.
+   */
+  @Autowired
+  public NotificationOutboxTest(NotificationOutboxRepository notificationOutboxRepository) {
+    this.notificationOutboxRepository = notificationOutboxRepository;
+  }
+
+  /**
+   * Tear down method that runs after each test.
+   */
+  @AfterEach
+  void tearDown() {
+    notificationOutboxRepository.deleteAll();
+  }
+
+  private static NotificationOutbox createNotificationOutbox(String trackingId, OutboxStatusEnum status, LocalDateTime availableAt) {
+    NotificationOutbox notificationOutbox = new NotificationOutbox();
+    notificationOutbox.setTrackingId(trackingId);
+    notificationOutbox.setRecipient("recipient@example.com");
+    notificationOutbox.setSubject("Subject");
+    notificationOutbox.setTemplateName("email-verification");
+    notificationOutbox.setTemplateVariables("{}");
+    notificationOutbox.setType(NotificationTypeEnum.EMAIL);
+    notificationOutbox.setCategory(NotificationCategoryEnum.VERIFICATION);
+    notificationOutbox.setStatus(status);
+    notificationOutbox.setAvailableAt(availableAt);
+    return notificationOutbox;
+  }
+
+  @Test
+  @DisplayName("Test save NotificationOutbox batch")
+  void testSaveNotificationOutboxBatch() {
+    LocalDateTime now = LocalDateTime.now();
+    List<NotificationOutbox> saved = notificationOutboxRepository.saveAll(List.of(
+            createNotificationOutbox("first", OutboxStatusEnum.PENDING, now),
+            createNotificationOutbox("second", OutboxStatusEnum.PENDING, now)));
+
+    assertEquals(2, notificationOutboxRepository.count());
+    assertTrue(saved.get(0).getId() < saved.get(1).getId());
+    assertNotNull(saved.get(0).getCreatedAt());
+    assertEquals(0, saved.get(0).getAttempts());
+  }
+
+  @Test
+  @Transactional
+  @DisplayName("Test findClaimable returns the oldest available pending notifications")
+  void testFindClaimable() {
+    LocalDateTime now = LocalDateTime.now();
+    notificationOutboxRepository.saveAll(List.of(
+            createNotificationOutbox("first", OutboxStatusEnum.PENDING, now.minusMinutes(1)),
+            createNotificationOutbox("leased", OutboxStatusEnum.PENDING, now.plusMinutes(5)),
+            createNotificationOutbox("failed", OutboxStatusEnum.FAILED, now.minusMinutes(1)),
+            createNotificationOutbox("second", OutboxStatusEnum.PENDING, now.minusMinutes(1)),
+            createNotificationOutbox("third", OutboxStatusEnum.PENDING, now.minusMinutes(1))));
+
+    List<NotificationOutbox> claimable = notificationOutboxRepository.findClaimable(OutboxStatusEnum.PENDING, now, Limit.of(2));
+
+    assertEquals(List.of("first", "second"), claimable.stream().map(NotificationOutbox::getTrackingId).toList());
+  }
+}
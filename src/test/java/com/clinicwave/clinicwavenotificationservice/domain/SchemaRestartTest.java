@@ -0,0 +1,106 @@
+package com.clinicwave.clinicwavenotificationservice.domain;
+
+import com.clinicwave.clinicwavenotificationservice.ClinicwaveNotificationServiceApplication;
+import com.clinicwave.clinicwavenotificationservice.enums.DeliveryStatusEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.OutboxStatusEnum;
+import com.clinicwave.clinicwavenotificationservice.repository.DeliveryLogRepository;
+import com.clinicwave.clinicwavenotificationservice.repository.HeldNotificationRepository;
+import com.clinicwave.clinicwavenotificationservice.repository.NotificationOutboxRepository;
+import com.clinicwave.clinicwavenotificationservice.repository.ScheduledNotificationRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class tests that the durable notification state outlives a restart of the service: the scheduled
+ * notifications, the outbox, the notifications held for a digest and the delivery log written before the restart
+ * are read back after it.
+ * The service is started twice on the same file-based database, with the outbox dispatcher disabled so that it
+ * does not drain the rows under test.
+ *
+ * @author agent on 10/18/26
+ */
+class SchemaRestartTest {
+  @TempDir
+  private Path databaseDirectory;
+
+  private ConfigurableApplicationContext start() {
+    return new SpringApplicationBuilder(ClinicwaveNotificationServiceApplication.class)
+            .web(WebApplicationType.NONE)
+            .run("--spring.datasource.url=jdbc:h2:file:" + databaseDirectory.resolve("notification"),
+                    "--notification.outbox.enabled=false");
+  }
+
+  @Test
+  @DisplayName("Rows written before a restart are read back after it")
+  void testRowsSurviveRestart() {
+    try (ConfigurableApplicationContext context = start()) {
+      ScheduledNotification scheduledNotification = new ScheduledNotification();
+      scheduledNotification.setTrackingId("scheduled");
+      scheduledNotification.setRecipient("recipient@example.com");
+      scheduledNotification.setSubject("Subject");
+      scheduledNotification.setTemplateName("email-verification");
+      scheduledNotification.setType(NotificationTypeEnum.EMAIL);
+      scheduledNotification.setCategory(NotificationCategoryEnum.VERIFICATION);
+      // Past the load horizon, so that the scheduler leaves it in the database.
+      scheduledNotification.setSendAt(Instant.now().plus(Duration.ofDays(1)));
+      context.getBean(ScheduledNotificationRepository.class).save(scheduledNotification);
+
+      NotificationOutbox notificationOutbox = new NotificationOutbox();
+      notificationOutbox.setTrackingId("outbox");
+      notificationOutbox.setRecipient("recipient@example.com");
+      notificationOutbox.setSubject("Subject");
+      notificationOutbox.setTemplateName("email-verification");
+      notificationOutbox.setTemplateVariables("{}");
+      notificationOutbox.setType(NotificationTypeEnum.EMAIL);
+      notificationOutbox.setCategory(NotificationCategoryEnum.VERIFICATION);
+      notificationOutbox.setStatus(OutboxStatusEnum.PENDING);
+      notificationOutbox.setAvailableAt(LocalDateTime.now());
+      context.getBean(NotificationOutboxRepository.class).save(notificationOutbox);
+
+      HeldNotification heldNotification = new HeldNotification();
+      heldNotification.setWindowId("window");
+      heldNotification.setTrackingId("held");
+      heldNotification.setRecipient("recipient@example.com");
+      heldNotification.setSubject("Subject");
+      heldNotification.setTemplateName("appointment-reminder");
+      heldNotification.setType(NotificationTypeEnum.EMAIL);
+      heldNotification.setCategory(NotificationCategoryEnum.GENERAL);
+      // Not due yet, so that the digest dispatcher leaves it in the database.
+      heldNotification.setDueAt(Instant.now().plus(Duration.ofDays(1)));
+      context.getBean(HeldNotificationRepository.class).save(heldNotification);
+
+      DeliveryLog deliveryLog = new DeliveryLog();
+      deliveryLog.setTrackingId("delivered");
+      deliveryLog.setRecipient("recipient@example.com");
+      deliveryLog.setTemplateName("email-verification");
+      deliveryLog.setType(NotificationTypeEnum.EMAIL);
+      deliveryLog.setCategory(NotificationCategoryEnum.VERIFICATION);
+      deliveryLog.setStatus(DeliveryStatusEnum.SENT);
+      context.getBean(DeliveryLogRepository.class).save(deliveryLog);
+    }
+
+    try (ConfigurableApplicationContext context = start()) {
+      assertEquals(List.of("scheduled"), context.getBean(ScheduledNotificationRepository.class).findAll().stream()
+              .map(ScheduledNotification::getTrackingId).toList());
+      assertEquals(List.of("outbox"), context.getBean(NotificationOutboxRepository.class).findAll().stream()
+              .map(NotificationOutbox::getTrackingId).toList());
+      assertEquals(List.of("held"), context.getBean(HeldNotificationRepository.class).findAll().stream()
+              .map(HeldNotification::getTrackingId).toList());
+      assertEquals(1, context.getBean(DeliveryLogRepository.class).findByTrackingIdOrderByCreatedAtAscIdAsc("delivered").size());
+    }
+  }
+}
@@ -0,0 +1,45 @@
+package com.clinicwave.clinicwavenotificationservice.exception;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.HttpRequestMethodNotSupportedException;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * This class contains unit tests for the GlobalExceptionHandler class.
+ *
+ * @author agent on 10/18/26
+ */
+class GlobalExceptionHandlerTest {
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final GlobalExceptionHandler globalExceptionHandler = new GlobalExceptionHandler(meterRegistry);
+  private final WebRequest webRequest = new ServletWebRequest(new MockHttpServletRequest("DELETE", "/api/notification"));
+
+  private double errorCount(String exception, String status) {
+    return meterRegistry.get("notification.api.errors").tags("exception", exception, "status", status).counter().count();
+  }
+
+  @Test
+  @DisplayName("handleException counts the Spring MVC exceptions answered by the inherited handlers")
+  void handleExceptionCountsInheritedHandlers() throws Exception {
+    ResponseEntity<Object> response = globalExceptionHandler.handleException(
+            new HttpRequestMethodNotSupportedException("DELETE"), webRequest);
+
+    assertEquals(405, response.getStatusCode().value());
+    assertEquals(1, errorCount("HttpRequestMethodNotSupportedException", "405"));
+  }
+
+  @Test
+  @DisplayName("the exception handlers of the service count the exceptions they answer")
+  void exceptionHandlersCountHandledExceptions() {
+    globalExceptionHandler.handleResourceNotFoundException(new ResourceNotFoundException("SmtpSetting", "id", 1L), webRequest);
+
+    assertEquals(1, errorCount("ResourceNotFoundException", "404"));
+  }
+}
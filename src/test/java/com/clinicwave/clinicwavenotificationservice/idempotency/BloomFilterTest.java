@@ -0,0 +1,49 @@
+package com.clinicwave.clinicwavenotificationservice.idempotency;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the BloomFilter class.
+ *
+ * @author agent on 10/18/26
+ */
+class BloomFilterTest {
+  @Test
+  @DisplayName("mightContain finds every key that was added")
+  void mightContainFindsAddedKeys() {
+    BloomFilter bloomFilter = BloomFilter.create(10_000, 0.01);
+    for (int i = 0; i < 10_000; i++) {
+      bloomFilter.put("key-" + i);
+    }
+
+    for (int i = 0; i < 10_000; i++) {
+      assertTrue(bloomFilter.mightContain("key-" + i));
+    }
+  }
+
+  @Test
+  @DisplayName("mightContain keeps false positives near the configured rate")
+  void mightContainKeepsFalsePositiveRate() {
+    BloomFilter bloomFilter = BloomFilter.create(10_000, 0.01);
+    for (int i = 0; i < 10_000; i++) {
+      bloomFilter.put("key-" + i);
+    }
+
+    int falsePositives = 0;
+    for (int i = 0; i < 100_000; i++) {
+      if (bloomFilter.mightContain("other-" + i)) {
+        falsePositives++;
+      }
+    }
+    assertTrue(falsePositives < 2_000, "Expected about 1% false positives but got " + falsePositives);
+  }
+
+  @Test
+  @DisplayName("create rejects an invalid false positive rate")
+  void createRejectsInvalidFalsePositiveRate() {
+    assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(100, 1.5));
+  }
+}
@@ -0,0 +1,158 @@
+package com.clinicwave.clinicwavenotificationservice.idempotency;
+
+import com.clinicwave.clinicwavenotificationservice.domain.ProcessedNotification;
+import com.clinicwave.clinicwavenotificationservice.repository.ProcessedNotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class contains unit tests for the NotificationDeduplicator class.
+ *
+ * @author agent on 10/18/26
+ */
+@ExtendWith(MockitoExtension.class)
+class NotificationDeduplicatorTest {
+  @Mock
+  private ProcessedNotificationRepository processedNotificationRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private NotificationDeduplicator createDeduplicator(Clock clock, int maxCachedKeys, boolean storeEnabled) {
+    return new NotificationDeduplicator(processedNotificationRepository, transactionManager, meterRegistry, clock,
+            Duration.ofHours(1), 1000, 0.01, maxCachedKeys, storeEnabled);
+  }
+
+  @Test
+  @DisplayName("tryAcquire rejects keys that were sent or are being sent, but not keys whose send failed")
+  void tryAcquireRejectsSentAndInFlightKeys() {
+    NotificationDeduplicator notificationDeduplicator = createDeduplicator(Clock.systemUTC(), 1000, false);
+
+    assertTrue(notificationDeduplicator.tryAcquire("sent"));
+    assertFalse(notificationDeduplicator.tryAcquire("sent"), "The key is being sent");
+    notificationDeduplicator.complete("sent");
+    assertFalse(notificationDeduplicator.tryAcquire("sent"), "The key was sent");
+
+    assertTrue(notificationDeduplicator.tryAcquire("failed"));
+    notificationDeduplicator.release("failed");
+    assertTrue(notificationDeduplicator.tryAcquire("failed"));
+
+    assertEquals(2, meterRegistry.get("notification.idempotency.duplicates").counter().count());
+  }
+
+  @Test
+  @DisplayName("tryAcquire remembers keys for at least the window and forgets them after two windows")
+  void tryAcquireForgetsKeysAfterTwoWindows() {
+    MutableClock clock = new MutableClock();
+    NotificationDeduplicator notificationDeduplicator = createDeduplicator(clock, 1000, false);
+    notificationDeduplicator.tryAcquire("key");
+    notificationDeduplicator.complete("key");
+
+    clock.advance(Duration.ofMinutes(90));
+    assertFalse(notificationDeduplicator.tryAcquire("key"));
+
+    clock.advance(Duration.ofMinutes(60));
+    assertTrue(notificationDeduplicator.tryAcquire("key"));
+  }
+
+  @Test
+  @DisplayName("tryAcquire confirms keys beyond the cache with the store")
+  void tryAcquireConfirmsUncachedKeysWithStore() {
+    NotificationDeduplicator notificationDeduplicator = createDeduplicator(Clock.systemUTC(), 0, true);
+    notificationDeduplicator.tryAcquire("stored");
+    notificationDeduplicator.complete("stored");
+    notificationDeduplicator.flush();
+    when(processedNotificationRepository.existsByIdempotencyKeyAndCreatedAtAfter(eq("stored"), any())).thenReturn(true);
+
+    assertFalse(notificationDeduplicator.tryAcquire("stored"));
+    assertTrue(notificationDeduplicator.tryAcquire("new"));
+    verify(processedNotificationRepository, never()).existsByIdempotencyKeyAndCreatedAtAfter(eq("new"), any());
+  }
+
+  @Test
+  @DisplayName("flush writes the sent keys to the store in one batch")
+  @SuppressWarnings("unchecked")
+  void flushWritesKeysInOneBatch() {
+    NotificationDeduplicator notificationDeduplicator = createDeduplicator(Clock.systemUTC(), 1000, true);
+    for (String key : List.of("first", "second")) {
+      notificationDeduplicator.tryAcquire(key);
+      notificationDeduplicator.complete(key);
+    }
+
+    notificationDeduplicator.flush();
+    notificationDeduplicator.flush();
+
+    ArgumentCaptor<List<ProcessedNotification>> saved = ArgumentCaptor.forClass(List.class);
+    verify(processedNotificationRepository, times(1)).saveAll(saved.capture());
+    assertEquals(List.of("first", "second"), saved.getValue().stream().map(ProcessedNotification::getIdempotencyKey).toList());
+  }
+
+  @Test
+  @DisplayName("loadStoredKeys recognises the keys sent before a restart")
+  void loadStoredKeysRecognisesStoredKeys() {
+    when(processedNotificationRepository.streamIdempotencyKeysSince(any())).thenReturn(Stream.of("before-restart"));
+    NotificationDeduplicator notificationDeduplicator = createDeduplicator(Clock.systemUTC(), 1000, true);
+
+    notificationDeduplicator.loadStoredKeys();
+
+    assertFalse(notificationDeduplicator.tryAcquire("before-restart"));
+  }
+
+  @Test
+  @DisplayName("idempotencyKey reads the key from the record headers")
+  void idempotencyKeyReadsHeader() {
+    RecordHeaders headers = new RecordHeaders();
+    assertNull(NotificationDeduplicator.idempotencyKey(headers));
+
+    headers.add(NotificationDeduplicator.IDEMPOTENCY_KEY_HEADER, "order-1".getBytes(StandardCharsets.UTF_8));
+    assertEquals("order-1", NotificationDeduplicator.idempotencyKey(headers));
+  }
+
+  /**
+   * A clock that only moves when told to.
+   */
+  private static final class MutableClock extends Clock {
+    private Instant instant = Instant.parse("2026-10-18T10:00:00Z");
+
+    void advance(Duration duration) {
+      instant = instant.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return instant;
+    }
+  }
+}
@@ -0,0 +1,210 @@
+package com.clinicwave.clinicwavenotificationservice.lane;
+
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
+import com.clinicwave.clinicwavenotificationservice.exception.LaneTimeoutException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the NotificationLanes class.
+ *
+ * @author agent on 10/18/26
+ */
+class NotificationLanesTest {
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  /**
+   * Stops the threads waiting for the lanes after each test.
+   */
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  private NotificationLanes createLanes(int capacity, LaneSettings verification, LaneSettings marketing) {
+    return createLanes(capacity, Duration.ofSeconds(5), verification, marketing);
+  }
+
+  private NotificationLanes createLanes(int capacity, Duration acquireTimeout, LaneSettings verification, LaneSettings marketing) {
+    Map<NotificationCategoryEnum, LaneSettings> lanes = new EnumMap<>(NotificationCategoryEnum.class);
+    lanes.put(NotificationCategoryEnum.SYSTEM_ALERT, new LaneSettings(1, 0, Duration.ofSeconds(10)));
+    lanes.put(NotificationCategoryEnum.VERIFICATION, verification);
+    lanes.put(NotificationCategoryEnum.GENERAL, new LaneSettings(1, 0, Duration.ofMinutes(1)));
+    lanes.put(NotificationCategoryEnum.MARKETING, marketing);
+    List<NotificationCategoryEnum> priority = List.of(NotificationCategoryEnum.SYSTEM_ALERT, NotificationCategoryEnum.VERIFICATION);
+    return new NotificationLanes(new NotificationLaneSettings(Map.of(NotificationTypeEnum.EMAIL, capacity, NotificationTypeEnum.SMS, capacity),
+            acquireTimeout, priority, lanes), meterRegistry);
+  }
+
+  private static void awaitWaiting(NotificationLanes notificationLanes, NotificationCategoryEnum category) throws InterruptedException {
+    // Give the acquiring thread time to start waiting.
+    Thread.sleep(100);
+    assertEquals(0, notificationLanes.getInFlight(NotificationTypeEnum.EMAIL, category), category + " should still be waiting");
+  }
+
+  @Test
+  @DisplayName("acquire keeps the reserved capacity of a lane free from other lanes")
+  void acquireKeepsReservedCapacityFree() throws Exception {
+    NotificationLanes notificationLanes = createLanes(2,
+            new LaneSettings(1, 1, Duration.ofSeconds(10)), new LaneSettings(2, 0, Duration.ofMinutes(30)));
+
+    NotificationLanes.LanePermit marketing = notificationLanes.acquire(NotificationTypeEnum.EMAIL, NotificationCategoryEnum.MARKETING);
+    CompletableFuture<NotificationLanes.LanePermit> secondMarketing =
+            CompletableFuture.supplyAsync(() -> notificationLanes.acquire(NotificationTypeEnum.EMAIL, NotificationCategoryEnum.MARKETING), executor);
+    Thread.sleep(100);
+
+    assertFalse(secondMarketing.isDone(), "The only shared send is taken");
+    try (NotificationLanes.LanePermit ignored = notificationLanes.acquire(NotificationTypeEnum.EMAIL, NotificationCategoryEnum.VERIFICATION)) {
+      assertEquals(1, notificationLanes.getInFlight(NotificationTypeEnum.EMAIL, NotificationCategoryEnum.VERIFICATION));
+    }
+
+    marketing.close();
+    secondMarketing.get(5, TimeUnit.SECONDS).close();
+  }
+
+  @Test
+  @DisplayName("acquire limits the sends of a lane to its concurrency")
+  void acquireLimitsLaneConcurrency() throws Exception {
+    NotificationLanes notificationLanes = createLanes(8,
+            new LaneSettings(2, 0, Duration.ofSeconds(10)), new LaneSettings(1, 0, Duration.ofMinutes(30)));
+
+    NotificationLanes.LanePermit first = notificationLanes.acquire(NotificationTypeEnum.EMAIL, NotificationCategoryEnum.MARKETING);
+    CompletableFuture<NotificationLanes.LanePermit> second =
+            CompletableFuture.supplyAsync(() -> notificationLanes.acquire(NotificationTypeEnum.EMAIL, NotificationCategoryEnum.MARKETING), executor);
+    Thread.sleep(100);
+    assertFalse(second.isDone());
+
+    first.close();
+    first.close();
+    second.get(5, TimeUnit.SECONDS).close();
+    assertEquals(0, notificationLanes.getInFlight(NotificationTypeEnum.EMAIL, NotificationCategoryEnum.MARKETING));
+  }
+
+  @Test
+  @DisplayName("acquire hands freed shared capacity to the waiting lane with the highest priority")
+  void acquireHandsSharedCapacityToHighestPriority() throws Exception {
+    NotificationLanes notificationLanes = createLanes(1,
+            new LaneSettings(1, 0, Duration.ofSeconds(10)), new LaneSettings(2, 0, Duration.ofMinutes(30)));
+
+    NotificationLanes.LanePermit held = notificationLanes.acquire(NotificationTypeEnum.EMAIL, NotificationCategoryEnum.MARKETING);
+    CompletableFuture<NotificationLanes.LanePermit> marketing =
+            CompletableFuture.supplyAsync(() -> notificationLanes.acquire(NotificationTypeEnum.EMAIL, NotificationCategoryEnum.MARKETING), executor);
+    Thread.sleep(100);
+    CompletableFuture<NotificationLanes.LanePermit> verification =
+            CompletableFuture.supplyAsync(() -> notificationLanes.acquire(NotificationTypeEnum.EMAIL, NotificationCategoryEnum.VERIFICATION), executor);
+    awaitWaiting(notificationLanes, NotificationCategoryEnum.VERIFICATION);
+
+    held.close();
+
+    NotificationLanes.LanePermit verificationPermit = verification.get(5, TimeUnit.SECONDS);
+    assertFalse(marketing.isDone(), "Marketing waited first but has the lower priority");
+    verificationPermit.close();
+    marketing.get(5, TimeUnit.SECONDS).close();
+  }
+
+  @Test
+  @DisplayName("acquire hands a freed place of the reservation to a send of the lane waiting for shared capacity")
+  void acquireHandsFreedReservationToWaitingSend() throws Exception {
+    NotificationLanes notificationLanes = createLanes(2,
+            new LaneSettings(2, 1, Duration.ofSeconds(10)), new LaneSettings(1, 0, Duration.ofMinutes(30)));
+
+    NotificationLanes.LanePermit marketing = notificationLanes.acquire(NotificationTypeEnum.EMAIL, NotificationCategoryEnum.MARKETING);
+    NotificationLanes.LanePermit first = notificationLanes.acquire(NotificationTypeEnum.EMAIL, NotificationCategoryEnum.VERIFICATION);
+    CompletableFuture<NotificationLanes.LanePermit> second =
+            CompletableFuture.supplyAsync(() -> notificationLanes.acquire(NotificationTypeEnum.EMAIL, NotificationCategoryEnum.VERIFICATION), executor);
+    Thread.sleep(100);
+    assertFalse(second.isDone(), "The reservation and the shared capacity are taken");
+
+    first.close();
+
+    second.get(5, TimeUnit.SECONDS).close();
+    marketing.close();
+  }
+
+  @Test
+  @DisplayName("acquire fails with LaneTimeoutException when no place becomes free within the acquire timeout")
+  void acquireFailsAfterAcquireTimeout() {
+    NotificationLanes notificationLanes = createLanes(8, Duration.ofMillis(50),
+            new LaneSettings(1, 0, Duration.ofSeconds(10)), new LaneSettings(1, 0, Duration.ofMinutes(30)));
+
+    try (NotificationLanes.LanePermit ignored = notificationLanes.acquire(NotificationTypeEnum.EMAIL, NotificationCategoryEnum.MARKETING)) {
+      assertThrows(LaneTimeoutException.class, () -> notificationLanes.acquire(NotificationTypeEnum.EMAIL, NotificationCategoryEnum.MARKETING));
+    }
+
+    assertEquals(1, meterRegistry.get("notification.lane.timeouts").tags("channel", "EMAIL", "category", "MARKETING").counter().count());
+    notificationLanes.acquire(NotificationTypeEnum.EMAIL, NotificationCategoryEnum.MARKETING).close();
+  }
+
+  @Test
+  @DisplayName("acquire takes several places at once, from the reservation and then from the shared capacity")
+  void acquireTakesSeveralPlaces() {
+    NotificationLanes notificationLanes = createLanes(4, Duration.ofMillis(50),
+            new LaneSettings(4, 1, Duration.ofSeconds(10)), new LaneSettings(4, 0, Duration.ofMinutes(30)));
+
+    assertEquals(4, notificationLanes.getMaxPlaces(NotificationTypeEnum.EMAIL, NotificationCategoryEnum.VERIFICATION));
+    assertEquals(3, notificationLanes.getMaxPlaces(NotificationTypeEnum.EMAIL, NotificationCategoryEnum.MARKETING));
+    try (NotificationLanes.LanePermit ignored = notificationLanes.acquire(NotificationTypeEnum.EMAIL, NotificationCategoryEnum.VERIFICATION, 3)) {
+      assertEquals(3, notificationLanes.getInFlight(NotificationTypeEnum.EMAIL, NotificationCategoryEnum.VERIFICATION));
+      assertThrows(LaneTimeoutException.class, () -> notificationLanes.acquire(NotificationTypeEnum.EMAIL, NotificationCategoryEnum.MARKETING, 2));
+      notificationLanes.acquire(NotificationTypeEnum.EMAIL, NotificationCategoryEnum.MARKETING).close();
+    }
+    notificationLanes.acquire(NotificationTypeEnum.EMAIL, NotificationCategoryEnum.MARKETING, 3).close();
+    assertThrows(IllegalArgumentException.class, () -> notificationLanes.acquire(NotificationTypeEnum.EMAIL, NotificationCategoryEnum.MARKETING, 4));
+  }
+
+  @Test
+  @DisplayName("acquire keeps the lanes of each channel apart and does not limit channels without lanes")
+  void acquireKeepsChannelsApart() {
+    NotificationLanes notificationLanes = createLanes(1, Duration.ofMillis(50),
+            new LaneSettings(1, 0, Duration.ofSeconds(10)), new LaneSettings(1, 0, Duration.ofMinutes(30)));
+
+    try (NotificationLanes.LanePermit ignored = notificationLanes.acquire(NotificationTypeEnum.EMAIL, NotificationCategoryEnum.MARKETING)) {
+      assertThrows(LaneTimeoutException.class, () -> notificationLanes.acquire(NotificationTypeEnum.EMAIL, NotificationCategoryEnum.MARKETING));
+      notificationLanes.acquire(NotificationTypeEnum.SMS, NotificationCategoryEnum.MARKETING).close();
+      for (int i = 0; i < 3; i++) {
+        notificationLanes.acquire(NotificationTypeEnum.WEB, NotificationCategoryEnum.MARKETING);
+      }
+    }
+
+    assertEquals(0, notificationLanes.getInFlight(NotificationTypeEnum.WEB, NotificationCategoryEnum.MARKETING));
+    assertEquals(Integer.MAX_VALUE, notificationLanes.getMaxPlaces(NotificationTypeEnum.WEB, NotificationCategoryEnum.MARKETING));
+    assertEquals(0, notificationLanes.getInFlight(NotificationTypeEnum.SMS, NotificationCategoryEnum.MARKETING));
+  }
+
+  @Test
+  @DisplayName("recordLatency counts deliveries later than the latency objective of the category")
+  void recordLatencyCountsSloBreaches() {
+    NotificationLanes notificationLanes = createLanes(2,
+            new LaneSettings(1, 1, Duration.ofSeconds(10)), new LaneSettings(1, 0, Duration.ofMinutes(30)));
+
+    notificationLanes.recordLatency(NotificationCategoryEnum.VERIFICATION, Duration.ofSeconds(2));
+    notificationLanes.recordLatency(NotificationCategoryEnum.VERIFICATION, Duration.ofSeconds(30));
+    notificationLanes.recordLatency(NotificationCategoryEnum.MARKETING, Duration.ofMinutes(5));
+
+    assertEquals(2, meterRegistry.get("notification.lane.latency").tag("category", "VERIFICATION").timer().count());
+    assertEquals(1, meterRegistry.get("notification.lane.latency.slo-breaches").tag("category", "VERIFICATION").counter().count());
+    assertEquals(0, meterRegistry.get("notification.lane.latency.slo-breaches").tag("category", "MARKETING").counter().count());
+  }
+
+  @Test
+  @DisplayName("the constructor rejects reservations beyond the capacity")
+  void constructorRejectsReservationsBeyondCapacity() {
+    assertThrows(IllegalArgumentException.class, () -> createLanes(1,
+            new LaneSettings(2, 2, Duration.ofSeconds(10)), new LaneSettings(1, 0, Duration.ofMinutes(30))));
+  }
+}
@@ -0,0 +1,96 @@
+package com.clinicwave.clinicwavenotificationservice.listener;
+
+import com.clinicwave.clinicwavenotificationservice.exception.EmailSendingException;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class contains unit tests for the FailedNotificationPublisher class.
+ *
+ * @author agent on 10/18/26
+ */
+@ExtendWith(MockitoExtension.class)
+class FailedNotificationPublisherTest {
+  private final List<Exception> published = new ArrayList<>();
+
+  @Mock
+  private KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
+
+  private FailedNotificationPublisher publisher(String listenerMode) {
+    return new FailedNotificationPublisher((consumerRecord, error) -> published.add(error), kafkaListenerEndpointRegistry, listenerMode);
+  }
+
+  @Test
+  @DisplayName("publish hands the record over with the error it failed with")
+  void publishHandsOverRecordWithError() {
+    EmailSendingException error = new EmailSendingException("test@example.com", "Subject", "Connection refused");
+
+    publisher("batch").publish(new ConsumerRecord<>("notification-topic", 0, 0, "key", "value"), error);
+
+    assertEquals(List.of(error), published);
+  }
+
+  @Test
+  @DisplayName("publishUndeserializable hands the record over with its deserialization error")
+  void publishUndeserializableHandsOverDeserializationError() {
+    ConsumerRecord<String, String> consumerRecord = new ConsumerRecord<>("notification-topic", 0, 0, "key", null);
+    DeserializationException error = new DeserializationException("Unreadable", new byte[]{1, 2}, false, null);
+    SerializationUtils.deserializationException(consumerRecord.headers(), new byte[]{1, 2}, error, false);
+
+    publisher("batch").publishUndeserializable(consumerRecord);
+
+    DeserializationException publishedError = assertInstanceOf(DeserializationException.class, published.getFirst());
+    assertArrayEquals(new byte[]{1, 2}, publishedError.getData());
+  }
+
+  @Test
+  @DisplayName("publishUndeserializable hands a record without a value over as undeserializable")
+  void publishUndeserializableHandsOverRecordWithoutValue() {
+    publisher("parallel").publishUndeserializable(new ConsumerRecord<>("notification-topic", 0, 0, "key", null));
+
+    assertInstanceOf(DeserializationException.class, published.getFirst());
+  }
+
+  @Test
+  @DisplayName("startRetryListeners starts the retry listeners of the record listener in the batch mode")
+  void startRetryListenersStartsRetryListenersInBatchMode() {
+    Map<String, MessageListenerContainer> containers = Map.of(
+            "notification-listener", mock(MessageListenerContainer.class),
+            "notification-listener-retry-0", mock(MessageListenerContainer.class),
+            "notification-listener-dlt", mock(MessageListenerContainer.class),
+            "lane-listener-retry-0", mock(MessageListenerContainer.class));
+    when(kafkaListenerEndpointRegistry.getListenerContainerIds()).thenReturn(new LinkedHashSet<>(containers.keySet()));
+    containers.forEach((id, container) -> when(kafkaListenerEndpointRegistry.getListenerContainer(id)).thenReturn(container));
+
+    publisher("batch").startRetryListeners();
+
+    verify(containers.get("notification-listener-retry-0")).start();
+    verify(containers.get("notification-listener-dlt")).start();
+    verify(containers.get("notification-listener"), never()).start();
+    verify(containers.get("lane-listener-retry-0"), never()).start();
+  }
+
+  @Test
+  @DisplayName("startRetryListeners leaves the retry listeners to the record listener in the single mode")
+  void startRetryListenersDoesNothingInSingleMode() {
+    publisher("single").startRetryListeners();
+
+    verifyNoInteractions(kafkaListenerEndpointRegistry);
+  }
+}
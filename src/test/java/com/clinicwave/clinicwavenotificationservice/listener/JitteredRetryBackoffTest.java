@@ -0,0 +1,91 @@
+package com.clinicwave.clinicwavenotificationservice.listener;
+
+import com.clinicwave.clinicwavenotificationservice.exception.EmailSendingException;
+import com.clinicwave.clinicwavenotificationservice.exception.TemplateProcessingException;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.ListenerExecutionFailedException;
+import org.springframework.kafka.retrytopic.RetryTopicHeaders;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the JitteredRetryBackoff class.
+ *
+ * @author agent on 10/18/26
+ */
+class JitteredRetryBackoffTest {
+  private static final long NOW = 1_000_000L;
+  private static final RetryTopicSettings SETTINGS = new RetryTopicSettings(4, Duration.ofSeconds(10), 6,
+          Duration.ofMinutes(5), 0.2, List.of(TemplateProcessingException.class));
+
+  private final JitteredRetryBackoff jitteredRetryBackoff =
+          new JitteredRetryBackoff(SETTINGS, Clock.fixed(Instant.ofEpochMilli(NOW), ZoneOffset.UTC));
+
+  private static ConsumerRecord<String, String> failedRecord(Integer attempt) {
+    ConsumerRecord<String, String> consumerRecord = new ConsumerRecord<>("notification-topic", 0, 0, "key", "value");
+    if (attempt != null) {
+      consumerRecord.headers().add(RetryTopicHeaders.DEFAULT_HEADER_ATTEMPTS, ByteBuffer.allocate(4).putInt(attempt).array());
+    }
+    return consumerRecord;
+  }
+
+  private static Exception sendFailure() {
+    return new ListenerExecutionFailedException("Listener failed",
+            new EmailSendingException("test@example.com", "Subject", "Connection refused"));
+  }
+
+  private static long backoffTimestamp(Headers headers) {
+    Header header = headers.lastHeader(RetryTopicHeaders.DEFAULT_HEADER_BACKOFF_TIMESTAMP);
+    assertNotNull(header);
+    return new BigInteger(header.value()).longValue();
+  }
+
+  @Test
+  @DisplayName("nextAttemptHeaders delays the first retry by the initial delay give or take the jitter")
+  void nextAttemptHeadersJittersFirstRetry() {
+    long delay = backoffTimestamp(jitteredRetryBackoff.nextAttemptHeaders(failedRecord(null), sendFailure())) - NOW;
+
+    assertTrue(delay >= 8_000 && delay <= 12_000, "Delay within 20% of 10s: " + delay);
+  }
+
+  @Test
+  @DisplayName("nextAttemptHeaders grows the delay exponentially up to the maximum delay")
+  void nextAttemptHeadersGrowsDelayUpToMaximum() {
+    long secondRetry = backoffTimestamp(jitteredRetryBackoff.nextAttemptHeaders(failedRecord(2), sendFailure())) - NOW;
+    long thirdRetry = backoffTimestamp(jitteredRetryBackoff.nextAttemptHeaders(failedRecord(3), sendFailure())) - NOW;
+
+    assertTrue(secondRetry >= 48_000 && secondRetry <= 72_000, "Delay within 20% of 1m: " + secondRetry);
+    assertTrue(thirdRetry >= 240_000 && thirdRetry <= 360_000, "Delay within 20% of 5m: " + thirdRetry);
+  }
+
+  @Test
+  @DisplayName("nextAttemptHeaders adds nothing once the attempts are used up")
+  void nextAttemptHeadersAddsNothingAfterLastAttempt() {
+    Headers headers = jitteredRetryBackoff.nextAttemptHeaders(failedRecord(4), sendFailure());
+
+    assertFalse(headers.iterator().hasNext());
+  }
+
+  @Test
+  @DisplayName("nextAttemptHeaders adds nothing for non-retryable errors")
+  void nextAttemptHeadersAddsNothingForNonRetryableErrors() {
+    Exception exception = new ListenerExecutionFailedException("Listener failed",
+            new TemplateProcessingException("email-verification", "Template not found"));
+
+    Headers headers = jitteredRetryBackoff.nextAttemptHeaders(failedRecord(null), exception);
+
+    assertFalse(headers.iterator().hasNext());
+  }
+}
@@ -0,0 +1,137 @@
+package com.clinicwave.clinicwavenotificationservice.listener;
+
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
+import com.clinicwave.clinicwavenotificationservice.lane.NotificationLanes;
+import com.clinicwave.clinicwavenotificationservice.service.NotificationService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class contains unit tests for the NotificationLaneListener class.
+ *
+ * @author agent on 10/18/26
+ */
+@ExtendWith(MockitoExtension.class)
+class NotificationLaneListenerTest {
+  private static final long NOW = 1_000_000L;
+
+  @Mock
+  private NotificationService notificationService;
+
+  @Mock
+  private NotificationLanes notificationLanes;
+
+  @Mock
+  private KafkaTemplate<String, Object> kafkaTemplate;
+
+  private NotificationLaneListener notificationLaneListener;
+
+  /**
+   * Sets up the test environment before each test.
+   */
+  @BeforeEach
+  void setUp() {
+    notificationLaneListener = new NotificationLaneListener(notificationService, notificationLanes, kafkaTemplate,
+            Clock.fixed(Instant.ofEpochMilli(NOW), ZoneOffset.UTC));
+  }
+
+  private static NotificationRequestDto createNotificationRequestDto(NotificationCategoryEnum category) {
+    return new NotificationRequestDto("test@example.com", "Subject", "email-verification", Map.of(),
+            NotificationTypeEnum.EMAIL, category);
+  }
+
+  private static ConsumerRecord<String, NotificationRequestDto> record(long offset, long timestamp, NotificationRequestDto value) {
+    return new ConsumerRecord<>("notification-topic", 0, offset, timestamp, TimestampType.CREATE_TIME,
+            0, 0, "key-" + offset, value, new RecordHeaders(), Optional.empty());
+  }
+
+  @Test
+  @DisplayName("routeNotifications publishes each notification to its category topic with its key and timestamp")
+  @SuppressWarnings("unchecked")
+  void routeNotificationsPublishesToCategoryTopics() {
+    when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+    NotificationRequestDto verification = createNotificationRequestDto(NotificationCategoryEnum.VERIFICATION);
+    NotificationRequestDto marketing = createNotificationRequestDto(NotificationCategoryEnum.MARKETING);
+
+    notificationLaneListener.routeNotifications(new ArrayList<>(Arrays.asList(
+            record(0, 100, verification), record(1, 200, null), record(2, 300, marketing))));
+
+    ArgumentCaptor<ProducerRecord<String, Object>> routed = ArgumentCaptor.forClass(ProducerRecord.class);
+    verify(kafkaTemplate, times(2)).send(routed.capture());
+    ProducerRecord<String, Object> first = routed.getAllValues().get(0);
+    assertEquals("notification-topic-verification", first.topic());
+    assertEquals("key-0", first.key());
+    assertEquals(100L, first.timestamp());
+    assertSame(verification, first.value());
+    assertEquals("notification-topic-marketing", routed.getAllValues().get(1).topic());
+  }
+
+  @Test
+  @DisplayName("routeNotifications fails the batch when a notification could not be routed")
+  @SuppressWarnings("unchecked")
+  void routeNotificationsFailsWhenRoutingFails() {
+    when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Broker down")));
+    List<ConsumerRecord<String, NotificationRequestDto>> records =
+            List.of(record(0, 100, createNotificationRequestDto(NotificationCategoryEnum.GENERAL)));
+
+    assertThrows(RuntimeException.class, () -> notificationLaneListener.routeNotifications(records));
+  }
+
+  @Test
+  @DisplayName("handleLaneNotification sends the notification and reports its latency since it was published")
+  void handleLaneNotificationSendsAndRecordsLatency() {
+    NotificationRequestDto notificationRequestDto = createNotificationRequestDto(NotificationCategoryEnum.VERIFICATION);
+    when(notificationService.sendNotification(notificationRequestDto)).thenReturn(true);
+
+    notificationLaneListener.handleLaneNotification(notificationRequestDto, NOW - 1500, null);
+
+    verify(notificationService).sendNotification(notificationRequestDto);
+    verify(notificationLanes).recordLatency(NotificationCategoryEnum.VERIFICATION, Duration.ofMillis(1500));
+  }
+
+  @Test
+  @DisplayName("handleLaneNotification reports no latency for a notification that was scheduled, held back or skipped")
+  void handleLaneNotificationSkipsLatencyWhenNotSent() {
+    NotificationRequestDto notificationRequestDto = createNotificationRequestDto(NotificationCategoryEnum.VERIFICATION);
+    when(notificationService.sendNotification(notificationRequestDto)).thenReturn(false);
+
+    notificationLaneListener.handleLaneNotification(notificationRequestDto, NOW - 1500, null);
+
+    verify(notificationLanes, never()).recordLatency(any(), any());
+  }
+
+  @Test
+  @DisplayName("topicFor routes notifications without a category to the GENERAL topic")
+  void topicForRoutesMissingCategoryToGeneral() {
+    assertEquals("notification-topic-general", NotificationLaneListener.topicFor(null));
+    assertEquals("notification-topic-system-alert", NotificationLaneListener.topicFor(NotificationCategoryEnum.SYSTEM_ALERT));
+  }
+}
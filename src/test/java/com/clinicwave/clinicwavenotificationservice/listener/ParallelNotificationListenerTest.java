@@ -0,0 +1,266 @@
+package com.clinicwave.clinicwavenotificationservice.listener;
+
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
+import com.clinicwave.clinicwavenotificationservice.exception.EmailSendingException;
+import com.clinicwave.clinicwavenotificationservice.exception.TemplateProcessingException;
+import com.clinicwave.clinicwavenotificationservice.service.NotificationService;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.KafkaException;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class contains unit tests for the ParallelNotificationListener class.
+ *
+ * @author agent on 10/18/26
+ */
+@ExtendWith(MockitoExtension.class)
+class ParallelNotificationListenerTest {
+  private static final String TOPIC = "notification-topic";
+
+  @Mock
+  private NotificationService notificationService;
+
+  @Mock
+  private FailedNotificationPublisher failedNotificationPublisher;
+
+  @Mock
+  private Consumer<?, ?> consumer;
+
+  private ParallelNotificationListener parallelNotificationListener;
+
+  /**
+   * Sets up the test environment before each test.
+   */
+  @BeforeEach
+  void setUp() {
+    RetryTopicSettings retryTopicSettings = new RetryTopicSettings(4, Duration.ofSeconds(10), 6, Duration.ofMinutes(10),
+            0.2, List.of(TemplateProcessingException.class));
+    parallelNotificationListener = new ParallelNotificationListener(notificationService, failedNotificationPublisher,
+            retryTopicSettings, 4, false, 2, Duration.ZERO);
+  }
+
+  /**
+   * Shuts the lanes down after each test.
+   */
+  @AfterEach
+  void tearDown() {
+    parallelNotificationListener.shutdown();
+  }
+
+  @Test
+  @DisplayName("handleNotifications commits every partition past its last record when all records complete")
+  void handleNotificationsCommitsAllRecords() {
+    List<ConsumerRecord<String, NotificationRequestDto>> records = List.of(
+            createRecord(0, 10, "a@example.com"),
+            createRecord(0, 11, "b@example.com"),
+            createRecord(1, 5, "c@example.com")
+    );
+
+    parallelNotificationListener.handleNotifications(records, consumer);
+
+    verify(notificationService, times(3)).sendNotification(any());
+    verify(consumer).commitSync(Map.of(
+            new TopicPartition(TOPIC, 0), new OffsetAndMetadata(12),
+            new TopicPartition(TOPIC, 1), new OffsetAndMetadata(6)
+    ));
+    verify(consumer, never()).seek(any(TopicPartition.class), anyLong());
+  }
+
+  @Test
+  @DisplayName("handleNotifications commits up to the first failed record and rewinds its partition")
+  void handleNotificationsCommitsUpToFirstFailedRecord() {
+    ConsumerRecord<String, NotificationRequestDto> failing = createRecord(0, 11, "fail@example.com");
+    List<ConsumerRecord<String, NotificationRequestDto>> records = List.of(
+            createRecord(0, 10, "a@example.com"),
+            failing,
+            createRecord(0, 12, "b@example.com"),
+            createRecord(1, 5, "c@example.com")
+    );
+    lenient().doThrow(new EmailSendingException("fail@example.com", "Test Subject", "Rejected"))
+            .when(notificationService).sendNotification(failing.value());
+
+    parallelNotificationListener.handleNotifications(records, consumer);
+
+    verify(consumer).commitSync(Map.of(
+            new TopicPartition(TOPIC, 0), new OffsetAndMetadata(11),
+            new TopicPartition(TOPIC, 1), new OffsetAndMetadata(6)
+    ));
+    verify(consumer).seek(new TopicPartition(TOPIC, 0), 11);
+  }
+
+  @Test
+  @DisplayName("process does not send later records of a key after one of its records failed")
+  void processSkipsLaterRecordsOfFailedKey() {
+    ConsumerRecord<String, NotificationRequestDto> failing = createRecord(0, 10, "same@example.com");
+    ConsumerRecord<String, NotificationRequestDto> later = createRecord(0, 11, null, "same@example.com", "Later Subject");
+    doThrow(new EmailSendingException("same@example.com", "Test Subject", "Rejected"))
+            .when(notificationService).sendNotification(failing.value());
+
+    ParallelNotificationListener.ProcessedOffsets processedOffsets = parallelNotificationListener.process(List.of(failing, later));
+
+    verify(notificationService, never()).sendNotification(later.value());
+    assertEquals(10, processedOffsets.offsets().get(new TopicPartition(TOPIC, 0)).offset());
+  }
+
+  @Test
+  @DisplayName("process sends records with different keys in parallel")
+  void processSendsDifferentKeysInParallel() {
+    // Two records with keys on different lanes: each send waits for the other one to start.
+    CountDownLatch bothStarted = new CountDownLatch(2);
+    doAnswer(invocation -> {
+      bothStarted.countDown();
+      assertTrue(bothStarted.await(5, TimeUnit.SECONDS));
+      return null;
+    }).when(notificationService).sendNotification(any());
+
+    ParallelNotificationListener.ProcessedOffsets processedOffsets = parallelNotificationListener.process(List.of(
+            createRecord(0, 0, "key-0", "a@example.com"),
+            createRecord(0, 1, "key-1", "b@example.com")
+    ));
+
+    assertTrue(processedOffsets.incompletePartitions().isEmpty());
+    assertEquals(2, processedOffsets.offsets().get(new TopicPartition(TOPIC, 0)).offset());
+  }
+
+  @Test
+  @DisplayName("handleNotifications does not send the records that completed again when their partition is rewound")
+  void handleNotificationsSkipsCompletedRecordsOnRedelivery() {
+    ConsumerRecord<String, NotificationRequestDto> failing = createRecord(0, 10, "fail@example.com");
+    ConsumerRecord<String, NotificationRequestDto> completed = createRecord(0, 11, "a@example.com");
+    lenient().doThrow(new EmailSendingException("fail@example.com", "Test Subject", "Rejected"))
+            .doReturn(true)
+            .when(notificationService).sendNotification(failing.value());
+
+    parallelNotificationListener.handleNotifications(List.of(failing, completed), consumer);
+    parallelNotificationListener.handleNotifications(List.of(failing, completed), consumer);
+
+    verify(notificationService, times(1)).sendNotification(completed.value());
+    verify(notificationService, times(2)).sendNotification(failing.value());
+    verify(consumer).commitSync(Map.of(new TopicPartition(TOPIC, 0), new OffsetAndMetadata(12)));
+  }
+
+  @Test
+  @DisplayName("onPartitionsRevokedAfterCommit forgets the completed records and failed attempts of the revoked partitions")
+  void onPartitionsRevokedForgetsRevokedPartitions() {
+    ConsumerRecord<String, NotificationRequestDto> failing = createRecord(0, 10, "fail@example.com");
+    ConsumerRecord<String, NotificationRequestDto> completed = createRecord(0, 11, "a@example.com");
+    ConsumerRecord<String, NotificationRequestDto> otherFailing = createRecord(1, 5, "other@example.com");
+    ConsumerRecord<String, NotificationRequestDto> otherCompleted = createRecord(1, 6, "b@example.com");
+    EmailSendingException error = new EmailSendingException("fail@example.com", "Test Subject", "Rejected");
+    doThrow(error).when(notificationService).sendNotification(failing.value());
+    doThrow(error).when(notificationService).sendNotification(otherFailing.value());
+
+    parallelNotificationListener.handleNotifications(List.of(failing, completed, otherFailing, otherCompleted), consumer);
+    parallelNotificationListener.onPartitionsRevokedAfterCommit(consumer, List.of(new TopicPartition(TOPIC, 0)));
+    parallelNotificationListener.handleNotifications(List.of(failing, completed, otherFailing, otherCompleted), consumer);
+
+    verify(notificationService, times(2)).sendNotification(completed.value());
+    verify(notificationService, times(1)).sendNotification(otherCompleted.value());
+    verify(failedNotificationPublisher, never()).publish(failing, error);
+    verify(failedNotificationPublisher).publish(otherFailing, error);
+  }
+
+  @Test
+  @DisplayName("handleNotifications hands a record over to the retry topics once its attempts are used up")
+  void handleNotificationsHandsOverRecordAfterMaxAttempts() {
+    ConsumerRecord<String, NotificationRequestDto> failing = createRecord(0, 10, "fail@example.com");
+    EmailSendingException error = new EmailSendingException("fail@example.com", "Test Subject", "Rejected");
+    doThrow(error).when(notificationService).sendNotification(failing.value());
+
+    parallelNotificationListener.handleNotifications(List.of(failing), consumer);
+    verify(failedNotificationPublisher, never()).publish(any(), any());
+
+    parallelNotificationListener.handleNotifications(List.of(failing), consumer);
+    verify(failedNotificationPublisher).publish(failing, error);
+    verify(consumer).commitSync(Map.of(new TopicPartition(TOPIC, 0), new OffsetAndMetadata(11)));
+  }
+
+  @Test
+  @DisplayName("process hands a record that failed with a non-retryable error over at once")
+  void processHandsOverNonRetryableFailureAtOnce() {
+    ConsumerRecord<String, NotificationRequestDto> failing = createRecord(0, 10, "fail@example.com");
+    TemplateProcessingException error = new TemplateProcessingException("test-template", "Broken");
+    doThrow(error).when(notificationService).sendNotification(failing.value());
+
+    ParallelNotificationListener.ProcessedOffsets processedOffsets = parallelNotificationListener.process(List.of(failing));
+
+    verify(failedNotificationPublisher).publish(failing, error);
+    assertTrue(processedOffsets.incompletePartitions().isEmpty());
+  }
+
+  @Test
+  @DisplayName("process keeps a record that could not be handed over incomplete")
+  void processKeepsRecordIncompleteWhenHandOverFails() {
+    ConsumerRecord<String, NotificationRequestDto> failing = createRecord(0, 10, "fail@example.com");
+    TemplateProcessingException error = new TemplateProcessingException("test-template", "Broken");
+    doThrow(error).when(notificationService).sendNotification(failing.value());
+    doThrow(new KafkaException("Broker unavailable")).when(failedNotificationPublisher).publish(failing, error);
+
+    ParallelNotificationListener.ProcessedOffsets processedOffsets = parallelNotificationListener.process(List.of(failing));
+
+    assertEquals(Set.of(new TopicPartition(TOPIC, 0)), processedOffsets.incompletePartitions());
+    assertEquals(10, processedOffsets.offsets().get(new TopicPartition(TOPIC, 0)).offset());
+  }
+
+  @Test
+  @DisplayName("process publishes records that could not be deserialized to the dead-letter topic")
+  void processPublishesUndeserializableRecords() {
+    ConsumerRecord<String, NotificationRequestDto> undeserializable = new ConsumerRecord<>(TOPIC, 0, 10, "key", null);
+
+    ParallelNotificationListener.ProcessedOffsets processedOffsets = parallelNotificationListener.process(List.of(undeserializable));
+
+    verify(failedNotificationPublisher).publishUndeserializable(undeserializable);
+    assertEquals(11, processedOffsets.offsets().get(new TopicPartition(TOPIC, 0)).offset());
+  }
+
+  /**
+   * Creates a record without a message key for the given recipient.
+   */
+  private ConsumerRecord<String, NotificationRequestDto> createRecord(int partition, long offset, String recipient) {
+    return createRecord(partition, offset, null, recipient);
+  }
+
+  /**
+   * Creates a record with the given message key for the given recipient.
+   */
+  private ConsumerRecord<String, NotificationRequestDto> createRecord(int partition, long offset, String key, String recipient) {
+    return createRecord(partition, offset, key, recipient, "Test Subject");
+  }
+
+  /**
+   * Creates a record with the given message key, recipient and subject.
+   */
+  private ConsumerRecord<String, NotificationRequestDto> createRecord(int partition, long offset, String key, String recipient, String subject) {
+    NotificationRequestDto notificationRequestDto = new NotificationRequestDto(
+            recipient,
+            subject,
+            "test-template",
+            new HashMap<>(),
+            NotificationTypeEnum.EMAIL,
+            NotificationCategoryEnum.GENERAL
+    );
+    return new ConsumerRecord<>(TOPIC, partition, offset, key, notificationRequestDto);
+  }
+}
@@ -0,0 +1,100 @@
+package com.clinicwave.clinicwavenotificationservice.mail;
+
+import com.clinicwave.clinicwavenotificationservice.ratelimit.RateLimiter;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the BalancedJavaMailSender class.
+ *
+ * @author agent on 10/18/26
+ */
+class BalancedJavaMailSenderTest {
+  private static final SmtpTransportPoolSettings POOL_SETTINGS =
+          new SmtpTransportPoolSettings(2, Duration.ofSeconds(1), Duration.ofMinutes(1), 100, Duration.ofSeconds(5));
+  private static final SmtpRelayHealthSettings HEALTH_SETTINGS = new SmtpRelayHealthSettings(0.15, 2, Duration.ofMinutes(1));
+
+  private static BalancedJavaMailSender.Relay createRelay(String host, int weight, int maxConcurrency) {
+    PooledJavaMailSender mailSender = new PooledJavaMailSender(POOL_SETTINGS, new SmtpRelayHealth(host, HEALTH_SETTINGS),
+            RateLimiter.unlimited(), Duration.ofSeconds(5), SmtpStageTimers.register(new SimpleMeterRegistry(), Tags.of("host", host)));
+    mailSender.setHost(host);
+    return new BalancedJavaMailSender.Relay(mailSender, weight, maxConcurrency);
+  }
+
+  private static List<String> selectHosts(BalancedJavaMailSender mailSender, int count) {
+    List<String> hosts = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      hosts.add(mailSender.selectRelay().mailSender().getHost());
+    }
+    return hosts;
+  }
+
+  @Test
+  @DisplayName("selectRelay spreads sends by weight, interleaved")
+  void selectRelaySpreadsSendsByWeight() {
+    BalancedJavaMailSender mailSender = new BalancedJavaMailSender(List.of(
+            createRelay("first", 2, 10),
+            createRelay("second", 1, 10)
+    ));
+
+    assertEquals(List.of("first", "second", "first", "first", "second", "first"), selectHosts(mailSender, 6));
+  }
+
+  @Test
+  @DisplayName("selectRelay skips relays taken out of rotation")
+  void selectRelaySkipsEjectedRelays() {
+    BalancedJavaMailSender.Relay failing = createRelay("failing", 1, 10);
+    BalancedJavaMailSender mailSender = new BalancedJavaMailSender(List.of(failing, createRelay("healthy", 1, 10)));
+    for (int i = 0; i < 2; i++) {
+      failing.mailSender().getHealth().sendStarted();
+      failing.mailSender().getHealth().sendCompleted(true, 1_000_000);
+    }
+
+    assertEquals(List.of("healthy", "healthy", "healthy"), selectHosts(mailSender, 3));
+  }
+
+  @Test
+  @DisplayName("selectRelay uses every relay when all of them are out of rotation")
+  void selectRelayUsesEveryRelayWhenAllAreEjected() {
+    BalancedJavaMailSender.Relay failing = createRelay("failing", 1, 10);
+    BalancedJavaMailSender mailSender = new BalancedJavaMailSender(List.of(failing));
+    for (int i = 0; i < 2; i++) {
+      failing.mailSender().getHealth().sendStarted();
+      failing.mailSender().getHealth().sendCompleted(true, 1_000_000);
+    }
+
+    assertFalse(failing.mailSender().getHealth().isAvailable());
+    assertSame(failing, mailSender.selectRelay());
+  }
+
+  @Test
+  @DisplayName("selectRelay skips relays at their maximum concurrency")
+  void selectRelaySkipsSaturatedRelays() {
+    BalancedJavaMailSender.Relay busy = createRelay("busy", 10, 1);
+    BalancedJavaMailSender mailSender = new BalancedJavaMailSender(List.of(busy, createRelay("idle", 1, 10)));
+    busy.mailSender().getHealth().sendStarted();
+
+    assertEquals(List.of("idle", "idle"), selectHosts(mailSender, 2));
+  }
+
+  @Test
+  @DisplayName("selectRelay picks the least loaded relay when every relay is at its maximum concurrency")
+  void selectRelayPicksLeastLoadedWhenAllAreSaturated() {
+    BalancedJavaMailSender.Relay busier = createRelay("busier", 1, 1);
+    BalancedJavaMailSender.Relay busy = createRelay("busy", 1, 1);
+    BalancedJavaMailSender mailSender = new BalancedJavaMailSender(List.of(busier, busy));
+    busier.mailSender().getHealth().sendStarted();
+    busier.mailSender().getHealth().sendStarted();
+    busy.mailSender().getHealth().sendStarted();
+
+    assertSame(busy, mailSender.selectRelay());
+  }
+}
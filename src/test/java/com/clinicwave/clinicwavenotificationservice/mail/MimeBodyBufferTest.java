@@ -0,0 +1,87 @@
+package com.clinicwave.clinicwavenotificationservice.mail;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the MimeBodyBuffer and MimeBodyBufferPool classes.
+ *
+ * @author agent on 10/18/26
+ */
+class MimeBodyBufferTest {
+  @Test
+  @DisplayName("writer encodes text as UTF-8 like String.getBytes, growing the buffer as needed")
+  void writerEncodesUtf8() throws IOException {
+    String text = "<p>Grüße, Jane – 日本語 😀</p>".repeat(10);
+    MimeBodyBuffer buffer = new MimeBodyBuffer(8);
+    Writer writer = buffer.writer();
+
+    writer.write(text, 0, 7);
+    writer.write(text.toCharArray(), 7, 20);
+    text.substring(27).chars().forEach(c -> {
+      try {
+        writer.write(c);
+      } catch (IOException e) {
+        throw new AssertionError(e);
+      }
+    });
+
+    assertArrayEquals(text.getBytes(StandardCharsets.UTF_8), buffer.toByteArray());
+    assertArrayEquals(text.getBytes(StandardCharsets.UTF_8), buffer.getInputStream().readAllBytes());
+  }
+
+  @Test
+  @DisplayName("writer replaces unpaired surrogates with a question mark")
+  void writerReplacesUnpairedSurrogates() throws IOException {
+    MimeBodyBuffer buffer = new MimeBodyBuffer(16);
+
+    buffer.writer().write("a\uD83Db\uDE00c");
+
+    assertEquals("a?b?c", buffer.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  @DisplayName("transferEncoding chooses 7bit, quoted-printable or base64 from the encoded body")
+  void transferEncodingFollowsContent() throws IOException {
+    MimeBodyBuffer ascii = new MimeBodyBuffer(16);
+    ascii.writer().write("<p>Hello</p>\r\n<p>Jane</p>");
+    MimeBodyBuffer longLine = new MimeBodyBuffer(16);
+    longLine.writer().write("x".repeat(1000));
+    MimeBodyBuffer mostlyAscii = new MimeBodyBuffer(16);
+    mostlyAscii.writer().write("<p>Grüße, Jane</p>");
+    MimeBodyBuffer mostlyNonAscii = new MimeBodyBuffer(16);
+    mostlyNonAscii.writer().write("日本語のメール");
+
+    assertEquals("7bit", ascii.transferEncoding());
+    assertEquals("quoted-printable", longLine.transferEncoding());
+    assertEquals("quoted-printable", mostlyAscii.transferEncoding());
+    assertEquals("base64", mostlyNonAscii.transferEncoding());
+  }
+
+  @Test
+  @DisplayName("the pool reuses released buffers emptied and drops buffers that grew too large")
+  void poolReusesBuffersWithinRetainedCapacity() throws IOException {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    MimeBodyBufferPool pool = new MimeBodyBufferPool(meterRegistry, 2, 16, 64);
+
+    MimeBodyBuffer small = pool.acquire();
+    small.writer().write("<p>Hello</p>");
+    pool.release(small);
+    MimeBodyBuffer reused = pool.acquire();
+    reused.writer().write("x".repeat(100));
+    pool.release(reused);
+
+    assertSame(small, reused);
+    assertEquals(0, meterRegistry.get("notification.mail.body-buffer.idle").gauge().value());
+    assertNotSame(reused, pool.acquire());
+    assertEquals(2, meterRegistry.get("notification.mail.body-buffer.allocations").counter().count());
+    assertEquals(1, meterRegistry.get("notification.mail.body-buffer.discards").counter().count());
+  }
+}
@@ -0,0 +1,93 @@
+package com.clinicwave.clinicwavenotificationservice.mail;
+
+import com.clinicwave.clinicwavenotificationservice.ratelimit.RateLimiter;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * This class contains unit tests for the PooledJavaMailSender class.
+ *
+ * @author agent on 10/18/26
+ */
+class PooledJavaMailSenderTest {
+  private static final SmtpTransportPoolSettings POOL_SETTINGS =
+          new SmtpTransportPoolSettings(1, Duration.ofSeconds(1), Duration.ofMinutes(1), 100, Duration.ofSeconds(5));
+
+  private final RateLimiter rateLimiter = RateLimiter.of(null, 1);
+  private final PooledJavaMailSender mailSender = new PooledJavaMailSender(POOL_SETTINGS,
+          new SmtpRelayHealth("localhost", new SmtpRelayHealthSettings(0.5, 10, Duration.ofSeconds(30))),
+          rateLimiter, Duration.ofSeconds(1), SmtpStageTimers.register(new SimpleMeterRegistry(), Tags.of("host", "localhost")));
+
+  /**
+   * Closes the connection pool after each test.
+   */
+  @AfterEach
+  void tearDown() {
+    mailSender.close();
+  }
+
+  @Test
+  @DisplayName("send fails at once without connecting when the rate limit wait is longer than allowed")
+  void sendFailsAtOnceWhenRateLimitWaitIsTooLong() {
+    rateLimiter.reserve();
+    MimeMessage mimeMessage = mailSender.createMimeMessage();
+
+    long start = System.nanoTime();
+    MailSendException exception = assertThrows(MailSendException.class, () -> mailSender.send(mimeMessage));
+
+    assertTrue(System.nanoTime() - start < Duration.ofSeconds(1).toNanos(), "The message does not wait for the rate limit");
+    assertTrue(exception.getMessageExceptions()[0].getMessage().contains("rate limit"));
+    assertEquals(1, rateLimiter.getRejectedCount());
+    assertEquals(0, mailSender.getTransportPool().getIdleCount());
+    assertTrue(mailSender.getHealth().isAvailable(), "A rate limited message does not count against the relay");
+  }
+
+  @Test
+  @DisplayName("send gives the rate limit token back when the relay cannot be reached")
+  void sendRefundsTokenWhenRelayIsUnreachable() {
+    mailSender.setHost("localhost");
+    mailSender.setPort(1);
+    MimeMessage mimeMessage = mailSender.createMimeMessage();
+
+    assertThrows(MailSendException.class, () -> mailSender.send(mimeMessage));
+
+    assertEquals(0, rateLimiter.tryReserve(0), "The token of the failed message is available again");
+  }
+
+  @Test
+  @DisplayName("send does not count a message that found no free pooled connection against the relay")
+  void sendDoesNotCountPoolTimeoutAgainstRelay() throws MessagingException {
+    SmtpRelayHealth health = new SmtpRelayHealth("localhost", new SmtpRelayHealthSettings(0.05, 1, Duration.ofSeconds(30)));
+    SmtpTransportPoolSettings poolSettings =
+            new SmtpTransportPoolSettings(1, Duration.ofMillis(50), Duration.ofMinutes(1), 100, Duration.ofSeconds(5));
+    try (PooledJavaMailSender exhausted = new PooledJavaMailSender(poolSettings, health, RateLimiter.unlimited(),
+            Duration.ofSeconds(1), SmtpStageTimers.register(new SimpleMeterRegistry(), Tags.of("host", "localhost"))) {
+      @Override
+      protected Transport connectTransport() {
+        return mock(Transport.class);
+      }
+    }) {
+      exhausted.getTransportPool().borrow();
+      MimeMessage mimeMessage = exhausted.createMimeMessage();
+
+      MailSendException exception = assertThrows(MailSendException.class, () -> exhausted.send(mimeMessage));
+
+      assertInstanceOf(SmtpPoolExhaustedException.class, exception.getMessageExceptions()[0]);
+      assertEquals(1, exhausted.getTransportPool().getBorrowTimeoutCount());
+      assertEquals(0.0, health.getErrorRate());
+      assertTrue(health.isAvailable(), "A pool timeout does not take the relay out of rotation");
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package com.clinicwave.clinicwavenotificationservice.mail;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the SmtpRelayHealth class.
+ *
+ * @author agent on 10/18/26
+ */
+class SmtpRelayHealthTest {
+  private static void recordSend(SmtpRelayHealth health, boolean failed) {
+    health.sendStarted();
+    health.sendCompleted(failed, 10_000_000);
+  }
+
+  @Test
+  @DisplayName("sendCompleted tracks in-flight sends, latency and error rate")
+  void sendCompletedTracksStatistics() {
+    SmtpRelayHealth health = new SmtpRelayHealth("relay", new SmtpRelayHealthSettings(0.5, 10, Duration.ofMinutes(1)));
+
+    health.sendStarted();
+    assertEquals(1, health.getInFlight());
+    health.sendCompleted(true, 10_000_000);
+
+    assertEquals(0, health.getInFlight());
+    assertEquals(0.1, health.getErrorRate(), 1e-9);
+    assertEquals(1.0, health.getLatencyMillis(), 1e-9);
+    assertTrue(health.isAvailable());
+  }
+
+  @Test
+  @DisplayName("sendCompleted ejects the relay once its error rate exceeds the limit")
+  void sendCompletedEjectsFailingRelay() {
+    SmtpRelayHealth health = new SmtpRelayHealth("relay", new SmtpRelayHealthSettings(0.15, 2, Duration.ofMinutes(1)));
+
+    recordSend(health, true);
+    assertTrue(health.isAvailable(), "A relay is not ejected before it handled the minimum number of sends");
+    recordSend(health, true);
+
+    assertFalse(health.isAvailable());
+  }
+
+  @Test
+  @DisplayName("isAvailable puts the relay back into rotation after the ejection time")
+  void isAvailableReinstatesRelayAfterEjectionTime() {
+    SmtpRelayHealth health = new SmtpRelayHealth("relay", new SmtpRelayHealthSettings(0.05, 1, Duration.ZERO));
+
+    recordSend(health, true);
+
+    assertTrue(health.isAvailable());
+  }
+
+  @Test
+  @DisplayName("sendCompleted keeps a relay with occasional failures in rotation")
+  void sendCompletedKeepsMostlyHealthyRelay() {
+    SmtpRelayHealth health = new SmtpRelayHealth("relay", new SmtpRelayHealthSettings(0.5, 2, Duration.ofMinutes(1)));
+
+    for (int i = 0; i < 20; i++) {
+      recordSend(health, i % 4 == 0);
+    }
+
+    assertTrue(health.isAvailable());
+  }
+}
@@ -0,0 +1,158 @@
+package com.clinicwave.clinicwavenotificationservice.mail;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class contains unit tests for the SmtpTransportPool class.
+ * It uses Mockito to mock the SMTP transports handed out by the pool.
+ *
+ * @author agent on 10/18/26
+ */
+@ExtendWith(MockitoExtension.class)
+class SmtpTransportPoolTest {
+  @Mock
+  private SmtpTransportPool.TransportFactory transportFactory;
+
+  @Mock
+  private Transport firstTransport;
+
+  @Mock
+  private Transport secondTransport;
+
+  private SmtpTransportPoolSettings settings;
+
+  /**
+   * Sets up the test environment before each test.
+   */
+  @BeforeEach
+  void setUp() {
+    settings = new SmtpTransportPoolSettings(1, Duration.ofMillis(50), Duration.ofMinutes(1), 2, Duration.ofMinutes(1));
+  }
+
+  @Test
+  @DisplayName("borrow reuses a released connection")
+  void borrowReusesReleasedConnection() throws MessagingException {
+    when(transportFactory.connect()).thenReturn(firstTransport);
+    SmtpTransportPool pool = new SmtpTransportPool(transportFactory, settings);
+
+    PooledTransport first = pool.borrow();
+    pool.release(first, false);
+    PooledTransport second = pool.borrow();
+
+    assertSame(first, second);
+    verify(transportFactory, times(1)).connect();
+  }
+
+  @Test
+  @DisplayName("release closes a connection that reached the maximum number of messages")
+  void releaseClosesConnectionAfterMaxMessages() throws MessagingException {
+    when(transportFactory.connect()).thenReturn(firstTransport, secondTransport);
+    SmtpTransportPool pool = new SmtpTransportPool(transportFactory, settings);
+
+    PooledTransport first = pool.borrow();
+    first.sendMessage(null, null);
+    first.sendMessage(null, null);
+    pool.release(first, false);
+    PooledTransport second = pool.borrow();
+
+    assertNotSame(first, second);
+    verify(firstTransport, times(1)).close();
+  }
+
+  @Test
+  @DisplayName("release closes a broken connection")
+  void releaseClosesBrokenConnection() throws MessagingException {
+    when(transportFactory.connect()).thenReturn(firstTransport);
+    SmtpTransportPool pool = new SmtpTransportPool(transportFactory, settings);
+
+    pool.release(pool.borrow(), true);
+
+    assertEquals(0, pool.getIdleCount());
+    verify(firstTransport, times(1)).close();
+  }
+
+  @Test
+  @DisplayName("borrow times out when every connection is in use")
+  void borrowTimesOutWhenPoolIsExhausted() throws MessagingException {
+    when(transportFactory.connect()).thenReturn(firstTransport);
+    SmtpTransportPool pool = new SmtpTransportPool(transportFactory, settings);
+
+    pool.borrow();
+
+    assertThrows(SmtpPoolExhaustedException.class, pool::borrow);
+    assertEquals(1, pool.getBorrowTimeoutCount());
+  }
+
+  @Test
+  @DisplayName("borrow discards an idle connection that fails the NOOP check")
+  void borrowDiscardsConnectionFailingNoopCheck() throws MessagingException {
+    settings = new SmtpTransportPoolSettings(1, Duration.ofMillis(50), Duration.ofMinutes(1), 100, Duration.ZERO);
+    when(transportFactory.connect()).thenReturn(firstTransport, secondTransport);
+    when(firstTransport.isConnected()).thenReturn(false);
+    SmtpTransportPool pool = new SmtpTransportPool(transportFactory, settings);
+
+    PooledTransport first = pool.borrow();
+    pool.release(first, false);
+    PooledTransport second = pool.borrow();
+
+    assertNotSame(first, second);
+    verify(firstTransport, times(1)).close();
+  }
+
+  @Test
+  @DisplayName("evictIdle closes connections idle for longer than the maximum idle time")
+  void evictIdleClosesExpiredConnections() throws MessagingException {
+    settings = new SmtpTransportPoolSettings(1, Duration.ofMillis(50), Duration.ZERO, 100, Duration.ZERO);
+    when(transportFactory.connect()).thenReturn(firstTransport);
+    SmtpTransportPool pool = new SmtpTransportPool(transportFactory, settings);
+
+    pool.release(pool.borrow(), false);
+    pool.evictIdle();
+
+    assertEquals(0, pool.getIdleCount());
+    verify(firstTransport, times(1)).close();
+  }
+
+  @Test
+  @DisplayName("close closes idle connections and lends none of them again")
+  void closeClosesIdleConnections() throws MessagingException {
+    when(transportFactory.connect()).thenReturn(firstTransport, secondTransport);
+    SmtpTransportPool pool = new SmtpTransportPool(transportFactory, settings);
+
+    PooledTransport first = pool.borrow();
+    pool.release(first, false);
+    pool.close();
+    PooledTransport second = pool.borrow();
+
+    verify(firstTransport, times(1)).close();
+    assertNotSame(first, second);
+  }
+
+  @Test
+  @DisplayName("close lets the sends in progress finish and closes their connections when they are returned")
+  void closeDrainsBorrowedConnections() throws MessagingException {
+    when(transportFactory.connect()).thenReturn(firstTransport);
+    SmtpTransportPool pool = new SmtpTransportPool(transportFactory, settings);
+
+    PooledTransport borrowed = pool.borrow();
+    pool.close();
+    borrowed.sendMessage(null, null);
+    pool.release(borrowed, false);
+
+    verify(firstTransport, times(1)).sendMessage(null, null);
+    verify(firstTransport, times(1)).close();
+    assertEquals(0, pool.getIdleCount());
+  }
+}
@@ -0,0 +1,50 @@
+package com.clinicwave.clinicwavenotificationservice.metrics;
+
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the TimedNotificationDeserializer class.
+ *
+ * @author agent on 10/18/26
+ */
+class TimedNotificationDeserializerTest {
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final TimedNotificationDeserializer deserializer = new TimedNotificationDeserializer(
+          new JsonDeserializer<>(NotificationRequestDto.class), new NotificationStageMetrics(meterRegistry));
+
+  @Test
+  @DisplayName("deserialize times the notification request tagged by its type, category and template")
+  void deserializeTimesNotificationRequest() {
+    byte[] data = """
+            {"recipient":"test@example.com","subject":"Subject","templateName":"email-verification",
+             "type":"EMAIL","category":"VERIFICATION"}""".getBytes(StandardCharsets.UTF_8);
+
+    NotificationRequestDto notificationRequestDto = deserializer.deserialize("notification-topic", new RecordHeaders(), data);
+
+    assertEquals("test@example.com", notificationRequestDto.recipient());
+    assertEquals(1, meterRegistry.get("notification.stage.deserialization")
+            .tags("type", "EMAIL", "category", "VERIFICATION", "template", "email-verification", "outcome", "success")
+            .timer().count());
+  }
+
+  @Test
+  @DisplayName("deserialize times requests that cannot be deserialized as failures and rethrows the error")
+  void deserializeTimesFailures() {
+    byte[] data = "not json".getBytes(StandardCharsets.UTF_8);
+
+    assertThrows(SerializationException.class, () -> deserializer.deserialize("notification-topic", new RecordHeaders(), data));
+    assertEquals(1, meterRegistry.get("notification.stage.deserialization")
+            .tags("type", NotificationStageMetrics.UNKNOWN, "outcome", "failure", "exception", "SerializationException")
+            .timer().count());
+  }
+}
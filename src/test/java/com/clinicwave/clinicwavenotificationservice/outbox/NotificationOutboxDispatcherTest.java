@@ -0,0 +1,202 @@
+package com.clinicwave.clinicwavenotificationservice.outbox;
+
+import com.clinicwave.clinicwavenotificationservice.domain.NotificationOutbox;
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.OutboxStatusEnum;
+import com.clinicwave.clinicwavenotificationservice.exception.TemplateProcessingException;
+import com.clinicwave.clinicwavenotificationservice.lane.NotificationLanes;
+import com.clinicwave.clinicwavenotificationservice.repository.NotificationOutboxRepository;
+import com.clinicwave.clinicwavenotificationservice.service.NotificationService;
+import com.clinicwave.clinicwavenotificationservice.strategy.NotificationResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class contains unit tests for the NotificationOutboxDispatcher class.
+ *
+ * @author agent on 10/18/26
+ */
+@ExtendWith(MockitoExtension.class)
+class NotificationOutboxDispatcherTest {
+  private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-10-18T10:00:00Z"), ZoneOffset.UTC);
+  private static final LocalDateTime NOW = LocalDateTime.now(CLOCK);
+
+  @Mock
+  private NotificationOutboxRepository notificationOutboxRepository;
+
+  @Mock
+  private NotificationService notificationService;
+
+  @Mock
+  private NotificationLanes notificationLanes;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private NotificationOutboxDispatcher notificationOutboxDispatcher;
+
+  /**
+   * Sets up the test environment before each test.
+   */
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    notificationOutboxDispatcher = new NotificationOutboxDispatcher(notificationOutboxRepository, notificationService,
+            notificationLanes, transactionManager, new ObjectMapper(), meterRegistry, CLOCK, 10, Duration.ofSeconds(1),
+            Duration.ofMinutes(5), 3, Duration.ofSeconds(30), Duration.ofSeconds(5), Duration.ofDays(7));
+  }
+
+  private static NotificationOutbox createNotificationOutbox(long id, int attempts) {
+    NotificationOutbox notificationOutbox = new NotificationOutbox();
+    notificationOutbox.setId(id);
+    notificationOutbox.setTrackingId("tracking-" + id);
+    notificationOutbox.setRecipient("recipient" + id + "@example.com");
+    notificationOutbox.setSubject("Subject");
+    notificationOutbox.setTemplateName("email-verification");
+    notificationOutbox.setTemplateVariables("{\"code\":\"123456\"}");
+    notificationOutbox.setType(NotificationTypeEnum.EMAIL);
+    notificationOutbox.setCategory(NotificationCategoryEnum.VERIFICATION);
+    notificationOutbox.setAttempts(attempts);
+    notificationOutbox.setAvailableAt(NOW.minusSeconds(1));
+    notificationOutbox.setCreatedAt(NOW.minusSeconds(2));
+    return notificationOutbox;
+  }
+
+  private double count(String result) {
+    return meterRegistry.get("notification.outbox.notifications").tag("result", result).counter().count();
+  }
+
+  @Test
+  @DisplayName("drain leases the claimed notifications, sends them and deletes the sent ones")
+  @SuppressWarnings("unchecked")
+  void drainSendsAndDeletesClaimedNotifications() {
+    NotificationOutbox first = createNotificationOutbox(1, 0);
+    NotificationOutbox second = createNotificationOutbox(2, 0);
+    when(notificationOutboxRepository.findClaimable(OutboxStatusEnum.PENDING, NOW, Limit.of(10))).thenReturn(List.of(first, second));
+    when(notificationService.sendNotifications(any())).thenAnswer(invocation -> ((List<NotificationRequestDto>) invocation.getArgument(0))
+            .stream().map(NotificationResult::success).toList());
+
+    assertEquals(2, notificationOutboxDispatcher.drain());
+
+    verify(notificationService).sendNotifications(argThat(requests -> requests.size() == 2
+            && requests.getFirst().recipient().equals("recipient1@example.com")
+            && requests.getFirst().templateVariables().equals(Map.of("code", "123456"))));
+    assertEquals(1, first.getAttempts());
+    assertEquals(NOW.plusMinutes(5), first.getAvailableAt());
+    verify(notificationOutboxRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+    verify(notificationLanes, times(2)).recordLatency(NotificationCategoryEnum.VERIFICATION, Duration.ofSeconds(2));
+    assertEquals(2, count("sent"));
+  }
+
+  @Test
+  @DisplayName("drain makes a failed notification available again after the retry delay")
+  void drainRetriesFailedNotifications() {
+    NotificationOutbox notificationOutbox = createNotificationOutbox(1, 1);
+    when(notificationOutboxRepository.findClaimable(OutboxStatusEnum.PENDING, NOW, Limit.of(10))).thenReturn(List.of(notificationOutbox));
+    when(notificationService.sendNotifications(any())).thenAnswer(invocation -> List.of(NotificationResult.failure(
+            invocation.<List<NotificationRequestDto>>getArgument(0).getFirst(), new IllegalStateException("Relay down"))));
+    when(notificationOutboxRepository.findAllById(anyIterable())).thenReturn(List.of(notificationOutbox));
+
+    notificationOutboxDispatcher.drain();
+
+    assertEquals(OutboxStatusEnum.PENDING, notificationOutbox.getStatus());
+    assertEquals(2, notificationOutbox.getAttempts());
+    assertEquals(NOW.plusMinutes(1), notificationOutbox.getAvailableAt(), "The delay doubles on the second attempt");
+    assertEquals("Relay down", notificationOutbox.getLastError());
+    verify(notificationOutboxRepository, never()).deleteAllByIdInBatch(any());
+    assertEquals(1, count("retried"));
+  }
+
+  @Test
+  @DisplayName("drain marks a notification as failed once it is out of attempts")
+  void drainFailsNotificationsOutOfAttempts() {
+    NotificationOutbox notificationOutbox = createNotificationOutbox(1, 2);
+    when(notificationOutboxRepository.findClaimable(OutboxStatusEnum.PENDING, NOW, Limit.of(10))).thenReturn(List.of(notificationOutbox));
+    when(notificationService.sendNotifications(any())).thenAnswer(invocation -> List.of(NotificationResult.failure(
+            invocation.<List<NotificationRequestDto>>getArgument(0).getFirst(), new IllegalStateException("Relay down"))));
+    when(notificationOutboxRepository.findAllById(anyIterable())).thenReturn(List.of(notificationOutbox));
+
+    notificationOutboxDispatcher.drain();
+
+    assertEquals(OutboxStatusEnum.FAILED, notificationOutbox.getStatus());
+    assertEquals(1, count("failed"));
+    assertEquals(1, meterRegistry.get("notification.outbox.failed").gauge().value());
+  }
+
+  @Test
+  @DisplayName("drain marks a notification as failed right away when the error cannot be fixed by retrying")
+  void drainFailsNonRetryableNotifications() {
+    NotificationOutbox notificationOutbox = createNotificationOutbox(1, 0);
+    when(notificationOutboxRepository.findClaimable(OutboxStatusEnum.PENDING, NOW, Limit.of(10))).thenReturn(List.of(notificationOutbox));
+    when(notificationService.sendNotifications(any())).thenAnswer(invocation -> List.of(NotificationResult.failure(
+            invocation.<List<NotificationRequestDto>>getArgument(0).getFirst(),
+            new TemplateProcessingException("email-verification", "Missing variable"))));
+    when(notificationOutboxRepository.findAllById(anyIterable())).thenReturn(List.of(notificationOutbox));
+
+    notificationOutboxDispatcher.drain();
+
+    assertEquals(OutboxStatusEnum.FAILED, notificationOutbox.getStatus());
+    assertEquals(1, notificationOutbox.getAttempts());
+  }
+
+  @Test
+  @DisplayName("drain sends nothing when no notification is available")
+  void drainSendsNothingWhenOutboxIsEmpty() {
+    when(notificationOutboxRepository.findClaimable(OutboxStatusEnum.PENDING, NOW, Limit.of(10))).thenReturn(List.of());
+
+    assertEquals(0, notificationOutboxDispatcher.drain());
+
+    verifyNoInteractions(notificationService);
+  }
+
+  @Test
+  @DisplayName("purgeFailed deletes the failed notifications past the retention and counts the ones left")
+  void purgeFailedDeletesExpiredFailedNotifications() {
+    when(notificationOutboxRepository.deleteByStatusUpdatedBefore(OutboxStatusEnum.FAILED, NOW.minusDays(7))).thenReturn(2);
+    when(notificationOutboxRepository.countByStatus(OutboxStatusEnum.FAILED)).thenReturn(3L);
+
+    notificationOutboxDispatcher.purgeFailed();
+
+    verify(notificationOutboxRepository).deleteByStatusUpdatedBefore(OutboxStatusEnum.FAILED, NOW.minusDays(7));
+    assertEquals(3, meterRegistry.get("notification.outbox.failed").gauge().value());
+  }
+
+  @Test
+  @DisplayName("purgeFailed keeps every failed notification when the retention is zero")
+  void purgeFailedKeepsFailedNotificationsWithoutRetention() {
+    NotificationOutboxDispatcher keepingDispatcher = new NotificationOutboxDispatcher(notificationOutboxRepository,
+            notificationService, notificationLanes, transactionManager, new ObjectMapper(), new SimpleMeterRegistry(),
+            CLOCK, 10, Duration.ofSeconds(1), Duration.ofMinutes(5), 3, Duration.ofSeconds(30), Duration.ofSeconds(5),
+            Duration.ZERO);
+
+    keepingDispatcher.purgeFailed();
+
+    verify(notificationOutboxRepository, never()).deleteByStatusUpdatedBefore(any(), any());
+    verify(notificationOutboxRepository).countByStatus(OutboxStatusEnum.FAILED);
+  }
+}
@@ -0,0 +1,89 @@
+package com.clinicwave.clinicwavenotificationservice.ratelimit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the RateLimiter class.
+ *
+ * @author agent on 10/18/26
+ */
+class RateLimiterTest {
+  @Test
+  @DisplayName("reserve lets a burst up to the limit through and then makes callers wait")
+  void reserveAllowsBurstThenWaits() {
+    RateLimiter rateLimiter = RateLimiter.of(5, null);
+
+    for (int i = 0; i < 5; i++) {
+      assertEquals(0, rateLimiter.reserve(), "Message " + i + " is within the burst");
+    }
+    long waitNanos = rateLimiter.reserve();
+
+    assertTrue(waitNanos > TimeUnit.MILLISECONDS.toNanos(150), "Waits close to one emission interval: " + waitNanos);
+    assertTrue(waitNanos <= TimeUnit.MILLISECONDS.toNanos(200), "Waits at most one emission interval: " + waitNanos);
+    assertEquals(1, rateLimiter.getThrottledCount());
+    assertEquals(waitNanos, rateLimiter.getThrottledTime(TimeUnit.NANOSECONDS), 1);
+  }
+
+  @Test
+  @DisplayName("reserve queues waiting callers one emission interval apart")
+  void reserveQueuesWaitingCallers() {
+    RateLimiter rateLimiter = RateLimiter.of(1, null);
+
+    rateLimiter.reserve();
+    long first = rateLimiter.reserve();
+    long second = rateLimiter.reserve();
+
+    assertTrue(second - first > TimeUnit.MILLISECONDS.toNanos(900), "Second waiter queues behind the first");
+  }
+
+  @Test
+  @DisplayName("reserve applies the strictest of the per-second and per-hour limits")
+  void reserveAppliesStrictestLimit() {
+    RateLimiter rateLimiter = RateLimiter.of(100, 2);
+
+    rateLimiter.reserve();
+    rateLimiter.reserve();
+
+    assertTrue(rateLimiter.reserve() > TimeUnit.MINUTES.toNanos(29), "The hourly limit forces a long wait");
+  }
+
+  @Test
+  @DisplayName("tryReserve takes no token when the wait would be longer than allowed")
+  void tryReserveRejectsLongWaitWithoutTakingToken() {
+    RateLimiter rateLimiter = RateLimiter.of(10, 1);
+
+    assertEquals(0, rateLimiter.tryReserve(TimeUnit.SECONDS.toNanos(5)));
+    assertEquals(-1, rateLimiter.tryReserve(TimeUnit.SECONDS.toNanos(5)));
+    assertEquals(1, rateLimiter.getRejectedCount());
+    // The per-second bucket gave back the token it took before the hourly bucket rejected the message.
+    long waitNanos = rateLimiter.reserve();
+    assertTrue(waitNanos > TimeUnit.MINUTES.toNanos(59), "Only the hourly limit makes the caller wait: " + waitNanos);
+  }
+
+  @Test
+  @DisplayName("refund gives the token of a message that was not sent back")
+  void refundGivesTokenBack() {
+    RateLimiter rateLimiter = RateLimiter.of(null, 1);
+
+    rateLimiter.reserve();
+    rateLimiter.refund();
+
+    assertEquals(0, rateLimiter.tryReserve(0));
+  }
+
+  @Test
+  @DisplayName("an unlimited rate limiter never makes callers wait")
+  void unlimitedNeverWaits() {
+    RateLimiter rateLimiter = RateLimiter.of(null, 0);
+
+    assertSame(RateLimiter.unlimited(), rateLimiter);
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(0, rateLimiter.reserve());
+    }
+  }
+}
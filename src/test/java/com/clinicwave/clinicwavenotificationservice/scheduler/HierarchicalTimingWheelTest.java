@@ -0,0 +1,84 @@
+package com.clinicwave.clinicwavenotificationservice.scheduler;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the HierarchicalTimingWheel class.
+ *
+ * @author agent on 10/18/26
+ */
+class HierarchicalTimingWheelTest {
+  @Test
+  @DisplayName("advance expires items at their deadline and not before")
+  void advanceExpiresItemsAtDeadline() {
+    HierarchicalTimingWheel<String> timingWheel = new HierarchicalTimingWheel<>(1000, 8, 0);
+    timingWheel.add(3_000, "soon");
+    timingWheel.add(10_000, "next level");
+    List<String> expired = new ArrayList<>();
+
+    timingWheel.advance(2_999, expired::add);
+    assertEquals(List.of(), expired);
+    timingWheel.advance(3_000, expired::add);
+    assertEquals(List.of("soon"), expired);
+    timingWheel.advance(9_999, expired::add);
+    assertEquals(List.of("soon"), expired);
+    timingWheel.advance(10_000, expired::add);
+    assertEquals(List.of("soon", "next level"), expired);
+    assertEquals(0, timingWheel.size());
+  }
+
+  @Test
+  @DisplayName("advance expires items whose deadline has passed at once")
+  void advanceExpiresOverdueItems() {
+    HierarchicalTimingWheel<String> timingWheel = new HierarchicalTimingWheel<>(1000, 8, 5_000);
+    timingWheel.add(1_000, "overdue");
+    List<String> expired = new ArrayList<>();
+
+    timingWheel.advance(5_000, expired::add);
+
+    assertEquals(List.of("overdue"), expired);
+  }
+
+  @Test
+  @DisplayName("advance expires every item in its tick across several levels")
+  void advanceExpiresItemsAcrossLevels() {
+    HierarchicalTimingWheel<Long> timingWheel = new HierarchicalTimingWheel<>(1, 4, 0);
+    Random random = new Random(42);
+    List<Long> deadlines = new ArrayList<>();
+    for (int i = 0; i < 10_000; i++) {
+      long deadline = 1 + random.nextInt(5_000);
+      deadlines.add(deadline);
+      timingWheel.add(deadline, deadline);
+    }
+    assertEquals(10_000, timingWheel.size());
+
+    List<Long> late = new ArrayList<>();
+    for (long now = 1; now <= 5_000; now += 1 + random.nextInt(3)) {
+      long tick = now;
+      timingWheel.advance(now, deadline -> {
+        if (deadline > tick) {
+          fail("Deadline " + deadline + " expired early at " + tick);
+        }
+        late.add(tick - deadline);
+      });
+    }
+    timingWheel.advance(5_000, deadline -> late.add(5_000 - deadline));
+
+    assertEquals(deadlines.size(), late.size());
+    assertTrue(late.stream().allMatch(lateness -> lateness < 3));
+    assertEquals(0, timingWheel.size());
+  }
+
+  @Test
+  @DisplayName("the constructor rejects a wheel size that is not a power of two")
+  void constructorRejectsInvalidWheelSize() {
+    assertThrows(IllegalArgumentException.class, () -> new HierarchicalTimingWheel<>(1000, 10, 0));
+  }
+}
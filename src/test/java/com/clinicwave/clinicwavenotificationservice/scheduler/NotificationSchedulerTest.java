@@ -0,0 +1,143 @@
+package com.clinicwave.clinicwavenotificationservice.scheduler;
+
+import com.clinicwave.clinicwavenotificationservice.domain.ScheduledNotification;
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
+import com.clinicwave.clinicwavenotificationservice.repository.ScheduledNotificationRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class contains unit tests for the NotificationScheduler class.
+ *
+ * @author agent on 10/18/26
+ */
+@ExtendWith(MockitoExtension.class)
+class NotificationSchedulerTest {
+  private static final Instant START = Instant.parse("2026-10-18T10:00:00Z");
+
+  @Mock
+  private ScheduledNotificationRepository scheduledNotificationRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private MutableClock clock;
+  private SimpleMeterRegistry meterRegistry;
+  private NotificationScheduler notificationScheduler;
+
+  /**
+   * Sets up the test environment before each test.
+   */
+  @BeforeEach
+  void setUp() {
+    clock = new MutableClock();
+    meterRegistry = new SimpleMeterRegistry();
+    notificationScheduler = new NotificationScheduler(scheduledNotificationRepository, transactionManager,
+            new ObjectMapper(), meterRegistry, clock, Duration.ofSeconds(1), 64, Duration.ofMinutes(10),
+            Duration.ofMinutes(1));
+  }
+
+  private static NotificationRequestDto createNotificationRequestDto(Instant sendAt) {
+    return new NotificationRequestDto("recipient@example.com", "Appointment reminder", "appointment-reminder",
+            Map.of("time", "10:00"), NotificationTypeEnum.EMAIL, NotificationCategoryEnum.GENERAL, null, "tracking-1", sendAt);
+  }
+
+  @Test
+  @DisplayName("start loads the notifications due within the horizon, and those overdue are due at once")
+  void startRecoversNotificationsDueWithinHorizon() {
+    Instant horizon = START.plus(Duration.ofMinutes(10));
+    when(scheduledNotificationRepository.findDeadlines(horizon, horizon, horizon)).thenReturn(List.of(
+            new ScheduledNotificationDeadline(1L, START.minus(Duration.ofHours(2))),
+            new ScheduledNotificationDeadline(2L, START.plus(Duration.ofMinutes(5)))));
+
+    notificationScheduler.start();
+
+    assertEquals(List.of(1L), notificationScheduler.pollDue());
+    clock.advance(Duration.ofMinutes(5));
+    assertEquals(List.of(2L), notificationScheduler.pollDue());
+  }
+
+  @Test
+  @DisplayName("schedule stores the notifications in one batch and tracks those due within the loaded window")
+  @SuppressWarnings("unchecked")
+  void scheduleStoresAndTracksNotifications() {
+    notificationScheduler.start();
+    AtomicLong ids = new AtomicLong();
+    when(scheduledNotificationRepository.saveAll(anyList())).thenAnswer(invocation -> {
+      List<ScheduledNotification> scheduledNotifications = invocation.getArgument(0);
+      scheduledNotifications.forEach(scheduledNotification -> scheduledNotification.setId(ids.incrementAndGet()));
+      return scheduledNotifications;
+    });
+
+    notificationScheduler.schedule(List.of(createNotificationRequestDto(START.plus(Duration.ofMinutes(2))),
+            createNotificationRequestDto(START.plus(Duration.ofDays(1)))));
+
+    verify(scheduledNotificationRepository).saveAll(argThat((List<ScheduledNotification> scheduledNotifications) ->
+            scheduledNotifications.size() == 2
+                    && scheduledNotifications.getFirst().getTemplateVariables().equals("{\"time\":\"10:00\"}")
+                    && scheduledNotifications.getFirst().getTrackingId().equals("tracking-1")));
+    assertEquals(1.0, meterRegistry.get("notification.scheduler.wheel.size").gauge().value());
+    clock.advance(Duration.ofMinutes(2));
+    assertEquals(List.of(1L), notificationScheduler.pollDue());
+  }
+
+  @Test
+  @DisplayName("loadUpcoming reads the next window and the notifications overdue by more than a load interval")
+  void loadUpcomingReadsNextWindow() {
+    notificationScheduler.start();
+    clock.advance(Duration.ofMinutes(1));
+    when(scheduledNotificationRepository.findDeadlines(START.plus(Duration.ofMinutes(10)), START.plus(Duration.ofMinutes(11)), START))
+            .thenReturn(List.of(new ScheduledNotificationDeadline(3L, START.plus(Duration.ofMinutes(10)))));
+
+    notificationScheduler.loadUpcoming();
+
+    assertEquals(List.of(), notificationScheduler.pollDue());
+    clock.advance(Duration.ofMinutes(9));
+    assertEquals(List.of(3L), notificationScheduler.pollDue());
+  }
+
+  private static final class MutableClock extends Clock {
+    private Instant instant = START;
+
+    void advance(Duration duration) {
+      instant = instant.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return instant;
+    }
+  }
+}
@@ -0,0 +1,155 @@
+package com.clinicwave.clinicwavenotificationservice.scheduler;
+
+import com.clinicwave.clinicwavenotificationservice.domain.ScheduledNotification;
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
+import com.clinicwave.clinicwavenotificationservice.exception.TemplateProcessingException;
+import com.clinicwave.clinicwavenotificationservice.repository.ScheduledNotificationRepository;
+import com.clinicwave.clinicwavenotificationservice.service.NotificationService;
+import com.clinicwave.clinicwavenotificationservice.strategy.NotificationResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class contains unit tests for the ScheduledNotificationDispatcher class.
+ *
+ * @author agent on 10/18/26
+ */
+@ExtendWith(MockitoExtension.class)
+class ScheduledNotificationDispatcherTest {
+  private static final Instant NOW = Instant.parse("2026-10-18T10:00:00Z");
+  private static final Clock CLOCK = Clock.fixed(NOW, ZoneOffset.UTC);
+
+  @Mock
+  private NotificationScheduler notificationScheduler;
+
+  @Mock
+  private ScheduledNotificationRepository scheduledNotificationRepository;
+
+  @Mock
+  private NotificationService notificationService;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private SimpleMeterRegistry meterRegistry;
+  private ScheduledNotificationDispatcher scheduledNotificationDispatcher;
+
+  /**
+   * Sets up the test environment before each test.
+   */
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    scheduledNotificationDispatcher = new ScheduledNotificationDispatcher(notificationScheduler,
+            scheduledNotificationRepository, notificationService, transactionManager, new ObjectMapper(), meterRegistry,
+            CLOCK, Duration.ofSeconds(1), 10, Duration.ofMinutes(5), 3, Duration.ofMinutes(1), Duration.ofSeconds(5));
+  }
+
+  private static ScheduledNotification createScheduledNotification(long id, int attempts) {
+    ScheduledNotification scheduledNotification = new ScheduledNotification();
+    scheduledNotification.setId(id);
+    scheduledNotification.setTrackingId("tracking-" + id);
+    scheduledNotification.setRecipient("recipient" + id + "@example.com");
+    scheduledNotification.setSubject("Appointment reminder");
+    scheduledNotification.setTemplateName("appointment-reminder");
+    scheduledNotification.setTemplateVariables("{\"time\":\"10:00\"}");
+    scheduledNotification.setType(NotificationTypeEnum.EMAIL);
+    scheduledNotification.setCategory(NotificationCategoryEnum.GENERAL);
+    scheduledNotification.setAttempts(attempts);
+    scheduledNotification.setSendAt(NOW.minusSeconds(2));
+    return scheduledNotification;
+  }
+
+  private double count(String result) {
+    return meterRegistry.get("notification.scheduler.notifications").tag("result", result).counter().count();
+  }
+
+  @Test
+  @DisplayName("dispatch leases the claimed notifications, sends them without a send-at time and deletes them")
+  @SuppressWarnings("unchecked")
+  void dispatchSendsAndDeletesClaimedNotifications() {
+    ScheduledNotification first = createScheduledNotification(1, 0);
+    ScheduledNotification second = createScheduledNotification(2, 0);
+    when(scheduledNotificationRepository.findClaimable(List.of(1L, 2L, 3L), NOW)).thenReturn(List.of(first, second));
+    when(notificationService.sendNotifications(any())).thenAnswer(invocation -> ((List<NotificationRequestDto>) invocation.getArgument(0))
+            .stream().map(NotificationResult::success).toList());
+
+    assertEquals(2, scheduledNotificationDispatcher.dispatch(List.of(1L, 2L, 3L)));
+
+    verify(notificationService).sendNotifications(argThat(requests -> requests.size() == 2
+            && requests.getFirst().sendAt() == null
+            && requests.getFirst().trackingId().equals("tracking-1")
+            && requests.getFirst().templateVariables().equals(Map.of("time", "10:00"))));
+    assertEquals(1, first.getAttempts());
+    verify(notificationScheduler).track(1L, NOW.plus(Duration.ofMinutes(5)));
+    verify(scheduledNotificationRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+    assertEquals(2, count("sent"));
+    assertEquals(2, meterRegistry.get("notification.scheduler.lateness").timer().count());
+  }
+
+  @Test
+  @DisplayName("dispatch makes a failed notification due again after the retry delay")
+  void dispatchRetriesFailedNotifications() {
+    ScheduledNotification scheduledNotification = createScheduledNotification(1, 1);
+    when(scheduledNotificationRepository.findClaimable(List.of(1L), NOW)).thenReturn(List.of(scheduledNotification));
+    when(notificationService.sendNotifications(any())).thenAnswer(invocation -> List.of(NotificationResult.failure(
+            invocation.<List<NotificationRequestDto>>getArgument(0).getFirst(), new IllegalStateException("Relay down"))));
+    when(scheduledNotificationRepository.findAllById(anyIterable())).thenReturn(List.of(scheduledNotification));
+
+    scheduledNotificationDispatcher.dispatch(List.of(1L));
+
+    assertEquals(2, scheduledNotification.getAttempts());
+    assertEquals(NOW.plus(Duration.ofMinutes(2)), scheduledNotification.getSendAt(), "The delay doubles on the second attempt");
+    assertEquals("Relay down", scheduledNotification.getLastError());
+    verify(notificationScheduler).track(1L, NOW.plus(Duration.ofMinutes(2)));
+    verify(scheduledNotificationRepository, never()).deleteAllByIdInBatch(any());
+    assertEquals(1, count("retried"));
+  }
+
+  @Test
+  @DisplayName("dispatch gives up on a notification that cannot succeed")
+  void dispatchGivesUpOnNonRetryableFailures() {
+    ScheduledNotification scheduledNotification = createScheduledNotification(1, 0);
+    when(scheduledNotificationRepository.findClaimable(List.of(1L), NOW)).thenReturn(List.of(scheduledNotification));
+    when(notificationService.sendNotifications(any())).thenAnswer(invocation -> List.of(NotificationResult.failure(
+            invocation.<List<NotificationRequestDto>>getArgument(0).getFirst(),
+            new TemplateProcessingException("appointment-reminder", "Missing template"))));
+    when(scheduledNotificationRepository.findAllById(anyIterable())).thenReturn(List.of(scheduledNotification));
+
+    scheduledNotificationDispatcher.dispatch(List.of(1L));
+
+    verify(scheduledNotificationRepository).deleteAllByIdInBatch(List.of(1L));
+    assertEquals(1, count("failed"));
+  }
+
+  @Test
+  @DisplayName("dispatch does nothing when the notifications were already claimed elsewhere")
+  void dispatchSkipsNotificationsClaimedElsewhere() {
+    when(scheduledNotificationRepository.findClaimable(List.of(1L), NOW)).thenReturn(List.of());
+
+    assertEquals(0, scheduledNotificationDispatcher.dispatch(List.of(1L)));
+
+    verifyNoInteractions(notificationService);
+  }
+}
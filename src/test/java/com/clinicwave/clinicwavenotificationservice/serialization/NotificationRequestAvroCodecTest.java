@@ -0,0 +1,167 @@
+package com.clinicwave.clinicwavenotificationservice.serialization;
+
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the NotificationRequestAvroCodec class.
+ *
+ * @author agent on 10/18/26
+ */
+class NotificationRequestAvroCodecTest {
+  private final NotificationRequestAvroCodec codec = new NotificationRequestAvroCodec();
+
+  @Test
+  @DisplayName("decode reads back the notification request written by encode")
+  void encodeAndDecodeRoundTrip() {
+    Map<String, Object> templateVariables = new HashMap<>();
+    templateVariables.put("name", "Jane");
+    templateVariables.put("verified", true);
+    templateVariables.put("attempts", 3);
+    templateVariables.put("expiresAt", 1_700_000_000_000L);
+    templateVariables.put("score", 0.5);
+    templateVariables.put("middleName", null);
+    NotificationRequestDto notificationRequestDto = new NotificationRequestDto("test@example.com", "Subject",
+            "email-verification", templateVariables, NotificationTypeEnum.EMAIL, NotificationCategoryEnum.VERIFICATION,
+            "key-1");
+
+    NotificationRequestDto decoded = codec.decode(codec.encode(notificationRequestDto));
+
+    assertEquals(notificationRequestDto, decoded);
+  }
+
+  @Test
+  @DisplayName("decode reads back the tracking ID and send-at time written by encode")
+  void encodeAndDecodeRoundTripWithTrackingIdAndSendAt() {
+    NotificationRequestDto notificationRequestDto = new NotificationRequestDto("test@example.com", "Subject",
+            "appointment-reminder", Map.of("name", "Jane"), NotificationTypeEnum.EMAIL, NotificationCategoryEnum.GENERAL,
+            "key-1", "tracking-1", Instant.parse("2026-10-19T09:30:00.123456789Z"));
+
+    NotificationRequestDto decoded = codec.decode(codec.encode(notificationRequestDto));
+
+    assertEquals(notificationRequestDto, decoded);
+  }
+
+  @Test
+  @DisplayName("decode reads a request written with the first version of the schema")
+  void decodeReadsFirstSchemaVersion() throws IOException {
+    Schema firstVersion = Schema.createRecord(codec.getSchema().getName(), null, codec.getSchema().getNamespace(), false,
+            codec.getSchema().getFields().stream()
+                    .filter(field -> !field.name().equals("trackingId") && !field.name().equals("sendAt"))
+                    .map(field -> new Schema.Field(field, field.schema()))
+                    .toList());
+    GenericRecord record = new GenericData.Record(firstVersion);
+    record.put("recipient", "test@example.com");
+    record.put("subject", "Subject");
+    record.put("templateName", "email-verification");
+    record.put("idempotencyKey", "key-1");
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new BinaryMessageEncoder<GenericRecord>(GenericData.get(), firstVersion).encode(record, out);
+
+    NotificationRequestDto decoded = codec.decode(out.toByteArray());
+
+    assertEquals("test@example.com", decoded.recipient());
+    assertEquals("key-1", decoded.idempotencyKey());
+    assertNull(decoded.trackingId());
+    assertNull(decoded.sendAt());
+  }
+
+  @Test
+  @DisplayName("canEncode rejects requests with a send-at time that does not fit in nanoseconds since the epoch")
+  void canEncodeRejectsFarSendAt() {
+    NotificationRequestDto notificationRequestDto = new NotificationRequestDto("test@example.com", "Subject",
+            "email-verification", null, NotificationTypeEnum.EMAIL, NotificationCategoryEnum.GENERAL, null, null,
+            Instant.parse("2300-01-01T00:00:00Z"));
+
+    assertFalse(codec.canEncode(notificationRequestDto));
+    assertThrows(IllegalArgumentException.class, () -> codec.encode(notificationRequestDto));
+  }
+
+  @Test
+  @DisplayName("decode keeps missing optional fields null")
+  void decodeKeepsNullFields() {
+    NotificationRequestDto notificationRequestDto = new NotificationRequestDto("test@example.com", "Subject",
+            "email-verification", null, NotificationTypeEnum.EMAIL, NotificationCategoryEnum.GENERAL, null);
+
+    NotificationRequestDto decoded = codec.decode(codec.encode(notificationRequestDto));
+
+    assertNull(decoded.templateVariables());
+    assertNull(decoded.idempotencyKey());
+    assertNull(decoded.trackingId());
+    assertNull(decoded.sendAt());
+    assertEquals(NotificationCategoryEnum.GENERAL, decoded.category());
+  }
+
+  @Test
+  @DisplayName("canEncode rejects requests with template variables that are not scalar")
+  void canEncodeRejectsNestedTemplateVariables() {
+    NotificationRequestDto scalar = new NotificationRequestDto("test@example.com", "Subject", "email-verification",
+            Map.of("name", "Jane"), NotificationTypeEnum.EMAIL, NotificationCategoryEnum.VERIFICATION, null);
+    NotificationRequestDto nested = new NotificationRequestDto("test@example.com", "Subject", "email-verification",
+            Map.of("items", List.of("a", "b")), NotificationTypeEnum.EMAIL, NotificationCategoryEnum.VERIFICATION, null);
+
+    assertTrue(codec.canEncode(scalar));
+    assertFalse(codec.canEncode(nested));
+    assertThrows(IllegalArgumentException.class, () -> codec.encode(nested));
+  }
+
+  @Test
+  @DisplayName("decode rejects a request written with a schema version it does not know")
+  void decodeRejectsUnknownSchemaVersion() throws IOException {
+    Schema unknownVersion = Schema.createRecord(codec.getSchema().getName(), null, codec.getSchema().getNamespace(), false,
+            List.of(new Schema.Field("recipient", Schema.create(Schema.Type.STRING))));
+    GenericRecord record = new GenericData.Record(unknownVersion);
+    record.put("recipient", "test@example.com");
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new BinaryMessageEncoder<GenericRecord>(GenericData.get(), unknownVersion).encode(record, out);
+
+    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> codec.decode(out.toByteArray()));
+    assertTrue(exception.getMessage().contains("unknown Avro schema version"));
+  }
+
+  @Test
+  @DisplayName("decode rejects a request without the single-object marker, and one with bytes left over")
+  void decodeRejectsRawAndTrailingData() throws IOException {
+    NotificationRequestDto notificationRequestDto = new NotificationRequestDto("test@example.com", "Subject",
+            "email-verification", null, NotificationTypeEnum.EMAIL, NotificationCategoryEnum.GENERAL, null);
+    GenericRecord record = new GenericData.Record(codec.getSchema());
+    record.put("recipient", "test@example.com");
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(out, null);
+    new GenericDatumWriter<GenericRecord>(codec.getSchema()).write(record, encoder);
+    byte[] encoded = codec.encode(notificationRequestDto);
+
+    assertThrows(IllegalArgumentException.class, () -> codec.decode(out.toByteArray()));
+    assertThrows(IllegalArgumentException.class, () -> codec.decode(Arrays.copyOf(encoded, encoded.length + 1)));
+    assertThrows(IllegalArgumentException.class, () -> codec.decode(Arrays.copyOf(encoded, encoded.length - 1)));
+  }
+
+  @Test
+  @DisplayName("decode throws IllegalArgumentException for data that is not a notification request")
+  void decodeRejectsInvalidData() {
+    byte[] data = "{\"recipient\":\"test@example.com\"}".getBytes(StandardCharsets.UTF_8);
+
+    assertThrows(IllegalArgumentException.class, () -> codec.decode(data));
+  }
+}
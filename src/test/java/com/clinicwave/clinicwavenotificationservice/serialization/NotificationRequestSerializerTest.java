@@ -0,0 +1,115 @@
+package com.clinicwave.clinicwavenotificationservice.serialization;
+
+import com.clinicwave.clinicwavenotificationservice.config.KafkaConsumerConfig;
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the NotificationRequestSerializer and NotificationRequestDeserializer
+ * classes.
+ *
+ * @author agent on 10/18/26
+ */
+class NotificationRequestSerializerTest {
+  private static final String AVRO_TOPIC = "notification-avro-topic";
+  private static final String JSON_TOPIC = "notification-topic";
+
+  private final NotificationRequestAvroCodec codec = new NotificationRequestAvroCodec();
+  private NotificationRequestSerializer serializer;
+  private NotificationRequestDeserializer deserializer;
+
+  @BeforeEach
+  void setUp() {
+    serializer = new NotificationRequestSerializer(codec, Set.of(AVRO_TOPIC));
+    serializer.configure(Map.of(), false);
+    JsonDeserializer<NotificationRequestDto> jsonDeserializer = new JsonDeserializer<>(NotificationRequestDto.class);
+    deserializer = new NotificationRequestDeserializer(jsonDeserializer, codec, Set.of(AVRO_TOPIC));
+    deserializer.configure(KafkaConsumerConfig.JSON_DESERIALIZER_PROPERTIES, false);
+  }
+
+  @AfterEach
+  void tearDown() {
+    serializer.close();
+    deserializer.close();
+  }
+
+  @Test
+  @DisplayName("serialize writes Avro to the configured topics and JSON elsewhere, recording the format in the headers")
+  void serializeChoosesFormatByTopic() {
+    NotificationRequestDto notificationRequestDto = createRequest(Map.of("name", "Jane"));
+    Headers avroHeaders = new RecordHeaders();
+    Headers jsonHeaders = new RecordHeaders();
+
+    byte[] avro = serializer.serialize(AVRO_TOPIC, avroHeaders, notificationRequestDto);
+    byte[] json = serializer.serialize(JSON_TOPIC, jsonHeaders, notificationRequestDto);
+
+    assertEquals(NotificationWireFormat.AVRO, NotificationWireFormat.of(avroHeaders));
+    assertEquals(NotificationWireFormat.JSON, NotificationWireFormat.of(jsonHeaders));
+    assertEquals(notificationRequestDto, codec.decode(avro));
+    assertTrue(avro.length < json.length);
+  }
+
+  @Test
+  @DisplayName("serialize falls back to JSON for requests with template variables that are not scalar")
+  void serializeFallsBackToJson() {
+    NotificationRequestDto notificationRequestDto = createRequest(Map.of("items", List.of("a", "b")));
+    Headers headers = new RecordHeaders();
+
+    byte[] data = serializer.serialize(AVRO_TOPIC, headers, notificationRequestDto);
+
+    assertEquals(NotificationWireFormat.JSON, NotificationWireFormat.of(headers));
+    assertEquals(notificationRequestDto, deserializer.deserialize(AVRO_TOPIC, headers, data));
+  }
+
+  @Test
+  @DisplayName("deserialize reads JSON and Avro records from the same topic by their content-type header")
+  void deserializeReadsMixedFormats() {
+    NotificationRequestDto notificationRequestDto = createRequest(Map.of("name", "Jane"));
+    Headers avroHeaders = new RecordHeaders();
+    Headers jsonHeaders = new RecordHeaders();
+    byte[] avro = serializer.serialize(AVRO_TOPIC, avroHeaders, notificationRequestDto);
+    byte[] json = serializer.serialize(JSON_TOPIC, jsonHeaders, notificationRequestDto);
+
+    assertEquals(notificationRequestDto, deserializer.deserialize(AVRO_TOPIC, avroHeaders, avro));
+    assertEquals(notificationRequestDto, deserializer.deserialize(AVRO_TOPIC, jsonHeaders, json));
+  }
+
+  @Test
+  @DisplayName("deserialize reads records without a content-type header in the format of their topic")
+  void deserializeFallsBackToTopic() {
+    NotificationRequestDto notificationRequestDto = createRequest(Map.of("name", "Jane"));
+
+    assertEquals(notificationRequestDto, deserializer.deserialize(AVRO_TOPIC, new RecordHeaders(), codec.encode(notificationRequestDto)));
+    assertThrows(SerializationException.class,
+            () -> deserializer.deserialize(JSON_TOPIC, new RecordHeaders(), codec.encode(notificationRequestDto)));
+  }
+
+  @Test
+  @DisplayName("deserialize throws SerializationException for Avro records that cannot be read")
+  void deserializeRejectsInvalidAvro() {
+    Headers headers = new RecordHeaders();
+    NotificationWireFormat.AVRO.writeTo(headers);
+
+    assertThrows(SerializationException.class, () -> deserializer.deserialize(JSON_TOPIC, headers, new byte[]{1, 2, 3}));
+  }
+
+  private NotificationRequestDto createRequest(Map<String, Object> templateVariables) {
+    return new NotificationRequestDto("test@example.com", "Subject", "email-verification", templateVariables,
+            NotificationTypeEnum.EMAIL, NotificationCategoryEnum.VERIFICATION, "key-1");
+  }
+}
@@ -0,0 +1,200 @@
+package com.clinicwave.clinicwavenotificationservice.service.impl;
+
+import com.clinicwave.clinicwavenotificationservice.dto.BulkNotificationStatusDto;
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.enums.BulkNotificationStatusEnum;
+import com.clinicwave.clinicwavenotificationservice.exception.InvalidBulkNotificationException;
+import com.clinicwave.clinicwavenotificationservice.exception.ResourceNotFoundException;
+import com.clinicwave.clinicwavenotificationservice.service.NotificationService;
+import com.clinicwave.clinicwavenotificationservice.strategy.NotificationResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class contains unit tests for the BulkNotificationServiceImpl class.
+ *
+ * @author agent on 10/18/26
+ */
+@ExtendWith(MockitoExtension.class)
+class BulkNotificationServiceImplTest {
+  private static final String SHARED_NOTIFICATION = """
+          {"subject":"Clinic closed","templateName":"announcement","templateVariables":{"date":"Monday","clinic":"North"},"type":"EMAIL","category":"GENERAL"}
+          """;
+
+  @Mock
+  private NotificationService notificationService;
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private BulkNotificationServiceImpl bulkNotificationService;
+
+  /**
+   * Sets up the test environment before each test, sending in chunks of two.
+   */
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    bulkNotificationService = new BulkNotificationServiceImpl(notificationService, new ObjectMapper(),
+            Validation.buildDefaultValidatorFactory().getValidator(), meterRegistry, Executors.defaultThreadFactory(),
+            1, 2, 1, 10, Duration.ofSeconds(5));
+  }
+
+  /**
+   * Shuts the workers down after each test.
+   */
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    bulkNotificationService.shutdown();
+  }
+
+  private static InputStream ndjson(String... lines) {
+    return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static List<NotificationResult> succeedAll(List<NotificationRequestDto> notificationRequestDtos) {
+    return notificationRequestDtos.stream().map(NotificationResult::success).toList();
+  }
+
+  private BulkNotificationStatusDto awaitCompletion(String jobId) throws InterruptedException {
+    for (int i = 0; i < 100; i++) {
+      BulkNotificationStatusDto status = bulkNotificationService.getStatus(jobId);
+      if (status.status() != BulkNotificationStatusEnum.RECEIVING && status.status() != BulkNotificationStatusEnum.SENDING) {
+        return status;
+      }
+      Thread.sleep(50);
+    }
+    fail("Bulk notification did not complete");
+    return null;
+  }
+
+  @Test
+  @DisplayName("submit sends recipients in chunks and applies their overrides")
+  @SuppressWarnings("unchecked")
+  void submitSendsRecipientsInChunksWithOverrides() throws InterruptedException {
+    when(notificationService.sendNotifications(anyList())).thenAnswer(invocation -> succeedAll(invocation.getArgument(0)));
+
+    BulkNotificationStatusDto submitted = bulkNotificationService.submit(ndjson(
+            SHARED_NOTIFICATION,
+            "{\"recipient\":\"first@example.com\"}",
+            "{\"recipient\":\"second@example.com\",\"subject\":\"North clinic closed\",\"templateVariables\":{\"date\":\"Tuesday\"}}",
+            "{\"recipient\":\"third@example.com\"}"
+    ));
+    BulkNotificationStatusDto completed = awaitCompletion(submitted.jobId());
+
+    assertEquals(new BulkNotificationStatusDto(submitted.jobId(), BulkNotificationStatusEnum.COMPLETED, 3, 3, 0), completed);
+    ArgumentCaptor<List<NotificationRequestDto>> chunks = ArgumentCaptor.forClass(List.class);
+    verify(notificationService, times(2)).sendNotifications(chunks.capture());
+    assertEquals(2, chunks.getAllValues().get(0).size());
+    assertEquals(1, chunks.getAllValues().get(1).size());
+
+    NotificationRequestDto first = chunks.getAllValues().get(0).get(0);
+    NotificationRequestDto second = chunks.getAllValues().get(0).get(1);
+    NotificationRequestDto third = chunks.getAllValues().get(1).get(0);
+    assertEquals("Clinic closed", first.subject());
+    assertEquals("North clinic closed", second.subject());
+    assertEquals(Map.of("date", "Tuesday", "clinic", "North"), second.templateVariables());
+    assertSame(first.templateVariables(), third.templateVariables());
+  }
+
+  @Test
+  @DisplayName("submit counts invalid recipients and failed sends as failed")
+  void submitCountsInvalidRecipientsAndFailedSends() throws InterruptedException {
+    when(notificationService.sendNotifications(anyList())).thenAnswer(invocation -> {
+      List<NotificationRequestDto> chunk = invocation.getArgument(0);
+      return List.of(NotificationResult.success(chunk.get(0)),
+              NotificationResult.failure(chunk.get(1), new IllegalStateException("Rejected")));
+    });
+
+    BulkNotificationStatusDto submitted = bulkNotificationService.submit(ndjson(
+            SHARED_NOTIFICATION,
+            "{\"recipient\":\"not-an-email\"}",
+            "{\"recipient\":\"first@example.com\"}",
+            "{\"recipient\":\"second@example.com\"}"
+    ));
+    BulkNotificationStatusDto completed = awaitCompletion(submitted.jobId());
+
+    assertEquals(3, completed.received());
+    assertEquals(1, completed.sent());
+    assertEquals(2, completed.failed());
+    assertEquals(2.0, meterRegistry.get("notification.bulk.recipients").tag("result", "failed").counter().count());
+  }
+
+  @Test
+  @DisplayName("submit throws InvalidBulkNotificationException for an invalid shared notification")
+  void submitThrowsForInvalidSharedNotification() {
+    InvalidBulkNotificationException exception = assertThrows(InvalidBulkNotificationException.class,
+            () -> bulkNotificationService.submit(ndjson("{\"subject\":\"Clinic closed\"}", "{\"recipient\":\"first@example.com\"}")));
+
+    assertTrue(exception.getMessage().contains("Template name is required"));
+    verifyNoInteractions(notificationService);
+  }
+
+  @Test
+  @DisplayName("submit rejects malformed input as a whole without sending any recipient")
+  void submitRejectsMalformedInputWithoutSending() {
+    assertThrows(InvalidBulkNotificationException.class,
+            () -> bulkNotificationService.submit(ndjson(
+                    SHARED_NOTIFICATION,
+                    "{\"recipient\":\"first@example.com\"}",
+                    "{\"recipient\":\"second@example.com\"}",
+                    "{\"recipient\":\"third@example.com\"}",
+                    "{\"recipient\":"
+            )));
+
+    verifyNoInteractions(notificationService);
+  }
+
+  @Test
+  @DisplayName("submit returns with the number of recipients without waiting for the chunks to be sent")
+  void submitReturnsWithoutWaitingForSends() throws InterruptedException {
+    CountDownLatch released = new CountDownLatch(1);
+    when(notificationService.sendNotifications(anyList())).thenAnswer(invocation -> {
+      released.await();
+      return succeedAll(invocation.getArgument(0));
+    });
+
+    // Five recipients make three chunks, more than the single chunk allowed in flight.
+    BulkNotificationStatusDto submitted = bulkNotificationService.submit(ndjson(
+            SHARED_NOTIFICATION,
+            "{\"recipient\":\"first@example.com\"}",
+            "{\"recipient\":\"second@example.com\"}",
+            "{\"recipient\":\"third@example.com\"}",
+            "{\"recipient\":\"fourth@example.com\"}",
+            "{\"recipient\":\"fifth@example.com\"}"
+    ));
+
+    assertEquals(BulkNotificationStatusEnum.RECEIVING, submitted.status());
+    assertEquals(5, submitted.received());
+    released.countDown();
+    BulkNotificationStatusDto completed = awaitCompletion(submitted.jobId());
+    assertEquals(new BulkNotificationStatusDto(submitted.jobId(), BulkNotificationStatusEnum.COMPLETED, 5, 5, 0), completed);
+  }
+
+  @Test
+  @DisplayName("getStatus throws ResourceNotFoundException for an unknown job")
+  void getStatusThrowsForUnknownJob() {
+    assertThrows(ResourceNotFoundException.class, () -> bulkNotificationService.getStatus("unknown"));
+  }
+}
@@ -0,0 +1,120 @@
+package com.clinicwave.clinicwavenotificationservice.service.impl;
+
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
+import com.clinicwave.clinicwavenotificationservice.exception.NotificationQueueFullException;
+import com.clinicwave.clinicwavenotificationservice.lane.LaneSettings;
+import com.clinicwave.clinicwavenotificationservice.lane.NotificationLaneSettings;
+import com.clinicwave.clinicwavenotificationservice.lane.NotificationLanes;
+import com.clinicwave.clinicwavenotificationservice.service.NotificationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class contains unit tests for the NotificationDispatchServiceImpl class.
+ *
+ * @author agent on 10/18/26
+ */
+@ExtendWith(MockitoExtension.class)
+class NotificationDispatchServiceImplTest {
+  @Mock
+  private NotificationService notificationService;
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private NotificationDispatchServiceImpl notificationDispatchService;
+
+  private NotificationRequestDto notificationRequestDto;
+
+  /**
+   * Sets up the test environment before each test.
+   */
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    Map<NotificationCategoryEnum, LaneSettings> lanes = new EnumMap<>(NotificationCategoryEnum.class);
+    for (NotificationCategoryEnum category : NotificationCategoryEnum.values()) {
+      lanes.put(category, new LaneSettings(1, 0, Duration.ofSeconds(10)));
+    }
+    NotificationLanes notificationLanes = new NotificationLanes(new NotificationLaneSettings(Map.of(NotificationTypeEnum.EMAIL, 4),
+            Duration.ofSeconds(5), List.of(), lanes), meterRegistry);
+    notificationDispatchService = new NotificationDispatchServiceImpl(notificationService, notificationLanes, meterRegistry,
+            Executors.defaultThreadFactory(), 1, 1, Duration.ofSeconds(5), Duration.ofSeconds(5));
+    notificationRequestDto = new NotificationRequestDto(
+            "recipient@example.com",
+            "Test Subject",
+            "test-template",
+            new HashMap<>(),
+            NotificationTypeEnum.EMAIL,
+            NotificationCategoryEnum.VERIFICATION
+    );
+  }
+
+  /**
+   * Shuts the workers down after each test.
+   */
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    notificationDispatchService.shutdown();
+  }
+
+  @Test
+  @DisplayName("dispatch returns a tracking ID and sends the notification under it on a worker")
+  void dispatchSendsNotificationOnWorker() throws InterruptedException {
+    CountDownLatch sent = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      sent.countDown();
+      return true;
+    }).when(notificationService).sendNotification(any(NotificationRequestDto.class));
+
+    String trackingId = notificationDispatchService.dispatch(notificationRequestDto);
+
+    assertNotNull(trackingId);
+    assertTrue(sent.await(5, TimeUnit.SECONDS));
+    verify(notificationService).sendNotification(notificationRequestDto.withTrackingId(trackingId));
+    assertEquals(1, meterRegistry.get("notification.dispatch.queue.wait").timer().count());
+  }
+
+  @Test
+  @DisplayName("dispatch throws NotificationQueueFullException when the queue is full")
+  void dispatchThrowsWhenQueueIsFull() throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      started.countDown();
+      release.await(5, TimeUnit.SECONDS);
+      return true;
+    }).when(notificationService).sendNotification(any(NotificationRequestDto.class));
+
+    // The first notification occupies the only worker, the second one fills the queue.
+    notificationDispatchService.dispatch(notificationRequestDto);
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    notificationDispatchService.dispatch(notificationRequestDto);
+
+    NotificationQueueFullException exception = assertThrows(NotificationQueueFullException.class,
+            () -> notificationDispatchService.dispatch(notificationRequestDto));
+    assertEquals(Duration.ofSeconds(5), exception.getRetryAfter());
+    assertEquals(1.0, meterRegistry.get("notification.dispatch.rejected").counter().count());
+    release.countDown();
+  }
+}
@@ -1,11 +1,26 @@
 package com.clinicwave.clinicwavenotificationservice.service.impl;
 
+import com.clinicwave.clinicwavenotificationservice.delivery.DeliveryLogWriter;
+import com.clinicwave.clinicwavenotificationservice.digest.NotificationDigestBuffer;
 import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
 import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
 import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
 import com.clinicwave.clinicwavenotificationservice.exception.InvalidNotificationTypeException;
+import com.clinicwave.clinicwavenotificationservice.exception.EmailSendingException;
+import com.clinicwave.clinicwavenotificationservice.exception.LaneTimeoutException;
+import com.clinicwave.clinicwavenotificationservice.idempotency.NotificationDeduplicator;
+import com.clinicwave.clinicwavenotificationservice.lane.LaneSettings;
+import com.clinicwave.clinicwavenotificationservice.lane.NotificationLaneSettings;
+import com.clinicwave.clinicwavenotificationservice.lane.NotificationLanes;
+import com.clinicwave.clinicwavenotificationservice.listener.FailedNotificationPublisher;
+import com.clinicwave.clinicwavenotificationservice.metrics.NotificationStageMetrics;
+import com.clinicwave.clinicwavenotificationservice.repository.ProcessedNotificationRepository;
+import com.clinicwave.clinicwavenotificationservice.scheduler.NotificationScheduler;
 import com.clinicwave.clinicwavenotificationservice.strategy.EmailNotificationStrategy;
+import com.clinicwave.clinicwavenotificationservice.strategy.NotificationResult;
 import com.clinicwave.clinicwavenotificationservice.strategy.NotificationStrategy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -14,11 +29,24 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -38,6 +66,49 @@ class NotificationServiceImplTest {
   @Mock
   private EmailNotificationStrategy emailNotificationStrategy;
 
+  @Mock
+  private DeliveryLogWriter deliveryLogWriter;
+
+  @Mock
+  private NotificationScheduler notificationScheduler;
+
+  @Mock
+  private FailedNotificationPublisher failedNotificationPublisher;
+
+  @Mock
+  private NotificationDigestBuffer notificationDigestBuffer;
+
+  private static NotificationLanes createLanes(int concurrency, Duration acquireTimeout) {
+    Map<NotificationCategoryEnum, LaneSettings> lanes = new EnumMap<>(NotificationCategoryEnum.class);
+    for (NotificationCategoryEnum category : NotificationCategoryEnum.values()) {
+      lanes.put(category, new LaneSettings(concurrency, 0, Duration.ofSeconds(10)));
+    }
+    return new NotificationLanes(new NotificationLaneSettings(Map.of(NotificationTypeEnum.EMAIL, 100), acquireTimeout, List.of(), lanes), new SimpleMeterRegistry());
+  }
+
+  private NotificationServiceImpl createNotificationService(List<NotificationStrategy> strategies,
+                                                                   TaskExecutor executor, int chunkSize) {
+    return createNotificationService(strategies, executor, chunkSize, createLanes(100, Duration.ofSeconds(10)));
+  }
+
+  private NotificationServiceImpl createNotificationService(List<NotificationStrategy> strategies, TaskExecutor executor,
+                                                            int chunkSize, NotificationLanes notificationLanes) {
+    NotificationDeduplicator notificationDeduplicator = new NotificationDeduplicator(mock(ProcessedNotificationRepository.class),
+            mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), Duration.ofHours(1), 1000, 0.01, 1000, false);
+    return new NotificationServiceImpl(strategies, executor, notificationLanes, notificationDeduplicator,
+            new NotificationStageMetrics(new SimpleMeterRegistry()), deliveryLogWriter, notificationScheduler,
+            notificationDigestBuffer, failedNotificationPublisher, chunkSize);
+  }
+
+  /**
+   * Lets a strategy mock hand notifications over through its stubbed send methods, like a strategy that does not
+   * override the submit methods.
+   */
+  private static void callRealSubmitMethods(NotificationStrategy strategy) {
+    lenient().doCallRealMethod().when(strategy).submit(any());
+    lenient().doCallRealMethod().when(strategy).submitAll(anyList());
+  }
+
   /**
    * Sets up the test environment before each test.
    */
@@ -45,9 +116,11 @@ class NotificationServiceImplTest {
   void setUp() {
     when(emailNotificationStrategy.getType()).thenReturn(NotificationTypeEnum.EMAIL);
     when(smsNotificationStrategy.getType()).thenReturn(NotificationTypeEnum.SMS);
+    callRealSubmitMethods(emailNotificationStrategy);
+    callRealSubmitMethods(smsNotificationStrategy);
 
     List<NotificationStrategy> strategies = Arrays.asList(emailNotificationStrategy, smsNotificationStrategy);
-    notificationService = new NotificationServiceImpl(strategies);
+    notificationService = createNotificationService(strategies, new SyncTaskExecutor(), 100);
   }
 
   @Test
@@ -58,7 +131,7 @@ class NotificationServiceImplTest {
     // We need to spy on the notificationService to verify the sendNotification method is called
     NotificationServiceImpl spyNotificationService = spy(notificationService);
 
-    spyNotificationService.handleNotification(requestDto);
+    spyNotificationService.handleNotification(requestDto, null);
 
     verify(spyNotificationService, times(1)).sendNotification(requestDto);
   }
@@ -95,7 +168,7 @@ class NotificationServiceImplTest {
   @Test
   @DisplayName("sendNotification should throw exception for no matching type")
   void sendNotification_WithNoMatchingType_ShouldThrowException() {
-    notificationService = new NotificationServiceImpl(Collections.singletonList(emailNotificationStrategy));
+    notificationService = createNotificationService(Collections.singletonList(emailNotificationStrategy), new SyncTaskExecutor(), 100);
     NotificationRequestDto requestDto = createNotificationRequestDto(NotificationTypeEnum.SMS);
 
     InvalidNotificationTypeException exception = assertThrows(InvalidNotificationTypeException.class,
@@ -108,14 +181,14 @@ class NotificationServiceImplTest {
   @Test
   @DisplayName("constructNotificationService should allow construction with empty strategy list")
   void constructNotificationService_WithEmptyStrategyList_ShouldAllowConstruction() {
-    NotificationServiceImpl service = new NotificationServiceImpl(List.of());
+    NotificationServiceImpl service = createNotificationService(List.of(), new SyncTaskExecutor(), 100);
     assertNotNull(service);
   }
 
   @Test
   @DisplayName("sendNotification should throw exception for empty strategy list")
   void sendNotification_WithEmptyStrategyList_ShouldThrowException() {
-    NotificationServiceImpl service = new NotificationServiceImpl(List.of());
+    NotificationServiceImpl service = createNotificationService(List.of(), new SyncTaskExecutor(), 100);
     NotificationRequestDto requestDto = createNotificationRequestDto(NotificationTypeEnum.EMAIL);
 
     assertThrows(InvalidNotificationTypeException.class, () -> service.sendNotification(requestDto));
@@ -126,8 +199,9 @@ class NotificationServiceImplTest {
   void constructNotificationService_WithDuplicateStrategyTypes_ShouldUseLastStrategyForType() {
     EmailNotificationStrategy duplicateEmailStrategy = mock(EmailNotificationStrategy.class);
     when(duplicateEmailStrategy.getType()).thenReturn(NotificationTypeEnum.EMAIL);
+    callRealSubmitMethods(duplicateEmailStrategy);
 
-    NotificationServiceImpl service = new NotificationServiceImpl(Arrays.asList(emailNotificationStrategy, duplicateEmailStrategy));
+    NotificationServiceImpl service = createNotificationService(Arrays.asList(emailNotificationStrategy, duplicateEmailStrategy), new SyncTaskExecutor(), 100);
     NotificationRequestDto requestDto = createNotificationRequestDto(NotificationTypeEnum.EMAIL);
 
     service.sendNotification(requestDto);
@@ -136,20 +210,402 @@ class NotificationServiceImplTest {
     verify(emailNotificationStrategy, never()).send(any());
   }
 
+  @Test
+  @DisplayName("handleNotificationBatch should publish requests that failed to deserialize to the dead-letter topic")
+  void handleNotificationBatch_ShouldPublishNullRequests() {
+    NotificationRequestDto requestDto = createNotificationRequestDto(NotificationTypeEnum.EMAIL);
+    ConsumerRecord<String, NotificationRequestDto> undeserializable = consumerRecord(1, null);
+    when(emailNotificationStrategy.sendAll(List.of(requestDto))).thenReturn(List.of(NotificationResult.success(requestDto)));
+
+    notificationService.handleNotificationBatch(List.of(consumerRecord(0, requestDto), undeserializable));
+
+    verify(emailNotificationStrategy, times(1)).sendAll(List.of(requestDto));
+    verify(failedNotificationPublisher).publishUndeserializable(undeserializable);
+    verify(failedNotificationPublisher, never()).publish(any(), any());
+  }
+
+  @Test
+  @DisplayName("handleNotificationBatch should publish only the failed requests to the retry topic")
+  void handleNotificationBatch_ShouldPublishFailedRequests() {
+    NotificationRequestDto sent = createNotificationRequestDto(NotificationTypeEnum.EMAIL);
+    NotificationRequestDto failed = createNotificationRequestDto(NotificationTypeEnum.EMAIL);
+    ConsumerRecord<String, NotificationRequestDto> failedRecord = consumerRecord(1, failed);
+    EmailSendingException error = new EmailSendingException("recipient@example.com", "Test Subject", "Rejected");
+    when(emailNotificationStrategy.sendAll(List.of(sent, failed)))
+            .thenReturn(List.of(NotificationResult.success(sent), NotificationResult.failure(failed, error)));
+
+    notificationService.handleNotificationBatch(List.of(consumerRecord(0, sent), failedRecord));
+
+    verify(failedNotificationPublisher, times(1)).publish(failedRecord, error);
+    verifyNoMoreInteractions(failedNotificationPublisher);
+  }
+
+  @Test
+  @DisplayName("handleNotificationBatch should fail the batch from a failed request that could not be published")
+  void handleNotificationBatch_WhenPublishingFails_ShouldFailFromThatRecord() {
+    NotificationRequestDto sent = createNotificationRequestDto(NotificationTypeEnum.EMAIL);
+    NotificationRequestDto failed = createNotificationRequestDto(NotificationTypeEnum.EMAIL);
+    ConsumerRecord<String, NotificationRequestDto> failedRecord = consumerRecord(1, failed);
+    EmailSendingException error = new EmailSendingException("recipient@example.com", "Test Subject", "Rejected");
+    when(emailNotificationStrategy.sendAll(List.of(sent, failed)))
+            .thenReturn(List.of(NotificationResult.success(sent), NotificationResult.failure(failed, error)));
+    doThrow(new KafkaException("Broker unavailable")).when(failedNotificationPublisher).publish(failedRecord, error);
+
+    BatchListenerFailedException exception = assertThrows(BatchListenerFailedException.class,
+            () -> notificationService.handleNotificationBatch(List.of(consumerRecord(0, sent), failedRecord)));
+
+    assertEquals(1, exception.getIndex());
+  }
+
+  @Test
+  @DisplayName("sendNotifications should group requests by type and keep the request order")
+  void sendNotifications_ShouldGroupRequestsByType() {
+    NotificationRequestDto firstEmail = createNotificationRequestDto(NotificationTypeEnum.EMAIL);
+    NotificationRequestDto sms = createNotificationRequestDto(NotificationTypeEnum.SMS);
+    NotificationRequestDto secondEmail = createNotificationRequestDto(NotificationTypeEnum.EMAIL);
+    EmailSendingException error = new EmailSendingException("recipient@example.com", "Test Subject", "Rejected");
+    when(emailNotificationStrategy.sendAll(List.of(firstEmail, secondEmail)))
+            .thenReturn(List.of(NotificationResult.success(firstEmail), NotificationResult.failure(secondEmail, error)));
+    when(smsNotificationStrategy.sendAll(List.of(sms))).thenReturn(List.of(NotificationResult.success(sms)));
+
+    List<NotificationResult> results = notificationService.sendNotifications(List.of(firstEmail, sms, secondEmail));
+
+    assertEquals(3, results.size());
+    assertTrue(results.get(0).isSuccess());
+    assertTrue(results.get(1).isSuccess());
+    assertSame(error, results.get(2).error());
+  }
+
+  @Test
+  @DisplayName("sendNotifications should fail only the requests with an unsupported type")
+  void sendNotifications_WithUnsupportedType_ShouldFailOnlyThoseRequests() {
+    NotificationRequestDto email = createNotificationRequestDto(NotificationTypeEnum.EMAIL);
+    NotificationRequestDto web = createNotificationRequestDto(NotificationTypeEnum.WEB);
+    when(emailNotificationStrategy.sendAll(List.of(email))).thenReturn(List.of(NotificationResult.success(email)));
+
+    List<NotificationResult> results = notificationService.sendNotifications(List.of(email, web));
+
+    assertTrue(results.get(0).isSuccess());
+    assertInstanceOf(InvalidNotificationTypeException.class, results.get(1).error());
+  }
+
+  @Test
+  @DisplayName("sendNotifications should send chunks concurrently on virtual threads and keep the request order")
+  void sendNotifications_WithVirtualThreads_ShouldSendChunksConcurrently() {
+    SimpleAsyncTaskExecutor virtualThreadExecutor = new SimpleAsyncTaskExecutor("test-send-");
+    virtualThreadExecutor.setVirtualThreads(true);
+    notificationService = createNotificationService(List.of(emailNotificationStrategy), virtualThreadExecutor, 1);
+    NotificationRequestDto first = createNotificationRequestDto(NotificationTypeEnum.EMAIL);
+    NotificationRequestDto second = createNotificationRequestDto(NotificationTypeEnum.EMAIL);
+    EmailSendingException error = new EmailSendingException("recipient@example.com", "Test Subject", "Rejected");
+    when(emailNotificationStrategy.sendAll(anyList())).thenAnswer(invocation -> {
+      List<NotificationRequestDto> chunk = invocation.getArgument(0);
+      assertTrue(Thread.currentThread().isVirtual());
+      return chunk.get(0) == second ? List.of(NotificationResult.failure(second, error)) : List.of(NotificationResult.success(first));
+    });
+
+    List<NotificationResult> results = notificationService.sendNotifications(List.of(first, second));
+
+    verify(emailNotificationStrategy, times(2)).sendAll(anyList());
+    assertTrue(results.get(0).isSuccess());
+    assertSame(error, results.get(1).error());
+  }
+
+  @Test
+  @DisplayName("sendNotification should skip a notification whose idempotency key was already sent")
+  void sendNotification_WithSentIdempotencyKey_ShouldSkipNotification() {
+    NotificationRequestDto requestDto = createNotificationRequestDto(NotificationTypeEnum.EMAIL).withIdempotencyKey("order-1");
+
+    notificationService.sendNotification(requestDto);
+    notificationService.sendNotification(requestDto);
+
+    verify(emailNotificationStrategy, times(1)).send(requestDto);
+  }
+
+  @Test
+  @DisplayName("sendNotification should send a notification again when its earlier send failed")
+  void sendNotification_AfterFailedSend_ShouldSendAgain() {
+    NotificationRequestDto requestDto = createNotificationRequestDto(NotificationTypeEnum.EMAIL).withIdempotencyKey("order-1");
+    doThrow(new EmailSendingException("recipient@example.com", "Test Subject", "Rejected"))
+            .doNothing()
+            .when(emailNotificationStrategy).send(requestDto);
+
+    assertThrows(EmailSendingException.class, () -> notificationService.sendNotification(requestDto));
+    notificationService.sendNotification(requestDto);
+
+    verify(emailNotificationStrategy, times(2)).send(requestDto);
+  }
+
+  @Test
+  @DisplayName("sendNotification should log the sent and the failed attempts")
+  void sendNotification_ShouldLogEveryAttempt() {
+    NotificationRequestDto requestDto = createNotificationRequestDto(NotificationTypeEnum.EMAIL).withTrackingId("tracking-1");
+    EmailSendingException error = new EmailSendingException("recipient@example.com", "Test Subject", "Rejected");
+    doThrow(error).doNothing().when(emailNotificationStrategy).send(requestDto);
+
+    assertThrows(EmailSendingException.class, () -> notificationService.sendNotification(requestDto));
+    notificationService.sendNotification(requestDto);
+
+    verify(deliveryLogWriter, times(1)).record(requestDto, error);
+    verify(deliveryLogWriter, times(1)).record(requestDto, null);
+  }
+
+  @Test
+  @DisplayName("sendNotifications should log the outcome of every request sent")
+  void sendNotifications_ShouldLogEveryAttempt() {
+    NotificationRequestDto sent = createNotificationRequestDto(NotificationTypeEnum.EMAIL);
+    NotificationRequestDto failed = createNotificationRequestDto(NotificationTypeEnum.SMS);
+    EmailSendingException error = new EmailSendingException("recipient@example.com", "Test Subject", "Rejected");
+    when(emailNotificationStrategy.sendAll(List.of(sent))).thenReturn(List.of(NotificationResult.success(sent)));
+    when(smsNotificationStrategy.sendAll(List.of(failed))).thenReturn(List.of(NotificationResult.failure(failed, error)));
+
+    notificationService.sendNotifications(List.of(sent, failed));
+
+    verify(deliveryLogWriter, times(1)).record(sent, null);
+    verify(deliveryLogWriter, times(1)).record(failed, error);
+  }
+
+  @Test
+  @DisplayName("sendNotification should schedule a notification with a send-at time in the future")
+  void sendNotification_WithFutureSendAt_ShouldScheduleNotification() {
+    NotificationRequestDto requestDto = createNotificationRequestDto(NotificationTypeEnum.EMAIL, Instant.now().plus(Duration.ofDays(1)));
+
+    assertFalse(notificationService.sendNotification(requestDto));
+
+    verify(notificationScheduler, times(1)).schedule(List.of(requestDto));
+    verify(deliveryLogWriter, times(1)).recordScheduled(requestDto);
+    verify(emailNotificationStrategy, never()).send(any());
+  }
+
+  @Test
+  @DisplayName("sendNotifications should schedule the deferred requests together and send the others")
+  void sendNotifications_WithFutureSendAt_ShouldScheduleDeferredRequests() {
+    NotificationRequestDto now = createNotificationRequestDto(NotificationTypeEnum.EMAIL, Instant.now().minusSeconds(1));
+    NotificationRequestDto later = createNotificationRequestDto(NotificationTypeEnum.EMAIL, Instant.now().plus(Duration.ofDays(1)));
+    when(emailNotificationStrategy.sendAll(List.of(now))).thenReturn(List.of(NotificationResult.success(now)));
+
+    List<NotificationResult> results = notificationService.sendNotifications(List.of(now, later, later));
+
+    verify(notificationScheduler, times(1)).schedule(List.of(later, later));
+    assertTrue(results.stream().allMatch(NotificationResult::isSuccess));
+  }
+
+  @Test
+  @DisplayName("sendNotifications should report the requests held back for a digest as sent without sending them")
+  void sendNotifications_WithHeldRequests_ShouldNotSendThem() {
+    NotificationRequestDto opening = createNotificationRequestDto(NotificationTypeEnum.EMAIL);
+    NotificationRequestDto held = new NotificationRequestDto("recipient@example.com", "Held", "test-template", Map.of(),
+            NotificationTypeEnum.EMAIL, NotificationCategoryEnum.GENERAL);
+    when(notificationDigestBuffer.offer(any())).thenAnswer(invocation -> invocation.getArgument(0) == held);
+    when(emailNotificationStrategy.sendAll(List.of(opening))).thenReturn(List.of(NotificationResult.success(opening)));
+
+    List<NotificationResult> results = notificationService.sendNotifications(List.of(opening, held));
+
+    assertTrue(results.stream().allMatch(NotificationResult::isSuccess));
+    verify(emailNotificationStrategy, times(1)).sendAll(List.of(opening));
+    verify(deliveryLogWriter, never()).record(eq(held), any());
+  }
+
+  @Test
+  @DisplayName("sendNotificationsWithoutDigest should send every request and sendNotification should send one the buffer fails to hold")
+  void sendNotificationsWithoutDigest_ShouldNotOfferRequestsToTheBuffer() {
+    NotificationRequestDto requestDto = createNotificationRequestDto(NotificationTypeEnum.EMAIL);
+    when(emailNotificationStrategy.sendAll(List.of(requestDto))).thenReturn(List.of(NotificationResult.success(requestDto)));
+    when(notificationDigestBuffer.offer(requestDto)).thenThrow(new IllegalStateException("Database down"));
+
+    assertTrue(notificationService.sendNotificationsWithoutDigest(List.of(requestDto)).getFirst().isSuccess());
+    verifyNoInteractions(notificationDigestBuffer);
+    assertTrue(notificationService.sendNotification(requestDto));
+    verify(emailNotificationStrategy, times(1)).send(requestDto);
+  }
+
+  @Test
+  @DisplayName("handleNotification should use the idempotency key of the record header")
+  void handleNotification_WithIdempotencyKeyHeader_ShouldSkipDuplicates() {
+    NotificationRequestDto requestDto = createNotificationRequestDto(NotificationTypeEnum.EMAIL);
+
+    notificationService.handleNotification(requestDto, "order-1");
+    notificationService.handleNotification(requestDto, "order-1");
+
+    verify(emailNotificationStrategy, times(1)).send(requestDto.withIdempotencyKey("order-1"));
+  }
+
+  @Test
+  @DisplayName("sendNotifications should skip duplicate idempotency keys and report them as sent")
+  void sendNotifications_WithDuplicateIdempotencyKeys_ShouldSkipDuplicates() {
+    NotificationRequestDto first = createNotificationRequestDto(NotificationTypeEnum.EMAIL).withIdempotencyKey("order-1");
+    NotificationRequestDto duplicate = createNotificationRequestDto(NotificationTypeEnum.EMAIL).withIdempotencyKey("order-1");
+    when(emailNotificationStrategy.sendAll(List.of(first))).thenReturn(List.of(NotificationResult.success(first)));
+
+    List<NotificationResult> results = notificationService.sendNotifications(List.of(first, duplicate));
+    notificationService.sendNotifications(List.of(duplicate));
+
+    verify(emailNotificationStrategy, times(1)).sendAll(anyList());
+    assertTrue(results.get(0).isSuccess());
+    assertTrue(results.get(1).isSuccess());
+  }
+
+  @Test
+  @DisplayName("sendNotifications should report a duplicate idempotency key with the outcome of its first request")
+  void sendNotifications_WithDuplicateIdempotencyKeyOfFailedSend_ShouldReportFailure() {
+    NotificationRequestDto first = createNotificationRequestDto(NotificationTypeEnum.EMAIL).withIdempotencyKey("order-1");
+    NotificationRequestDto duplicate = createNotificationRequestDto(NotificationTypeEnum.EMAIL).withIdempotencyKey("order-1");
+    EmailSendingException error = new EmailSendingException("recipient@example.com", "Test Subject", "Rejected");
+    when(emailNotificationStrategy.sendAll(List.of(first))).thenReturn(List.of(NotificationResult.failure(first, error)));
+
+    List<NotificationResult> results = notificationService.sendNotifications(List.of(first, duplicate));
+
+    verify(emailNotificationStrategy, times(1)).sendAll(anyList());
+    assertSame(error, results.get(0).error());
+    assertSame(duplicate, results.get(1).notificationRequestDto());
+    assertSame(error, results.get(1).error());
+  }
+
+  @Test
+  @DisplayName("sendNotifications should split each group into chunks of the chunk size on the send executor")
+  void sendNotifications_ShouldSplitGroupsIntoChunks() {
+    List<Runnable> tasks = new ArrayList<>();
+    notificationService = createNotificationService(List.of(emailNotificationStrategy), task -> {
+      tasks.add(task);
+      task.run();
+    }, 10);
+    List<NotificationRequestDto> requests = Collections.nCopies(25, createNotificationRequestDto(NotificationTypeEnum.EMAIL));
+    when(emailNotificationStrategy.sendAll(anyList())).thenAnswer(invocation -> invocation.<List<NotificationRequestDto>>getArgument(0)
+            .stream().map(NotificationResult::success).toList());
+
+    List<NotificationResult> results = notificationService.sendNotifications(requests);
+
+    assertEquals(3, tasks.size());
+    assertEquals(25, results.size());
+    assertTrue(results.stream().allMatch(NotificationResult::isSuccess));
+  }
+
+  @Test
+  @DisplayName("sendNotifications should send a chunk together, holding a place in the lane for each of its requests")
+  void sendNotifications_ShouldTakeLanePlacePerRequestOfChunk() {
+    NotificationLanes notificationLanes = createLanes(2, Duration.ofSeconds(5));
+    notificationService = createNotificationService(List.of(emailNotificationStrategy), new SyncTaskExecutor(), 100, notificationLanes);
+    NotificationRequestDto first = createNotificationRequestDto(NotificationTypeEnum.EMAIL);
+    NotificationRequestDto second = createNotificationRequestDto(NotificationTypeEnum.EMAIL);
+    List<Integer> inFlight = new ArrayList<>();
+    when(emailNotificationStrategy.sendAll(List.of(first, second))).thenAnswer(invocation -> {
+      inFlight.add(notificationLanes.getInFlight(NotificationTypeEnum.EMAIL, NotificationCategoryEnum.VERIFICATION));
+      return List.of(NotificationResult.success(first), NotificationResult.success(second));
+    });
+
+    List<NotificationResult> results = notificationService.sendNotifications(List.of(first, second));
+
+    verify(emailNotificationStrategy, times(1)).sendAll(anyList());
+    assertEquals(List.of(2), inFlight);
+    assertTrue(results.stream().allMatch(NotificationResult::isSuccess));
+    assertEquals(0, notificationLanes.getInFlight(NotificationTypeEnum.EMAIL, NotificationCategoryEnum.VERIFICATION));
+  }
+
+  @Test
+  @DisplayName("sendNotification should give its lane place back before waiting for the submitted send")
+  void sendNotification_ShouldReleaseLaneBeforeWaiting() {
+    NotificationLanes notificationLanes = createLanes(2, Duration.ofSeconds(5));
+    notificationService = createNotificationService(List.of(emailNotificationStrategy), new SyncTaskExecutor(), 100, notificationLanes);
+    NotificationRequestDto requestDto = createNotificationRequestDto(NotificationTypeEnum.EMAIL);
+    List<Integer> inFlight = new ArrayList<>();
+    doReturn(CompletableFuture.runAsync(
+            () -> inFlight.add(notificationLanes.getInFlight(NotificationTypeEnum.EMAIL, NotificationCategoryEnum.VERIFICATION)),
+            CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS))).when(emailNotificationStrategy).submit(requestDto);
+
+    assertTrue(notificationService.sendNotification(requestDto));
+
+    assertEquals(List.of(0), inFlight);
+    verify(deliveryLogWriter, times(1)).record(requestDto, null);
+  }
+
+  @Test
+  @DisplayName("sendNotifications should give the lane places of a chunk back before waiting for its submitted sends")
+  void sendNotifications_ShouldReleaseLaneBeforeWaiting() {
+    NotificationLanes notificationLanes = createLanes(2, Duration.ofSeconds(5));
+    notificationService = createNotificationService(List.of(emailNotificationStrategy), new SyncTaskExecutor(), 100, notificationLanes);
+    NotificationRequestDto first = createNotificationRequestDto(NotificationTypeEnum.EMAIL);
+    NotificationRequestDto second = createNotificationRequestDto(NotificationTypeEnum.EMAIL);
+    List<Integer> inFlight = new ArrayList<>();
+    doReturn(CompletableFuture.supplyAsync(() -> {
+      inFlight.add(notificationLanes.getInFlight(NotificationTypeEnum.EMAIL, NotificationCategoryEnum.VERIFICATION));
+      return List.of(NotificationResult.success(first), NotificationResult.success(second));
+    }, CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS))).when(emailNotificationStrategy).submitAll(List.of(first, second));
+
+    List<NotificationResult> results = notificationService.sendNotifications(List.of(first, second));
+
+    assertEquals(List.of(0), inFlight);
+    assertTrue(results.stream().allMatch(NotificationResult::isSuccess));
+  }
+
+  @Test
+  @DisplayName("sendNotifications should make no chunk larger than the lane of its category")
+  void sendNotifications_ShouldBoundChunksByLane() {
+    notificationService = createNotificationService(List.of(emailNotificationStrategy), new SyncTaskExecutor(), 100,
+            createLanes(2, Duration.ofSeconds(5)));
+    List<NotificationRequestDto> requests = Collections.nCopies(5, createNotificationRequestDto(NotificationTypeEnum.EMAIL));
+    List<Integer> chunkSizes = new ArrayList<>();
+    when(emailNotificationStrategy.sendAll(anyList())).thenAnswer(invocation -> {
+      List<NotificationRequestDto> chunk = invocation.getArgument(0);
+      chunkSizes.add(chunk.size());
+      return chunk.stream().map(NotificationResult::success).toList();
+    });
+
+    List<NotificationResult> results = notificationService.sendNotifications(requests);
+
+    assertEquals(List.of(2, 2, 1), chunkSizes);
+    assertTrue(results.stream().allMatch(NotificationResult::isSuccess));
+  }
+
+  @Test
+  @DisplayName("sendNotifications should fail a whole chunk when its lane places do not become free in time")
+  void sendNotifications_WhenLaneTimesOut_ShouldFailChunk() {
+    NotificationLanes notificationLanes = createLanes(2, Duration.ofMillis(50));
+    notificationService = createNotificationService(List.of(emailNotificationStrategy), new SyncTaskExecutor(), 100, notificationLanes);
+    NotificationRequestDto first = createNotificationRequestDto(NotificationTypeEnum.EMAIL);
+    NotificationRequestDto second = createNotificationRequestDto(NotificationTypeEnum.EMAIL);
+
+    List<NotificationResult> results;
+    try (NotificationLanes.LanePermit ignored = notificationLanes.acquire(NotificationTypeEnum.EMAIL, NotificationCategoryEnum.VERIFICATION)) {
+      results = notificationService.sendNotifications(List.of(first, second));
+    }
+
+    verify(emailNotificationStrategy, never()).sendAll(anyList());
+    assertInstanceOf(LaneTimeoutException.class, results.get(0).error());
+    assertSame(results.get(0).error(), results.get(1).error());
+  }
+
   /**
    * Creates a NotificationRequestDto object with the given type.
    *
    * @param type the type of the notification
    * @return the created NotificationRequestDto object
    */
+  private static ConsumerRecord<String, NotificationRequestDto> consumerRecord(long offset, NotificationRequestDto requestDto) {
+    return new ConsumerRecord<>("notification-topic", 0, offset, null, requestDto);
+  }
+
   private NotificationRequestDto createNotificationRequestDto(NotificationTypeEnum type) {
+    return createNotificationRequestDto(type, null);
+  }
+
+  /**
+   * Creates a NotificationRequestDto object with the given type and send-at time.
+   *
+   * @param type   the type of the notification
+   * @param sendAt the time to send the notification at, or null
+   * @return the created NotificationRequestDto object
+   */
+  private NotificationRequestDto createNotificationRequestDto(NotificationTypeEnum type, Instant sendAt) {
     return new NotificationRequestDto(
             "recipient@example.com",
             "Test Subject",
             "test-template",
             new HashMap<>(),
             type,
-            NotificationCategoryEnum.VERIFICATION
+            NotificationCategoryEnum.VERIFICATION,
+            null,
+            null,
+            sendAt
     );
   }
 }
\ No newline at end of file
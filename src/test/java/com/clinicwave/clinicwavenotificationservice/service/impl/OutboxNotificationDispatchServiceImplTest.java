@@ -0,0 +1,143 @@
+package com.clinicwave.clinicwavenotificationservice.service.impl;
+
+import com.clinicwave.clinicwavenotificationservice.domain.NotificationOutbox;
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.OutboxStatusEnum;
+import com.clinicwave.clinicwavenotificationservice.outbox.NotificationOutboxDispatcher;
+import com.clinicwave.clinicwavenotificationservice.repository.NotificationOutboxRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class contains unit tests for the OutboxNotificationDispatchServiceImpl class.
+ *
+ * @author agent on 10/18/26
+ */
+@ExtendWith(MockitoExtension.class)
+class OutboxNotificationDispatchServiceImplTest {
+  @Mock
+  private NotificationOutboxRepository notificationOutboxRepository;
+
+  @Mock
+  private NotificationOutboxDispatcher notificationOutboxDispatcher;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private final ExecutorService callers = Executors.newCachedThreadPool();
+
+  private OutboxNotificationDispatchServiceImpl outboxNotificationDispatchService;
+
+  private NotificationRequestDto notificationRequestDto;
+
+  /**
+   * Sets up the test environment before each test.
+   */
+  @BeforeEach
+  void setUp() {
+    outboxNotificationDispatchService = new OutboxNotificationDispatchServiceImpl(notificationOutboxRepository,
+            notificationOutboxDispatcher, transactionManager, new ObjectMapper(), new SimpleMeterRegistry(),
+            50, 100, Duration.ofSeconds(5), Duration.ofSeconds(5));
+    notificationRequestDto = new NotificationRequestDto(
+            "recipient@example.com",
+            "Test Subject",
+            "email-verification",
+            Map.of("code", "123456"),
+            NotificationTypeEnum.EMAIL,
+            NotificationCategoryEnum.VERIFICATION
+    );
+  }
+
+  /**
+   * Shuts the writer and the calling threads down after each test.
+   */
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    outboxNotificationDispatchService.shutdown();
+    callers.shutdownNow();
+  }
+
+  @Test
+  @DisplayName("dispatch returns the tracking ID once the notification is written to the outbox")
+  @SuppressWarnings("unchecked")
+  void dispatchWritesNotificationToOutbox() {
+    String trackingId = outboxNotificationDispatchService.dispatch(notificationRequestDto);
+
+    ArgumentCaptor<List<NotificationOutbox>> written = ArgumentCaptor.forClass(List.class);
+    verify(notificationOutboxRepository).saveAll(written.capture());
+    NotificationOutbox notificationOutbox = written.getValue().getFirst();
+    assertEquals(trackingId, notificationOutbox.getTrackingId());
+    assertEquals("recipient@example.com", notificationOutbox.getRecipient());
+    assertEquals("{\"code\":\"123456\"}", notificationOutbox.getTemplateVariables());
+    assertEquals(NotificationCategoryEnum.VERIFICATION, notificationOutbox.getCategory());
+    assertEquals(OutboxStatusEnum.PENDING, notificationOutbox.getStatus());
+    verify(notificationOutboxDispatcher).wakeUp();
+  }
+
+  @Test
+  @DisplayName("dispatch fails when the notification could not be written to the outbox")
+  void dispatchFailsWhenWriteFails() {
+    when(notificationOutboxRepository.saveAll(anyList())).thenThrow(new DataAccessResourceFailureException("Database down"));
+
+    assertThrows(DataAccessResourceFailureException.class, () -> outboxNotificationDispatchService.dispatch(notificationRequestDto));
+    verifyNoInteractions(notificationOutboxDispatcher);
+  }
+
+  @Test
+  @DisplayName("dispatch writes the notifications that arrive while a batch is written in a single batch")
+  @SuppressWarnings("unchecked")
+  void dispatchWritesWaitingNotificationsTogether() throws Exception {
+    CountDownLatch firstWriteStarted = new CountDownLatch(1);
+    CountDownLatch releaseFirstWrite = new CountDownLatch(1);
+    List<Integer> batchSizes = new ArrayList<>();
+    when(notificationOutboxRepository.saveAll(anyList())).thenAnswer(invocation -> {
+      List<NotificationOutbox> batch = invocation.getArgument(0);
+      batchSizes.add(batch.size());
+      firstWriteStarted.countDown();
+      assertTrue(releaseFirstWrite.await(5, TimeUnit.SECONDS));
+      return batch;
+    });
+
+    CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> outboxNotificationDispatchService.dispatch(notificationRequestDto));
+    assertTrue(firstWriteStarted.await(5, TimeUnit.SECONDS));
+    List<CompletableFuture<String>> waiting = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      waiting.add(CompletableFuture.supplyAsync(() -> outboxNotificationDispatchService.dispatch(notificationRequestDto), callers));
+    }
+    // Give the waiting requests time to reach the queue.
+    Thread.sleep(200);
+    releaseFirstWrite.countDown();
+
+    first.get(5, TimeUnit.SECONDS);
+    for (CompletableFuture<String> future : waiting) {
+      future.get(5, TimeUnit.SECONDS);
+    }
+    assertEquals(List.of(1, 3), batchSizes);
+  }
+}
@@ -2,18 +2,24 @@ package com.clinicwave.clinicwavenotificationservice.service.impl;
 
 import com.clinicwave.clinicwavenotificationservice.domain.SmtpSetting;
 import com.clinicwave.clinicwavenotificationservice.exception.ResourceNotFoundException;
+import com.clinicwave.clinicwavenotificationservice.mail.BalancedJavaMailSender;
+import com.clinicwave.clinicwavenotificationservice.mail.PooledJavaMailSender;
+import com.clinicwave.clinicwavenotificationservice.mail.SmtpRelayHealthSettings;
+import com.clinicwave.clinicwavenotificationservice.mail.SmtpTransportPoolSettings;
 import com.clinicwave.clinicwavenotificationservice.repository.SmtpSettingRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.JavaMailSenderImpl;
 
-import java.util.Optional;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Properties;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -31,9 +37,10 @@ class SmtpSettingServiceImplTest {
   @Mock
   private SmtpSettingRepository smtpSettingRepository;
 
-  @InjectMocks
   private SmtpSettingServiceImpl smtpSettingService;
 
+  private SimpleMeterRegistry meterRegistry;
+
   private SmtpSetting smtpSetting;
 
   /**
@@ -41,7 +48,14 @@ class SmtpSettingServiceImplTest {
    */
   @BeforeEach
   void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    SmtpTransportPoolSettings poolSettings = new SmtpTransportPoolSettings(2, Duration.ofSeconds(1), Duration.ofMinutes(1), 100, Duration.ofSeconds(5));
+    SmtpRelayHealthSettings relayHealthSettings = new SmtpRelayHealthSettings(0.5, 10, Duration.ofSeconds(30));
+    smtpSettingService = new SmtpSettingServiceImpl(smtpSettingRepository, poolSettings, relayHealthSettings, meterRegistry,
+            Duration.ofSeconds(5));
+
     smtpSetting = new SmtpSetting();
+    smtpSetting.setId(1L);
     smtpSetting.setHost("smtp.example.com");
     smtpSetting.setPort(587);
     smtpSetting.setFromAddress("no-reply@test.com");
@@ -54,12 +68,13 @@ class SmtpSettingServiceImplTest {
   @Test
   @DisplayName("createMailSender creates a JavaMailSender object")
   void createMailSender() {
-    when(smtpSettingRepository.findByIsActiveTrue()).thenReturn(Optional.of(smtpSetting));
+    when(smtpSettingRepository.findAllByIsActiveTrueOrderByIdAsc()).thenReturn(List.of(smtpSetting));
 
     JavaMailSender javaMailSender = smtpSettingService.createMailSender();
 
     assertNotNull(javaMailSender);
     assertInstanceOf(JavaMailSenderImpl.class, javaMailSender);
+    assertInstanceOf(PooledJavaMailSender.class, javaMailSender);
 
     JavaMailSenderImpl mailSender = (JavaMailSenderImpl) javaMailSender;
 
@@ -74,15 +89,152 @@ class SmtpSettingServiceImplTest {
     assertEquals(smtpSetting.getAuth().toString(), props.getProperty("mail.smtp.auth"));
     assertEquals(smtpSetting.getStarttlsEnable().toString(), props.getProperty("mail.smtp.starttls.enable"));
 
-    verify(smtpSettingRepository, times(1)).findByIsActiveTrue();
+    verify(smtpSettingRepository, times(1)).findAllByIsActiveTrueOrderByIdAsc();
   }
 
   @Test
   @DisplayName("getActiveSmtpSetting throws ResourceNotFoundException when no active setting")
   void getActiveSmtpSettingThrowsResourceNotFoundExceptionWhenNoActiveSetting() {
-    when(smtpSettingRepository.findByIsActiveTrue()).thenReturn(Optional.empty());
+    when(smtpSettingRepository.findAllByIsActiveTrueOrderByIdAsc()).thenReturn(List.of());
 
     assertThrows(ResourceNotFoundException.class, () -> smtpSettingService.createMailSender());
-    verify(smtpSettingRepository, times(1)).findByIsActiveTrue();
+    verify(smtpSettingRepository, times(1)).findAllByIsActiveTrueOrderByIdAsc();
+  }
+
+  @Test
+  @DisplayName("createMailSender returns the cached JavaMailSender on subsequent calls")
+  void createMailSenderReturnsCachedMailSender() {
+    when(smtpSettingRepository.findAllByIsActiveTrueOrderByIdAsc()).thenReturn(List.of(smtpSetting));
+
+    JavaMailSender first = smtpSettingService.createMailSender();
+    JavaMailSender second = smtpSettingService.createMailSender();
+
+    assertSame(first, second);
+    verify(smtpSettingRepository, times(1)).findAllByIsActiveTrueOrderByIdAsc();
+    assertEquals(1.0, meterRegistry.get("notification.smtp.mail-sender.cache").tag("result", "hit").counter().count());
+    assertEquals(1.0, meterRegistry.get("notification.smtp.mail-sender.cache").tag("result", "miss").counter().count());
+    assertEquals(1.0, meterRegistry.get("notification.smtp.mail-sender.rebuilds").counter().count());
+  }
+
+  @Test
+  @DisplayName("refreshMailSender forces the JavaMailSender to be rebuilt")
+  void refreshMailSenderForcesRebuild() {
+    when(smtpSettingRepository.findAllByIsActiveTrueOrderByIdAsc()).thenReturn(List.of(smtpSetting));
+
+    JavaMailSender first = smtpSettingService.createMailSender();
+    smtpSettingService.refreshMailSender();
+    JavaMailSender second = smtpSettingService.createMailSender();
+
+    assertNotSame(first, second);
+    verify(smtpSettingRepository, times(2)).findAllByIsActiveTrueOrderByIdAsc();
+    assertEquals(2.0, meterRegistry.get("notification.smtp.mail-sender.rebuilds").counter().count());
+  }
+
+  @Test
+  @DisplayName("refreshMailSender keeps the rate limiter of a relay whose limits are unchanged")
+  void refreshMailSenderKeepsRateLimiter() {
+    smtpSetting.setMaxMessagesPerHour(100);
+    when(smtpSettingRepository.findAllByIsActiveTrueOrderByIdAsc()).thenReturn(List.of(smtpSetting));
+
+    PooledJavaMailSender first = (PooledJavaMailSender) smtpSettingService.createMailSender();
+    smtpSettingService.refreshMailSender();
+    PooledJavaMailSender second = (PooledJavaMailSender) smtpSettingService.createMailSender();
+
+    assertSame(first.getRateLimiter(), second.getRateLimiter());
+  }
+
+  @Test
+  @DisplayName("refreshMailSender replaces the rate limiter of a relay whose limits changed")
+  void refreshMailSenderReplacesRateLimiterWhenLimitsChange() {
+    smtpSetting.setMaxMessagesPerHour(100);
+    when(smtpSettingRepository.findAllByIsActiveTrueOrderByIdAsc()).thenReturn(List.of(smtpSetting));
+
+    PooledJavaMailSender first = (PooledJavaMailSender) smtpSettingService.createMailSender();
+    smtpSetting.setMaxMessagesPerHour(200);
+    smtpSettingService.refreshMailSender();
+    PooledJavaMailSender second = (PooledJavaMailSender) smtpSettingService.createMailSender();
+
+    assertNotSame(first.getRateLimiter(), second.getRateLimiter());
+  }
+
+  @Test
+  @DisplayName("checkForSmtpSettingChanges keeps the cached JavaMailSender when the setting is unchanged")
+  void checkForSmtpSettingChangesKeepsCacheWhenUnchanged() {
+    when(smtpSettingRepository.findAllByIsActiveTrueOrderByIdAsc()).thenReturn(List.of(smtpSetting));
+
+    JavaMailSender first = smtpSettingService.createMailSender();
+    smtpSettingService.checkForSmtpSettingChanges();
+
+    assertSame(first, smtpSettingService.createMailSender());
+  }
+
+  @Test
+  @DisplayName("checkForSmtpSettingChanges invalidates the cached JavaMailSender when the setting is updated")
+  void checkForSmtpSettingChangesInvalidatesCacheWhenSettingIsUpdated() {
+    SmtpSetting updatedSmtpSetting = new SmtpSetting();
+    updatedSmtpSetting.setId(1L);
+    updatedSmtpSetting.setUpdatedAt(LocalDateTime.now());
+    updatedSmtpSetting.setHost("smtp.updated.com");
+    updatedSmtpSetting.setPort(2525);
+    updatedSmtpSetting.setFromAddress("no-reply@test.com");
+    updatedSmtpSetting.setUsername("testuser");
+    updatedSmtpSetting.setPassword("password");
+    when(smtpSettingRepository.findAllByIsActiveTrueOrderByIdAsc())
+            .thenReturn(List.of(smtpSetting))
+            .thenReturn(List.of(updatedSmtpSetting));
+
+    smtpSettingService.createMailSender();
+    smtpSettingService.checkForSmtpSettingChanges();
+    JavaMailSenderImpl rebuilt = (JavaMailSenderImpl) smtpSettingService.createMailSender();
+
+    assertEquals("smtp.updated.com", rebuilt.getHost());
+  }
+
+  @Test
+  @DisplayName("createMailSender balances over every active SmtpSetting")
+  void createMailSenderBalancesOverActiveSettings() {
+    SmtpSetting secondSmtpSetting = new SmtpSetting();
+    secondSmtpSetting.setId(2L);
+    secondSmtpSetting.setHost("smtp.second.com");
+    secondSmtpSetting.setPort(2525);
+    secondSmtpSetting.setFromAddress("no-reply@test.com");
+    secondSmtpSetting.setUsername("testuser");
+    secondSmtpSetting.setPassword("password");
+    secondSmtpSetting.setWeight(3);
+    secondSmtpSetting.setMaxConcurrency(5);
+    when(smtpSettingRepository.findAllByIsActiveTrueOrderByIdAsc()).thenReturn(List.of(smtpSetting, secondSmtpSetting));
+
+    BalancedJavaMailSender mailSender = assertInstanceOf(BalancedJavaMailSender.class, smtpSettingService.createMailSender());
+
+    List<BalancedJavaMailSender.Relay> relays = mailSender.getRelays();
+    assertEquals(2, relays.size());
+    assertEquals("smtp.example.com", relays.get(0).mailSender().getHost());
+    assertEquals(1, relays.get(0).weight());
+    assertEquals(2, relays.get(0).maxConcurrency());
+    assertEquals(3, relays.get(1).weight());
+    assertEquals(5, relays.get(1).maxConcurrency());
+    assertEquals(1.0, meterRegistry.get("notification.smtp.relay.available").tag("relay", "2").gauge().value());
+  }
+
+  @Test
+  @DisplayName("checkForSmtpSettingChanges invalidates the cached JavaMailSender when a setting is activated")
+  void checkForSmtpSettingChangesInvalidatesCacheWhenSettingIsActivated() {
+    SmtpSetting secondSmtpSetting = new SmtpSetting();
+    secondSmtpSetting.setId(2L);
+    secondSmtpSetting.setHost("smtp.second.com");
+    secondSmtpSetting.setPort(2525);
+    secondSmtpSetting.setFromAddress("no-reply@test.com");
+    secondSmtpSetting.setUsername("testuser");
+    secondSmtpSetting.setPassword("password");
+    when(smtpSettingRepository.findAllByIsActiveTrueOrderByIdAsc())
+            .thenReturn(List.of(smtpSetting))
+            .thenReturn(List.of(smtpSetting, secondSmtpSetting));
+
+    smtpSettingService.createMailSender();
+    assertEquals(1, meterRegistry.find("notification.smtp.relay.available").gauges().size());
+    smtpSettingService.checkForSmtpSettingChanges();
+
+    assertEquals(0, meterRegistry.find("notification.smtp.relay.available").gauges().size());
+    assertInstanceOf(BalancedJavaMailSender.class, smtpSettingService.createMailSender());
   }
-}
\ No newline at end of file
+}
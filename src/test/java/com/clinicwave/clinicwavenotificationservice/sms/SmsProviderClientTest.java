@@ -0,0 +1,161 @@
+package com.clinicwave.clinicwavenotificationservice.sms;
+
+import com.clinicwave.clinicwavenotificationservice.exception.SmsSendingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the SmsProviderClient class, run against a local stub provider.
+ *
+ * @author agent on 10/18/26
+ */
+class SmsProviderClientTest {
+  private SmsProviderStub stub;
+  private SimpleMeterRegistry meterRegistry;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    stub = new SmsProviderStub();
+    meterRegistry = new SimpleMeterRegistry();
+  }
+
+  @AfterEach
+  void tearDown() {
+    stub.close();
+  }
+
+  @Test
+  @DisplayName("sendAll sends the messages in batches of at most the maximum batch size")
+  void sendAllSendsFullBatches() throws Exception {
+    try (SmsProviderClient client = client(2, Duration.ofMillis(50))) {
+      List<SmsMessage> messages = IntStream.range(0, 5)
+              .mapToObj(i -> new SmsMessage("+1415555010" + i, "Code " + i))
+              .toList();
+
+      CompletableFuture.allOf(client.sendAll(messages).toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+      assertEquals(3, stub.requests().size());
+      assertEquals(List.of(2, 2, 1), stub.requests().stream().map(request -> request.get("messages").size()).sorted(Comparator.reverseOrder()).toList());
+      assertEquals("ClinicWave", stub.requests().get(0).get("from").asText());
+      assertEquals("Bearer test-key", stub.authorizations().get(0));
+      assertEquals(5, meterRegistry.get("notification.sms.messages").tag("outcome", "accepted").counter().count());
+      assertEquals(3, meterRegistry.get("notification.sms.batch.size").summary().count());
+    }
+  }
+
+  @Test
+  @DisplayName("send and sendAll gather concurrent messages into one batch sent once the first has waited the batch delay")
+  void sendLingersForTheBatchDelay() throws Exception {
+    try (SmsProviderClient client = client(10, Duration.ofMillis(100))) {
+      CompletableFuture<Void> first = client.send(new SmsMessage("+14155550100", "Code 1"));
+      CompletableFuture<Void> second = client.sendAll(List.of(new SmsMessage("+14155550101", "Code 2"))).get(0);
+
+      assertTrue(stub.requests().isEmpty());
+      CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+
+      assertEquals(1, stub.requests().size());
+      assertEquals("Code 2", stub.requests().get(0).get("messages").get(1).get("text").asText());
+    }
+  }
+
+  @Test
+  @DisplayName("a message rejected by the provider fails on its own")
+  void rejectedMessageFailsAlone() throws Exception {
+    stub.rejectNumbers(Set.of("+14155550101"));
+    try (SmsProviderClient client = client(2, Duration.ofSeconds(10))) {
+      List<CompletableFuture<Void>> futures = client.sendAll(List.of(
+              new SmsMessage("+14155550100", "Code 1"), new SmsMessage("+14155550101", "Code 2")));
+
+      assertDoesNotThrow(() -> futures.get(0).get(5, TimeUnit.SECONDS));
+      ExecutionException exception = assertThrows(ExecutionException.class, () -> futures.get(1).get(5, TimeUnit.SECONDS));
+      assertInstanceOf(SmsSendingException.class, exception.getCause());
+      assertTrue(exception.getCause().getMessage().contains("Invalid number"));
+      assertEquals(1, meterRegistry.get("notification.sms.messages").tag("outcome", "rejected").counter().count());
+    }
+  }
+
+  @Test
+  @DisplayName("a request the provider answers with an error status fails every message of its batch")
+  void failedRequestFailsTheBatch() throws Exception {
+    stub.answerWithStatus(503);
+    try (SmsProviderClient client = client(2, Duration.ofSeconds(10))) {
+      List<CompletableFuture<Void>> futures = client.sendAll(List.of(
+              new SmsMessage("+14155550100", "Code 1"), new SmsMessage("+14155550101", "Code 2")));
+
+      for (CompletableFuture<Void> future : futures) {
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(SmsSendingException.class, exception.getCause());
+      }
+      assertEquals(2, meterRegistry.get("notification.sms.messages").tag("outcome", "failed").counter().count());
+      assertEquals(1, meterRegistry.get("notification.sms.batch.request").tag("outcome", "failure").timer().count());
+    }
+  }
+
+  @Test
+  @DisplayName("a message that would wait longer than the maximum rate limit wait fails without being sent")
+  void rateLimitedMessageFails() throws Exception {
+    try (SmsProviderClient client = client(2, Duration.ofSeconds(10), 1, Duration.ZERO)) {
+      List<CompletableFuture<Void>> futures = client.sendAll(List.of(
+              new SmsMessage("+14155550100", "Code 1"), new SmsMessage("+14155550101", "Code 2")));
+
+      assertDoesNotThrow(() -> futures.get(0).get(5, TimeUnit.SECONDS));
+      ExecutionException exception = assertThrows(ExecutionException.class, () -> futures.get(1).get(5, TimeUnit.SECONDS));
+      assertInstanceOf(SmsSendingException.class, exception.getCause());
+      assertTrue(exception.getCause().getMessage().contains("rate limit"));
+      assertEquals(1, stub.requests().get(0).get("messages").size());
+      assertEquals(1, meterRegistry.get("notification.sms.provider.rate-limited").functionCounter().count());
+      assertEquals(1, meterRegistry.get("notification.sms.messages").tag("outcome", "failed").counter().count());
+    }
+  }
+
+  @Test
+  @DisplayName("getSendTimeout adds up the batch delay, the rate limit wait and the request timeout")
+  void getSendTimeoutBoundsTheWholeSend() {
+    try (SmsProviderClient client = client(2, Duration.ofMillis(50), null, Duration.ofSeconds(2))) {
+      assertEquals(Duration.ofMillis(7050), client.getSendTimeout());
+    }
+  }
+
+  @Test
+  @DisplayName("close sends the waiting batch and fails messages sent afterwards")
+  void closeFlushesTheWaitingBatch() throws Exception {
+    SmsProviderClient client = client(10, Duration.ofSeconds(10));
+    CompletableFuture<Void> waiting = client.send(new SmsMessage("+14155550100", "Code 1"));
+
+    client.close();
+
+    waiting.get(5, TimeUnit.SECONDS);
+    assertEquals(1, stub.requests().size());
+    ExecutionException exception = assertThrows(ExecutionException.class,
+            () -> client.send(new SmsMessage("+14155550101", "Code 2")).get(5, TimeUnit.SECONDS));
+    assertInstanceOf(SmsSendingException.class, exception.getCause());
+  }
+
+  private SmsProviderClient client(int maxBatchSize, Duration maxBatchDelay) {
+    return client(maxBatchSize, maxBatchDelay, null, Duration.ofSeconds(5));
+  }
+
+  private SmsProviderClient client(int maxBatchSize, Duration maxBatchDelay, Integer maxMessagesPerSecond,
+                                   Duration maxRateLimitWait) {
+    SmsProviderSettings settings = new SmsProviderSettings("stub", stub.bulkSendUri(), "test-key", "ClinicWave",
+            maxBatchSize, maxBatchDelay, maxMessagesPerSecond, maxRateLimitWait, Duration.ofSeconds(5));
+    return new SmsProviderClient(settings, HttpClient.newHttpClient(), new ObjectMapper(), meterRegistry);
+  }
+}
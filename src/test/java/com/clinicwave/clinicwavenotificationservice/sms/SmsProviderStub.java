@@ -0,0 +1,90 @@
+package com.clinicwave.clinicwavenotificationservice.sms;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+
+/**
+ * This class is a local stand-in for an SMS provider's bulk-send API, recording every request it receives.
+ * It accepts every message except those sent to the rejected numbers, and answers every request with the
+ * configured status.
+ *
+ * @author agent on 10/18/26
+ */
+class SmsProviderStub implements AutoCloseable {
+  static final String BULK_SEND_PATH = "/v1/messages/bulk";
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final HttpServer server;
+  private final List<JsonNode> requests = new CopyOnWriteArrayList<>();
+  private final List<String> authorizations = new CopyOnWriteArrayList<>();
+  private volatile Set<String> rejectedNumbers = Set.of();
+  private volatile int status = 200;
+
+  /**
+   * Starts the stub on a free local port.
+   *
+   * @throws IOException If the server cannot be started.
+   */
+  SmsProviderStub() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext(BULK_SEND_PATH, this::handle);
+    server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    server.start();
+  }
+
+  URI bulkSendUri() {
+    return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + BULK_SEND_PATH);
+  }
+
+  void rejectNumbers(Set<String> numbers) {
+    this.rejectedNumbers = numbers;
+  }
+
+  void answerWithStatus(int status) {
+    this.status = status;
+  }
+
+  List<JsonNode> requests() {
+    return requests;
+  }
+
+  List<String> authorizations() {
+    return authorizations;
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+    requests.add(request);
+    authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+
+    StringBuilder response = new StringBuilder("{\"results\":[");
+    for (int i = 0; i < request.get("messages").size(); i++) {
+      String to = request.get("messages").get(i).get("to").asText();
+      response.append(i > 0 ? "," : "").append(rejectedNumbers.contains(to)
+              ? "{\"id\":\"" + i + "\",\"status\":\"rejected\",\"error\":\"Invalid number\"}"
+              : "{\"id\":\"" + i + "\",\"status\":\"accepted\"}");
+    }
+    byte[] body = response.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, body.length);
+    exchange.getResponseBody().write(body);
+    exchange.close();
+  }
+}
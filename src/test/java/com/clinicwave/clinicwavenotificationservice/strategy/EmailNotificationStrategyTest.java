@@ -5,21 +5,35 @@ import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEn
 import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
 import com.clinicwave.clinicwavenotificationservice.exception.EmailSendingException;
 import com.clinicwave.clinicwavenotificationservice.exception.TemplateProcessingException;
+import com.clinicwave.clinicwavenotificationservice.mail.MimeBodyBufferPool;
+import com.clinicwave.clinicwavenotificationservice.metrics.NotificationStageMetrics;
 import com.clinicwave.clinicwavenotificationservice.service.SmtpSettingService;
+import com.clinicwave.clinicwavenotificationservice.template.EmailTemplateRenderer;
+import com.clinicwave.clinicwavenotificationservice.template.RenderCacheSettings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Session;
 import jakarta.mail.internet.MimeMessage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.thymeleaf.context.IContext;
 import org.thymeleaf.exceptions.TemplateInputException;
 import org.thymeleaf.spring6.SpringTemplateEngine;
 
+import java.io.ByteArrayOutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -45,16 +59,26 @@ class EmailNotificationStrategyTest {
   @Mock
   private MimeMessage mimeMessage;
 
-  @InjectMocks
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private MimeBodyBufferPool mimeBodyBufferPool;
+
   private EmailNotificationStrategy emailNotificationStrategy;
 
   private NotificationRequestDto notificationRequestDto;
 
   /**
-   * Sets up the test environment by initializing the notification request DTO.
+   * Sets up the test environment by initializing the strategy, with the render cache disabled,
+   * and the notification request DTO.
    */
   @BeforeEach
   void setUp() {
+    RenderCacheSettings renderCacheSettings = new RenderCacheSettings(false, 0, Duration.ZERO, Set.of());
+    EmailTemplateRenderer emailTemplateRenderer = new EmailTemplateRenderer(springTemplateEngine,
+            new DefaultResourceLoader(), renderCacheSettings, new SimpleMeterRegistry());
+    mimeBodyBufferPool = new MimeBodyBufferPool(meterRegistry, 4, 64, 1024);
+    emailNotificationStrategy = new EmailNotificationStrategy(emailTemplateRenderer, smtpSettingService,
+            new NotificationStageMetrics(meterRegistry), mimeBodyBufferPool);
     notificationRequestDto = new NotificationRequestDto(
             "test@example.com",
             "Test Subject",
@@ -76,11 +100,15 @@ class EmailNotificationStrategyTest {
   void testSendSuccessful() {
     when(smtpSettingService.createMailSender()).thenReturn(javaMailSender);
     when(javaMailSender.createMimeMessage()).thenReturn(mimeMessage);
-    when(springTemplateEngine.process(eq("email/test-template"), any())).thenReturn("Processed HTML Content");
+    doAnswer(writeContent("Processed HTML Content")).when(springTemplateEngine)
+            .process(eq("email/test-template"), any(IContext.class), any(Writer.class));
 
     emailNotificationStrategy.send(notificationRequestDto);
 
     verify(javaMailSender, times(1)).send(mimeMessage);
+    assertEquals(1, meterRegistry.get("notification.stage.template-render")
+            .tags("type", "EMAIL", "category", "VERIFICATION", "template", "test-template", "outcome", "success").timer().count());
+    assertEquals(1, meterRegistry.get("notification.stage.mime-message").tag("outcome", "success").timer().count());
   }
 
   @Test
@@ -88,7 +116,8 @@ class EmailNotificationStrategyTest {
   void testSendThrowsEmailSendingException() {
     when(smtpSettingService.createMailSender()).thenReturn(javaMailSender);
     when(javaMailSender.createMimeMessage()).thenReturn(mimeMessage);
-    when(springTemplateEngine.process(eq("email/test-template"), any())).thenReturn("Processed HTML Content");
+    doAnswer(writeContent("Processed HTML Content")).when(springTemplateEngine)
+            .process(eq("email/test-template"), any(IContext.class), any(Writer.class));
     doThrow(new MailSendException("Sending failed")).when(javaMailSender).send(any(MimeMessage.class));
 
     EmailSendingException exception = assertThrows(EmailSendingException.class,
@@ -103,11 +132,112 @@ class EmailNotificationStrategyTest {
   void testSendThrowsTemplateProcessingException() {
     when(smtpSettingService.createMailSender()).thenReturn(javaMailSender);
     when(javaMailSender.createMimeMessage()).thenReturn(mimeMessage);
-    when(springTemplateEngine.process(eq("email/test-template"), any())).thenThrow(new TemplateInputException("Template processing failed"));
+    doThrow(new TemplateInputException("Template processing failed")).when(springTemplateEngine)
+            .process(eq("email/test-template"), any(IContext.class), any(Writer.class));
 
     TemplateProcessingException exception = assertThrows(TemplateProcessingException.class,
             () -> emailNotificationStrategy.send(notificationRequestDto));
     assertTrue(exception.getMessage().contains("test-template"));
     assertTrue(exception.getMessage().contains("Template processing failed"));
+    assertEquals(1, meterRegistry.get("notification.stage.template-render")
+            .tags("outcome", "failure", "exception", "TemplateProcessingException").timer().count());
+  }
+
+  @Test
+  @DisplayName("Test sendAll() - Sends every message in a single call")
+  void testSendAllSendsMessagesTogether() {
+    MimeMessage secondMimeMessage = mock(MimeMessage.class);
+    when(smtpSettingService.createMailSender()).thenReturn(javaMailSender);
+    when(javaMailSender.createMimeMessage()).thenReturn(mimeMessage, secondMimeMessage);
+    doAnswer(writeContent("Processed HTML Content")).when(springTemplateEngine)
+            .process(eq("email/test-template"), any(IContext.class), any(Writer.class));
+
+    List<NotificationResult> results = emailNotificationStrategy.sendAll(List.of(notificationRequestDto, notificationRequestDto));
+
+    verify(javaMailSender, times(1)).send(mimeMessage, secondMimeMessage);
+    assertTrue(results.stream().allMatch(NotificationResult::isSuccess));
+  }
+
+  @Test
+  @DisplayName("Test sendAll() - Fails only the rejected message")
+  void testSendAllFailsOnlyRejectedMessage() {
+    MimeMessage secondMimeMessage = mock(MimeMessage.class);
+    when(smtpSettingService.createMailSender()).thenReturn(javaMailSender);
+    when(javaMailSender.createMimeMessage()).thenReturn(mimeMessage, secondMimeMessage);
+    doAnswer(writeContent("Processed HTML Content")).when(springTemplateEngine)
+            .process(eq("email/test-template"), any(IContext.class), any(Writer.class));
+    doThrow(new MailSendException(Map.of(secondMimeMessage, new MailSendException("Recipient rejected"))))
+            .when(javaMailSender).send(mimeMessage, secondMimeMessage);
+
+    List<NotificationResult> results = emailNotificationStrategy.sendAll(List.of(notificationRequestDto, notificationRequestDto));
+
+    assertTrue(results.get(0).isSuccess());
+    assertInstanceOf(EmailSendingException.class, results.get(1).error());
+    assertTrue(results.get(1).error().getMessage().contains("Recipient rejected"));
+  }
+
+  @Test
+  @DisplayName("Test sendAll() - Fails only the message whose template cannot be processed")
+  void testSendAllFailsOnlyMessageWithTemplateError() {
+    NotificationRequestDto brokenRequestDto = new NotificationRequestDto(
+            "broken@example.com",
+            "Test Subject",
+            "broken-template",
+            Map.of(),
+            NotificationTypeEnum.EMAIL,
+            NotificationCategoryEnum.VERIFICATION
+    );
+    MimeMessage secondMimeMessage = mock(MimeMessage.class);
+    when(smtpSettingService.createMailSender()).thenReturn(javaMailSender);
+    when(javaMailSender.createMimeMessage()).thenReturn(mimeMessage, secondMimeMessage);
+    doAnswer(writeContent("Processed HTML Content")).when(springTemplateEngine)
+            .process(eq("email/test-template"), any(IContext.class), any(Writer.class));
+    doThrow(new TemplateInputException("Template not found")).when(springTemplateEngine)
+            .process(eq("email/broken-template"), any(IContext.class), any(Writer.class));
+
+    List<NotificationResult> results = emailNotificationStrategy.sendAll(List.of(brokenRequestDto, notificationRequestDto));
+
+    assertInstanceOf(TemplateProcessingException.class, results.get(0).error());
+    assertTrue(results.get(1).isSuccess());
+    verify(javaMailSender, times(1)).send(new MimeMessage[]{secondMimeMessage});
+  }
+
+  @Test
+  @DisplayName("Test send() - Streams the rendered template from the body buffer and returns the buffer to the pool")
+  void testSendStreamsRenderedTemplate() throws Exception {
+    MimeMessage realMimeMessage = new MimeMessage((Session) null);
+    when(smtpSettingService.createMailSender()).thenReturn(javaMailSender);
+    when(javaMailSender.createMimeMessage()).thenReturn(realMimeMessage);
+    doAnswer(writeContent("<p>Grüße, Jane</p>")).when(springTemplateEngine)
+            .process(eq("email/test-template"), any(IContext.class), any(Writer.class));
+    ByteArrayOutputStream written = new ByteArrayOutputStream();
+    doAnswer(invocation -> {
+      // Write the message while it is being sent, as the SMTP transport would.
+      MimeMessage sent = invocation.getArgument(0);
+      sent.saveChanges();
+      sent.writeTo(written);
+      return null;
+    }).when(javaMailSender).send(any(MimeMessage.class));
+
+    emailNotificationStrategy.send(notificationRequestDto);
+
+    String message = written.toString(StandardCharsets.US_ASCII);
+    assertTrue(message.contains("Content-Type: text/html; charset=UTF-8"));
+    assertTrue(message.contains("Content-Transfer-Encoding: quoted-printable"));
+    assertTrue(message.contains("<p>Gr=C3=BC=C3=9Fe, Jane</p>"));
+    assertEquals(1.0, meterRegistry.get("notification.mail.body-buffer.idle").gauge().value());
+  }
+
+  /**
+   * Returns an answer that writes the given content to the Writer passed to the template engine.
+   *
+   * @param content The rendered content.
+   * @return The answer.
+   */
+  private static Answer<Void> writeContent(String content) {
+    return invocation -> {
+      invocation.<Writer>getArgument(2).write(content);
+      return null;
+    };
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,152 @@
+package com.clinicwave.clinicwavenotificationservice.strategy;
+
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
+import com.clinicwave.clinicwavenotificationservice.exception.SmsSendingException;
+import com.clinicwave.clinicwavenotificationservice.exception.TemplateProcessingException;
+import com.clinicwave.clinicwavenotificationservice.metrics.NotificationStageMetrics;
+import com.clinicwave.clinicwavenotificationservice.sms.SmsMessage;
+import com.clinicwave.clinicwavenotificationservice.sms.SmsProviderClient;
+import com.clinicwave.clinicwavenotificationservice.template.SmsTemplateRenderer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.thymeleaf.context.IContext;
+import org.thymeleaf.exceptions.TemplateInputException;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class tests the SmsNotificationStrategy class.
+ *
+ * @author agent on 10/18/26
+ */
+@ExtendWith(MockitoExtension.class)
+class SmsNotificationStrategyTest {
+  @Mock
+  private SpringTemplateEngine springTemplateEngine;
+
+  @Mock
+  private SmsProviderClient smsProviderClient;
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private SmsNotificationStrategy smsNotificationStrategy;
+
+  private NotificationRequestDto notificationRequestDto;
+
+  /**
+   * Sets up the test environment by initializing the strategy and the notification request DTO.
+   */
+  @BeforeEach
+  void setUp() {
+    smsNotificationStrategy = new SmsNotificationStrategy(new SmsTemplateRenderer(springTemplateEngine),
+            smsProviderClient, new NotificationStageMetrics(meterRegistry));
+    lenient().when(smsProviderClient.getSendTimeout()).thenReturn(Duration.ofSeconds(5));
+    notificationRequestDto = new NotificationRequestDto(
+            "+14155550100",
+            "Verification",
+            "phone-verification",
+            Map.of("verificationCode", "123456"),
+            NotificationTypeEnum.SMS,
+            NotificationCategoryEnum.VERIFICATION
+    );
+  }
+
+  @Test
+  @DisplayName("Test getType()")
+  void testGetType() {
+    assertEquals(NotificationTypeEnum.SMS, smsNotificationStrategy.getType());
+  }
+
+  @Test
+  @DisplayName("Test send() - Successful")
+  void testSendSuccessful() {
+    when(springTemplateEngine.process(eq("sms/phone-verification"), any(IContext.class))).thenReturn("Code 123456\n");
+    when(smsProviderClient.send(any(SmsMessage.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+    smsNotificationStrategy.send(notificationRequestDto);
+
+    verify(smsProviderClient, times(1)).send(new SmsMessage("+14155550100", "Code 123456"));
+    assertEquals(1, meterRegistry.get("notification.stage.template-render")
+            .tags("type", "SMS", "template", "phone-verification", "outcome", "success").timer().count());
+  }
+
+  @Test
+  @DisplayName("Test send() - Throws SmsSendingException")
+  void testSendThrowsSmsSendingException() {
+    when(springTemplateEngine.process(eq("sms/phone-verification"), any(IContext.class))).thenReturn("Code 123456");
+    when(smsProviderClient.send(any(SmsMessage.class))).thenReturn(CompletableFuture.failedFuture(
+            new SmsSendingException("stub", "+14155550100", "Invalid number")));
+
+    SmsSendingException exception = assertThrows(SmsSendingException.class,
+            () -> smsNotificationStrategy.send(notificationRequestDto));
+    assertTrue(exception.getMessage().contains("+14155550100"));
+    assertTrue(exception.getMessage().contains("Invalid number"));
+  }
+
+  @Test
+  @DisplayName("Test submit() - Returns before the provider answers and fails once the send timeout passed")
+  void testSubmitFailsAfterSendTimeout() {
+    when(springTemplateEngine.process(eq("sms/phone-verification"), any(IContext.class))).thenReturn("Code 123456");
+    when(smsProviderClient.send(any(SmsMessage.class))).thenReturn(new CompletableFuture<>());
+    when(smsProviderClient.getSendTimeout()).thenReturn(Duration.ofMillis(50));
+    when(smsProviderClient.getProviderName()).thenReturn("stub");
+
+    CompletableFuture<Void> submitted = smsNotificationStrategy.submit(notificationRequestDto);
+
+    assertFalse(submitted.isDone());
+    CompletionException exception = assertThrows(CompletionException.class, submitted::join);
+    assertInstanceOf(SmsSendingException.class, exception.getCause());
+    assertTrue(exception.getCause().getMessage().contains("did not answer"));
+  }
+
+  @Test
+  @DisplayName("Test send() - Throws TemplateProcessingException")
+  void testSendThrowsTemplateProcessingException() {
+    when(springTemplateEngine.process(eq("sms/phone-verification"), any(IContext.class)))
+            .thenThrow(new TemplateInputException("Template processing failed"));
+
+    TemplateProcessingException exception = assertThrows(TemplateProcessingException.class,
+            () -> smsNotificationStrategy.send(notificationRequestDto));
+    assertTrue(exception.getMessage().contains("phone-verification"));
+    verifyNoInteractions(smsProviderClient);
+  }
+
+  @Test
+  @DisplayName("Test sendAll() - Isolates template and provider failures per notification")
+  void testSendAllIsolatesFailures() {
+    NotificationRequestDto rejected = new NotificationRequestDto("+14155550101", "Verification", "phone-verification",
+            Map.of("verificationCode", "654321"), NotificationTypeEnum.SMS, NotificationCategoryEnum.VERIFICATION);
+    NotificationRequestDto unrenderable = new NotificationRequestDto("+14155550102", "Verification", "missing",
+            Map.of(), NotificationTypeEnum.SMS, NotificationCategoryEnum.VERIFICATION);
+    when(springTemplateEngine.process(eq("sms/phone-verification"), any(IContext.class))).thenReturn("Code");
+    when(springTemplateEngine.process(eq("sms/missing"), any(IContext.class)))
+            .thenThrow(new TemplateInputException("Template not found"));
+    when(smsProviderClient.sendAll(List.of(new SmsMessage("+14155550100", "Code"), new SmsMessage("+14155550101", "Code"))))
+            .thenReturn(List.of(CompletableFuture.completedFuture(null),
+                    CompletableFuture.failedFuture(new SmsSendingException("stub", "+14155550101", "Invalid number"))));
+
+    List<NotificationResult> results = smsNotificationStrategy.sendAll(List.of(notificationRequestDto, rejected, unrenderable));
+
+    assertEquals(3, results.size());
+    assertTrue(results.get(0).isSuccess());
+    assertInstanceOf(SmsSendingException.class, results.get(1).error());
+    assertInstanceOf(TemplateProcessingException.class, results.get(2).error());
+  }
+}
@@ -0,0 +1,152 @@
+package com.clinicwave.clinicwavenotificationservice.template;
+
+import com.clinicwave.clinicwavenotificationservice.exception.TemplateProcessingException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.thymeleaf.context.IContext;
+import org.thymeleaf.exceptions.TemplateInputException;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+import java.io.StringWriter;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class tests the EmailTemplateRenderer class.
+ *
+ * @author agent on 10/18/26
+ */
+@ExtendWith(MockitoExtension.class)
+class EmailTemplateRendererTest {
+  private static final String TEMPLATE_NAME = "email-verification";
+
+  @Mock
+  private SpringTemplateEngine springTemplateEngine;
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private EmailTemplateRenderer createRenderer(int maxSize, Set<String> excludedTemplates) {
+    RenderCacheSettings renderCacheSettings = new RenderCacheSettings(true, maxSize, Duration.ofHours(1), excludedTemplates);
+    return new EmailTemplateRenderer(springTemplateEngine, new DefaultResourceLoader(), renderCacheSettings, meterRegistry);
+  }
+
+  private double cacheLookups(String result) {
+    return meterRegistry.get("notification.template.render-cache").tag("result", result).counter().count();
+  }
+
+  @Test
+  @DisplayName("render reuses the rendering of identical variables")
+  void renderReusesRenderingOfIdenticalVariables() {
+    when(springTemplateEngine.process(eq("email/" + TEMPLATE_NAME), any(IContext.class))).thenReturn("Rendered");
+    EmailTemplateRenderer emailTemplateRenderer = createRenderer(10, Set.of());
+    Map<String, Object> reordered = new LinkedHashMap<>();
+    reordered.put("b", 2);
+    reordered.put("a", 1);
+
+    assertEquals("Rendered", emailTemplateRenderer.render(TEMPLATE_NAME, Map.of("a", 1, "b", 2)));
+    assertEquals("Rendered", emailTemplateRenderer.render(TEMPLATE_NAME, reordered));
+
+    verify(springTemplateEngine, times(1)).process(eq("email/" + TEMPLATE_NAME), any(IContext.class));
+    assertEquals(1, cacheLookups("hit"));
+    assertEquals(1, cacheLookups("miss"));
+  }
+
+  @Test
+  @DisplayName("render renders different variables separately")
+  void renderRendersDifferentVariablesSeparately() {
+    when(springTemplateEngine.process(eq("email/" + TEMPLATE_NAME), any(IContext.class))).thenReturn("First", "Second");
+    EmailTemplateRenderer emailTemplateRenderer = createRenderer(10, Set.of());
+
+    assertEquals("First", emailTemplateRenderer.render(TEMPLATE_NAME, Map.of("userName", "Alice")));
+    assertEquals("Second", emailTemplateRenderer.render(TEMPLATE_NAME, Map.of("userName", "Bob")));
+
+    assertEquals(2, cacheLookups("miss"));
+  }
+
+  @Test
+  @DisplayName("render never caches excluded templates")
+  void renderNeverCachesExcludedTemplates() {
+    when(springTemplateEngine.process(eq("email/" + TEMPLATE_NAME), any(IContext.class))).thenReturn("Rendered");
+    EmailTemplateRenderer emailTemplateRenderer = createRenderer(10, Set.of(TEMPLATE_NAME));
+
+    emailTemplateRenderer.render(TEMPLATE_NAME, Map.of("verificationCode", "123456"));
+    emailTemplateRenderer.render(TEMPLATE_NAME, Map.of("verificationCode", "123456"));
+
+    verify(springTemplateEngine, times(2)).process(eq("email/" + TEMPLATE_NAME), any(IContext.class));
+    assertEquals(0, emailTemplateRenderer.getCacheSize());
+  }
+
+  @Test
+  @DisplayName("render evicts the least recently used rendering beyond the maximum size")
+  void renderEvictsLeastRecentlyUsedRendering() {
+    when(springTemplateEngine.process(eq("email/" + TEMPLATE_NAME), any(IContext.class))).thenReturn("Rendered");
+    EmailTemplateRenderer emailTemplateRenderer = createRenderer(2, Set.of());
+
+    emailTemplateRenderer.render(TEMPLATE_NAME, Map.of("n", 1));
+    emailTemplateRenderer.render(TEMPLATE_NAME, Map.of("n", 2));
+    emailTemplateRenderer.render(TEMPLATE_NAME, Map.of("n", 1));
+    emailTemplateRenderer.render(TEMPLATE_NAME, Map.of("n", 3));
+    emailTemplateRenderer.render(TEMPLATE_NAME, Map.of("n", 1));
+
+    assertEquals(2, emailTemplateRenderer.getCacheSize());
+    assertEquals(2, cacheLookups("hit"));
+    assertEquals(1, meterRegistry.get("notification.template.render-cache.evictions").counter().count());
+  }
+
+  @Test
+  @DisplayName("render throws TemplateProcessingException for a missing template")
+  void renderThrowsTemplateProcessingExceptionForMissingTemplate() {
+    when(springTemplateEngine.process(eq("email/missing-template"), any(IContext.class)))
+            .thenThrow(new TemplateInputException("Template not found"));
+    EmailTemplateRenderer emailTemplateRenderer = createRenderer(10, Set.of());
+
+    TemplateProcessingException exception = assertThrows(TemplateProcessingException.class,
+            () -> emailTemplateRenderer.render("missing-template", Map.of()));
+    assertEquals(0, emailTemplateRenderer.getCacheSize());
+    assertEquals("Failed to process email template 'missing-template'. Error: Template not found", exception.getMessage());
+  }
+
+  @Test
+  @DisplayName("render streams excluded templates straight into the writer")
+  void renderStreamsExcludedTemplatesIntoWriter() {
+    doAnswer(invocation -> {
+      invocation.<Writer>getArgument(2).write("Streamed");
+      return null;
+    }).when(springTemplateEngine).process(eq("email/" + TEMPLATE_NAME), any(IContext.class), any(Writer.class));
+    EmailTemplateRenderer emailTemplateRenderer = createRenderer(10, Set.of(TEMPLATE_NAME));
+    StringWriter writer = new StringWriter();
+
+    emailTemplateRenderer.render(TEMPLATE_NAME, Map.of("userName", "Alice"), writer);
+
+    assertEquals("Streamed", writer.toString());
+    verify(springTemplateEngine, never()).process(eq("email/" + TEMPLATE_NAME), any(IContext.class));
+  }
+
+  @Test
+  @DisplayName("render writes cached renderings into the writer")
+  void renderWritesCachedRenderingsIntoWriter() {
+    when(springTemplateEngine.process(eq("email/" + TEMPLATE_NAME), any(IContext.class))).thenReturn("Rendered");
+    EmailTemplateRenderer emailTemplateRenderer = createRenderer(10, Set.of());
+    StringWriter writer = new StringWriter();
+
+    emailTemplateRenderer.render(TEMPLATE_NAME, Map.of("userName", "Alice"), writer);
+    emailTemplateRenderer.render(TEMPLATE_NAME, Map.of("userName", "Alice"), writer);
+
+    assertEquals("RenderedRendered", writer.toString());
+    assertEquals(1, cacheLookups("hit"));
+  }
+}
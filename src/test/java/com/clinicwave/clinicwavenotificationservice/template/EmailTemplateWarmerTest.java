@@ -0,0 +1,69 @@
+package com.clinicwave.clinicwavenotificationservice.template;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.thymeleaf.context.IContext;
+import org.thymeleaf.exceptions.TemplateInputException;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class tests the EmailTemplateWarmer class.
+ *
+ * @author agent on 10/18/26
+ */
+@ExtendWith(MockitoExtension.class)
+class EmailTemplateWarmerTest {
+  @Mock
+  private SpringTemplateEngine springTemplateEngine;
+
+  private final PathMatchingResourcePatternResolver resourcePatternResolver = new PathMatchingResourcePatternResolver();
+
+  @Test
+  @DisplayName("findTemplateNames lists the email templates without directory and extension")
+  void findTemplateNamesListsEmailTemplates() throws IOException {
+    EmailTemplateWarmer emailTemplateWarmer = new EmailTemplateWarmer(springTemplateEngine, resourcePatternResolver, true);
+
+    assertTrue(emailTemplateWarmer.findTemplateNames().contains("email-verification"));
+  }
+
+  @Test
+  @DisplayName("warmUp renders every email template")
+  void warmUpRendersEveryEmailTemplate() throws IOException {
+    EmailTemplateWarmer emailTemplateWarmer = new EmailTemplateWarmer(springTemplateEngine, resourcePatternResolver, true);
+
+    emailTemplateWarmer.warmUp();
+
+    verify(springTemplateEngine).process(eq("email/email-verification"), any(IContext.class));
+  }
+
+  @Test
+  @DisplayName("warmUp skips templates that fail to render")
+  void warmUpSkipsTemplatesThatFailToRender() {
+    when(springTemplateEngine.process(any(String.class), any(IContext.class))).thenThrow(new TemplateInputException("Broken template"));
+    EmailTemplateWarmer emailTemplateWarmer = new EmailTemplateWarmer(springTemplateEngine, resourcePatternResolver, true);
+
+    assertDoesNotThrow(emailTemplateWarmer::warmUp);
+  }
+
+  @Test
+  @DisplayName("warmUp does nothing when disabled")
+  void warmUpDoesNothingWhenDisabled() throws IOException {
+    EmailTemplateWarmer emailTemplateWarmer = new EmailTemplateWarmer(springTemplateEngine, resourcePatternResolver, false);
+
+    emailTemplateWarmer.warmUp();
+
+    verifyNoInteractions(springTemplateEngine);
+  }
+}
@@ -0,0 +1,57 @@
+package com.clinicwave.clinicwavenotificationservice.template;
+
+import com.clinicwave.clinicwavenotificationservice.config.TemplateEngineConfig;
+import com.clinicwave.clinicwavenotificationservice.exception.TemplateProcessingException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.thymeleaf.context.IContext;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * This class tests the SmsTemplateRenderer class against the templates shipped with the service, resolved
+ * by the template engine of TemplateEngineConfig.
+ *
+ * @author agent on 10/18/26
+ */
+class SmsTemplateRendererTest {
+  private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+          .withInitializer(context -> context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance()))
+          .withUserConfiguration(TemplateEngineConfig.class, SmsTemplateRenderer.class);
+
+  @Test
+  @DisplayName("render renders the plain-text template without escaping or the trailing line break")
+  void renderRendersPlainText() {
+    contextRunner.run(context -> assertEquals(
+            "ClinicWave: 12<34> is your verification code. Do not share it with anyone.",
+            context.getBean(SmsTemplateRenderer.class).render("phone-verification", Map.of("verificationCode", "12<34>"))));
+  }
+
+  @Test
+  @DisplayName("render throws TemplateProcessingException for a missing template")
+  void renderThrowsForMissingTemplate() {
+    contextRunner.run(context -> assertThrows(TemplateProcessingException.class,
+            () -> context.getBean(SmsTemplateRenderer.class).render("missing", Map.of())));
+  }
+
+  @Test
+  @DisplayName("render throws TemplateProcessingException when an expression of the template fails")
+  void renderThrowsForFailingExpression() {
+    SpringTemplateEngine springTemplateEngine = mock(SpringTemplateEngine.class);
+    when(springTemplateEngine.process(eq("sms/phone-verification"), any(IContext.class)))
+            .thenThrow(new org.thymeleaf.exceptions.TemplateProcessingException("Exception evaluating SpringEL expression"));
+
+    assertThrows(TemplateProcessingException.class,
+            () -> new SmsTemplateRenderer(springTemplateEngine).render("phone-verification", Map.of()));
+  }
+}
@@ -0,0 +1,107 @@
+package com.clinicwave.clinicwavenotificationservice.web;
+
+import com.clinicwave.clinicwavenotificationservice.dto.NotificationRequestDto;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationTypeEnum;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class contains unit tests for the WebNotificationBroadcaster class.
+ *
+ * @author agent on 10/18/26
+ */
+@ExtendWith(MockitoExtension.class)
+class WebNotificationBroadcasterTest {
+  private static final String TOPIC = "notification-web-topic";
+
+  @Mock
+  private KafkaTemplate<String, Object> kafkaTemplate;
+
+  @Mock
+  private WebNotificationHub webNotificationHub;
+
+  private WebNotificationBroadcaster webNotificationBroadcaster;
+
+  /**
+   * Sets up the test environment before each test.
+   */
+  @BeforeEach
+  void setUp() {
+    webNotificationBroadcaster = new WebNotificationBroadcaster(kafkaTemplate, webNotificationHub, TOPIC, Duration.ofSeconds(1));
+  }
+
+  private static NotificationRequestDto createNotificationRequestDto() {
+    return new NotificationRequestDto("Portal-User@example.com", "Lab results ready", "lab-results",
+            Map.of("resultId", "r-1"), NotificationTypeEnum.WEB, NotificationCategoryEnum.GENERAL, "key-1", "tracking-1");
+  }
+
+  @Test
+  @DisplayName("broadcast writes the notification without its template variables, keyed by recipient")
+  @SuppressWarnings("unchecked")
+  void broadcastWritesNotificationWithoutTemplateVariables() {
+    when(kafkaTemplate.send(eq(TOPIC), eq("portal-user@example.com"), any()))
+            .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+    webNotificationBroadcaster.broadcast(createNotificationRequestDto());
+
+    ArgumentCaptor<Object> sent = ArgumentCaptor.forClass(Object.class);
+    verify(kafkaTemplate).send(eq(TOPIC), eq("portal-user@example.com"), sent.capture());
+    NotificationRequestDto broadcastDto = (NotificationRequestDto) sent.getValue();
+    assertNull(broadcastDto.templateVariables());
+    assertEquals("Lab results ready", broadcastDto.subject());
+    assertEquals("tracking-1", broadcastDto.trackingId());
+  }
+
+  @Test
+  @DisplayName("broadcast throws KafkaException when the broker does not acknowledge the notification")
+  void broadcastThrowsWhenSendFails() {
+    when(kafkaTemplate.send(eq(TOPIC), eq("portal-user@example.com"), any()))
+            .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Broker unavailable")));
+
+    assertThrows(KafkaException.class, () -> webNotificationBroadcaster.broadcast(createNotificationRequestDto()));
+  }
+
+  @Test
+  @DisplayName("receive publishes the notification to the hub with its offset as the event ID")
+  void receivePublishesWithOffsetAsEventId() {
+    ConsumerRecord<String, NotificationRequestDto> consumerRecord = new ConsumerRecord<>(TOPIC, 0, 41, 1_000L,
+            TimestampType.CREATE_TIME, 0, 0, "portal-user@example.com", createNotificationRequestDto(),
+            new RecordHeaders(), Optional.empty());
+
+    webNotificationBroadcaster.receive(consumerRecord);
+
+    verify(webNotificationHub).publish("Portal-User@example.com", new WebNotification(42, "Lab results ready",
+            "lab-results", NotificationCategoryEnum.GENERAL, Instant.ofEpochMilli(1_000L)));
+  }
+
+  @Test
+  @DisplayName("receive skips records that could not be deserialized")
+  void receiveSkipsUndeserializableRecords() {
+    webNotificationBroadcaster.receive(new ConsumerRecord<>(TOPIC, 0, 0, "portal-user@example.com", null));
+
+    verifyNoInteractions(webNotificationHub);
+  }
+}
@@ -0,0 +1,63 @@
+package com.clinicwave.clinicwavenotificationservice.web;
+
+import com.clinicwave.clinicwavenotificationservice.enums.NotificationCategoryEnum;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the WebNotificationRingBuffer class.
+ *
+ * @author agent on 10/18/26
+ */
+class WebNotificationRingBufferTest {
+  private static WebNotification notification(long id) {
+    return new WebNotification(id, "Subject " + id, "template", NotificationCategoryEnum.GENERAL, Instant.now());
+  }
+
+  private static List<Long> ids(List<WebNotification> notifications) {
+    return notifications.stream().map(WebNotification::id).toList();
+  }
+
+  @Test
+  @DisplayName("since returns the buffered notifications after the given ID, oldest first")
+  void sinceReturnsNotificationsAfterId() {
+    WebNotificationRingBuffer buffer = new WebNotificationRingBuffer(5);
+    buffer.add(notification(10));
+    buffer.add(notification(12));
+    buffer.add(notification(17));
+
+    assertEquals(List.of(10L, 12L, 17L), ids(buffer.since(0)));
+    assertEquals(List.of(17L), ids(buffer.since(12)));
+    assertEquals(List.of(), ids(buffer.since(17)));
+    assertEquals(17, buffer.latestId());
+  }
+
+  @Test
+  @DisplayName("a full buffer overwrites its oldest notification and reports the gap to callers resuming before it")
+  void fullBufferOverwritesOldest() {
+    WebNotificationRingBuffer buffer = new WebNotificationRingBuffer(3);
+    for (long id = 1; id <= 5; id++) {
+      buffer.add(notification(id));
+    }
+
+    assertEquals(List.of(3L, 4L, 5L), ids(buffer.since(0)));
+    assertEquals(5, buffer.latestId());
+    assertTrue(buffer.hasOverwrittenSince(1));
+    assertFalse(buffer.hasOverwrittenSince(2));
+  }
+
+  @Test
+  @DisplayName("an empty buffer has no notifications and a latest ID of 0")
+  void emptyBuffer() {
+    WebNotificationRingBuffer buffer = new WebNotificationRingBuffer(3);
+
+    assertTrue(buffer.since(0).isEmpty());
+    assertEquals(0, buffer.latestId());
+    assertThrows(IllegalArgumentException.class, () -> new WebNotificationRingBuffer(0));
+  }
+}